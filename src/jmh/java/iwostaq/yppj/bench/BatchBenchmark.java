@@ -0,0 +1,109 @@
+package iwostaq.yppj.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import iwostaq.yppj.EventBuffer;
+import iwostaq.yppj.YangPullParser;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangPullParserImpl;
+import iwostaq.yppj.YangPushParser;
+import iwostaq.yppj.YangPushParser.StatementHandler;
+
+/**
+ * Compares reading the events one by one through the getters with reading them in batches from the
+ * arrays of an EventBuffer, and with receiving them in the callbacks of YangPushParser.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+
+  private ByteBuffer module;
+  private EventBuffer buffer;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < 10000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l {\n      type inet:ip-address;\n")
+          .append("      description \"a leaf in a generated module\";\n    }\n  }\n");
+    }
+    this.module = ByteBuffer.wrap(sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+    this.buffer = new EventBuffer();
+  }
+
+  @Benchmark
+  public void events(Blackhole blackhole) throws Exception {
+    YangPullParser ypp = YangPullParserImpl.fromBytes(this.module);
+    EventType eventType;
+    while ((eventType = ypp.next()) != EventType.END_MODULE) {
+      blackhole.consume(eventType);
+      blackhole.consume(ypp.getStatementType());
+      blackhole.consume(ypp.getDepth());
+      blackhole.consume(ypp.getNamespace());
+      blackhole.consume(ypp.getIdentifier());
+      blackhole.consume(ypp.getArgumentChars());
+    }
+  }
+
+  @Benchmark
+  public void batches(Blackhole blackhole) throws Exception {
+    YangPullParser ypp = YangPullParserImpl.fromBytes(this.module);
+    EventBuffer buf = this.buffer;
+    int n;
+    while ((n = ypp.nextBatch(buf)) != 0) {
+      int[] eventTypes = buf.getEventTypes();
+      int[] statementTypes = buf.getStatementTypes();
+      int[] depths = buf.getDepths();
+      int[] namespaceIds = buf.getNamespaceIds();
+      int[] identifierIds = buf.getIdentifierIds();
+      int[] argumentLengths = buf.getArgumentLengths();
+      for (int i = 0; i < n; i++) {
+        blackhole.consume(eventTypes[i]);
+        blackhole.consume(statementTypes[i]);
+        blackhole.consume(depths[i]);
+        blackhole.consume(namespaceIds[i]);
+        blackhole.consume(identifierIds[i]);
+        blackhole.consume(argumentLengths[i]);
+      }
+    }
+  }
+
+  @Benchmark
+  public void push(Blackhole blackhole) throws Exception {
+    YangPushParser.parse(this.module, new StatementHandler() {
+      @Override
+      public void startStatement(StatementType statementType, CharSequence namespace,
+          CharSequence identifier, CharSequence argument, int depth) {
+        blackhole.consume(statementType);
+        blackhole.consume(depth);
+        blackhole.consume(namespace);
+        blackhole.consume(identifier);
+        blackhole.consume(argument);
+      }
+
+      @Override
+      public void endStatement(StatementType statementType, CharSequence namespace,
+          CharSequence identifier, CharSequence argument, int depth) {
+        blackhole.consume(statementType);
+        blackhole.consume(depth);
+      }
+    });
+  }
+}
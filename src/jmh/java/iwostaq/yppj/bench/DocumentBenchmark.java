@@ -0,0 +1,54 @@
+package iwostaq.yppj.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import iwostaq.yppj.YangDocument;
+
+/**
+ * Compares parsing the whole text of a module after an edit with parsing only the edited statement
+ * by YangDocument.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark {
+
+  private String text;
+  private YangDocument document;
+  private int offset;
+
+  @Setup
+  public void setUp() throws Exception {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < 10000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l {\n      type inet:ip-address;\n")
+          .append("      description \"a leaf in a generated module\";\n    }\n  }\n");
+    }
+    this.text = sb.append("}\n").toString();
+    this.document = YangDocument.parse(this.text);
+    this.offset = this.text.indexOf("a leaf", this.text.indexOf("c5000 "));
+  }
+
+  @Benchmark
+  public YangDocument parse() throws Exception {
+    String edited = this.text.substring(0, this.offset) + "x" + this.text.substring(this.offset);
+    return YangDocument.parse(edited);
+  }
+
+  @Benchmark
+  public YangDocument edit() throws Exception {
+    return this.document.edit(this.offset, 0, "x");
+  }
+}
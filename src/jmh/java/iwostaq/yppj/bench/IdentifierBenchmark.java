@@ -0,0 +1,95 @@
+package iwostaq.yppj.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import iwostaq.yppj.SymbolTable;
+import iwostaq.yppj.YangSyntax;
+
+/**
+ * Compares the regular expressions used to split node identifiers and to check dates with the
+ * hand-written scanning in YangSyntax.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifierBenchmark {
+
+  private static final Pattern PATTERN_DATE = Pattern.compile("\\d{4}\\-\\d\\d\\-\\d\\d");
+  private static final Pattern PATTERN_IDTF =
+      Pattern.compile("(?:(?<ns>[A-Za-z_][\\w_\\-\\.]*):)?(?<id>[A-Za-z_][\\w_\\-\\.]*)");
+
+  private String[] identifiers;
+  private String[] dates;
+  private SymbolTable symbolTable;
+
+  @Setup
+  public void setUp() {
+    this.identifiers = new String[] {"interfaces", "if:interface-ref", "string", "inet:ip-address",
+        "enabled", "oc-types:counter64", "name", "yang:date-and-time"};
+    this.dates = new String[] {"2017-01-01", "2018-02-20", "2014-05-08", "2013-07-15"};
+    this.symbolTable = new SymbolTable();
+  }
+
+  @Benchmark
+  public void identifierWithRegex(Blackhole blackhole) {
+    for (String identifier : this.identifiers) {
+      Matcher m = IdentifierBenchmark.PATTERN_IDTF.matcher(identifier);
+      if (m.find()) {
+        blackhole.consume(m.group("ns"));
+        blackhole.consume(m.group("id"));
+      }
+    }
+  }
+
+  @Benchmark
+  public void identifierWithScanner(Blackhole blackhole) {
+    for (String identifier : this.identifiers) {
+      int length = identifier.length();
+      for (int start = 0; start < length; start++) {
+        if (!YangSyntax.isIdentifierStartChar(identifier.charAt(start))) {
+          continue;
+        }
+        int end = YangSyntax.skipIdentifierChars(identifier, start + 1);
+        if (end + 1 < length && identifier.charAt(end) == ':'
+            && YangSyntax.isIdentifierStartChar(identifier.charAt(end + 1))) {
+          int idEnd = YangSyntax.skipIdentifierChars(identifier, end + 2);
+          blackhole.consume(this.symbolTable.intern(identifier, start, end - start));
+          blackhole.consume(this.symbolTable.intern(identifier, end + 1, idEnd - end - 1));
+        } else {
+          blackhole.consume((Object) null);
+          blackhole.consume(identifier);
+        }
+        break;
+      }
+    }
+  }
+
+  @Benchmark
+  public void dateWithRegex(Blackhole blackhole) {
+    for (String date : this.dates) {
+      blackhole.consume(IdentifierBenchmark.PATTERN_DATE.matcher(date).matches());
+    }
+  }
+
+  @Benchmark
+  public void dateWithScanner(Blackhole blackhole) {
+    for (String date : this.dates) {
+      blackhole.consume(YangSyntax.isDateString(date));
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package iwostaq.yppj.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import iwostaq.yppj.YangPullParser;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParserImpl;
+import iwostaq.yppj.YangPullParserImpl.LexerEngine;
+
+/**
+ * Compares parsing a module read through a Reader with parsing the UTF-8 bytes of the module,
+ * decoded in bulk or scanned as bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+
+  private byte[] module;
+  private ByteBuffer directModule;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < 10000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l {\n      type inet:ip-address;\n")
+          .append("      description \"a leaf in a generated module\";\n    }\n  }\n");
+    }
+    this.module = sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+    this.directModule = ByteBuffer.allocateDirect(this.module.length);
+    this.directModule.put(this.module);
+    this.directModule.flip();
+  }
+
+  private static void parse(YangPullParser ypp, Blackhole blackhole) throws Exception {
+    while (ypp.next() != EventType.END_MODULE) {
+      blackhole.consume(ypp.getIdentifier());
+      blackhole.consume(ypp.getArgument());
+    }
+  }
+
+  @Benchmark
+  public void reader(Blackhole blackhole) throws Exception {
+    InputBenchmark.parse(new YangPullParserImpl(new InputStreamReader(
+        new ByteArrayInputStream(this.module), StandardCharsets.UTF_8)), blackhole);
+  }
+
+  @Benchmark
+  public void decodedBytes(Blackhole blackhole) throws Exception {
+    InputBenchmark.parse(YangPullParserImpl.fromBytes(this.directModule, LexerEngine.SCANNER),
+        blackhole);
+  }
+
+  @Benchmark
+  public void scannedBytes(Blackhole blackhole) throws Exception {
+    InputBenchmark.parse(YangPullParserImpl.fromBytes(this.directModule), blackhole);
+  }
+}
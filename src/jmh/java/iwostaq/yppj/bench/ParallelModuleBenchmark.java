@@ -0,0 +1,62 @@
+package iwostaq.yppj.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import iwostaq.yppj.ParallelModuleParser;
+import iwostaq.yppj.YangPullParser;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParserImpl;
+
+/**
+ * Compares parsing a large module sequentially with parsing its top-level statements in parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelModuleBenchmark {
+
+  private ByteBuffer module;
+
+  @Setup
+  public void setUp() throws Exception {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < 100000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l {\n      type inet:ip-address;\n")
+          .append("      description \"a leaf in a generated module\";\n    }\n  }\n");
+    }
+    this.module = ByteBuffer.wrap(sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void read(YangPullParser ypp, Blackhole blackhole) throws Exception {
+    while (ypp.next() != EventType.END_MODULE) {
+      blackhole.consume(ypp.getStatementType());
+      blackhole.consume(ypp.getIdentifier());
+      blackhole.consume(ypp.getArgument());
+    }
+  }
+
+  @Benchmark
+  public void sequential(Blackhole blackhole) throws Exception {
+    ParallelModuleBenchmark.read(YangPullParserImpl.fromBytes(this.module), blackhole);
+  }
+
+  @Benchmark
+  public void parallel(Blackhole blackhole) throws Exception {
+    ParallelModuleBenchmark.read(new ParallelModuleParser(this.module), blackhole);
+  }
+}
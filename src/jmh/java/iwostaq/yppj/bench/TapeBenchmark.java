@@ -0,0 +1,64 @@
+package iwostaq.yppj.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import iwostaq.yppj.EventTape;
+import iwostaq.yppj.YangPullParser;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParserImpl;
+
+/**
+ * Compares parsing a module again with replaying the events recorded in an EventTape.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TapeBenchmark {
+
+  private ByteBuffer module;
+  private EventTape tape;
+
+  @Setup
+  public void setUp() throws Exception {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < 10000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l {\n      type inet:ip-address;\n")
+          .append("      description \"a leaf in a generated module\";\n    }\n  }\n");
+    }
+    this.module = ByteBuffer.wrap(sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+    this.tape = EventTape.record(YangPullParserImpl.fromBytes(this.module));
+  }
+
+  private static void read(YangPullParser ypp, Blackhole blackhole) throws Exception {
+    while (ypp.next() != EventType.END_MODULE) {
+      blackhole.consume(ypp.getStatementType());
+      blackhole.consume(ypp.getIdentifier());
+      blackhole.consume(ypp.getArgument());
+    }
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) throws Exception {
+    TapeBenchmark.read(YangPullParserImpl.fromBytes(this.module), blackhole);
+  }
+
+  @Benchmark
+  public void replay(Blackhole blackhole) throws Exception {
+    TapeBenchmark.read(this.tape.newParser(), blackhole);
+  }
+}
@@ -0,0 +1,565 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A non-blocking parser of which input is fed in chunks, e.g. the buffers read from a channel of
+ * NIO.
+ *
+ * <p>
+ * The module encoded in UTF-8 is fed with feedInput(), and endOfInput() is called after the last
+ * chunk. A chunk may end at any byte, e.g. in the middle of a string or of a multi-byte character.
+ * next() never blocks; it returns INCOMPLETE when the input fed so far is not enough to read the
+ * next event, and it can be called again after more input is fed.
+ * </p>
+ *
+ * <p>
+ * The events are read by YangPullParserImpl with the hand-written scanner. The parser reads the
+ * tokens of an event only up to the ';', '{' or '}' ending it, so the fed chars are pre-scanned
+ * for those delimiters in the same way as YangScanner, skipping strings and comments, and the
+ * parser is resumed only when the delimiter of the next event has been fed. The scanner and the
+ * parser are thus suspended between the chunks as they are, and no token is scanned twice by the
+ * parser.
+ * </p>
+ */
+public class AsyncYangPullParser implements YangPullParser {
+
+  private static final int INITIAL_BUFFER_SIZE = 8192;
+
+  private final CharsetDecoder decoder;
+  /** The bytes at the end of the last chunk which do not make a char yet. */
+  private ByteBuffer remainder;
+  private boolean ended;
+  private CharacterCodingException inputError;
+
+  /** The chars fed and not read by the scanner or not pre-scanned yet. */
+  private char[] chars;
+  private int limit;
+  private int readPos;
+  /** The start of the token being pre-scanned. */
+  private int scanPos;
+  /** The position in the token from which the pre-scan continues. */
+  private int scanResume;
+
+  /** The number of the delimiters pre-scanned, and the number of them consumed by the parser. */
+  private long delimiters;
+  private long consumedDelimiters;
+
+  private final YangPullParserImpl parser;
+  private boolean incomplete;
+  /** The depth of the statement being skipped, or -1. */
+  private int skipDepth;
+
+  /**
+   * Constructor.
+   */
+  public AsyncYangPullParser() {
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    this.remainder = null;
+    this.ended = false;
+    this.inputError = null;
+    this.chars = new char[INITIAL_BUFFER_SIZE];
+    this.limit = 0;
+    this.readPos = 0;
+    this.scanPos = 0;
+    this.scanResume = 0;
+    this.delimiters = 0;
+    this.consumedDelimiters = 0;
+    this.parser = new YangPullParserImpl(new FeedReader());
+    this.incomplete = false;
+    this.skipDepth = -1;
+  }
+
+  /**
+   * Feeds a chunk of the input. The bytes are copied, so the array can be reused after the method
+   * returns.
+   *
+   * @param bytes the array holding the chunk encoded in UTF-8
+   * @param offset the offset of the chunk in the array
+   * @param length the length of the chunk
+   * @throws IllegalStateException when endOfInput() has been called
+   */
+  public void feedInput(byte[] bytes, int offset, int length) {
+    if (bytes == null || offset < 0 || length < 0 || bytes.length - offset < length) {
+      throw new IllegalArgumentException();
+    }
+    this.feedInput(ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  /**
+   * Feeds a chunk of the input. The bytes between the position and the limit of the buffer are
+   * copied, and the position is moved to the limit.
+   *
+   * @param bytes the buffer holding the chunk encoded in UTF-8
+   * @throws IllegalStateException when endOfInput() has been called
+   */
+  public void feedInput(ByteBuffer bytes) {
+    if (bytes == null) {
+      throw new IllegalArgumentException();
+    }
+    if (this.ended) {
+      throw new IllegalStateException("the end of the input has been fed");
+    }
+    if (this.remainder != null) {
+      ByteBuffer joined = ByteBuffer.allocate(this.remainder.remaining() + bytes.remaining());
+      joined.put(this.remainder);
+      joined.put(bytes);
+      joined.flip();
+      this.remainder = null;
+      this.decode(joined, false);
+    } else {
+      this.decode(bytes, false);
+    }
+    bytes.position(bytes.limit());
+  }
+
+  /**
+   * Tells that all the input has been fed. The rest of the events, including END_MODULE, are read
+   * after it.
+   */
+  public void endOfInput() {
+    if (this.ended) {
+      return;
+    }
+    ByteBuffer rest = (this.remainder != null) ? this.remainder : ByteBuffer.allocate(0);
+    this.remainder = null;
+    this.decode(rest, true);
+    this.ended = true;
+  }
+
+  /**
+   * Checks if more input has to be fed to read the next event.
+   *
+   * @return true if next() would return INCOMPLETE
+   */
+  public boolean needsInput() {
+    return this.consumedDelimiters == this.delimiters && !this.ended && this.inputError == null;
+  }
+
+  /**
+   * Returns the next parser event, or INCOMPLETE when more input has to be fed to read it.
+   *
+   * @return the next parser event, or INCOMPLETE
+   * @throws IOException when the input is not valid UTF-8
+   * @throws YangPullParserException
+   */
+  @Override
+  public EventType next() throws IOException, YangPullParserException {
+    while (true) {
+      EventType eventType = this.nextEvent();
+      if (eventType == EventType.INCOMPLETE || this.skipDepth < 0) {
+        return eventType;
+      }
+      if (eventType == EventType.END_MODULE) {
+        // the statements read in the skipped one are left open at the end of the input, while the
+        // synchronous parser has not pushed them.
+        StatementStack stack = this.parser.context.getStatementStack();
+        while (this.skipDepth < stack.getDepth()) {
+          stack.pop();
+        }
+        this.skipDepth = -1;
+        return eventType;
+      }
+      if (eventType == EventType.STATEMENT_END && this.parser.getDepth() < this.skipDepth) {
+        this.skipDepth = -1;
+        return eventType;
+      }
+    }
+  }
+
+  private EventType nextEvent() throws IOException, YangPullParserException {
+    if (this.consumedDelimiters == this.delimiters) {
+      if (this.inputError != null) {
+        throw this.inputError;
+      }
+      if (!this.ended) {
+        this.incomplete = true;
+        return EventType.INCOMPLETE;
+      }
+    }
+    this.incomplete = false;
+    EventType eventType = this.parser.next();
+    if (eventType == EventType.STATEMENT_END
+        || (eventType == EventType.STATEMENT_START && this.parser.blockOpened)) {
+      this.consumedDelimiters++;
+    }
+    return eventType;
+  }
+
+  /**
+   * Skips the sub-statements of the current statement, which must be at STATEMENT_START, and moves
+   * to its STATEMENT_END. The statements are read and discarded, as the rest of the block may not
+   * have been fed. When INCOMPLETE is returned, the next call of next() continues skipping.
+   *
+   * @return the type of the event moved to; STATEMENT_END, END_MODULE, or INCOMPLETE
+   * @throws IOException when the input is not valid UTF-8
+   * @throws YangPullParserException
+   * @throws IllegalStateException when the current event is not STATEMENT_START
+   */
+  @Override
+  public EventType skipStatement() throws IOException, YangPullParserException {
+    if (this.getEventType() != EventType.STATEMENT_START) {
+      throw new IllegalStateException();
+    }
+    this.skipDepth = this.parser.getDepth();
+    return this.next();
+  }
+
+  /**
+   * Reads the next events into the buffer, up to its capacity. The batch ends with END_MODULE at
+   * the end of the input, or before the event which needs more input, in which case the parser is
+   * left at INCOMPLETE.
+   *
+   * @param buffer the buffer to be filled; the events in it are discarded
+   * @return the number of the events read, 0 after END_MODULE or when more input is needed
+   * @throws IOException when the input is not valid UTF-8
+   * @throws YangPullParserException
+   */
+  @Override
+  public int nextBatch(EventBuffer buffer) throws IOException, YangPullParserException {
+    if (buffer == null) {
+      throw new IllegalArgumentException();
+    }
+    buffer.clear();
+    if (this.getEventType() == EventType.END_MODULE) {
+      return 0;
+    }
+    while (!buffer.isFull()) {
+      EventType eventType = this.next();
+      if (eventType == EventType.INCOMPLETE) {
+        break;
+      }
+      buffer.add(eventType, this.getStatementType(), this.getDepth(), this.getNamespace(),
+          this.getIdentifier(), this.getArgumentChars());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+    return buffer.size();
+  }
+
+  /**
+   * Returns a spliterator over the events which can be read from the input fed so far. As a
+   * spliterator cannot wait for the input, it ends at END_MODULE or when next() returns INCOMPLETE,
+   * and the parser is left at the event ending it. A new spliterator can be created after more
+   * input is fed.
+   *
+   * @return the spliterator
+   */
+  @Override
+  public Spliterator<EventSnapshot> spliterator() {
+    return new ParserSpliterator(this);
+  }
+
+  @Override
+  public int getDepth() {
+    return this.parser.getDepth();
+  }
+
+  @Override
+  public int getStartOffset() {
+    return this.incomplete ? -1 : this.parser.getStartOffset();
+  }
+
+  @Override
+  public int getEndOffset() {
+    return this.incomplete ? -1 : this.parser.getEndOffset();
+  }
+
+  @Override
+  public int getLine() {
+    return this.incomplete ? -1 : this.parser.getLine();
+  }
+
+  @Override
+  public int getColumn() {
+    return this.incomplete ? -1 : this.parser.getColumn();
+  }
+
+  /**
+   * Returns the statements enclosing the current position from the root module statement.
+   *
+   * @return the view of the enclosing statements
+   */
+  public StatementStack.Ancestors getAncestors() {
+    return this.parser.getAncestors();
+  }
+
+  @Override
+  public EventType getEventType() {
+    return this.incomplete ? EventType.INCOMPLETE : this.parser.getEventType();
+  }
+
+  @Override
+  public StatementType getStatementType() {
+    return this.incomplete ? null : this.parser.getStatementType();
+  }
+
+  @Override
+  public String getNamespace() {
+    return this.incomplete ? null : this.parser.getNamespace();
+  }
+
+  @Override
+  public String getIdentifier() {
+    return this.incomplete ? null : this.parser.getIdentifier();
+  }
+
+  @Override
+  public String getArgument() {
+    return this.incomplete ? null : this.parser.getArgument();
+  }
+
+  @Override
+  public CharSequence getArgumentChars() {
+    return this.incomplete ? null : this.parser.getArgumentChars();
+  }
+
+  /**
+   * Decodes the bytes into the chars and pre-scans them. A decoding error is kept and thrown by
+   * next() after the events before it.
+   */
+  private void decode(ByteBuffer bytes, boolean endOfInput) {
+    if (this.inputError != null) {
+      return;
+    }
+    // UTF-8 never decodes to more chars than bytes
+    this.ensureCapacity(bytes.remaining() + 1);
+    CharBuffer out = CharBuffer.wrap(this.chars, this.limit, this.chars.length - this.limit);
+    CoderResult result = this.decoder.decode(bytes, out, endOfInput);
+    if (!result.isError() && endOfInput) {
+      result = this.decoder.flush(out);
+    }
+    this.limit = out.position();
+    if (result.isError()) {
+      try {
+        result.throwException();
+      } catch (CharacterCodingException e) {
+        this.inputError = e;
+      }
+    } else if (bytes.hasRemaining()) {
+      this.remainder = ByteBuffer.allocate(bytes.remaining());
+      this.remainder.put(bytes);
+      this.remainder.flip();
+    }
+    this.prescan();
+  }
+
+  /**
+   * Makes room for the given number of chars, discarding the chars which are read by the scanner
+   * and pre-scanned.
+   */
+  private void ensureCapacity(int length) {
+    if (length <= this.chars.length - this.limit) {
+      return;
+    }
+    int discard = Math.min(this.readPos, this.scanPos);
+    int keep = this.limit - discard;
+    char[] to = this.chars;
+    if (to.length < keep + length) {
+      to = new char[Math.max(to.length * 2, keep + length)];
+    }
+    System.arraycopy(this.chars, discard, to, 0, keep);
+    this.chars = to;
+    this.limit = keep;
+    this.readPos -= discard;
+    this.scanPos -= discard;
+    this.scanResume -= discard;
+  }
+
+  /**
+   * Counts the delimiters in the chars fed, scanning the tokens as YangScanner.scan() does, up to
+   * the token which may continue in the input not fed yet.
+   */
+  private void prescan() {
+    char[] b = this.chars;
+    int p = this.scanPos;
+    while (p < this.limit) {
+      int end;
+      switch (b[p]) {
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+          end = p + 1;
+          break;
+        case ';':
+        case '{':
+        case '}':
+          this.delimiters++;
+          end = p + 1;
+          break;
+        case '"':
+          end = this.scanDoubleQuotedString(p);
+          break;
+        case '\'':
+          end = this.scanSingleQuotedString(p);
+          break;
+        case '/':
+          end = this.skipComment(p);
+          if (end == 0) {
+            end = this.scanUnquotedString(p);
+          }
+          break;
+        default:
+          end = this.scanUnquotedString(p);
+          break;
+      }
+      if (end < 0) {
+        break;
+      }
+      p = end;
+      this.scanResume = 0;
+    }
+    this.scanPos = p;
+  }
+
+  /**
+   * Returns the end of the comment at the position, 0 if it is not a comment, or -1 if more input
+   * is needed to tell. A comment is not a comment when an unquoted string starting at the same
+   * position is longer, as in YangScanner.
+   */
+  private int skipComment(int start) {
+    char[] b = this.chars;
+    int lim = this.limit;
+    if (start + 1 == lim) {
+      return -1;
+    }
+    int i = start + 2;
+    int commentEnd;
+    if (b[start + 1] == '/') {
+      while (i < lim && b[i] != '\r' && b[i] != '\n') {
+        i++;
+      }
+      if (i == lim || (b[i] == '\r' && i + 1 == lim)) {
+        return -1;
+      }
+      if (b[i] == '\r') {
+        if (b[i + 1] != '\n') {
+          return 0;
+        }
+        i++;
+      }
+      commentEnd = i + 1;
+    } else if (b[start + 1] == '*') {
+      while (true) {
+        if (lim <= i + 1) {
+          return -1;
+        }
+        if (b[i] == '*' && b[i + 1] == '/') {
+          break;
+        }
+        i++;
+      }
+      commentEnd = i + 2;
+    } else {
+      return 0;
+    }
+
+    int unquotedEnd = start;
+    while (unquotedEnd < lim && !YangScanner.isUnquotedStop(b[unquotedEnd])) {
+      unquotedEnd++;
+    }
+    if (unquotedEnd == lim && commentEnd == lim) {
+      return -1;
+    }
+    return (commentEnd < unquotedEnd) ? 0 : commentEnd;
+  }
+
+  private int scanUnquotedString(int start) {
+    char[] b = this.chars;
+    int p = Math.max(start, this.scanResume);
+    while (p < this.limit && !YangScanner.isUnquotedStop(b[p])) {
+      p++;
+    }
+    if (p == this.limit) {
+      this.scanResume = p;
+      return -1;
+    }
+    return p;
+  }
+
+  private int scanSingleQuotedString(int start) {
+    char[] b = this.chars;
+    int p = Math.max(start + 1, this.scanResume);
+    while (p < this.limit && b[p] != '\'') {
+      p++;
+    }
+    if (p == this.limit) {
+      this.scanResume = p;
+      return -1;
+    }
+    return p + 1;
+  }
+
+  /**
+   * Returns the end of the double-quoted string, where the scanner ends the token; an invalid
+   * escape or char ends an invalid token as well.
+   */
+  private int scanDoubleQuotedString(int start) {
+    char[] b = this.chars;
+    int lim = this.limit;
+    int p = Math.max(start + 1, this.scanResume);
+    while (p < lim) {
+      char c = b[p];
+      if (c == '"') {
+        return p + 1;
+      } else if (c == '\\') {
+        if (p + 1 == lim) {
+          break;
+        }
+        c = b[p + 1];
+        if (c != 'n' && c != 't' && c != '"' && c != '\\') {
+          return p + 2;
+        }
+        p += 2;
+      } else if (YangScanner.isYangChar(c)) {
+        p++;
+      } else {
+        return p + 1;
+      }
+    }
+    this.scanResume = p;
+    return -1;
+  }
+
+  /**
+   * The reader from which the scanner reads the chars fed. The scanner never reads beyond the
+   * delimiter of the event being read, which has been fed.
+   */
+  private final class FeedReader extends Reader {
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      AsyncYangPullParser outer = AsyncYangPullParser.this;
+      if (len == 0) {
+        return 0;
+      }
+      int n = Math.min(len, outer.limit - outer.readPos);
+      if (n == 0) {
+        if (outer.ended) {
+          return -1;
+        }
+        throw new IllegalStateException("the input is not fed");
+      }
+      System.arraycopy(outer.chars, outer.readPos, cbuf, off, n);
+      outer.readPos += n;
+      return n;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -19,7 +19,7 @@ public final class Event {
 
   private String identifier;
 
-  private String argument;
+  private TextRef argument;
 
   /**
    * Constructor.
@@ -35,6 +35,7 @@ public final class Event {
     this.statementType = statementType;
     this.namespace = null;
     this.identifier = null;
+    this.argument = null;
   }
 
   /**
@@ -110,12 +111,21 @@ public final class Event {
   }
 
   /**
-   * Returns the argument.
+   * Returns the argument. The String is created when this method is called first.
    * 
    * @return argument the argument
    */
   public String getArgument() {
-    return this.argument;
+    return (this.argument == null) ? null : this.argument.getString();
+  }
+
+  /**
+   * Returns the argument without creating a String.
+   * 
+   * @return the argument, or null
+   */
+  public CharSequence getArgumentChars() {
+    return (this.argument == null || this.argument.isNull()) ? null : this.argument;
   }
 
   /**
@@ -124,6 +134,29 @@ public final class Event {
    * @param argument the argument to be set
    */
   public void setArgument(String argument) {
+    if (argument == null) {
+      this.argument = null;
+    } else {
+      this.argument = new TextRef();
+      this.argument.set(argument);
+    }
+  }
+
+  /**
+   * Returns the reference to the argument.
+   * 
+   * @return the reference, or null
+   */
+  public TextRef getArgumentRef() {
+    return this.argument;
+  }
+
+  /**
+   * Sets the reference to the argument to the object. The reference is not copied.
+   * 
+   * @param argument the reference to the argument, or null
+   */
+  public void setArgumentRef(TextRef argument) {
     this.argument = argument;
   }
 
@@ -0,0 +1,309 @@
+package iwostaq.yppj;
+
+import java.util.Arrays;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+/**
+ * A reusable buffer of parser events filled by YangPullParser.nextBatch().
+ *
+ * <p>
+ * The events are kept in parallel primitive arrays, one element per event: the ordinals of the
+ * event type and the statement type, the depth, the symbol ids of the namespace and the identifier,
+ * and the offset and the length of the argument in a shared char array. The arrays are returned
+ * without being copied and are valid up to size() until the buffer is filled again, so a consumer
+ * can read the events in a plain loop over the arrays. The symbol ids are resolved with the symbol
+ * table returned by getSymbolTable(), which holds only the symbols of the events in the buffer and
+ * is emptied when the buffer is filled again.
+ * </p>
+ */
+public final class EventBuffer {
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /** The ordinal of the statement type of END_MODULE, which has no statement. */
+  public static final int NO_STATEMENT = -1;
+
+  /** The offset of an argument which does not exist. */
+  public static final int NO_ARGUMENT = -1;
+
+  private static final EventType[] EVENT_TYPES = EventType.values();
+  private static final StatementType[] STATEMENT_TYPES = StatementType.values();
+
+  private final int[] eventTypes;
+  private final int[] statementTypes;
+  private final int[] depths;
+  private final int[] namespaceIds;
+  private final int[] identifierIds;
+  private final int[] argumentOffsets;
+  private final int[] argumentLengths;
+  private char[] argumentChars;
+  private int argumentCharCount;
+  private int size;
+
+  private final SymbolTable symbolTable;
+
+  /**
+   * Constructor. The buffer holds DEFAULT_CAPACITY events.
+   */
+  public EventBuffer() {
+    this(EventBuffer.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity the maximum number of the events filled at once
+   */
+  public EventBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.eventTypes = new int[capacity];
+    this.statementTypes = new int[capacity];
+    this.depths = new int[capacity];
+    this.namespaceIds = new int[capacity];
+    this.identifierIds = new int[capacity];
+    this.argumentOffsets = new int[capacity];
+    this.argumentLengths = new int[capacity];
+    this.argumentChars = new char[capacity * 16];
+    this.argumentCharCount = 0;
+    this.size = 0;
+    this.symbolTable = new SymbolTable();
+  }
+
+  /**
+   * Returns the maximum number of the events filled at once.
+   *
+   * @return the capacity
+   */
+  public int capacity() {
+    return this.eventTypes.length;
+  }
+
+  /**
+   * Returns the number of the events in the buffer.
+   *
+   * @return the number of the events
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the symbol table resolving the namespace ids and the identifier ids.
+   *
+   * @return the symbol table
+   */
+  public SymbolTable getSymbolTable() {
+    return this.symbolTable;
+  }
+
+  /**
+   * Returns the ordinals of the event types.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getEventTypes() {
+    return this.eventTypes;
+  }
+
+  /**
+   * Returns the ordinals of the statement types. NO_STATEMENT is set for END_MODULE.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getStatementTypes() {
+    return this.statementTypes;
+  }
+
+  /**
+   * Returns the depths, which are the same as YangPullParser.getDepth() at the events.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getDepths() {
+    return this.depths;
+  }
+
+  /**
+   * Returns the symbol ids of the namespaces. SymbolTable.NO_SYMBOL is set for no namespace.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getNamespaceIds() {
+    return this.namespaceIds;
+  }
+
+  /**
+   * Returns the symbol ids of the identifiers. SymbolTable.NO_SYMBOL is set for no identifier.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getIdentifierIds() {
+    return this.identifierIds;
+  }
+
+  /**
+   * Returns the offsets of the arguments in the array returned by getArgumentChars(). NO_ARGUMENT
+   * is set for no argument.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getArgumentOffsets() {
+    return this.argumentOffsets;
+  }
+
+  /**
+   * Returns the lengths of the arguments.
+   *
+   * @return the array, of which elements up to size() are valid
+   */
+  public int[] getArgumentLengths() {
+    return this.argumentLengths;
+  }
+
+  /**
+   * Returns the array holding the chars of the arguments. The array may be replaced with a larger
+   * one when the buffer is filled.
+   *
+   * @return the array
+   */
+  public char[] getArgumentChars() {
+    return this.argumentChars;
+  }
+
+  /**
+   * Returns the type of the event.
+   *
+   * @param index the index of the event
+   * @return the type of the event
+   */
+  public EventType getEventType(int index) {
+    return EventBuffer.EVENT_TYPES[this.eventTypes[this.checkIndex(index)]];
+  }
+
+  /**
+   * Returns the type of the statement of the event.
+   *
+   * @param index the index of the event
+   * @return the type of the statement, or null for END_MODULE
+   */
+  public StatementType getStatementType(int index) {
+    int ordinal = this.statementTypes[this.checkIndex(index)];
+    return (ordinal == EventBuffer.NO_STATEMENT) ? null : EventBuffer.STATEMENT_TYPES[ordinal];
+  }
+
+  /**
+   * Returns the depth of the event.
+   *
+   * @param index the index of the event
+   * @return the depth
+   */
+  public int getDepth(int index) {
+    return this.depths[this.checkIndex(index)];
+  }
+
+  /**
+   * Returns the namespace of the event.
+   *
+   * @param index the index of the event
+   * @return the namespace, or null
+   */
+  public String getNamespace(int index) {
+    return this.symbolTable.getSymbol(this.namespaceIds[this.checkIndex(index)]);
+  }
+
+  /**
+   * Returns the identifier of the event.
+   *
+   * @param index the index of the event
+   * @return the identifier, or null
+   */
+  public String getIdentifier(int index) {
+    return this.symbolTable.getSymbol(this.identifierIds[this.checkIndex(index)]);
+  }
+
+  /**
+   * Returns the argument of the event. A String is created for each call.
+   *
+   * @param index the index of the event
+   * @return the argument, or null
+   */
+  public String getArgument(int index) {
+    int offset = this.argumentOffsets[this.checkIndex(index)];
+    if (offset == EventBuffer.NO_ARGUMENT) {
+      return null;
+    }
+    return new String(this.argumentChars, offset, this.argumentLengths[index]);
+  }
+
+  /**
+   * Empties the buffer and its symbol table before it is filled.
+   */
+  void clear() {
+    this.symbolTable.clear();
+    this.size = 0;
+    this.argumentCharCount = 0;
+  }
+
+  /**
+   * Returns whether no more events can be added.
+   *
+   * @return true if the buffer is full
+   */
+  boolean isFull() {
+    return this.size == this.eventTypes.length;
+  }
+
+  /**
+   * Adds an event with the symbol ids.
+   */
+  void add(EventType eventType, StatementType statementType, int depth, int namespaceId,
+      int identifierId, CharSequence argument) {
+    int index = this.size;
+    this.eventTypes[index] = eventType.ordinal();
+    this.statementTypes[index] =
+        (statementType == null) ? EventBuffer.NO_STATEMENT : statementType.ordinal();
+    this.depths[index] = depth;
+    this.namespaceIds[index] = namespaceId;
+    this.identifierIds[index] = identifierId;
+
+    if (argument == null || (argument instanceof TextRef && ((TextRef) argument).isNull())) {
+      this.argumentOffsets[index] = EventBuffer.NO_ARGUMENT;
+      this.argumentLengths[index] = 0;
+    } else {
+      int length = argument.length();
+      int offset = this.argumentCharCount;
+      if (this.argumentChars.length < offset + length) {
+        this.argumentChars = Arrays.copyOf(this.argumentChars,
+            Math.max(this.argumentChars.length * 2, offset + length));
+      }
+      if (argument instanceof TextRef) {
+        ((TextRef) argument).getChars(this.argumentChars, offset);
+      } else {
+        argument.toString().getChars(0, length, this.argumentChars, offset);
+      }
+      this.argumentOffsets[index] = offset;
+      this.argumentLengths[index] = length;
+      this.argumentCharCount = offset + length;
+    }
+    this.size = index + 1;
+  }
+
+  /**
+   * Adds an event with the symbols, which are interned with the symbol table of the buffer.
+   */
+  void add(EventType eventType, StatementType statementType, int depth, String namespace,
+      String identifier, CharSequence argument) {
+    this.add(eventType, statementType, depth, this.symbolTable.getId(namespace),
+        this.symbolTable.getId(identifier), argument);
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || this.size <= index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+    return index;
+  }
+}
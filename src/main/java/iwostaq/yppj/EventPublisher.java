@@ -0,0 +1,286 @@
+package iwostaq.yppj;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import iwostaq.yppj.exception.UncheckedYangPullParserException;
+
+/**
+ * A publisher of the events of a parser, which reads the module only as the subscriber demands.
+ *
+ * <p>
+ * The publisher follows the protocol of the Reactive Streams and java.util.concurrent.Flow; the
+ * nested interfaces have the same methods as the ones of Flow, so that a bridge to Flow or to the
+ * Reactive Streams only delegates the calls. The events up to the demand are read in a batch into
+ * an EventTape on the executor, and delivered as EventSnapshots; no event is read ahead of the
+ * demand. The events are delivered to a single subscriber.
+ * </p>
+ *
+ * <p>
+ * When the subscription is cancelled, the module ends or an error occurs, the parser is not read
+ * any more and the source, e.g. the Reader of the module, is closed.
+ * </p>
+ */
+public class EventPublisher {
+
+  /**
+   * A subscriber receiving the events, which has the methods of Flow.Subscriber.
+   *
+   * @param <T> the type of the items
+   */
+  public interface Subscriber<T> {
+
+    /**
+     * Called before any other method with the subscription.
+     *
+     * @param subscription the subscription
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * Called with the next item.
+     *
+     * @param item the item
+     */
+    void onNext(T item);
+
+    /**
+     * Called when an error occurs. No method is called after it.
+     *
+     * @param throwable the error; an IOException, a YangPullParserException or an unchecked
+     *        exception
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Called when all the items are delivered. No method is called after it.
+     */
+    void onComplete();
+  }
+
+  /**
+   * A subscription, which has the methods of Flow.Subscription.
+   */
+  public interface Subscription {
+
+    /**
+     * Adds the number of the items to the demand.
+     *
+     * @param n the number of the items, which must be positive
+     */
+    void request(long n);
+
+    /**
+     * Stops the delivery of the items.
+     */
+    void cancel();
+  }
+
+  /** The maximum number of the events read in a batch. */
+  public static final int MAX_BATCH_SIZE = 1024;
+
+  protected final YangPullParser ypp;
+  protected final Closeable source;
+  protected final Executor executor;
+  private final AtomicBoolean subscribed;
+
+  /**
+   * Constructor.
+   *
+   * @param ypp the parser
+   * @param source the source closed when the parser is not read any more, or null
+   * @param executor the executor reading the events and calling the subscriber
+   */
+  public EventPublisher(YangPullParser ypp, Closeable source, Executor executor) {
+    if (ypp == null || executor == null) {
+      throw new IllegalArgumentException();
+    }
+    this.ypp = ypp;
+    this.source = source;
+    this.executor = executor;
+    this.subscribed = new AtomicBoolean(false);
+  }
+
+  /**
+   * Creates a publisher of the module read from the reader. The events are read on the common
+   * ForkJoinPool, and the reader is closed when the parser is not read any more.
+   *
+   * @param fromReader the reader
+   * @return the publisher
+   */
+  public static EventPublisher fromReader(Reader fromReader) {
+    return new EventPublisher(new YangPullParserImpl(fromReader), fromReader,
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Subscribes to the events. A publisher accepts only one subscriber, because the parser can be
+   * read only once; a second subscriber receives IllegalStateException with onError().
+   *
+   * @param subscriber the subscriber
+   */
+  public void subscribe(Subscriber<? super EventSnapshot> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException();
+    }
+    if (!this.subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {}
+
+        @Override
+        public void cancel() {}
+      });
+      subscriber.onError(new IllegalStateException("already subscribed"));
+      return;
+    }
+    EventSubscription subscription = new EventSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  /**
+   * The subscription reading the events in the drain loop. The loop runs in a task of the executor
+   * at a time, and it is the only caller of the parser and the subscriber after onSubscribe().
+   */
+  private final class EventSubscription implements Subscription, Runnable {
+
+    private final Subscriber<? super EventSnapshot> subscriber;
+    private final AtomicLong demand;
+    private final AtomicInteger workInProgress;
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    private boolean done;
+
+    EventSubscription(Subscriber<? super EventSnapshot> subscriber) {
+      this.subscriber = subscriber;
+      this.demand = new AtomicLong();
+      this.workInProgress = new AtomicInteger();
+      this.cancelled = false;
+      this.invalidRequest = null;
+      this.done = false;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.invalidRequest = new IllegalArgumentException("non-positive request: " + n);
+      } else {
+        this.demand.getAndAccumulate(n, (current, add) -> {
+          long sum = current + add;
+          return (sum < 0) ? Long.MAX_VALUE : sum;
+        });
+      }
+      this.schedule();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      this.schedule();
+    }
+
+    private void schedule() {
+      if (this.workInProgress.getAndIncrement() == 0) {
+        EventPublisher.this.executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      while (!this.done) {
+        this.drain();
+        missed = this.workInProgress.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+
+    private void drain() {
+      if (this.cancelled) {
+        this.terminate(null, false);
+        return;
+      }
+      if (this.invalidRequest != null) {
+        this.terminate(this.invalidRequest, true);
+        return;
+      }
+
+      long requested = this.demand.get();
+      long emitted = 0;
+      while (emitted < requested) {
+        TapeSpliterator batch;
+        try {
+          int size = (int) Math.min(requested - emitted, EventPublisher.MAX_BATCH_SIZE);
+          batch = ParserSpliterator.read(EventPublisher.this.ypp, size, false);
+        } catch (UncheckedIOException | UncheckedYangPullParserException e) {
+          this.terminate(e.getCause(), true);
+          return;
+        } catch (RuntimeException e) {
+          this.terminate(e, true);
+          return;
+        }
+        if (batch == null) {
+          break;
+        }
+
+        try {
+          while (batch.tryAdvance(this.subscriber::onNext)) {
+            emitted++;
+            if (this.cancelled) {
+              this.terminate(null, false);
+              return;
+            }
+          }
+        } catch (RuntimeException e) {
+          // the subscriber must not throw; the subscription is regarded as cancelled.
+          this.terminate(null, false);
+          throw e;
+        }
+      }
+
+      if (EventPublisher.this.ypp.getEventType() == YangPullParser.EventType.END_MODULE) {
+        this.terminate(null, true);
+        return;
+      }
+      if (requested != Long.MAX_VALUE) {
+        this.demand.addAndGet(-emitted);
+      }
+    }
+
+    /**
+     * Ends the subscription and closes the source.
+     *
+     * @param error the error to be signaled, or null to signal the completion
+     * @param signal false not to signal, when cancelled
+     */
+    private void terminate(Throwable error, boolean signal) {
+      this.done = true;
+      this.cancelled = true;
+      Closeable source = EventPublisher.this.source;
+      if (source != null) {
+        try {
+          source.close();
+        } catch (IOException e) {
+          if (error == null && signal) {
+            error = e;
+          }
+        }
+      }
+      if (signal) {
+        if (error == null) {
+          this.subscriber.onComplete();
+        } else {
+          this.subscriber.onError(error);
+        }
+      }
+    }
+  }
+}
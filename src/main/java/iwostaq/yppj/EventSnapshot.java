@@ -0,0 +1,90 @@
+package iwostaq.yppj;
+
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+/**
+ * An immutable snapshot of a parser event, the element of the streams of the events.
+ *
+ * <p>
+ * A snapshot refers to the event recorded in an EventTape instead of copying it, so creating one
+ * costs an object of a few fields, and the strings are the ones shared in the tape.
+ * </p>
+ */
+public final class EventSnapshot {
+
+  private final EventTape tape;
+  private final int index;
+  private final int depth;
+
+  EventSnapshot(EventTape tape, int index, int depth) {
+    this.tape = tape;
+    this.index = index;
+    this.depth = depth;
+  }
+
+  /**
+   * Returns the type of the event, STATEMENT_START or STATEMENT_END.
+   *
+   * @return the type of the event
+   */
+  public EventType getEventType() {
+    return this.tape.getEventType(this.index);
+  }
+
+  /**
+   * Returns the depth as YangPullParser.getDepth() returns at the event.
+   *
+   * @return the depth
+   */
+  public int getDepth() {
+    return this.depth;
+  }
+
+  /**
+   * Returns the type of the statement.
+   *
+   * @return the type of the statement
+   */
+  public StatementType getStatementType() {
+    return this.tape.getStatementType(this.index);
+  }
+
+  /**
+   * Returns the namespace of the statement.
+   *
+   * @return the namespace, or null
+   */
+  public String getNamespace() {
+    return this.tape.getSymbolTable().getSymbol(this.tape.getNamespaceId(this.index));
+  }
+
+  /**
+   * Returns the identifier of the statement.
+   *
+   * @return the identifier, or null
+   */
+  public String getIdentifier() {
+    return this.tape.getSymbolTable().getSymbol(this.tape.getIdentifierId(this.index));
+  }
+
+  /**
+   * Returns the argument of the statement.
+   *
+   * @return the argument, or null
+   */
+  public String getArgument() {
+    return this.tape.getSymbolTable().getSymbol(this.tape.getArgumentId(this.index));
+  }
+
+  @Override
+  public String toString() {
+    String identifier = this.getIdentifier();
+    String namespace = this.getNamespace();
+    if (identifier == null) {
+      return this.getEventType() + " " + this.getStatementType() + "(" + this.getArgument() + ")";
+    }
+    return this.getEventType() + " " + this.getStatementType() + "["
+        + (namespace == null ? "" : namespace + ":") + identifier + "]";
+  }
+}
@@ -0,0 +1,199 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A recorded stream of parser events, which can be replayed any number of times without parsing
+ * the module again.
+ *
+ * <p>
+ * The events are kept in parallel primitive arrays: the ordinals of the event type and the
+ * statement type in bytes, and the ids of the namespace, the identifier and the argument in a
+ * SymbolTable, which deduplicates the strings. The index of the matching event of each statement
+ * is kept as well, so that a replaying parser skips a statement at once.
+ * </p>
+ *
+ * <p>
+ * A tape is recorded by EventTapeRecorder or record(), and replayed by the parsers created by
+ * newParser(). A tape is not modified after it is recorded, so it can be replayed by several
+ * threads at the same time.
+ * </p>
+ */
+public final class EventTape {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private static final EventType[] EVENT_TYPES = EventType.values();
+  private static final StatementType[] STATEMENT_TYPES = StatementType.values();
+
+  private byte[] eventTypes;
+  private byte[] statementTypes;
+  private int[] namespaceIds;
+  private int[] identifierIds;
+  private int[] argumentIds;
+  private int[] matchingIndexes;
+  private int size;
+
+  private final SymbolTable symbolTable;
+
+  /** The indexes of the start events of which end events are not recorded yet. */
+  private int[] openStarts;
+  private int openCount;
+
+  EventTape() {
+    this.eventTypes = new byte[EventTape.INITIAL_CAPACITY];
+    this.statementTypes = new byte[EventTape.INITIAL_CAPACITY];
+    this.namespaceIds = new int[EventTape.INITIAL_CAPACITY];
+    this.identifierIds = new int[EventTape.INITIAL_CAPACITY];
+    this.argumentIds = new int[EventTape.INITIAL_CAPACITY];
+    this.matchingIndexes = new int[EventTape.INITIAL_CAPACITY];
+    this.size = 0;
+    this.symbolTable = new SymbolTable();
+    this.openStarts = new int[16];
+    this.openCount = 0;
+  }
+
+  /**
+   * Records the events from the current position of the parser up to END_MODULE.
+   *
+   * @param ypp the parser
+   * @return the tape
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static EventTape record(YangPullParser ypp) throws IOException, YangPullParserException {
+    EventTapeRecorder recorder = new EventTapeRecorder(ypp);
+    while (recorder.next() != EventType.END_MODULE) {
+      // nothing to do
+    }
+    return recorder.getTape();
+  }
+
+  /**
+   * Creates a parser replaying the events from the beginning of the tape.
+   *
+   * @return the parser
+   */
+  public EventTapeParser newParser() {
+    return new EventTapeParser(this);
+  }
+
+  /**
+   * Returns a spliterator over the events of the tape. It splits at the boundaries of whole
+   * statements, the top-level statements first.
+   *
+   * @return the spliterator
+   */
+  public Spliterator<EventSnapshot> spliterator() {
+    return new TapeSpliterator(this, 0, this.size, 0);
+  }
+
+  /**
+   * Returns a sequential stream of the events of the tape.
+   *
+   * @return the stream
+   */
+  public Stream<EventSnapshot> stream() {
+    return StreamSupport.stream(this.spliterator(), false);
+  }
+
+  /**
+   * Returns the number of the events recorded, excluding END_MODULE.
+   *
+   * @return the number of the events
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the table of the strings in the events.
+   *
+   * @return the symbol table
+   */
+  public SymbolTable getSymbolTable() {
+    return this.symbolTable;
+  }
+
+  EventType getEventType(int index) {
+    return EventTape.EVENT_TYPES[this.eventTypes[index]];
+  }
+
+  StatementType getStatementType(int index) {
+    return EventTape.STATEMENT_TYPES[this.statementTypes[index]];
+  }
+
+  int getNamespaceId(int index) {
+    return this.namespaceIds[index];
+  }
+
+  int getIdentifierId(int index) {
+    return this.identifierIds[index];
+  }
+
+  int getArgumentId(int index) {
+    return this.argumentIds[index];
+  }
+
+  int getMatchingIndex(int index) {
+    return this.matchingIndexes[index];
+  }
+
+  /**
+   * Appends an event. The arguments of both events of a statement are taken from the start event.
+   */
+  void add(EventType eventType, StatementType statementType, CharSequence namespace,
+      CharSequence identifier, CharSequence argument) {
+    int index = this.size;
+    if (index == this.eventTypes.length) {
+      this.resize(Math.max(index * 2, EventTape.INITIAL_CAPACITY));
+    }
+
+    this.eventTypes[index] = (byte) eventType.ordinal();
+    this.statementTypes[index] = (byte) statementType.ordinal();
+    this.namespaceIds[index] = this.symbolTable.getId(namespace);
+    this.identifierIds[index] = this.symbolTable.getId(identifier);
+    if (eventType == EventType.STATEMENT_START) {
+      this.argumentIds[index] = this.symbolTable.getId(argument);
+      if (this.openCount == this.openStarts.length) {
+        this.openStarts = Arrays.copyOf(this.openStarts, this.openCount * 2);
+      }
+      this.openStarts[this.openCount++] = index;
+      this.matchingIndexes[index] = -1;
+    } else if (0 < this.openCount) {
+      int start = this.openStarts[--this.openCount];
+      this.argumentIds[index] = this.argumentIds[start];
+      this.matchingIndexes[index] = start;
+      this.matchingIndexes[start] = index;
+    } else {
+      this.argumentIds[index] = this.symbolTable.getId(argument);
+      this.matchingIndexes[index] = -1;
+    }
+    this.size = index + 1;
+  }
+
+  /**
+   * Shrinks the arrays to the number of the events after the recording.
+   */
+  void trim() {
+    if (this.size < this.eventTypes.length) {
+      this.resize(this.size);
+    }
+  }
+
+  private void resize(int capacity) {
+    this.eventTypes = Arrays.copyOf(this.eventTypes, capacity);
+    this.statementTypes = Arrays.copyOf(this.statementTypes, capacity);
+    this.namespaceIds = Arrays.copyOf(this.namespaceIds, capacity);
+    this.identifierIds = Arrays.copyOf(this.identifierIds, capacity);
+    this.argumentIds = Arrays.copyOf(this.argumentIds, capacity);
+    this.matchingIndexes = Arrays.copyOf(this.matchingIndexes, capacity);
+  }
+}
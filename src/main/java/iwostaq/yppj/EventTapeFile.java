@@ -0,0 +1,187 @@
+package iwostaq.yppj;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The binary form of an EventTape stored in a file.
+ *
+ * <p>
+ * The file consists of a header, the event records and the string table. All the numbers are big
+ * endian.
+ * </p>
+ *
+ * <pre>
+ * header:  int MAGIC, int VERSION, int eventCount, int stringCount
+ * events:  eventCount records of RECORD_SIZE bytes;
+ *          byte eventType, byte statementType, short 0,
+ *          int namespaceId, int identifierId, int argumentId, int matchingIndex
+ * strings: int[stringCount + 1] offsets of the strings from the start of the bytes,
+ *          followed by the strings encoded in UTF-8
+ * </pre>
+ *
+ * <p>
+ * The ids in the records are the indexes of the string table, or -1 for null. The records have a
+ * fixed size so that a reader can jump to any event. A file of another version is not read, and
+ * the records and the string offsets are checked before a file is read, so a broken file is
+ * rejected as a whole rather than failing in the middle of the events.
+ * </p>
+ */
+public final class EventTapeFile {
+
+  /** "YPPT" */
+  public static final int MAGIC = 0x59505054;
+
+  /** The version of the format, which is incremented when the format is changed. */
+  public static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 16;
+  static final int RECORD_SIZE = 20;
+
+  private EventTapeFile() {}
+
+  /**
+   * Writes the tape to the stream.
+   *
+   * @param tape the tape
+   * @param toStream the stream, which is not closed
+   * @throws IOException
+   */
+  public static void write(EventTape tape, OutputStream toStream) throws IOException {
+    if (tape == null || toStream == null) {
+      throw new IllegalArgumentException();
+    }
+    SymbolTable symbolTable = tape.getSymbolTable();
+    int eventCount = tape.size();
+    int stringCount = symbolTable.size();
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(toStream));
+    out.writeInt(EventTapeFile.MAGIC);
+    out.writeInt(EventTapeFile.VERSION);
+    out.writeInt(eventCount);
+    out.writeInt(stringCount);
+
+    for (int i = 0; i < eventCount; i++) {
+      out.writeByte(tape.getEventType(i).ordinal());
+      out.writeByte(tape.getStatementType(i).ordinal());
+      out.writeShort(0);
+      out.writeInt(tape.getNamespaceId(i));
+      out.writeInt(tape.getIdentifierId(i));
+      out.writeInt(tape.getArgumentId(i));
+      out.writeInt(tape.getMatchingIndex(i));
+    }
+
+    byte[][] strings = new byte[stringCount][];
+    int offset = 0;
+    for (int id = 0; id < stringCount; id++) {
+      strings[id] = symbolTable.getSymbol(id).getBytes(StandardCharsets.UTF_8);
+      out.writeInt(offset);
+      offset += strings[id].length;
+    }
+    out.writeInt(offset);
+    for (byte[] string : strings) {
+      out.write(string);
+    }
+    out.flush();
+  }
+
+  /**
+   * Maps the file on memory and checks its header.
+   *
+   * @param path the path of the file
+   * @return the read-only buffer of the whole file
+   * @throws IOException when the file cannot be read, or is not a valid file of this version
+   */
+  public static ByteBuffer map(Path path) throws IOException {
+    ByteBuffer buffer = YangPullParserImpl.map(path);
+    EventTapeFile.check(buffer);
+    return buffer;
+  }
+
+  /**
+   * Checks that the buffer holds a whole tape of this version: the ordinals and the ids in the
+   * records are in their ranges, and the offsets of the strings increase within the bytes.
+   *
+   * @param buffer the buffer of which content starts at 0
+   * @throws IOException when the content is not valid
+   */
+  static void check(ByteBuffer buffer) throws IOException {
+    int limit = buffer.limit();
+    if (limit < EventTapeFile.HEADER_SIZE || buffer.getInt(0) != EventTapeFile.MAGIC) {
+      throw new IOException("not an event tape file");
+    }
+    if (buffer.getInt(4) != EventTapeFile.VERSION) {
+      throw new IOException("unsupported version of event tape file: " + buffer.getInt(4));
+    }
+    long eventCount = buffer.getInt(8);
+    long stringCount = buffer.getInt(12);
+    long stringsOffset = EventTapeFile.HEADER_SIZE + eventCount * EventTapeFile.RECORD_SIZE;
+    long bytesOffset = stringsOffset + (stringCount + 1) * 4;
+    if (eventCount < 0 || stringCount < 0 || limit < bytesOffset
+        || limit != bytesOffset + buffer.getInt((int) (bytesOffset - 4))) {
+      throw new IOException("truncated event tape file");
+    }
+
+    int eventTypeCount = YangPullParser.EventType.values().length;
+    int statementTypeCount = YangPullParser.StatementType.values().length;
+    for (int i = 0; i < eventCount; i++) {
+      int offset = EventTapeFile.HEADER_SIZE + i * EventTapeFile.RECORD_SIZE;
+      int eventType = buffer.get(offset);
+      int statementType = buffer.get(offset + 1);
+      int matchingIndex = buffer.getInt(offset + 16);
+      if (eventType < 0 || eventTypeCount <= eventType || statementType < 0
+          || statementTypeCount <= statementType
+          || !EventTapeFile.isStringId(buffer.getInt(offset + 4), stringCount)
+          || !EventTapeFile.isStringId(buffer.getInt(offset + 8), stringCount)
+          || !EventTapeFile.isStringId(buffer.getInt(offset + 12), stringCount)
+          || matchingIndex < -1 || eventCount <= matchingIndex) {
+        throw new IOException("broken event record " + i + " in event tape file");
+      }
+    }
+    int previous = 0;
+    for (int id = 0; id <= stringCount; id++) {
+      int offset = buffer.getInt((int) stringsOffset + id * 4);
+      if (offset < previous) {
+        throw new IOException("broken string table in event tape file");
+      }
+      previous = offset;
+    }
+  }
+
+  private static boolean isStringId(int id, long stringCount) {
+    return -1 <= id && id < stringCount;
+  }
+
+  /**
+   * Writes the tape to the file atomically. The tape is written to a temporary file in the same
+   * directory, which is then renamed to the path, so that a reader never sees a partial file and
+   * concurrent writers of the same tape do not conflict.
+   *
+   * @param tape the tape
+   * @param path the path of the file
+   * @throws IOException
+   */
+  public static void write(EventTape tape, Path path) throws IOException {
+    if (tape == null || path == null) {
+      throw new IllegalArgumentException();
+    }
+    Path directory = path.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(temporary)) {
+        EventTapeFile.write(tape, out);
+      }
+      Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
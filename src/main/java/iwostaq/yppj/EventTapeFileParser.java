@@ -0,0 +1,172 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A parser replaying the events stored in the binary form of an EventTape, typically a file mapped
+ * on memory.
+ *
+ * <p>
+ * The events are read from the buffer as they are replayed, and a string is decoded when it is
+ * requested first. skipStatement() jumps to the end event of the statement at once.
+ * </p>
+ *
+ * @see EventTapeFile
+ */
+public class EventTapeFileParser implements YangPullParser {
+
+  private static final EventType[] EVENT_TYPES = EventType.values();
+  private static final StatementType[] STATEMENT_TYPES = StatementType.values();
+
+  protected final ByteBuffer buffer;
+  protected final int eventCount;
+  protected final int stringsOffset;
+  protected final int bytesOffset;
+  protected final String[] strings;
+
+  /** The index of the current event, -1 before the first event and eventCount at END_MODULE. */
+  protected int index;
+  protected int recordOffset;
+  protected int depth;
+  protected EventType eventType;
+
+  /**
+   * Constructor.
+   *
+   * @param buffer the buffer holding a tape from the index 0; it is not modified
+   * @throws IOException when the buffer does not hold a valid tape of the supported version
+   */
+  public EventTapeFileParser(ByteBuffer buffer) throws IOException {
+    if (buffer == null) {
+      throw new IllegalArgumentException();
+    }
+    EventTapeFile.check(buffer);
+    this.buffer = buffer.duplicate();
+    this.eventCount = buffer.getInt(8);
+    int stringCount = buffer.getInt(12);
+    this.stringsOffset =
+        EventTapeFile.HEADER_SIZE + this.eventCount * EventTapeFile.RECORD_SIZE;
+    this.bytesOffset = this.stringsOffset + (stringCount + 1) * 4;
+    this.strings = new String[stringCount];
+    this.index = -1;
+    this.recordOffset = 0;
+    this.depth = 0;
+    this.eventType = null;
+  }
+
+  /**
+   * Creates a parser for the file. The file is mapped on memory.
+   *
+   * @param path the path of the file
+   * @return the parser
+   * @throws IOException when the file cannot be read, or is not a valid file of this version
+   */
+  public static EventTapeFileParser fromPath(Path path) throws IOException {
+    return new EventTapeFileParser(EventTapeFile.map(path));
+  }
+
+  @Override
+  public EventType next() {
+    if (this.eventCount <= this.index + 1) {
+      return this.moveToEnd();
+    }
+    this.moveTo(this.index + 1);
+    if (this.eventType == EventType.STATEMENT_START) {
+      this.depth++;
+    } else {
+      this.depth--;
+    }
+    return this.eventType;
+  }
+
+  /**
+   * Skips the sub-statements of the current statement by jumping to its end event.
+   *
+   * @return the type of the event moved to; STATEMENT_END, or END_MODULE if the statement is not
+   *         closed in the tape
+   * @throws IllegalStateException when the current event is not STATEMENT_START
+   */
+  @Override
+  public EventType skipStatement() {
+    if (this.eventType != EventType.STATEMENT_START) {
+      throw new IllegalStateException();
+    }
+    int end = this.buffer.getInt(this.recordOffset + 16);
+    if (end < 0) {
+      return this.moveToEnd();
+    }
+    this.moveTo(end);
+    this.depth--;
+    return this.eventType;
+  }
+
+  @Override
+  public int getDepth() {
+    return this.depth;
+  }
+
+  @Override
+  public EventType getEventType() {
+    return this.eventType;
+  }
+
+  @Override
+  public StatementType getStatementType() {
+    if (!this.hasStatement()) {
+      return null;
+    }
+    return EventTapeFileParser.STATEMENT_TYPES[this.buffer.get(this.recordOffset + 1)];
+  }
+
+  @Override
+  public String getNamespace() {
+    return this.hasStatement() ? this.getString(this.buffer.getInt(this.recordOffset + 4)) : null;
+  }
+
+  @Override
+  public String getIdentifier() {
+    return this.hasStatement() ? this.getString(this.buffer.getInt(this.recordOffset + 8)) : null;
+  }
+
+  @Override
+  public String getArgument() {
+    return this.hasStatement() ? this.getString(this.buffer.getInt(this.recordOffset + 12)) : null;
+  }
+
+  private void moveTo(int index) {
+    this.index = index;
+    this.recordOffset = EventTapeFile.HEADER_SIZE + index * EventTapeFile.RECORD_SIZE;
+    this.eventType = EventTapeFileParser.EVENT_TYPES[this.buffer.get(this.recordOffset)];
+  }
+
+  private EventType moveToEnd() {
+    this.index = this.eventCount;
+    this.eventType = EventType.END_MODULE;
+    return this.eventType;
+  }
+
+  private boolean hasStatement() {
+    return 0 <= this.index && this.index < this.eventCount;
+  }
+
+  private String getString(int id) {
+    if (id < 0) {
+      return null;
+    }
+    String s = this.strings[id];
+    if (s == null) {
+      int start = this.buffer.getInt(this.stringsOffset + id * 4);
+      int end = this.buffer.getInt(this.stringsOffset + id * 4 + 4);
+      byte[] bytes = new byte[end - start];
+      ByteBuffer source = this.buffer.duplicate();
+      source.position(this.bytesOffset + start);
+      source.get(bytes);
+      s = new String(bytes, StandardCharsets.UTF_8);
+      this.strings[id] = s;
+    }
+    return s;
+  }
+}
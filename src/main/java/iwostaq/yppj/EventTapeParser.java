@@ -0,0 +1,143 @@
+package iwostaq.yppj;
+
+import java.util.Spliterator;
+
+/**
+ * A parser replaying the events recorded in an EventTape.
+ *
+ * <p>
+ * No input is read; an event is a few array accesses, and the strings are the ones kept in the
+ * tape. skipStatement() jumps to the end event of the statement at once.
+ * </p>
+ */
+public class EventTapeParser implements YangPullParser {
+
+  protected final EventTape tape;
+  protected final SymbolTable symbolTable;
+
+  /** The index of the current event, -1 before the first event and the size at END_MODULE. */
+  protected int index;
+  protected int depth;
+  protected EventType eventType;
+
+  /**
+   * Constructor.
+   *
+   * @param tape the tape to be replayed from the beginning
+   */
+  public EventTapeParser(EventTape tape) {
+    if (tape == null) {
+      throw new IllegalArgumentException();
+    }
+    this.tape = tape;
+    this.symbolTable = tape.getSymbolTable();
+    this.index = -1;
+    this.depth = 0;
+    this.eventType = null;
+  }
+
+  @Override
+  public EventType next() {
+    if (this.tape.size() <= this.index + 1) {
+      this.index = this.tape.size();
+      this.eventType = EventType.END_MODULE;
+      return this.eventType;
+    }
+
+    this.index++;
+    this.eventType = this.tape.getEventType(this.index);
+    if (this.eventType == EventType.STATEMENT_START) {
+      this.depth++;
+    } else {
+      this.depth--;
+    }
+    return this.eventType;
+  }
+
+  /**
+   * Skips the sub-statements of the current statement by jumping to its end event.
+   *
+   * @return the type of the event moved to; STATEMENT_END, or END_MODULE if the statement is not
+   *         closed in the tape
+   * @throws IllegalStateException when the current event is not STATEMENT_START
+   */
+  @Override
+  public EventType skipStatement() {
+    if (this.eventType != EventType.STATEMENT_START) {
+      throw new IllegalStateException();
+    }
+    int end = this.tape.getMatchingIndex(this.index);
+    if (end < 0) {
+      this.index = this.tape.size();
+      this.eventType = EventType.END_MODULE;
+      return this.eventType;
+    }
+    this.index = end;
+    this.depth--;
+    this.eventType = EventType.STATEMENT_END;
+    return this.eventType;
+  }
+
+  /**
+   * Returns a spliterator over the rest of the tape, which splits as the one of the tape does. The
+   * parser is moved to END_MODULE.
+   *
+   * @return the spliterator
+   */
+  @Override
+  public Spliterator<EventSnapshot> spliterator() {
+    Spliterator<EventSnapshot> spliterator =
+        new TapeSpliterator(this.tape, Math.min(this.index + 1, this.tape.size()),
+            this.tape.size(), this.depth);
+    this.index = this.tape.size();
+    this.depth = 0;
+    this.eventType = EventType.END_MODULE;
+    return spliterator;
+  }
+
+  @Override
+  public int getDepth() {
+    return this.depth;
+  }
+
+  @Override
+  public EventType getEventType() {
+    return this.eventType;
+  }
+
+  @Override
+  public StatementType getStatementType() {
+    if (!this.hasStatement()) {
+      return null;
+    }
+    return this.tape.getStatementType(this.index);
+  }
+
+  @Override
+  public String getNamespace() {
+    if (!this.hasStatement()) {
+      return null;
+    }
+    return this.symbolTable.getSymbol(this.tape.getNamespaceId(this.index));
+  }
+
+  @Override
+  public String getIdentifier() {
+    if (!this.hasStatement()) {
+      return null;
+    }
+    return this.symbolTable.getSymbol(this.tape.getIdentifierId(this.index));
+  }
+
+  @Override
+  public String getArgument() {
+    if (!this.hasStatement()) {
+      return null;
+    }
+    return this.symbolTable.getSymbol(this.tape.getArgumentId(this.index));
+  }
+
+  private boolean hasStatement() {
+    return 0 <= this.index && this.index < this.tape.size();
+  }
+}
@@ -0,0 +1,93 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A parser which passes through the events of another parser and records them into an EventTape.
+ *
+ * <p>
+ * The first pass over a module can be made with the recorder, and the following passes with the
+ * parsers replaying the tape. The tape is available after END_MODULE is reached. The statements
+ * skipped with skipStatement() are read and recorded as well, so that the tape is complete.
+ * </p>
+ */
+public class EventTapeRecorder implements YangPullParser {
+
+  protected final YangPullParser parser;
+  protected EventTape tape;
+
+  /**
+   * Constructor.
+   *
+   * @param parser the parser of which events are recorded
+   */
+  public EventTapeRecorder(YangPullParser parser) {
+    if (parser == null) {
+      throw new IllegalArgumentException();
+    }
+    this.parser = parser;
+    this.tape = new EventTape();
+  }
+
+  /**
+   * Returns the tape recorded.
+   *
+   * @return the tape
+   * @throws IllegalStateException when END_MODULE is not reached yet
+   */
+  public EventTape getTape() {
+    if (this.parser.getEventType() != EventType.END_MODULE) {
+      throw new IllegalStateException();
+    }
+    return this.tape;
+  }
+
+  @Override
+  public EventType next() throws IOException, YangPullParserException {
+    YangPullParser ypp = this.parser;
+    EventType eventType = ypp.next();
+    if (eventType == EventType.END_MODULE) {
+      this.tape.trim();
+    } else {
+      this.tape.add(eventType, ypp.getStatementType(), ypp.getNamespace(), ypp.getIdentifier(),
+          ypp.getArgumentChars());
+    }
+    return eventType;
+  }
+
+  @Override
+  public int getDepth() {
+    return this.parser.getDepth();
+  }
+
+  @Override
+  public EventType getEventType() {
+    return this.parser.getEventType();
+  }
+
+  @Override
+  public StatementType getStatementType() {
+    return this.parser.getStatementType();
+  }
+
+  @Override
+  public String getNamespace() {
+    return this.parser.getNamespace();
+  }
+
+  @Override
+  public String getIdentifier() {
+    return this.parser.getIdentifier();
+  }
+
+  @Override
+  public String getArgument() {
+    return this.parser.getArgument();
+  }
+
+  @Override
+  public CharSequence getArgumentChars() {
+    return this.parser.getArgumentChars();
+  }
+}
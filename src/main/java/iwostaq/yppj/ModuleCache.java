@@ -0,0 +1,94 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A directory caching the events of modules in the binary form of EventTape.
+ *
+ * <p>
+ * A cache file is keyed by the SHA-256 digest of the content of the module and the version of the
+ * parser, and by the version of the format, so an unchanged module hits the cache wherever it is
+ * and whatever its modification time is, e.g. after a fresh checkout, while the events of an older
+ * parser are not replayed after the parser is upgraded. On a hit, the events are replayed from the
+ * cache file mapped on memory. On a miss, the module is parsed with YangPullParserImpl, and the
+ * events are written to the cache before they are replayed. A cache file is written to a temporary
+ * file and renamed, so several processes can share a directory.
+ * </p>
+ */
+public class ModuleCache {
+
+  /** The suffix of the cache files, which includes the version of the format. */
+  public static final String SUFFIX = ".v" + EventTapeFile.VERSION + ".ypt";
+
+  protected final Path directory;
+
+  /**
+   * Constructor. The directory is created if it does not exist.
+   *
+   * @param directory the cache directory
+   * @throws IOException when the directory cannot be created
+   */
+  public ModuleCache(Path directory) throws IOException {
+    if (directory == null) {
+      throw new IllegalArgumentException();
+    }
+    this.directory = Files.createDirectories(directory);
+  }
+
+  /**
+   * Returns a parser of the module encoded in UTF-8. The parser replays the cached events if the
+   * module is in the cache.
+   *
+   * @param path the path of the module
+   * @return the parser
+   * @throws IOException
+   * @throws YangPullParserException when the module is parsed and has an error
+   */
+  public YangPullParser open(Path path) throws IOException, YangPullParserException {
+    ByteBuffer module = YangPullParserImpl.map(path);
+    Path cacheFile = this.getCacheFile(module);
+
+    if (Files.isRegularFile(cacheFile)) {
+      try {
+        return EventTapeFileParser.fromPath(cacheFile);
+      } catch (IOException e) {
+        // a file of another format or a broken file is replaced.
+      }
+    }
+
+    EventTape tape = EventTape.record(YangPullParserImpl.fromBytes(module));
+    EventTapeFile.write(tape, cacheFile);
+    return tape.newParser();
+  }
+
+  /**
+   * Returns the path of the cache file for the module.
+   *
+   * @param module the content of the module
+   * @return the path of the cache file
+   */
+  protected Path getCacheFile(ByteBuffer module) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256.
+      throw new IllegalStateException(e);
+    }
+    digest.update(YangPullParserImpl.VERSION.getBytes(StandardCharsets.UTF_8));
+    digest.update(module.duplicate());
+
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return this.directory.resolve(sb.append(ModuleCache.SUFFIX).toString());
+  }
+}
@@ -0,0 +1,332 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import iwostaq.yppj.ModuleHeader.Linkage;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * The graph of the dependencies among a set of modules and submodules, built from their headers.
+ *
+ * <p>
+ * A module depends on the modules it imports and the submodules it includes. An import or an
+ * include with a revision-date is resolved to the module of which newest revision is the date, and
+ * one without a revision-date is resolved to the newest module of the name. A submodule must belong
+ * to a module in the set as well, but the belongs-to statement is not a dependency because the
+ * module includes the submodule.
+ * </p>
+ *
+ * <p>
+ * The modules are divided into waves in the topological order; every module in a wave depends only
+ * on the modules in the former waves, so the modules in a wave can be parsed in parallel. The
+ * linkages which are not resolved and the cycles of the dependencies are reported by check(), and
+ * the modules in or depending on a cycle are not in any wave.
+ * </p>
+ */
+public final class ModuleGraph {
+
+  /**
+   * A module or a submodule in the graph.
+   */
+  public static final class Module {
+    private final Path path;
+    private final ModuleHeader header;
+    private final List<Module> dependencies;
+    private final List<Linkage> missing;
+
+    Module(Path path, ModuleHeader header) {
+      this.path = path;
+      this.header = header;
+      this.dependencies = new ArrayList<>();
+      this.missing = new ArrayList<>();
+    }
+
+    /**
+     * Returns the path of the file.
+     *
+     * @return the path
+     */
+    public Path getPath() {
+      return this.path;
+    }
+
+    /**
+     * Returns the header read from the file.
+     *
+     * @return the header
+     */
+    public ModuleHeader getHeader() {
+      return this.header;
+    }
+
+    /**
+     * Returns the modules imported and the submodules included, in the order of the statements.
+     *
+     * @return the dependencies
+     */
+    public List<Module> getDependencies() {
+      return Collections.unmodifiableList(this.dependencies);
+    }
+
+    /**
+     * Returns the linkages not resolved in the graph. The belongs-to statement of a submodule is
+     * reported as a linkage of which statement type is BELONGS_TO.
+     *
+     * @return the linkages not resolved
+     */
+    public List<Linkage> getMissing() {
+      return Collections.unmodifiableList(this.missing);
+    }
+
+    @Override
+    public String toString() {
+      String revision = this.header.getRevision();
+      return revision == null ? this.header.getName() : this.header.getName() + "@" + revision;
+    }
+  }
+
+  private final List<Module> modules;
+  private final Map<String, List<Module>> modulesByName;
+  private final List<List<Module>> waves;
+  private final List<List<Module>> cycles;
+
+  private ModuleGraph(List<Module> modules) {
+    this.modules = modules;
+    this.modulesByName = new HashMap<>();
+    for (Module module : modules) {
+      this.modulesByName.computeIfAbsent(module.header.getName(), name -> new ArrayList<>())
+          .add(module);
+    }
+    this.waves = new ArrayList<>();
+    this.cycles = new ArrayList<>();
+  }
+
+  /**
+   * Builds the graph of the modules. The headers are read in parallel on the common ForkJoinPool.
+   *
+   * @param paths the paths of the modules and the submodules
+   * @return the graph
+   * @throws IOException
+   * @throws YangPullParserException when a file is not a module or a submodule
+   */
+  public static ModuleGraph build(List<Path> paths) throws IOException, YangPullParserException {
+    return ModuleGraph.build(new ModuleSetParser(), paths);
+  }
+
+  /**
+   * Builds the graph of the modules. The headers are read with the parser.
+   *
+   * @param parser the parser reading the headers
+   * @param paths the paths of the modules and the submodules
+   * @return the graph
+   * @throws IOException
+   * @throws YangPullParserException when a file is not a module or a submodule
+   */
+  public static ModuleGraph build(ModuleSetParser parser, List<Path> paths)
+      throws IOException, YangPullParserException {
+    if (parser == null || paths == null) {
+      throw new IllegalArgumentException();
+    }
+    List<Module> modules = new ArrayList<>();
+    parser.parse(paths, (path, ypp) -> ModuleHeaderScanner.scan(ypp),
+        (path, header) -> modules.add(new Module(path, header)));
+
+    ModuleGraph graph = new ModuleGraph(modules);
+    graph.link();
+    graph.sort();
+    return graph;
+  }
+
+  /**
+   * Returns all the modules in the order of the paths.
+   *
+   * @return the modules
+   */
+  public List<Module> getModules() {
+    return Collections.unmodifiableList(this.modules);
+  }
+
+  /**
+   * Returns the module of the name.
+   *
+   * @param name the name of the module or the submodule
+   * @param revision the newest revision of the module, or null for the newest module of the name
+   * @return the module, or null if not found
+   */
+  public Module getModule(String name, String revision) {
+    Module found = null;
+    for (Module module : this.modulesByName.getOrDefault(name, Collections.emptyList())) {
+      ModuleHeader header = module.header;
+      if (revision != null) {
+        if (revision.equals(header.getRevision())) {
+          return module;
+        }
+      } else if (found == null || ModuleGraph.isNewer(header, found.header)) {
+        found = module;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Returns the modules divided into the waves in the topological order. A module in a wave depends
+   * only on the modules in the former waves.
+   *
+   * @return the waves
+   */
+  public List<List<Module>> getWaves() {
+    return Collections.unmodifiableList(this.waves);
+  }
+
+  /**
+   * Returns the cycles of the dependencies. Each cycle is a list of the modules depending on each
+   * other.
+   *
+   * @return the cycles
+   */
+  public List<List<Module>> getCycles() {
+    return Collections.unmodifiableList(this.cycles);
+  }
+
+  /**
+   * Checks that all the linkages are resolved and the dependencies have no cycle.
+   *
+   * @throws YangPullParserException when a linkage is not resolved or a cycle is found
+   */
+  public void check() throws YangPullParserException {
+    for (Module module : this.modules) {
+      if (!module.missing.isEmpty()) {
+        Linkage linkage = module.missing.get(0);
+        String target = linkage.getRevisionDate() == null ? linkage.getName()
+            : linkage.getName() + "@" + linkage.getRevisionDate();
+        throw new YangPullParserException("err.missing_module", module.path,
+            linkage.getStatementType(), target);
+      }
+    }
+    if (!this.cycles.isEmpty()) {
+      throw new YangPullParserException("err.circular_dependency", this.cycles.get(0));
+    }
+  }
+
+  private static boolean isNewer(ModuleHeader header, ModuleHeader than) {
+    if (header.getRevision() == null) {
+      return false;
+    }
+    return than.getRevision() == null || 0 < header.getRevision().compareTo(than.getRevision());
+  }
+
+  private void link() {
+    for (Module module : this.modules) {
+      ModuleHeader header = module.header;
+      for (Linkage linkage : header.getImports()) {
+        this.resolve(module, linkage, StatementType.MODULE);
+      }
+      for (Linkage linkage : header.getIncludes()) {
+        this.resolve(module, linkage, StatementType.SUBMODULE);
+      }
+      if (header.getBelongsTo() != null) {
+        Module owner = this.getModule(header.getBelongsTo(), null);
+        if (owner == null || owner.header.getStatementType() != StatementType.MODULE) {
+          module.missing.add(new Linkage(StatementType.BELONGS_TO, header.getBelongsTo(),
+              header.getPrefix(), null));
+        }
+      }
+    }
+  }
+
+  private void resolve(Module module, Linkage linkage, StatementType statementType) {
+    Module dependency = this.getModule(linkage.getName(), linkage.getRevisionDate());
+    if (dependency == null || dependency.header.getStatementType() != statementType) {
+      module.missing.add(linkage);
+    } else if (!module.dependencies.contains(dependency)) {
+      module.dependencies.add(dependency);
+    }
+  }
+
+  /**
+   * Divides the modules into the waves, and finds the cycles among the rest.
+   */
+  private void sort() {
+    Map<Module, Integer> waveIndexes = new IdentityHashMap<>();
+    List<Module> rest = new ArrayList<>(this.modules);
+    while (!rest.isEmpty()) {
+      int waveIndex = this.waves.size();
+      List<Module> wave = new ArrayList<>();
+      for (Module module : rest) {
+        boolean ready = true;
+        for (Module dependency : module.dependencies) {
+          Integer index = waveIndexes.get(dependency);
+          if (index == null || index == waveIndex) {
+            ready = false;
+            break;
+          }
+        }
+        if (ready) {
+          wave.add(module);
+          waveIndexes.put(module, waveIndex);
+        }
+      }
+      if (wave.isEmpty()) {
+        break;
+      }
+      this.waves.add(wave);
+      rest.removeIf(waveIndexes::containsKey);
+    }
+
+    if (!rest.isEmpty()) {
+      this.findCycles(rest);
+    }
+  }
+
+  /**
+   * Finds the strongly connected components of the modules with Tarjan's algorithm.
+   */
+  private void findCycles(List<Module> rest) {
+    Map<Module, int[]> marks = new HashMap<>();
+    List<Module> stack = new ArrayList<>();
+    for (Module module : rest) {
+      if (!marks.containsKey(module)) {
+        this.visit(module, marks, stack);
+      }
+    }
+  }
+
+  private int visit(Module module, Map<Module, int[]> marks, List<Module> stack) {
+    // index, lowlink and whether the module is on the stack
+    int[] mark = new int[] {marks.size(), marks.size(), 1};
+    marks.put(module, mark);
+    stack.add(module);
+
+    for (Module dependency : module.dependencies) {
+      int[] dependencyMark = marks.get(dependency);
+      if (dependencyMark == null) {
+        mark[1] = Math.min(mark[1], this.visit(dependency, marks, stack));
+      } else if (dependencyMark[2] == 1) {
+        mark[1] = Math.min(mark[1], dependencyMark[0]);
+      }
+    }
+
+    if (mark[1] == mark[0]) {
+      int start = stack.lastIndexOf(module);
+      List<Module> component = new ArrayList<>(stack.subList(start, stack.size()));
+      stack.subList(start, stack.size()).clear();
+      for (Module member : component) {
+        marks.get(member)[2] = 0;
+      }
+      if (1 < component.size() || module.dependencies.contains(module)) {
+        this.cycles.add(component.stream().sorted(
+            (a, b) -> Integer.compare(this.modules.indexOf(a), this.modules.indexOf(b)))
+            .collect(Collectors.toList()));
+      }
+    }
+    return mark[1];
+  }
+}
@@ -0,0 +1,179 @@
+package iwostaq.yppj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+/**
+ * The header of a module or a submodule read by ModuleHeaderScanner, i.e. the statements preceding
+ * the body of the module.
+ */
+public final class ModuleHeader {
+
+  /**
+   * A module imported or a submodule included.
+   */
+  public static final class Linkage {
+    private final StatementType statementType;
+    private final String name;
+    private final String prefix;
+    private final String revisionDate;
+
+    Linkage(StatementType statementType, String name, String prefix, String revisionDate) {
+      this.statementType = statementType;
+      this.name = name;
+      this.prefix = prefix;
+      this.revisionDate = revisionDate;
+    }
+
+    /**
+     * Returns the type of the statement, IMPORT or INCLUDE.
+     *
+     * @return the type of the statement
+     */
+    public StatementType getStatementType() {
+      return this.statementType;
+    }
+
+    /**
+     * Returns the name of the module or the submodule.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Returns the prefix of the imported module.
+     *
+     * @return the prefix, or null for an include statement
+     */
+    public String getPrefix() {
+      return this.prefix;
+    }
+
+    /**
+     * Returns the revision date of the module or the submodule.
+     *
+     * @return the revision date, or null if not specified
+     */
+    public String getRevisionDate() {
+      return this.revisionDate;
+    }
+
+    @Override
+    public String toString() {
+      return this.statementType + "[" + this.name + "]";
+    }
+  }
+
+  private final StatementType statementType;
+  private final String name;
+  String yangVersion;
+  String namespace;
+  String prefix;
+  String belongsTo;
+  String revision;
+  final List<Linkage> imports;
+  final List<Linkage> includes;
+
+  ModuleHeader(StatementType statementType, String name) {
+    this.statementType = statementType;
+    this.name = name;
+    this.yangVersion = null;
+    this.namespace = null;
+    this.prefix = null;
+    this.belongsTo = null;
+    this.revision = null;
+    this.imports = new ArrayList<>();
+    this.includes = new ArrayList<>();
+  }
+
+  /**
+   * Returns the type of the statement, MODULE or SUBMODULE.
+   *
+   * @return the type of the statement
+   */
+  public StatementType getStatementType() {
+    return this.statementType;
+  }
+
+  /**
+   * Returns the name of the module or the submodule.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the argument of the yang-version statement.
+   *
+   * @return the version, or null if not specified
+   */
+  public String getYangVersion() {
+    return this.yangVersion;
+  }
+
+  /**
+   * Returns the namespace of the module.
+   *
+   * @return the namespace, or null for a submodule
+   */
+  public String getNamespace() {
+    return this.namespace;
+  }
+
+  /**
+   * Returns the prefix of the module, or the prefix in the belongs-to statement of a submodule.
+   *
+   * @return the prefix
+   */
+  public String getPrefix() {
+    return this.prefix;
+  }
+
+  /**
+   * Returns the name of the module which a submodule belongs to.
+   *
+   * @return the name of the module, or null for a module
+   */
+  public String getBelongsTo() {
+    return this.belongsTo;
+  }
+
+  /**
+   * Returns the newest date in the revision statements.
+   *
+   * @return the revision date, or null if no revision statement is found
+   */
+  public String getRevision() {
+    return this.revision;
+  }
+
+  /**
+   * Returns the modules imported in the order of the import statements.
+   *
+   * @return the unmodifiable list of the modules
+   */
+  public List<Linkage> getImports() {
+    return Collections.unmodifiableList(this.imports);
+  }
+
+  /**
+   * Returns the submodules included in the order of the include statements.
+   *
+   * @return the unmodifiable list of the submodules
+   */
+  public List<Linkage> getIncludes() {
+    return Collections.unmodifiableList(this.includes);
+  }
+
+  @Override
+  public String toString() {
+    return this.statementType + "[" + this.name + "]";
+  }
+}
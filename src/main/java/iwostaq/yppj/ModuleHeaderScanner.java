@@ -0,0 +1,144 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A scanner reading only the header of a module or a submodule.
+ *
+ * <p>
+ * The header, i.e. the module header, linkage, meta and revision statements, is read with the pull
+ * parser, and the scanning stops at the first statement of the body. The sub-statements which are
+ * not needed, e.g. the description of a revision, are skipped without creating events. The input
+ * after the header is therefore read only as far as the scanner has buffered it.
+ * </p>
+ */
+public final class ModuleHeaderScanner {
+
+  private ModuleHeaderScanner() {}
+
+  /**
+   * Reads the header of a module from the reader. The reader is not closed, and nothing is read
+   * from it after the buffer of the scanner containing the start of the body.
+   *
+   * @param fromReader the Reader object to read data
+   * @return the header
+   * @throws IOException
+   * @throws YangPullParserException when the input does not start with a module or a submodule
+   */
+  public static ModuleHeader scan(Reader fromReader) throws IOException, YangPullParserException {
+    return ModuleHeaderScanner.scan(new YangPullParserImpl(fromReader));
+  }
+
+  /**
+   * Reads the header of a module from a file encoded in UTF-8. The file is mapped on memory, so only
+   * the pages containing the header are read from the disk.
+   *
+   * @param path the path of the file
+   * @return the header
+   * @throws IOException
+   * @throws YangPullParserException when the input does not start with a module or a submodule
+   */
+  public static ModuleHeader scan(Path path) throws IOException, YangPullParserException {
+    return ModuleHeaderScanner.scan(YangPullParserImpl.fromPath(path));
+  }
+
+  /**
+   * Reads the header of a module with the parser, which must be at the beginning of the input. The
+   * parser is left at the start of the first statement of the body, or at the end of the module.
+   *
+   * @param ypp the parser
+   * @return the header
+   * @throws IOException
+   * @throws YangPullParserException when the input does not start with a module or a submodule
+   */
+  public static ModuleHeader scan(YangPullParser ypp) throws IOException, YangPullParserException {
+    if (ypp == null) {
+      throw new IllegalArgumentException();
+    }
+
+    EventType eventType = ypp.next();
+    StatementType moduleType = ypp.getStatementType();
+    if (eventType != EventType.STATEMENT_START
+        || (moduleType != StatementType.MODULE && moduleType != StatementType.SUBMODULE)) {
+      throw new YangPullParserException("err.not_module", moduleType);
+    }
+    ModuleHeader header = new ModuleHeader(moduleType, ypp.getIdentifier());
+
+    while (ypp.next() == EventType.STATEMENT_START) {
+      switch (ypp.getStatementType()) {
+        case YANG_VERSION:
+          header.yangVersion = ypp.getArgument();
+          break;
+        case NAMESPACE:
+          header.namespace = ypp.getArgument();
+          break;
+        case PREFIX:
+          header.prefix = ypp.getArgument();
+          break;
+        case BELONGS_TO:
+          ModuleHeader.Linkage module = ModuleHeaderScanner.readLinkage(ypp);
+          header.belongsTo = module.getName();
+          header.prefix = module.getPrefix();
+          continue;
+        case IMPORT:
+          header.imports.add(ModuleHeaderScanner.readLinkage(ypp));
+          continue;
+        case INCLUDE:
+          header.includes.add(ModuleHeaderScanner.readLinkage(ypp));
+          continue;
+        case REVISION:
+          String date = ypp.getArgument();
+          if (header.revision == null || header.revision.compareTo(date) < 0) {
+            header.revision = date;
+          }
+          break;
+        case ORGANIZATION:
+        case CONTACT:
+        case DESCRIPTION:
+        case REFERENCE:
+          break;
+        case UNKNOWN:
+          // an extension may appear anywhere, whereas the statements unknown to the parser, e.g.
+          // notification, have no prefix.
+          if (ypp.getNamespace() != null) {
+            break;
+          }
+          return header;
+        default:
+          return header;
+      }
+      ypp.skipStatement();
+    }
+    return header;
+  }
+
+  /**
+   * Reads an import, include or belongs-to statement up to its end.
+   */
+  private static ModuleHeader.Linkage readLinkage(YangPullParser ypp)
+      throws IOException, YangPullParserException {
+    StatementType statementType = ypp.getStatementType();
+    String name = ypp.getIdentifier();
+    String prefix = null;
+    String revisionDate = null;
+    while (ypp.next() == EventType.STATEMENT_START) {
+      switch (ypp.getStatementType()) {
+        case PREFIX:
+          prefix = ypp.getArgument();
+          break;
+        case REVISION_DATE:
+          revisionDate = ypp.getArgument();
+          break;
+        default:
+          break;
+      }
+      ypp.skipStatement();
+    }
+    return new ModuleHeader.Linkage(statementType, name, prefix, revisionDate);
+  }
+}
@@ -0,0 +1,419 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A parser of a set of modules, which parses the modules concurrently on an executor.
+ *
+ * <p>
+ * Each module is parsed by its own YangPullParser in a task of the executor, and the handler given
+ * to parse() consumes the events of the module in the task. The results of the handler are
+ * delivered to the callback one at a time, in the order of the paths, or in the order of the
+ * completion when the set is unordered, so that the callback needs no synchronization. The
+ * callback is called without a lock held, by one of the tasks at a time, so a slow callback does
+ * not block the other tasks.
+ * </p>
+ *
+ * <p>
+ * The executor is the common ForkJoinPool by default, which steals work among the cores. Any
+ * executor can be given instead, e.g. a fixed thread pool, or an executor of virtual threads on a
+ * newer JDK. parse() waits for the tasks through ForkJoinPool.managedBlock(), so it can be called
+ * in a task of a ForkJoinPool, e.g. in a handler of another ModuleSetParser, without starving the
+ * pool. When a module fails, the modules not started yet are not parsed, and the failure is
+ * thrown from parse() after the running tasks end.
+ * </p>
+ */
+public class ModuleSetParser {
+
+  /**
+   * A handler consuming the events of a module.
+   *
+   * @param <R> the type of the result
+   */
+  @FunctionalInterface
+  public interface ModuleHandler<R> {
+
+    /**
+     * Handles a module. It is called in a task of the executor.
+     *
+     * @param path the path of the module
+     * @param ypp the parser of the module
+     * @return the result delivered to the callback
+     * @throws IOException
+     * @throws YangPullParserException
+     */
+    R handle(Path path, YangPullParser ypp) throws IOException, YangPullParserException;
+  }
+
+  /**
+   * A callback receiving the results of the modules. The calls are not concurrent.
+   *
+   * @param <R> the type of the result
+   */
+  @FunctionalInterface
+  public interface ResultCallback<R> {
+
+    /**
+     * Receives the result of a module.
+     *
+     * @param path the path of the module
+     * @param result the result of the handler
+     */
+    void accept(Path path, R result);
+  }
+
+  /** The default pattern of the module files. */
+  public static final String DEFAULT_GLOB = "*.yang";
+
+  protected final Executor executor;
+  protected boolean ordered;
+  protected ModuleCache cache;
+
+  /**
+   * Constructor. The modules are parsed on the common ForkJoinPool.
+   */
+  public ModuleSetParser() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param executor the executor running the tasks parsing the modules, which is not shut down by
+   *        this parser
+   */
+  public ModuleSetParser(Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException();
+    }
+    this.executor = executor;
+    this.ordered = true;
+    this.cache = null;
+  }
+
+  /**
+   * Sets whether the results are delivered in the order of the paths, which is the default. An
+   * unordered set delivers a result as soon as the module is parsed.
+   *
+   * @param ordered true if the results are delivered in the order of the paths
+   * @return this parser
+   */
+  public ModuleSetParser setOrdered(boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  /**
+   * Sets the cache through which the modules are opened, or null to parse them directly.
+   *
+   * @param cache the cache
+   * @return this parser
+   */
+  public ModuleSetParser setCache(ModuleCache cache) {
+    this.cache = cache;
+    return this;
+  }
+
+  /**
+   * Lists the files matching the glob pattern under the directory and its sub-directories, sorted
+   * by their paths. The pattern is matched against the file name, e.g. "*.yang".
+   *
+   * @param directory the directory
+   * @param glob the glob pattern
+   * @return the paths of the files
+   * @throws IOException
+   */
+  public static List<Path> find(Path directory, String glob) throws IOException {
+    if (directory == null || glob == null) {
+      throw new IllegalArgumentException();
+    }
+    FileSystem fs = directory.getFileSystem();
+    PathMatcher matcher = fs.getPathMatcher("glob:" + glob);
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.filter(path -> matcher.matches(path.getFileName()) && Files.isRegularFile(path))
+          .sorted().collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Parses the modules and returns the results of the handler in the order of the paths.
+   *
+   * @param <R> the type of the result
+   * @param paths the paths of the modules
+   * @param handler the handler of the modules
+   * @return the results
+   * @throws IOException when a module cannot be read
+   * @throws YangPullParserException when a module has an error
+   */
+  public <R> List<R> parse(List<Path> paths, ModuleHandler<R> handler)
+      throws IOException, YangPullParserException {
+    if (paths == null || handler == null) {
+      throw new IllegalArgumentException();
+    }
+    Object[] results = new Object[paths.size()];
+    int[] count = new int[1];
+    this.parse(paths, handler, (path, result) -> results[count[0]++] = result, true);
+    @SuppressWarnings("unchecked")
+    List<R> list = (List<R>) Arrays.asList(results);
+    return list;
+  }
+
+  /**
+   * Parses the modules and delivers the results of the handler to the callback. It returns after
+   * all the modules are parsed and delivered.
+   *
+   * @param <R> the type of the result
+   * @param paths the paths of the modules
+   * @param handler the handler of the modules
+   * @param callback the callback receiving the results
+   * @throws IOException when a module cannot be read
+   * @throws YangPullParserException when a module has an error
+   */
+  public <R> void parse(List<Path> paths, ModuleHandler<R> handler,
+      ResultCallback<? super R> callback) throws IOException, YangPullParserException {
+    if (paths == null || handler == null || callback == null) {
+      throw new IllegalArgumentException();
+    }
+    this.parse(paths, handler, callback, this.ordered);
+  }
+
+  /**
+   * Parses the modules in the graph in the topological order. The waves of the graph are parsed one
+   * after another, and the modules in a wave in parallel, so that a module is parsed after the
+   * results of all its dependencies are delivered to the callback.
+   *
+   * @param <R> the type of the result
+   * @param graph the graph of the modules
+   * @param handler the handler of the modules
+   * @param callback the callback receiving the results
+   * @throws IOException when a module cannot be read
+   * @throws YangPullParserException when a linkage is not resolved, the dependencies have a cycle,
+   *         or a module has an error
+   */
+  public <R> void parse(ModuleGraph graph, ModuleHandler<R> handler,
+      ResultCallback<? super R> callback) throws IOException, YangPullParserException {
+    if (graph == null || handler == null || callback == null) {
+      throw new IllegalArgumentException();
+    }
+    graph.check();
+    for (List<ModuleGraph.Module> wave : graph.getWaves()) {
+      List<Path> paths = new ArrayList<>(wave.size());
+      for (ModuleGraph.Module module : wave) {
+        paths.add(module.getPath());
+      }
+      this.parse(paths, handler, callback, this.ordered);
+    }
+  }
+
+  private <R> void parse(List<Path> paths, ModuleHandler<R> handler,
+      ResultCallback<? super R> callback, boolean ordered)
+      throws IOException, YangPullParserException {
+    Batch<R> batch = new Batch<>(new ArrayList<>(paths), handler, callback, ordered);
+    for (int i = 0; i < batch.paths.size(); i++) {
+      int index = i;
+      try {
+        this.executor.execute(() -> batch.run(index, this));
+      } catch (RejectedExecutionException e) {
+        batch.reject(e, batch.paths.size() - i);
+        break;
+      }
+    }
+    batch.await();
+  }
+
+  /**
+   * Opens the parser of a module. It is called in a task of the executor.
+   *
+   * @param path the path of the module
+   * @return the parser
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  protected YangPullParser open(Path path) throws IOException, YangPullParserException {
+    if (this.cache != null) {
+      return this.cache.open(path);
+    }
+    return YangPullParserImpl.fromPath(path);
+  }
+
+  /**
+   * The state of a call of parse(), shared by its tasks.
+   */
+  private static final class Batch<R> {
+
+    final List<Path> paths;
+    final ModuleHandler<R> handler;
+    final ResultCallback<? super R> callback;
+    final boolean ordered;
+    final CountDownLatch latch;
+
+    /** The results parsed but not delivered yet. */
+    private final Object[] results;
+    /** The modules parsed, which are kept only when ordered. */
+    private final boolean[] done;
+    /** The indexes of the results in the order of the completion, when unordered. */
+    private final ArrayDeque<Integer> ready;
+    private int nextIndex;
+    /** Whether a task is calling the callback, which then delivers the results added meanwhile. */
+    private boolean delivering;
+    private volatile Throwable failure;
+
+    Batch(List<Path> paths, ModuleHandler<R> handler, ResultCallback<? super R> callback,
+        boolean ordered) {
+      this.paths = paths;
+      this.handler = handler;
+      this.callback = callback;
+      this.ordered = ordered;
+      this.latch = new CountDownLatch(paths.size());
+      this.results = new Object[paths.size()];
+      this.done = new boolean[ordered ? paths.size() : 0];
+      this.ready = new ArrayDeque<>();
+      this.nextIndex = 0;
+      this.delivering = false;
+      this.failure = null;
+    }
+
+    void run(int index, ModuleSetParser parser) {
+      try {
+        if (this.failure != null) {
+          return;
+        }
+        Path path = this.paths.get(index);
+        R result;
+        try {
+          result = this.handler.handle(path, parser.open(path));
+        } catch (YangPullParserException e) {
+          YangPullParserException ex = new YangPullParserException("err.module", path,
+              e.getMessage());
+          ex.initCause(e);
+          throw ex;
+        }
+        this.deliver(index, result);
+      } catch (Throwable e) {
+        this.fail(e);
+      } finally {
+        this.latch.countDown();
+      }
+    }
+
+    /**
+     * Adds the result, and delivers the results ready to be delivered unless another task is
+     * delivering them. The callback is called outside the lock.
+     */
+    @SuppressWarnings("unchecked")
+    private void deliver(int index, R result) {
+      synchronized (this) {
+        if (this.failure != null) {
+          return;
+        }
+        this.results[index] = result;
+        if (this.ordered) {
+          this.done[index] = true;
+        } else {
+          this.ready.add(index);
+        }
+        if (this.delivering) {
+          return;
+        }
+        this.delivering = true;
+      }
+
+      while (true) {
+        int next;
+        R nextResult;
+        synchronized (this) {
+          next = this.takeReady();
+          if (next < 0) {
+            this.delivering = false;
+            return;
+          }
+          nextResult = (R) this.results[next];
+          this.results[next] = null;
+        }
+        this.callback.accept(this.paths.get(next), nextResult);
+      }
+    }
+
+    /**
+     * Returns the index of the next result to be delivered, or -1 if there is none.
+     */
+    private int takeReady() {
+      if (this.failure != null) {
+        return -1;
+      }
+      if (!this.ordered) {
+        Integer next = this.ready.poll();
+        return (next == null) ? -1 : next;
+      }
+      if (this.nextIndex < this.done.length && this.done[this.nextIndex]) {
+        return this.nextIndex++;
+      }
+      return -1;
+    }
+
+    private synchronized void fail(Throwable e) {
+      if (this.failure == null) {
+        this.failure = e;
+      }
+    }
+
+    void reject(Throwable e, int count) {
+      this.fail(e);
+      for (int i = 0; i < count; i++) {
+        this.latch.countDown();
+      }
+    }
+
+    void await() throws IOException, YangPullParserException {
+      try {
+        // a worker of a ForkJoinPool waiting here is compensated by another one.
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override
+          public boolean block() throws InterruptedException {
+            Batch.this.latch.await();
+            return true;
+          }
+
+          @Override
+          public boolean isReleasable() {
+            return Batch.this.latch.getCount() == 0;
+          }
+        });
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        this.fail(e);
+        throw new InterruptedIOException();
+      }
+
+      Throwable e = this.failure;
+      if (e == null) {
+        return;
+      } else if (e instanceof IOException) {
+        throw (IOException) e;
+      } else if (e instanceof YangPullParserException) {
+        throw (YangPullParserException) e;
+      } else if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      } else if (e instanceof Error) {
+        throw (Error) e;
+      }
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,459 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.antlr.v4.runtime.Token;
+import iwostaq.yppj.exception.YangPullParserException;
+import iwostaq.yppj.g.YangLexer;
+
+/**
+ * A parser of a large module, which parses the top-level statements of the module in parallel.
+ *
+ * <p>
+ * The input is pre-scanned for the boundaries of the top-level statements with the byte-oriented
+ * scanner, which counts only braces and skips strings and comments as a whole. The statements are
+ * grouped into chunks of about the chunk size, and each chunk is parsed and recorded into an
+ * EventTape in a task of the executor. The parser replays the tapes in the document order, waiting
+ * only when it catches up with the tasks, so it reports the same events as YangPullParserImpl. Only
+ * the chunks following the one being replayed, one more than the parallelism of the executor, are
+ * parsed ahead, and the next chunk is submitted when a tape is replayed, so the tapes held in
+ * memory do not grow with the size of the input. A
+ * chunk with an error is parsed again when the parser reaches it, so the error is thrown after the
+ * same events as YangPullParserImpl.
+ * </p>
+ *
+ * <p>
+ * Alternatively, parseChunks() gives each chunk to a handler in a task of the executor. When the
+ * input cannot be split, e.g. it is not a single module or it is smaller than two chunks, the
+ * parser parses it sequentially.
+ * </p>
+ */
+public class ParallelModuleParser implements YangPullParser {
+
+  /**
+   * A handler consuming the events of a chunk.
+   *
+   * @param <R> the type of the result
+   */
+  @FunctionalInterface
+  public interface ChunkHandler<R> {
+
+    /**
+     * Handles a chunk. It is called in a task of the executor. The parser reports the top-level
+     * statements in the chunk at the depth 1, and END_MODULE at the end of the chunk.
+     *
+     * @param index the index of the chunk in the document order
+     * @param ypp the parser of the chunk
+     * @return the result
+     * @throws IOException
+     * @throws YangPullParserException
+     */
+    R handle(int index, YangPullParser ypp) throws IOException, YangPullParserException;
+  }
+
+  /** The default size of a chunk in bytes. */
+  public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+  protected final ByteBuffer input;
+  protected final Executor executor;
+
+  /** The offsets of the chunks and the '}' closing the module; null if not split. */
+  protected final int[] boundaries;
+
+  /** The parser of the whole input when it is not split. */
+  protected final YangPullParser sequentialParser;
+
+  /** The module statement, which is parsed up to its '{'. */
+  protected StatementType moduleStatementType;
+  protected String moduleNamespace;
+  protected String moduleIdentifier;
+  protected String moduleArgument;
+
+  /** The number of the chunks parsed ahead of the one being replayed. */
+  protected final int maxChunksInFlight;
+
+  protected List<CompletableFuture<EventTape>> tapes;
+  protected int chunkIndex;
+  protected YangPullParser chunkParser;
+  protected EventType eventType;
+
+  /**
+   * Constructor. The chunks are parsed on the common ForkJoinPool.
+   *
+   * @param utf8Bytes the buffer holding a module encoded in UTF-8
+   */
+  public ParallelModuleParser(ByteBuffer utf8Bytes) {
+    this(utf8Bytes, ForkJoinPool.commonPool(), ParallelModuleParser.DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param utf8Bytes the buffer holding a module encoded in UTF-8; the bytes between the position
+   *        and the limit are parsed
+   * @param executor the executor parsing the chunks
+   * @param chunkSize the size of a chunk in bytes; a chunk has at least one statement
+   */
+  public ParallelModuleParser(ByteBuffer utf8Bytes, Executor executor, int chunkSize) {
+    if (utf8Bytes == null || executor == null || chunkSize <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.input = utf8Bytes.slice();
+    this.executor = executor;
+    this.boundaries = ParallelModuleParser.split(this.input, chunkSize);
+    this.sequentialParser =
+        (this.boundaries == null) ? YangPullParserImpl.fromBytes(this.input.duplicate()) : null;
+    int parallelism = (executor instanceof ForkJoinPool)
+        ? ((ForkJoinPool) executor).getParallelism()
+        : Runtime.getRuntime().availableProcessors();
+    this.maxChunksInFlight = parallelism + 1;
+    this.tapes = null;
+    this.chunkIndex = -1;
+    this.chunkParser = null;
+    this.eventType = null;
+  }
+
+  /**
+   * Creates a parser for a file encoded in UTF-8. The file is mapped on memory, and the chunks are
+   * parsed on the common ForkJoinPool.
+   *
+   * @param path the path of the file
+   * @return the parser
+   * @throws IOException when the file cannot be mapped
+   */
+  public static ParallelModuleParser fromPath(Path path) throws IOException {
+    return new ParallelModuleParser(YangPullParserImpl.map(path));
+  }
+
+  /**
+   * Returns the number of the chunks parsed in parallel.
+   *
+   * @return the number of the chunks, or 0 if the input is parsed sequentially
+   */
+  public int getChunkCount() {
+    return this.boundaries == null ? 0 : this.boundaries.length - 1;
+  }
+
+  /**
+   * Parses the chunks with the handler in parallel instead of reporting the events, and returns the
+   * results in the document order. The module statement itself is not given to the handler. When
+   * the input is not split, the handler is called once with the parser of the whole input.
+   *
+   * @param <R> the type of the result
+   * @param handler the handler of the chunks
+   * @return the results
+   * @throws IOException
+   * @throws YangPullParserException the first error in the document order
+   * @throws IllegalStateException when next() has been called
+   */
+  public <R> List<R> parseChunks(ChunkHandler<R> handler)
+      throws IOException, YangPullParserException {
+    if (handler == null) {
+      throw new IllegalArgumentException();
+    }
+    if (this.eventType != null) {
+      throw new IllegalStateException();
+    }
+    List<R> results = new ArrayList<>();
+    if (this.boundaries == null) {
+      results.add(handler.handle(0, this.sequentialParser));
+      return results;
+    }
+
+    List<CompletableFuture<R>> futures = new ArrayList<>();
+    for (int i = 0; i < this.getChunkCount(); i++) {
+      int index = i;
+      futures.add(this.submit(() -> handler.handle(index, this.newChunkParser(index))));
+    }
+    for (CompletableFuture<R> future : futures) {
+      results.add(ParallelModuleParser.join(future));
+    }
+    return results;
+  }
+
+  @Override
+  public EventType next() throws IOException, YangPullParserException {
+    if (this.sequentialParser != null) {
+      this.eventType = this.sequentialParser.next();
+      return this.eventType;
+    }
+    if (this.eventType == null) {
+      return this.startModule();
+    }
+    if (this.chunkIndex == this.getChunkCount()) {
+      // the end of the module has been reported.
+      this.eventType = EventType.END_MODULE;
+      return this.eventType;
+    }
+
+    while (this.chunkIndex < this.getChunkCount()) {
+      if (this.chunkParser == null) {
+        this.chunkParser = this.openChunk(this.chunkIndex);
+      }
+      EventType eventType = this.chunkParser.next();
+      if (eventType != EventType.END_MODULE) {
+        this.eventType = eventType;
+        return this.eventType;
+      }
+      this.chunkParser = null;
+      this.chunkIndex++;
+    }
+
+    this.eventType = EventType.STATEMENT_END;
+    return this.eventType;
+  }
+
+  /**
+   * Skips the sub-statements of the current statement. The chunks are not waited for when the
+   * module statement is skipped, and the tasks not started yet are cancelled.
+   *
+   * @return the type of the event moved to
+   * @throws IOException
+   * @throws YangPullParserException
+   * @throws IllegalStateException when the current event is not STATEMENT_START
+   */
+  @Override
+  public EventType skipStatement() throws IOException, YangPullParserException {
+    if (this.getEventType() != EventType.STATEMENT_START) {
+      throw new IllegalStateException();
+    }
+    if (this.sequentialParser != null) {
+      this.eventType = this.sequentialParser.skipStatement();
+      return this.eventType;
+    }
+    if (this.chunkParser != null) {
+      this.eventType = this.chunkParser.skipStatement();
+      return this.eventType;
+    }
+    for (int i = 0; i < this.tapes.size(); i++) {
+      CompletableFuture<EventTape> future = this.tapes.get(i);
+      if (future != null) {
+        future.cancel(false);
+        this.tapes.set(i, null);
+      }
+    }
+    this.chunkIndex = this.getChunkCount();
+    this.eventType = EventType.STATEMENT_END;
+    return this.eventType;
+  }
+
+  @Override
+  public int getDepth() {
+    if (this.sequentialParser != null) {
+      return this.sequentialParser.getDepth();
+    }
+    if (this.chunkParser != null) {
+      return this.chunkParser.getDepth() + 1;
+    }
+    return this.isAtModule() && this.eventType == EventType.STATEMENT_START ? 1 : 0;
+  }
+
+  @Override
+  public EventType getEventType() {
+    return this.eventType;
+  }
+
+  @Override
+  public StatementType getStatementType() {
+    if (this.sequentialParser != null || this.chunkParser != null) {
+      return this.current().getStatementType();
+    }
+    return this.isAtModule() ? this.moduleStatementType : null;
+  }
+
+  @Override
+  public String getNamespace() {
+    if (this.sequentialParser != null || this.chunkParser != null) {
+      return this.current().getNamespace();
+    }
+    return this.isAtModule() ? this.moduleNamespace : null;
+  }
+
+  @Override
+  public String getIdentifier() {
+    if (this.sequentialParser != null || this.chunkParser != null) {
+      return this.current().getIdentifier();
+    }
+    return this.isAtModule() ? this.moduleIdentifier : null;
+  }
+
+  @Override
+  public String getArgument() {
+    if (this.sequentialParser != null || this.chunkParser != null) {
+      return this.current().getArgument();
+    }
+    return this.isAtModule() ? this.moduleArgument : null;
+  }
+
+  private YangPullParser current() {
+    return this.sequentialParser != null ? this.sequentialParser : this.chunkParser;
+  }
+
+  /**
+   * Checks if the current event is the start or the end of the module statement.
+   */
+  private boolean isAtModule() {
+    return this.eventType == EventType.STATEMENT_START || this.eventType == EventType.STATEMENT_END;
+  }
+
+  /**
+   * Submits the tasks recording the first chunks, and reports the start of the module statement.
+   */
+  private EventType startModule() throws IOException, YangPullParserException {
+    this.tapes = new ArrayList<>();
+    while (this.tapes.size() < Math.min(this.maxChunksInFlight, this.getChunkCount())) {
+      this.submitChunk();
+    }
+    this.chunkIndex = 0;
+
+    ByteBuffer header = this.input.duplicate();
+    header.limit(this.boundaries[0]);
+    YangPullParser ypp = YangPullParserImpl.fromBytes(header.slice());
+    this.eventType = ypp.next();
+    this.moduleStatementType = ypp.getStatementType();
+    this.moduleNamespace = ypp.getNamespace();
+    this.moduleIdentifier = ypp.getIdentifier();
+    this.moduleArgument = ypp.getArgument();
+    return this.eventType;
+  }
+
+  /**
+   * Submits the task recording the chunk following the ones submitted.
+   */
+  private void submitChunk() {
+    int index = this.tapes.size();
+    this.tapes.add(this.submit(() -> EventTape.record(this.newChunkParser(index))));
+  }
+
+  /**
+   * Returns the parser replaying the tape of the chunk, and submits the next chunk. When the chunk
+   * has an error, the chunk is parsed again so that the events preceding the error are reported
+   * before it is thrown.
+   */
+  private YangPullParser openChunk(int index) throws IOException, YangPullParserException {
+    CompletableFuture<EventTape> future = this.tapes.get(index);
+    // the tape is released once it is replayed.
+    this.tapes.set(index, null);
+    if (this.tapes.size() < this.getChunkCount()) {
+      this.submitChunk();
+    }
+    try {
+      return ParallelModuleParser.join(future).newParser();
+    } catch (IOException | YangPullParserException e) {
+      return this.newChunkParser(index);
+    }
+  }
+
+  private YangPullParser newChunkParser(int index) {
+    ByteBuffer chunk = this.input.duplicate();
+    chunk.limit(this.boundaries[index + 1]);
+    chunk.position(this.boundaries[index]);
+    return YangPullParserImpl.fromBytes(chunk.slice());
+  }
+
+  /**
+   * A task of the executor, which may throw the exceptions of the parser.
+   */
+  @FunctionalInterface
+  private interface Task<R> {
+    R run() throws IOException, YangPullParserException;
+  }
+
+  private <R> CompletableFuture<R> submit(Task<R> task) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return task.run();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (YangPullParserException e) {
+        throw new CompletionException(e);
+      }
+    }, this.executor);
+  }
+
+  private static <R> R join(CompletableFuture<R> future)
+      throws IOException, YangPullParserException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      } else if (cause instanceof YangPullParserException) {
+        throw (YangPullParserException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Finds the boundaries of the chunks in the input.
+   *
+   * @param input the input
+   * @param chunkSize the size of a chunk
+   * @return the offsets of the chunks followed by the offset of the '}' closing the module, or null
+   *         when the input cannot be split into two chunks or more
+   */
+  static int[] split(ByteBuffer input, int chunkSize) {
+    if (input.remaining() < chunkSize * 2L) {
+      return null;
+    }
+    YangByteScanner scanner = new YangByteScanner(input.duplicate());
+
+    // the module statement up to its '{'
+    int type = scanner.scan();
+    while (type != YangLexer.S_LBR) {
+      if (type == YangLexer.S_SEMICOLON || type == YangLexer.S_RBR || type == Token.EOF
+          || type == Token.INVALID_TYPE) {
+        return null;
+      }
+      type = scanner.scan();
+    }
+
+    List<Integer> boundaries = new ArrayList<>();
+    int chunkStart = -1;
+    while (true) {
+      type = scanner.scan();
+      int offset = scanner.getTokenOffset();
+      if (type == YangLexer.S_RBR) {
+        if (chunkStart < 0 || scanner.scan() != Token.EOF) {
+          return null;
+        }
+        boundaries.add(offset);
+        break;
+      }
+      if (type == YangLexer.S_LBR || type == YangLexer.S_SEMICOLON || type == Token.EOF
+          || type == Token.INVALID_TYPE) {
+        return null;
+      }
+      if (chunkStart < 0 || chunkSize <= offset - chunkStart) {
+        boundaries.add(offset);
+        chunkStart = offset;
+      }
+      if (!scanner.skipToEndOfStatement()) {
+        return null;
+      }
+    }
+
+    if (boundaries.size() < 3) {
+      return null;
+    }
+    int[] result = new int[boundaries.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = boundaries.get(i);
+    }
+    return result;
+  }
+}
@@ -1,9 +1,8 @@
 package iwostaq.yppj;
 
-import java.util.EmptyStackException;
-import java.util.Stack;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import iwostaq.yppj.YangPullParser.EventType;
 
 /**
  * A class holding the state of the parser.
@@ -18,22 +17,31 @@ public class ParserContext {
 
   protected YangVersion yangVersion;
 
-  protected Stack<Event> eventStack;
+  protected StatementStack statementStack;
 
-  protected CommonTokenStream tokenStream;
+  protected TokenWindow tokenWindow;
+
+  /** The argument being read, which may refer to the buffer of the scanner. */
+  protected TextRef argumentText;
 
   /**
    * Constructor.
    * 
-   * @param tokenStream the CommonTokenStream object of ANTLR v4.
+   * @param tokenWindow the stream of tokens to be parsed.
    */
-  protected ParserContext(CommonTokenStream tokenStream) {
-    if (tokenStream == null) {
+  protected ParserContext(TokenWindow tokenWindow) {
+    if (tokenWindow == null) {
       throw new IllegalArgumentException();
     }
     this.yangVersion = YangVersion.V10; // by default
-    this.eventStack = new Stack<>();
-    this.tokenStream = tokenStream;
+    this.statementStack = new StatementStack();
+    this.tokenWindow = tokenWindow;
+    this.argumentText = new TextRef();
+
+    TokenSource tokenSource = tokenWindow.getTokenSource();
+    if (tokenSource instanceof YangTokenSource) {
+      ((YangTokenSource) tokenSource).setDiscardListener(this::materializeTexts);
+    }
   }
 
   /**
@@ -51,7 +59,35 @@ public class ParserContext {
    * @return the size of the stack
    */
   protected int getEventStackSize() {
-    return this.eventStack.size();
+    return this.statementStack.getDepth();
+  }
+
+  /**
+   * Return the stack of the statements enclosing the current position.
+   * 
+   * @return the stack
+   */
+  public StatementStack getStatementStack() {
+    return this.statementStack;
+  }
+
+  /**
+   * Return the reference used to read an argument.
+   * 
+   * @return the reference
+   */
+  public TextRef getArgumentText() {
+    return this.argumentText;
+  }
+
+  /**
+   * Create the Strings of the texts referring to the buffer of the scanner. This is called before
+   * the scanner discards the input.
+   */
+  protected void materializeTexts() {
+    this.tokenWindow.materializeTexts();
+    this.argumentText.materialize();
+    this.statementStack.materializeArguments();
   }
 
   /**
@@ -60,37 +96,48 @@ public class ParserContext {
    * @return the current lexical token.
    */
   public Token getCurrentToken() {
-    return this.tokenStream.LT(1);
+    return this.tokenWindow.LT(1);
   }
 
   /**
    * Consume the current lexical token and prepares the next token in the stream.
    */
   public void consume() {
-    this.tokenStream.consume();
+    this.tokenWindow.consume();
   }
 
   /**
-   * Return the top on the event stack. The event is removed from the stack.
+   * Remove the top statement from the stack and set it to the given event as an end event.
    *
-   * @return the top event
+   * @param endEvent the event to be set
+   * @return false if the stack is empty
    */
-  public Event popTopEvent() {
-    try {
-      return this.eventStack.pop();
-    } catch (EmptyStackException e) {
-      return null;
+  public boolean popTopEvent(Event endEvent) {
+    StatementStack stack = this.statementStack;
+    if (stack.getDepth() == 0) {
+      return false;
     }
+
+    endEvent.setEventType(EventType.STATEMENT_END);
+    endEvent.setStatementType(stack.peek(0));
+    endEvent.setNamespace(stack.peekNamespace(0));
+    endEvent.setIdentifier(stack.peekIdentifier(0));
+    endEvent.setArgumentRef(stack.peekArgumentRef(0));
+    return stack.pop();
   }
 
   /**
-   * Put the event on the stack.
+   * Put the statement of the event on the stack. The argument of the event is replaced with the one
+   * on the stack so that both events of the statement share it.
    * 
    * @param event the event
    */
   public void pushEvent(Event event) {
     if (event != null) {
-      this.eventStack.push(event);
+      StatementStack stack = this.statementStack;
+      stack.push(event.getStatementType(), event.getNamespace(), event.getIdentifier(),
+          event.getArgumentRef());
+      event.setArgumentRef(stack.peekArgumentRef(0));
     }
   }
 }
@@ -0,0 +1,136 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.exception.UncheckedYangPullParserException;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A spliterator over the events read from a parser.
+ *
+ * <p>
+ * The events are read in batches into EventTapes, and the snapshots refer to the tapes. trySplit()
+ * reads a batch of whole top-level statements, i.e. it reads on until the statements at the depth
+ * 2 are closed, and hands it off as a TapeSpliterator, which can be split further. The size of the
+ * batches handed off grows as the splitting goes on, as the batches of the spliterators over
+ * iterators do. The spliterator of a feed-based parser ends when the parser returns INCOMPLETE, so
+ * it reports the events which can be read from the input fed so far.
+ * </p>
+ */
+final class ParserSpliterator implements Spliterator<EventSnapshot> {
+
+  static final int BATCH_SIZE = 1024;
+  static final int MAX_BATCH_SIZE = 1 << 20;
+
+  private final YangPullParser ypp;
+  private TapeSpliterator batch;
+  private int splitSize;
+  /** Whether no more events are read from the parser. */
+  private boolean ended;
+
+  ParserSpliterator(YangPullParser ypp) {
+    this.ypp = ypp;
+    this.batch = null;
+    this.splitSize = 0;
+    this.ended = false;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super EventSnapshot> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    do {
+      if (this.batch != null && this.batch.tryAdvance(action)) {
+        return true;
+      }
+      this.batch = this.readBatch(ParserSpliterator.BATCH_SIZE, false);
+    } while (this.batch != null);
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super EventSnapshot> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    do {
+      if (this.batch != null) {
+        this.batch.forEachRemaining(action);
+      }
+      this.batch = this.readBatch(ParserSpliterator.BATCH_SIZE, false);
+    } while (this.batch != null);
+  }
+
+  @Override
+  public Spliterator<EventSnapshot> trySplit() {
+    if (this.batch != null && 0 < this.batch.estimateSize()) {
+      // the rest of the batch precedes the events not read yet.
+      Spliterator<EventSnapshot> prefix = this.batch;
+      this.batch = null;
+      return prefix;
+    }
+    this.splitSize =
+        Math.min(this.splitSize + ParserSpliterator.BATCH_SIZE, ParserSpliterator.MAX_BATCH_SIZE);
+    return this.readBatch(this.splitSize, true);
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return Spliterator.ORDERED | Spliterator.NONNULL;
+  }
+
+  private TapeSpliterator readBatch(int size, boolean wholeStatements) {
+    if (this.ended) {
+      return null;
+    }
+    TapeSpliterator batch = ParserSpliterator.read(this.ypp, size, wholeStatements);
+    if (batch == null || this.ypp.getEventType() == EventType.INCOMPLETE) {
+      this.ended = true;
+    }
+    return batch;
+  }
+
+  /**
+   * Reads a batch of the events from the parser, up to END_MODULE or INCOMPLETE.
+   *
+   * @param ypp the parser
+   * @param size the number of the events to be read, or at least to be read if wholeStatements
+   * @param wholeStatements true to read on until the top-level statements are closed
+   * @return the batch, or null at the end of the module or of the input fed
+   */
+  static TapeSpliterator read(YangPullParser ypp, int size, boolean wholeStatements) {
+    if (ypp.getEventType() == EventType.END_MODULE) {
+      return null;
+    }
+    int depth = ypp.getDepth();
+    EventTape tape = new EventTape();
+    try {
+      while (tape.size() < size || (wholeStatements && 1 < ypp.getDepth())) {
+        EventType eventType = ypp.next();
+        if (eventType == EventType.END_MODULE || eventType == EventType.INCOMPLETE) {
+          break;
+        }
+        tape.add(eventType, ypp.getStatementType(), ypp.getNamespace(), ypp.getIdentifier(),
+            ypp.getArgumentChars());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (YangPullParserException e) {
+      throw new UncheckedYangPullParserException(e);
+    }
+    if (tape.size() == 0) {
+      return null;
+    }
+    tape.trim();
+    return new TapeSpliterator(tape, 0, tape.size(), depth);
+  }
+}
@@ -0,0 +1,503 @@
+package iwostaq.yppj;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * An index of the statements of a module down to a depth, which locates a statement in the file
+ * without parsing the file from the top.
+ *
+ * <p>
+ * The index is built in one pass; the statements deeper than the depth are skipped by the scanner
+ * counting braces. The type, the depth, the namespace, the identifier, the range of the bytes and
+ * the line and the column of each statement are kept in parallel primitive arrays, with the strings
+ * in a SymbolTable. open() creates a parser of an indexed statement reading only the bytes of the
+ * statement, e.g. of a file mapped on memory. The index keeps the SHA-256 digest of the input, so
+ * open() of a file rejects the file edited after the index is built, even if its length is kept.
+ * </p>
+ *
+ * <p>
+ * The index can be stored in a file. All the numbers are big endian.
+ * </p>
+ *
+ * <pre>
+ * header:     int MAGIC, int VERSION, int inputLength, int statementCount, int stringCount,
+ *             byte[DIGEST_SIZE] SHA-256 digest of the input
+ * statements: statementCount records of RECORD_SIZE bytes;
+ *             byte statementType, byte 0, short depth, int namespaceId, int identifierId,
+ *             int startOffset, int endOffset, int line, int column
+ * strings:    int[stringCount + 1] offsets of the strings from the start of the bytes,
+ *             followed by the strings encoded in UTF-8
+ * </pre>
+ */
+public final class StatementIndex {
+
+  /** "YPSI" */
+  public static final int MAGIC = 0x59505349;
+
+  /** The version of the format, which is incremented when the format is changed. */
+  public static final int VERSION = 2;
+
+  /** The depth of the top-level statements, i.e. the sub-statements of the module. */
+  public static final int TOP_LEVEL = 2;
+
+  static final int DIGEST_SIZE = 32;
+  static final int HEADER_SIZE = 20 + StatementIndex.DIGEST_SIZE;
+  static final int RECORD_SIZE = 28;
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final StatementType[] STATEMENT_TYPES = StatementType.values();
+
+  private final int inputLength;
+  private final byte[] inputDigest;
+  private byte[] statementTypes;
+  private int[] depths;
+  private int[] namespaceIds;
+  private int[] identifierIds;
+  private int[] startOffsets;
+  private int[] endOffsets;
+  private int[] lines;
+  private int[] columns;
+  private int size;
+  private final SymbolTable symbolTable;
+
+  private StatementIndex(int inputLength, byte[] inputDigest, int capacity) {
+    this.inputLength = inputLength;
+    this.inputDigest = inputDigest;
+    this.statementTypes = new byte[capacity];
+    this.depths = new int[capacity];
+    this.namespaceIds = new int[capacity];
+    this.identifierIds = new int[capacity];
+    this.startOffsets = new int[capacity];
+    this.endOffsets = new int[capacity];
+    this.lines = new int[capacity];
+    this.columns = new int[capacity];
+    this.size = 0;
+    this.symbolTable = new SymbolTable();
+  }
+
+  /**
+   * Builds the index of the module statement and the top-level statements of the file.
+   *
+   * @param path the path of the file encoded in UTF-8
+   * @return the index
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static StatementIndex build(Path path) throws IOException, YangPullParserException {
+    return StatementIndex.build(path, StatementIndex.TOP_LEVEL);
+  }
+
+  /**
+   * Builds the index of the statements of the file down to the depth.
+   *
+   * @param path the path of the file encoded in UTF-8
+   * @param maxDepth the depth of the deepest statements indexed, which is 1 for the module
+   * @return the index
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static StatementIndex build(Path path, int maxDepth)
+      throws IOException, YangPullParserException {
+    return StatementIndex.build(YangPullParserImpl.map(path), maxDepth);
+  }
+
+  /**
+   * Builds the index of the statements down to the depth. The offsets are counted from the
+   * position of the buffer.
+   *
+   * @param utf8Bytes the buffer holding a module encoded in UTF-8
+   * @param maxDepth the depth of the deepest statements indexed, which is 1 for the module
+   * @return the index
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static StatementIndex build(ByteBuffer utf8Bytes, int maxDepth)
+      throws IOException, YangPullParserException {
+    if (utf8Bytes == null || maxDepth < 1) {
+      throw new IllegalArgumentException();
+    }
+    StatementIndex index = new StatementIndex(utf8Bytes.remaining(),
+        StatementIndex.digest(utf8Bytes), StatementIndex.INITIAL_CAPACITY);
+    YangPullParserImpl ypp = YangPullParserImpl.fromBytes(utf8Bytes);
+
+    // the indexes of the statements enclosing the current position
+    int[] openIndexes = new int[maxDepth];
+    EventType eventType;
+    while ((eventType = ypp.next()) != EventType.END_MODULE) {
+      int depth = ypp.getDepth();
+      if (eventType == EventType.STATEMENT_START) {
+        int i = index.add(ypp.getStatementType(), depth, ypp.getNamespace(), ypp.getIdentifier(),
+            ypp.getStartOffset(), ypp.getLine(), ypp.getColumn());
+        openIndexes[depth - 1] = i;
+        if (depth == maxDepth) {
+          ypp.skipStatement();
+          index.endOffsets[i] = ypp.getEndOffset();
+        }
+      } else {
+        // the statement of an end event has just been popped.
+        index.endOffsets[openIndexes[depth]] = ypp.getEndOffset();
+      }
+    }
+    index.trim();
+    return index;
+  }
+
+  /**
+   * Returns the number of the statements.
+   *
+   * @return the number of the statements
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the length of the input in bytes.
+   *
+   * @return the length of the input
+   */
+  public int getInputLength() {
+    return this.inputLength;
+  }
+
+  /**
+   * Returns the index of the first statement of the type and the identifier.
+   *
+   * @param statementType the type of the statement
+   * @param identifier the identifier of the statement
+   * @return the index, or -1 if not found
+   */
+  public int find(StatementType statementType, String identifier) {
+    if (statementType == null) {
+      throw new IllegalArgumentException();
+    }
+    for (int i = 0; i < this.size; i++) {
+      if (this.statementTypes[i] == statementType.ordinal()
+          && Objects.equals(this.symbolTable.getSymbol(this.identifierIds[i]), identifier)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the type of the statement.
+   *
+   * @param index the index of the statement
+   * @return the type
+   */
+  public StatementType getStatementType(int index) {
+    return StatementIndex.STATEMENT_TYPES[this.statementTypes[this.check(index)]];
+  }
+
+  /**
+   * Returns the depth of the statement, which is 1 for the module.
+   *
+   * @param index the index of the statement
+   * @return the depth
+   */
+  public int getDepth(int index) {
+    return this.depths[this.check(index)];
+  }
+
+  /**
+   * Returns the namespace of the statement.
+   *
+   * @param index the index of the statement
+   * @return the namespace
+   */
+  public String getNamespace(int index) {
+    return this.symbolTable.getSymbol(this.namespaceIds[this.check(index)]);
+  }
+
+  /**
+   * Returns the identifier of the statement.
+   *
+   * @param index the index of the statement
+   * @return the identifier
+   */
+  public String getIdentifier(int index) {
+    return this.symbolTable.getSymbol(this.identifierIds[this.check(index)]);
+  }
+
+  /**
+   * Returns the offset of the keyword of the statement in bytes.
+   *
+   * @param index the index of the statement
+   * @return the offset
+   */
+  public int getStartOffset(int index) {
+    return this.startOffsets[this.check(index)];
+  }
+
+  /**
+   * Returns the offset following the ';' or '}' ending the statement in bytes.
+   *
+   * @param index the index of the statement
+   * @return the offset
+   */
+  public int getEndOffset(int index) {
+    return this.endOffsets[this.check(index)];
+  }
+
+  /**
+   * Returns the line of the keyword of the statement, counted from 1.
+   *
+   * @param index the index of the statement
+   * @return the line
+   */
+  public int getLine(int index) {
+    return this.lines[this.check(index)];
+  }
+
+  /**
+   * Returns the column of the keyword of the statement, counted from 1.
+   *
+   * @param index the index of the statement
+   * @return the column
+   */
+  public int getColumn(int index) {
+    return this.columns[this.check(index)];
+  }
+
+  /**
+   * Creates a parser of the statement, which reads only the bytes of the statement. The parser
+   * reports the statement at the depth 1, its sub-statements and then END_MODULE. The positions of
+   * the events are the ones in the whole input. Only the length of the input is checked, as
+   * digesting the input on every call would cost as much as parsing it.
+   *
+   * @param utf8Bytes the buffer holding the module from which the index is built, e.g. the file
+   *        mapped on memory
+   * @param index the index of the statement
+   * @return the parser
+   * @throws IllegalArgumentException when the length of the input is not the one of the index
+   */
+  public YangPullParserImpl open(ByteBuffer utf8Bytes, int index) {
+    if (utf8Bytes == null) {
+      throw new IllegalArgumentException();
+    }
+    if (utf8Bytes.remaining() != this.inputLength) {
+      throw new IllegalArgumentException("the index is not built from the input");
+    }
+    this.check(index);
+    ByteBuffer statement = utf8Bytes.duplicate();
+    statement.limit(utf8Bytes.position() + this.endOffsets[index]);
+    statement.position(utf8Bytes.position() + this.startOffsets[index]);
+    return YangPullParserImpl.fromBytes(statement, this.startOffsets[index], this.lines[index],
+        this.columns[index]);
+  }
+
+  /**
+   * Creates a parser of the statement in the file, which is mapped on memory. The file is
+   * rejected when its digest is not the one of the index, e.g. when it has been edited.
+   *
+   * @param path the path of the file from which the index is built
+   * @param index the index of the statement
+   * @return the parser
+   * @throws IOException
+   * @throws IllegalArgumentException when the content of the file is not the one of the index
+   * @see #open(ByteBuffer, int)
+   */
+  public YangPullParserImpl open(Path path, int index) throws IOException {
+    ByteBuffer utf8Bytes = YangPullParserImpl.map(path);
+    if (utf8Bytes.remaining() != this.inputLength
+        || !Arrays.equals(StatementIndex.digest(utf8Bytes), this.inputDigest)) {
+      throw new IllegalArgumentException("the index is not built from the input");
+    }
+    return this.open(utf8Bytes, index);
+  }
+
+  /**
+   * Writes the index to the stream.
+   *
+   * @param toStream the stream, which is not closed
+   * @throws IOException
+   */
+  public void write(OutputStream toStream) throws IOException {
+    if (toStream == null) {
+      throw new IllegalArgumentException();
+    }
+    int stringCount = this.symbolTable.size();
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(toStream));
+    out.writeInt(StatementIndex.MAGIC);
+    out.writeInt(StatementIndex.VERSION);
+    out.writeInt(this.inputLength);
+    out.writeInt(this.size);
+    out.writeInt(stringCount);
+    out.write(this.inputDigest);
+
+    for (int i = 0; i < this.size; i++) {
+      out.writeByte(this.statementTypes[i]);
+      out.writeByte(0);
+      out.writeShort(this.depths[i]);
+      out.writeInt(this.namespaceIds[i]);
+      out.writeInt(this.identifierIds[i]);
+      out.writeInt(this.startOffsets[i]);
+      out.writeInt(this.endOffsets[i]);
+      out.writeInt(this.lines[i]);
+      out.writeInt(this.columns[i]);
+    }
+
+    byte[][] strings = new byte[stringCount][];
+    int offset = 0;
+    for (int id = 0; id < stringCount; id++) {
+      strings[id] = this.symbolTable.getSymbol(id).getBytes(StandardCharsets.UTF_8);
+      out.writeInt(offset);
+      offset += strings[id].length;
+    }
+    out.writeInt(offset);
+    for (byte[] string : strings) {
+      out.write(string);
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the index to the file atomically, through a temporary file in the same directory.
+   *
+   * @param path the path of the file
+   * @throws IOException
+   */
+  public void write(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException();
+    }
+    Path directory = path.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(temporary)) {
+        this.write(out);
+      }
+      Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Reads the index from the file.
+   *
+   * @param path the path of the file
+   * @return the index
+   * @throws IOException when the file cannot be read, or is not a valid file of this version
+   */
+  public static StatementIndex read(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException();
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    int limit = buffer.limit();
+    if (limit < StatementIndex.HEADER_SIZE || buffer.getInt(0) != StatementIndex.MAGIC) {
+      throw new IOException("not a statement index file");
+    }
+    if (buffer.getInt(4) != StatementIndex.VERSION) {
+      throw new IOException("unsupported version of statement index file: " + buffer.getInt(4));
+    }
+    int inputLength = buffer.getInt(8);
+    byte[] inputDigest = new byte[StatementIndex.DIGEST_SIZE];
+    buffer.position(20);
+    buffer.get(inputDigest);
+    long statementCount = buffer.getInt(12);
+    long stringCount = buffer.getInt(16);
+    long stringsOffset = StatementIndex.HEADER_SIZE + statementCount * StatementIndex.RECORD_SIZE;
+    long bytesOffset = stringsOffset + (stringCount + 1) * 4;
+    if (statementCount < 0 || stringCount < 0 || limit < bytesOffset
+        || limit != bytesOffset + buffer.getInt((int) (bytesOffset - 4))) {
+      throw new IOException("truncated statement index file");
+    }
+
+    // the strings are interned in the order of the ids, so the ids are kept.
+    StatementIndex index = new StatementIndex(inputLength, inputDigest, (int) statementCount);
+    for (int id = 0; id < stringCount; id++) {
+      int start = buffer.getInt((int) stringsOffset + id * 4);
+      int end = buffer.getInt((int) stringsOffset + id * 4 + 4);
+      index.symbolTable.getId(new String(buffer.array(), (int) bytesOffset + start, end - start,
+          StandardCharsets.UTF_8));
+    }
+    buffer.position(StatementIndex.HEADER_SIZE);
+    for (int i = 0; i < statementCount; i++) {
+      index.statementTypes[i] = buffer.get();
+      buffer.get();
+      index.depths[i] = buffer.getShort();
+      index.namespaceIds[i] = buffer.getInt();
+      index.identifierIds[i] = buffer.getInt();
+      index.startOffsets[i] = buffer.getInt();
+      index.endOffsets[i] = buffer.getInt();
+      index.lines[i] = buffer.getInt();
+      index.columns[i] = buffer.getInt();
+    }
+    index.size = (int) statementCount;
+    return index;
+  }
+
+  private static byte[] digest(ByteBuffer utf8Bytes) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256.
+      throw new IllegalStateException(e);
+    }
+    digest.update(utf8Bytes.duplicate());
+    return digest.digest();
+  }
+
+  private int check(int index) {
+    if (index < 0 || this.size <= index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+    return index;
+  }
+
+  private int add(StatementType statementType, int depth, String namespace, String identifier,
+      int startOffset, int line, int column) {
+    int index = this.size;
+    if (index == this.depths.length) {
+      this.resize(Math.max(index * 2, StatementIndex.INITIAL_CAPACITY));
+    }
+    this.statementTypes[index] = (byte) statementType.ordinal();
+    this.depths[index] = depth;
+    this.namespaceIds[index] = this.symbolTable.getId(namespace);
+    this.identifierIds[index] = this.symbolTable.getId(identifier);
+    this.startOffsets[index] = startOffset;
+    this.endOffsets[index] = -1;
+    this.lines[index] = line;
+    this.columns[index] = column;
+    this.size = index + 1;
+    return index;
+  }
+
+  private void trim() {
+    if (this.size < this.depths.length) {
+      this.resize(this.size);
+    }
+  }
+
+  private void resize(int capacity) {
+    this.statementTypes = Arrays.copyOf(this.statementTypes, capacity);
+    this.depths = Arrays.copyOf(this.depths, capacity);
+    this.namespaceIds = Arrays.copyOf(this.namespaceIds, capacity);
+    this.identifierIds = Arrays.copyOf(this.identifierIds, capacity);
+    this.startOffsets = Arrays.copyOf(this.startOffsets, capacity);
+    this.endOffsets = Arrays.copyOf(this.endOffsets, capacity);
+    this.lines = Arrays.copyOf(this.lines, capacity);
+    this.columns = Arrays.copyOf(this.columns, capacity);
+  }
+}
@@ -0,0 +1,265 @@
+package iwostaq.yppj;
+
+import java.util.Arrays;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+/**
+ * A stack of the statements enclosing the current position of the parser.
+ *
+ * <p>
+ * The stack is not synchronized and keeps each statement in parallel arrays: the ordinal of the
+ * statement type, and the namespace and the identifier as they are given, which are the strings
+ * already interned by the scanner, so that they are not interned again and the symbol table does
+ * not grow beyond its limit. The argument is kept in a TextRef owned by each level, which may
+ * refer to the buffer of the scanner until it is materialized. Pushing and popping allocate no
+ * objects once the arrays are large enough for the nesting of the module.
+ * </p>
+ */
+public class StatementStack {
+
+  protected static final int INITIAL_CAPACITY = 16;
+
+  private static final StatementType[] STATEMENT_TYPES = StatementType.values();
+
+  protected int[] statementTypes;
+  protected String[] namespaces;
+  protected String[] identifiers;
+  protected TextRef[] arguments;
+  protected int depth;
+
+  protected Ancestors ancestors;
+
+  /**
+   * A read-only view of the statements on the stack from the root. The index 0 is the root
+   * statement and the index size() - 1 is the innermost one. The view reflects the changes of the
+   * stack.
+   */
+  public final class Ancestors {
+
+    private Ancestors() {}
+
+    /**
+     * Returns the number of the statements.
+     *
+     * @return the number of the statements
+     */
+    public int size() {
+      return StatementStack.this.depth;
+    }
+
+    /**
+     * Returns the type of the statement.
+     *
+     * @param index the index of the statement from the root
+     * @return the type of the statement
+     */
+    public StatementType getStatementType(int index) {
+      return StatementStack.this.peek(StatementStack.this.depth - 1 - index);
+    }
+
+    /**
+     * Returns the namespace of the statement.
+     *
+     * @param index the index of the statement from the root
+     * @return the namespace of the statement
+     */
+    public String getNamespace(int index) {
+      return StatementStack.this.peekNamespace(StatementStack.this.depth - 1 - index);
+    }
+
+    /**
+     * Returns the identifier of the statement.
+     *
+     * @param index the index of the statement from the root
+     * @return the identifier of the statement
+     */
+    public String getIdentifier(int index) {
+      return StatementStack.this.peekIdentifier(StatementStack.this.depth - 1 - index);
+    }
+
+    /**
+     * Returns the argument of the statement.
+     *
+     * @param index the index of the statement from the root
+     * @return the argument of the statement
+     */
+    public String getArgument(int index) {
+      return StatementStack.this.peekArgument(StatementStack.this.depth - 1 - index);
+    }
+  }
+
+  /**
+   * Constructor.
+   */
+  public StatementStack() {
+    this.statementTypes = new int[StatementStack.INITIAL_CAPACITY];
+    this.namespaces = new String[StatementStack.INITIAL_CAPACITY];
+    this.identifiers = new String[StatementStack.INITIAL_CAPACITY];
+    this.arguments = new TextRef[StatementStack.INITIAL_CAPACITY];
+    this.depth = 0;
+    this.ancestors = new Ancestors();
+  }
+
+  /**
+   * Returns the number of the statements on the stack.
+   *
+   * @return the depth
+   */
+  public int getDepth() {
+    return this.depth;
+  }
+
+  /**
+   * Returns the view of the statements from the root.
+   *
+   * @return the view
+   */
+  public Ancestors getAncestors() {
+    return this.ancestors;
+  }
+
+  /**
+   * Puts a statement on the stack. An argument given as a TextRef is copied to the TextRef of the
+   * level without being materialized.
+   *
+   * @param statementType the type of the statement
+   * @param namespace the namespace of the statement
+   * @param identifier the identifier of the statement
+   * @param argument the argument of the statement, or null
+   */
+  public void push(StatementType statementType, String namespace, String identifier,
+      CharSequence argument) {
+    if (this.depth == this.statementTypes.length) {
+      int capacity = this.depth * 2;
+      this.statementTypes = Arrays.copyOf(this.statementTypes, capacity);
+      this.namespaces = Arrays.copyOf(this.namespaces, capacity);
+      this.identifiers = Arrays.copyOf(this.identifiers, capacity);
+      this.arguments = Arrays.copyOf(this.arguments, capacity);
+    }
+    this.statementTypes[this.depth] = statementType.ordinal();
+    this.namespaces[this.depth] = namespace;
+    this.identifiers[this.depth] = identifier;
+    TextRef argumentRef = this.arguments[this.depth];
+    if (argumentRef == null) {
+      argumentRef = new TextRef();
+      this.arguments[this.depth] = argumentRef;
+    }
+    if (argument instanceof TextRef) {
+      argumentRef.set((TextRef) argument);
+    } else {
+      argumentRef.set((argument == null) ? null : argument.toString());
+    }
+    this.depth++;
+  }
+
+  /**
+   * Removes the top statement from the stack.
+   *
+   * @return false if the stack is empty
+   */
+  public boolean pop() {
+    if (this.depth == 0) {
+      return false;
+    }
+    // the argument is kept until the level is reused, so that the end event can refer to it.
+    this.depth--;
+    return true;
+  }
+
+  /**
+   * Returns the type of the n-th statement from the top.
+   *
+   * @param n the position from the top; 0 for the top
+   * @return the type of the statement
+   */
+  public StatementType peek(int n) {
+    return StatementStack.STATEMENT_TYPES[this.statementTypes[this.indexOf(n)]];
+  }
+
+  /**
+   * Returns the namespace of the n-th statement from the top.
+   *
+   * @param n the position from the top; 0 for the top
+   * @return the namespace
+   */
+  public String peekNamespace(int n) {
+    return this.namespaces[this.indexOf(n)];
+  }
+
+  /**
+   * Returns the identifier of the n-th statement from the top.
+   *
+   * @param n the position from the top; 0 for the top
+   * @return the identifier
+   */
+  public String peekIdentifier(int n) {
+    return this.identifiers[this.indexOf(n)];
+  }
+
+  /**
+   * Returns the argument of the n-th statement from the top.
+   *
+   * @param n the position from the top; 0 for the top
+   * @return the argument
+   */
+  public String peekArgument(int n) {
+    return this.arguments[this.indexOf(n)].getString();
+  }
+
+  /**
+   * Returns the reference to the argument of the n-th statement from the top.
+   *
+   * @param n the position from the top; 0 for the top
+   * @return the reference to the argument
+   */
+  public TextRef peekArgumentRef(int n) {
+    return this.arguments[this.indexOf(n)];
+  }
+
+  /**
+   * Creates the Strings of the arguments on the stack, and of the one popped last, so that they do
+   * not depend on the buffer of the scanner.
+   */
+  public void materializeArguments() {
+    int count = Math.min(this.depth + 1, this.arguments.length);
+    for (int i = 0; i < count && this.arguments[i] != null; i++) {
+      this.arguments[i].materialize();
+    }
+  }
+
+  /**
+   * Returns the namespace of the statement at the level from the root. The statement popped last,
+   * of which level is the depth of the stack, is also available.
+   *
+   * @param level the level from the root, starting from 0
+   * @return the namespace
+   */
+  public String getNamespaceAt(int level) {
+    return this.namespaces[this.checkLevel(level)];
+  }
+
+  /**
+   * Returns the identifier of the statement at the level from the root. The statement popped last,
+   * of which level is the depth of the stack, is also available.
+   *
+   * @param level the level from the root, starting from 0
+   * @return the identifier
+   */
+  public String getIdentifierAt(int level) {
+    return this.identifiers[this.checkLevel(level)];
+  }
+
+  private int checkLevel(int level) {
+    if (level < 0 || this.depth < level || this.statementTypes.length <= level) {
+      throw new IndexOutOfBoundsException("no statement at level " + level);
+    }
+    return level;
+  }
+
+  private int indexOf(int n) {
+    if (n < 0 || this.depth <= n) {
+      throw new IndexOutOfBoundsException("no statement at " + n + " from the top");
+    }
+    return this.depth - 1 - n;
+  }
+}
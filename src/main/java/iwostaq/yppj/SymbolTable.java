@@ -0,0 +1,318 @@
+package iwostaq.yppj;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A table interning short strings such as keywords and identifiers.
+ *
+ * <p>
+ * A string is looked up with the chars in the buffer of the scanner or in a part of another
+ * string, so no String object is created for a symbol which already appeared in the input. Each
+ * symbol has an id, a sequential number starting from zero, which can be kept instead of the
+ * string.
+ * </p>
+ *
+ * <p>
+ * The number of symbols interned by intern() is limited; the strings beyond the limit are returned
+ * without being interned, so the table of a scanner does not grow with the size of the input.
+ * getId() interns any string; it is used by the tables holding the strings of their own, e.g.
+ * EventTape, and not while parsing.
+ * </p>
+ */
+public class SymbolTable {
+
+  public static final int MAX_SYMBOL_LENGTH = 64;
+
+  /** The id representing null. */
+  public static final int NO_SYMBOL = -1;
+
+  protected static final int INITIAL_CAPACITY = 256;
+  protected static final int MAX_SYMBOL_COUNT = 1 << 16;
+
+  /** The hash table holding (id + 1) of symbols, 0 for an empty slot. */
+  protected int[] slots;
+  protected String[] symbols;
+  protected int[] hashes;
+  protected int size;
+
+  /**
+   * Constructor.
+   */
+  public SymbolTable() {
+    this.slots = new int[SymbolTable.INITIAL_CAPACITY];
+    this.symbols = new String[SymbolTable.INITIAL_CAPACITY / 2];
+    this.hashes = new int[SymbolTable.INITIAL_CAPACITY / 2];
+    this.size = 0;
+  }
+
+  /**
+   * Returns the number of the interned symbols.
+   *
+   * @return the number of the symbols
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Removes all the symbols, so that the ids are given from zero again.
+   */
+  void clear() {
+    Arrays.fill(this.slots, 0);
+    Arrays.fill(this.symbols, 0, this.size, null);
+    this.size = 0;
+  }
+
+  /**
+   * Returns the symbol of the id.
+   *
+   * @param id the id of the symbol
+   * @return the symbol, or null for NO_SYMBOL
+   */
+  public String getSymbol(int id) {
+    if (id == SymbolTable.NO_SYMBOL) {
+      return null;
+    }
+    return this.symbols[id];
+  }
+
+  /**
+   * Returns the id of the symbol. The symbol is interned if it is not yet.
+   *
+   * @param symbol the symbol
+   * @return the id of the symbol, or NO_SYMBOL for null
+   */
+  public int getId(String symbol) {
+    if (symbol == null) {
+      return SymbolTable.NO_SYMBOL;
+    }
+
+    int hash = symbol.hashCode();
+    int mask = this.slots.length - 1;
+    int index = SymbolTable.spread(hash) & mask;
+    int slot;
+    while ((slot = this.slots[index]) != 0) {
+      String s = this.symbols[slot - 1];
+      if (this.hashes[slot - 1] == hash && (s == symbol || s.equals(symbol))) {
+        return slot - 1;
+      }
+      index = (index + 1) & mask;
+    }
+    return this.add(index, hash, symbol);
+  }
+
+  /**
+   * Returns the id of the symbol having the same chars as the char sequence. The symbol is interned
+   * if it is not yet, and a String is created only then.
+   *
+   * @param symbol the char sequence
+   * @return the id of the symbol, or NO_SYMBOL for null
+   */
+  public int getId(CharSequence symbol) {
+    if (symbol == null) {
+      return SymbolTable.NO_SYMBOL;
+    }
+    if (symbol instanceof String) {
+      return this.getId((String) symbol);
+    }
+
+    int length = symbol.length();
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + symbol.charAt(i);
+    }
+
+    int mask = this.slots.length - 1;
+    int index = SymbolTable.spread(hash) & mask;
+    int slot;
+    while ((slot = this.slots[index]) != 0) {
+      if (this.hashes[slot - 1] == hash
+          && SymbolTable.equals(this.symbols[slot - 1], symbol, 0, length)) {
+        return slot - 1;
+      }
+      index = (index + 1) & mask;
+    }
+    return this.add(index, hash, symbol.toString());
+  }
+
+  /**
+   * Returns the interned string which has the same chars as the given range of the array.
+   *
+   * @param chars the char array
+   * @param start the start index of the string in the array
+   * @param length the length of the string
+   * @return the interned string
+   */
+  public String intern(char[] chars, int start, int length) {
+    if (SymbolTable.MAX_SYMBOL_LENGTH < length) {
+      return new String(chars, start, length);
+    }
+
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+
+    int mask = this.slots.length - 1;
+    int index = SymbolTable.spread(hash) & mask;
+    int slot;
+    while ((slot = this.slots[index]) != 0) {
+      if (this.hashes[slot - 1] == hash
+          && SymbolTable.equals(this.symbols[slot - 1], chars, start, length)) {
+        return this.symbols[slot - 1];
+      }
+      index = (index + 1) & mask;
+    }
+
+    String symbol = new String(chars, start, length);
+    if (SymbolTable.MAX_SYMBOL_COUNT <= this.size) {
+      return symbol;
+    }
+    this.add(index, hash, symbol);
+    return symbol;
+  }
+
+  /**
+   * Returns the interned string which has the same chars as the given range of the char sequence.
+   *
+   * @param chars the char sequence
+   * @param start the start index of the string in the sequence
+   * @param length the length of the string
+   * @return the interned string
+   */
+  public String intern(CharSequence chars, int start, int length) {
+    if (SymbolTable.MAX_SYMBOL_LENGTH < length) {
+      return chars.subSequence(start, start + length).toString();
+    }
+
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + chars.charAt(i);
+    }
+
+    int mask = this.slots.length - 1;
+    int index = SymbolTable.spread(hash) & mask;
+    int slot;
+    while ((slot = this.slots[index]) != 0) {
+      if (this.hashes[slot - 1] == hash
+          && SymbolTable.equals(this.symbols[slot - 1], chars, start, length)) {
+        return this.symbols[slot - 1];
+      }
+      index = (index + 1) & mask;
+    }
+
+    String symbol = chars.subSequence(start, start + length).toString();
+    if (SymbolTable.MAX_SYMBOL_COUNT <= this.size) {
+      return symbol;
+    }
+    this.add(index, hash, symbol);
+    return symbol;
+  }
+
+  /**
+   * Returns the interned string which has the same chars as the given range of the array holding
+   * ASCII bytes.
+   *
+   * @param bytes the byte array holding only ASCII bytes in the range
+   * @param start the start index of the string in the array
+   * @param length the length of the string
+   * @return the interned string
+   */
+  public String internAscii(byte[] bytes, int start, int length) {
+    if (SymbolTable.MAX_SYMBOL_LENGTH < length) {
+      return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+
+    int mask = this.slots.length - 1;
+    int index = SymbolTable.spread(hash) & mask;
+    int slot;
+    while ((slot = this.slots[index]) != 0) {
+      if (this.hashes[slot - 1] == hash
+          && SymbolTable.equals(this.symbols[slot - 1], bytes, start, length)) {
+        return this.symbols[slot - 1];
+      }
+      index = (index + 1) & mask;
+    }
+
+    String symbol = new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+    if (SymbolTable.MAX_SYMBOL_COUNT <= this.size) {
+      return symbol;
+    }
+    this.add(index, hash, symbol);
+    return symbol;
+  }
+
+  private int add(int index, int hash, String symbol) {
+    int id = this.size;
+    if (id == this.symbols.length) {
+      this.symbols = Arrays.copyOf(this.symbols, id * 2);
+      this.hashes = Arrays.copyOf(this.hashes, id * 2);
+    }
+    this.symbols[id] = symbol;
+    this.hashes[id] = hash;
+    this.slots[index] = id + 1;
+    this.size++;
+    if (this.slots.length < this.size * 2) {
+      this.rehash();
+    }
+    return id;
+  }
+
+  private void rehash() {
+    this.slots = new int[this.slots.length * 2];
+    int mask = this.slots.length - 1;
+    for (int id = 0; id < this.size; id++) {
+      int index = SymbolTable.spread(this.hashes[id]) & mask;
+      while (this.slots[index] != 0) {
+        index = (index + 1) & mask;
+      }
+      this.slots[index] = id + 1;
+    }
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean equals(String symbol, char[] chars, int start, int length) {
+    if (symbol.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (symbol.charAt(i) != chars[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean equals(String symbol, CharSequence chars, int start, int length) {
+    if (symbol.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (symbol.charAt(i) != chars.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean equals(String symbol, byte[] bytes, int start, int length) {
+    if (symbol.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (symbol.charAt(i) != bytes[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,121 @@
+package iwostaq.yppj;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import iwostaq.yppj.YangPullParser.EventType;
+
+/**
+ * A spliterator over a range of the events in an EventTape.
+ *
+ * <p>
+ * trySplit() cuts the range at the boundary of whole statements nearest to the middle, using the
+ * matching indexes of the tape. When the range is a single statement, it is cut among the
+ * sub-statements, so a module is split among its top-level statements first.
+ * </p>
+ */
+final class TapeSpliterator implements Spliterator<EventSnapshot> {
+
+  private final EventTape tape;
+  private int index;
+  private final int end;
+
+  /** The depth before the event at the index. */
+  private int depth;
+
+  TapeSpliterator(EventTape tape, int index, int end, int depth) {
+    this.tape = tape;
+    this.index = index;
+    this.end = end;
+    this.depth = depth;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super EventSnapshot> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    if (this.end <= this.index) {
+      return false;
+    }
+    action.accept(this.snapshot());
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super EventSnapshot> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    while (this.index < this.end) {
+      action.accept(this.snapshot());
+    }
+  }
+
+  private EventSnapshot snapshot() {
+    int index = this.index++;
+    if (this.tape.getEventType(index) == EventType.STATEMENT_START) {
+      this.depth++;
+    } else {
+      this.depth--;
+    }
+    return new EventSnapshot(this.tape, index, this.depth);
+  }
+
+  @Override
+  public Spliterator<EventSnapshot> trySplit() {
+    int middle = (this.index + this.end) >>> 1;
+    int low = this.index;
+    int high = this.end;
+    int depth = this.depth;
+
+    while (true) {
+      // walk the statements between low and high, jumping over the closed ones.
+      int cut = -1;
+      int cutDepth = 0;
+      int i = low;
+      int d = depth;
+      while (i < high) {
+        if (i != low && (cut < 0 || Math.abs(i - middle) < Math.abs(cut - middle))) {
+          cut = i;
+          cutDepth = d;
+        }
+        int matching = this.tape.getMatchingIndex(i);
+        if (this.tape.getEventType(i) == EventType.STATEMENT_START && i < matching
+            && matching < high) {
+          i = matching + 1;
+        } else {
+          d += (this.tape.getEventType(i) == EventType.STATEMENT_START) ? 1 : -1;
+          i++;
+        }
+      }
+
+      if (0 <= cut) {
+        TapeSpliterator prefix = new TapeSpliterator(this.tape, this.index, cut, this.depth);
+        this.index = cut;
+        this.depth = cutDepth;
+        return prefix;
+      }
+
+      // a single statement; cut among its sub-statements.
+      int matching = this.tape.getMatchingIndex(low);
+      if (high - low < 3 || this.tape.getEventType(low) != EventType.STATEMENT_START
+          || matching != high - 1) {
+        return null;
+      }
+      low++;
+      high = matching;
+      depth++;
+    }
+  }
+
+  @Override
+  public long estimateSize() {
+    return this.end - this.index;
+  }
+
+  @Override
+  public int characteristics() {
+    return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE | Spliterator.SIZED
+        | Spliterator.SUBSIZED;
+  }
+}
@@ -0,0 +1,193 @@
+package iwostaq.yppj;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A mutable char sequence referring to a range of the buffer of a scanner, or to a String.
+ *
+ * <p>
+ * A String is created only when getString() or toString() is called, or when the range is
+ * materialized before the scanner discards it. Once created, the String is kept in place of the
+ * range. The range is either chars of a char array or ASCII bytes of a byte array.
+ * </p>
+ */
+public final class TextRef implements CharSequence {
+
+  private String string;
+  private char[] chars;
+  private byte[] asciiBytes;
+  private int start;
+  private int length;
+
+  /**
+   * Constructor. The object refers to no text.
+   */
+  public TextRef() {
+    this.clear();
+  }
+
+  /**
+   * Makes the object refer to no text.
+   */
+  public void clear() {
+    this.string = null;
+    this.chars = null;
+    this.asciiBytes = null;
+    this.start = 0;
+    this.length = 0;
+  }
+
+  /**
+   * Returns whether the object refers to no text.
+   *
+   * @return true if no text is referred to
+   */
+  public boolean isNull() {
+    return this.string == null && this.chars == null && this.asciiBytes == null;
+  }
+
+  /**
+   * Makes the object refer to the string.
+   *
+   * @param s the string, or null for no text
+   */
+  public void set(String s) {
+    this.clear();
+    this.string = s;
+    if (s != null) {
+      this.length = s.length();
+    }
+  }
+
+  /**
+   * Makes the object refer to the range of the char array.
+   *
+   * @param chars the char array
+   * @param start the start index of the text in the array
+   * @param length the length of the text
+   */
+  public void set(char[] chars, int start, int length) {
+    this.clear();
+    this.chars = chars;
+    this.start = start;
+    this.length = length;
+  }
+
+  /**
+   * Makes the object refer to the range of the byte array holding ASCII bytes.
+   *
+   * @param bytes the byte array
+   * @param start the start index of the text in the array
+   * @param length the length of the text
+   */
+  public void setAscii(byte[] bytes, int start, int length) {
+    this.clear();
+    this.asciiBytes = bytes;
+    this.start = start;
+    this.length = length;
+  }
+
+  /**
+   * Makes the object refer to the same text as the other.
+   *
+   * @param other the other object, or null for no text
+   */
+  public void set(TextRef other) {
+    if (other == null) {
+      this.clear();
+      return;
+    }
+    this.string = other.string;
+    this.chars = other.chars;
+    this.asciiBytes = other.asciiBytes;
+    this.start = other.start;
+    this.length = other.length;
+  }
+
+  /**
+   * Replaces the range with a String so that the object does not depend on the buffer any more.
+   */
+  public void materialize() {
+    if (this.chars != null) {
+      this.string = new String(this.chars, this.start, this.length);
+      this.chars = null;
+      this.start = 0;
+    } else if (this.asciiBytes != null) {
+      this.string =
+          new String(this.asciiBytes, this.start, this.length, StandardCharsets.ISO_8859_1);
+      this.asciiBytes = null;
+      this.start = 0;
+    }
+  }
+
+  /**
+   * Returns the text as a String.
+   *
+   * @return the text, or null if no text is referred to
+   */
+  public String getString() {
+    this.materialize();
+    return this.string;
+  }
+
+  @Override
+  public int length() {
+    return this.length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || this.length <= index) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+    if (this.chars != null) {
+      return this.chars[this.start + index];
+    } else if (this.asciiBytes != null) {
+      return (char) this.asciiBytes[this.start + index];
+    }
+    return this.string.charAt(index);
+  }
+
+  /**
+   * Copies the chars of the text into the array without creating a String.
+   *
+   * @param dest the destination array
+   * @param destBegin the index in the array where the text is copied to
+   */
+  public void getChars(char[] dest, int destBegin) {
+    if (this.chars != null) {
+      System.arraycopy(this.chars, this.start, dest, destBegin, this.length);
+    } else if (this.asciiBytes != null) {
+      for (int i = 0; i < this.length; i++) {
+        dest[destBegin + i] = (char) this.asciiBytes[this.start + i];
+      }
+    } else if (this.string != null) {
+      this.string.getChars(0, this.length, dest, destBegin);
+    }
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end < start || this.length < end) {
+      throw new IndexOutOfBoundsException(start + ", " + end);
+    }
+    if (this.chars != null) {
+      return new String(this.chars, this.start + start, end - start);
+    } else if (this.asciiBytes != null) {
+      return new String(this.asciiBytes, this.start + start, end - start,
+          StandardCharsets.ISO_8859_1);
+    }
+    return this.string.substring(start, end);
+  }
+
+  /**
+   * Returns the text as a String. An empty string is returned if no text is referred to.
+   *
+   * @return the text
+   */
+  @Override
+  public String toString() {
+    String s = this.getString();
+    return (s == null) ? "" : s;
+  }
+}
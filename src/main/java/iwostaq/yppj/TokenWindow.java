@@ -0,0 +1,218 @@
+package iwostaq.yppj;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import iwostaq.yppj.g.YangLexer;
+
+/**
+ * A streaming token stream with a small fixed lookahead window.
+ *
+ * <p>
+ * Unlike CommonTokenStream, which keeps every token read so far, the window holds only the tokens
+ * not consumed yet, so the memory usage does not depend on the size of the input.
+ * </p>
+ *
+ * <p>
+ * When the source is a YangTokenSource, the token objects in the window are recycled. A consumed
+ * token remains valid until the window reads as many new tokens as its size.
+ * </p>
+ */
+public class TokenWindow {
+
+  public static final int DEFAULT_SIZE = 4;
+
+  protected TokenSource tokenSource;
+  protected YangTokenSource scanner;
+
+  protected Token[] tokens;
+  protected int head;
+  protected int count;
+
+  protected Token eofToken;
+
+  /**
+   * Constructor.
+   *
+   * @param tokenSource the source of tokens
+   */
+  public TokenWindow(TokenSource tokenSource) {
+    this(tokenSource, TokenWindow.DEFAULT_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param tokenSource the source of tokens
+   * @param size the maximum number of lookahead tokens
+   */
+  public TokenWindow(TokenSource tokenSource, int size) {
+    if (tokenSource == null || size < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.tokenSource = tokenSource;
+    this.scanner =
+        (tokenSource instanceof YangTokenSource) ? (YangTokenSource) tokenSource : null;
+    this.tokens = new Token[size];
+    this.head = 0;
+    this.count = 0;
+    this.eofToken = null;
+  }
+
+  /**
+   * Returns the source of tokens.
+   *
+   * @return the source of tokens
+   */
+  public TokenSource getTokenSource() {
+    return this.tokenSource;
+  }
+
+  /**
+   * Returns the size of the window.
+   *
+   * @return the maximum number of lookahead tokens
+   */
+  public int getSize() {
+    return this.tokens.length;
+  }
+
+  /**
+   * Returns the k-th lookahead token. LT(1) is the current token. Once the end of the input is
+   * reached, the EOF token is returned repeatedly.
+   *
+   * @param k the position of the token from 1 to the size of the window
+   * @return the token
+   */
+  public Token LT(int k) {
+    if (k < 1 || this.tokens.length < k) {
+      throw new IllegalArgumentException("lookahead out of the window: " + k);
+    }
+    while (this.count < k) {
+      int index = (this.head + this.count) % this.tokens.length;
+      Token token = this.eofToken;
+      if (token == null) {
+        if (this.scanner != null) {
+          token = this.scanner.nextToken((YangToken) this.tokens[index]);
+        } else {
+          token = this.tokenSource.nextToken();
+        }
+        if (token.getType() == Token.EOF) {
+          this.eofToken = token;
+        }
+      }
+      this.tokens[index] = token;
+      this.count++;
+    }
+    return this.tokens[(this.head + k - 1) % this.tokens.length];
+  }
+
+  /**
+   * Consumes the current token. Consuming the EOF token has no effect.
+   */
+  public void consume() {
+    if (this.LT(1).getType() == Token.EOF) {
+      return;
+    }
+    if (this.scanner == null) {
+      this.tokens[this.head] = null;
+    }
+    this.head = (this.head + 1) % this.tokens.length;
+    this.count--;
+  }
+
+  /**
+   * Consumes the tokens up to the '}' closing the current block. The closing '}' becomes the
+   * current token. The tokens already in the window are consumed one by one, and the rest of the
+   * block is skipped by the scanner without creating tokens when the source is a YangTokenSource.
+   *
+   * @return true if the closing '}' is found; false when the end of the input or an invalid token
+   *         is met, which then becomes the current token
+   */
+  public boolean skipToClosingBrace() {
+    int depth = 0;
+    while (0 < this.count || this.scanner == null || this.eofToken != null) {
+      switch (this.LT(1).getType()) {
+        case Token.EOF:
+        case Token.INVALID_TYPE:
+          return false;
+        case YangLexer.S_LBR:
+          depth++;
+          break;
+        case YangLexer.S_RBR:
+          if (depth == 0) {
+            return true;
+          }
+          depth--;
+          break;
+        default:
+          break;
+      }
+      this.consume();
+    }
+    return this.scanner.skipToClosingBrace(depth);
+  }
+
+  /**
+   * Consumes the tokens up to the end of the current statement, i.e. the ';' or the '}' closing the
+   * block of the statement, including the ';' or '}'. The tokens already in the window are consumed
+   * one by one, and the rest is skipped by the scanner without creating tokens when the source is a
+   * YangTokenSource.
+   *
+   * @return true if the end of the statement is found; false when the end of the input, an invalid
+   *         token or the '}' closing the enclosing block is met, which then becomes the current
+   *         token
+   */
+  public boolean skipToEndOfStatement() {
+    int depth = 0;
+    while (0 < this.count || this.scanner == null || this.eofToken != null) {
+      switch (this.LT(1).getType()) {
+        case Token.EOF:
+        case Token.INVALID_TYPE:
+          return false;
+        case YangLexer.S_SEMICOLON:
+          if (depth == 0) {
+            this.consume();
+            return true;
+          }
+          break;
+        case YangLexer.S_LBR:
+          depth++;
+          break;
+        case YangLexer.S_RBR:
+          if (depth == 0) {
+            return false;
+          }
+          depth--;
+          if (depth == 0) {
+            this.consume();
+            return true;
+          }
+          break;
+        default:
+          break;
+      }
+      this.consume();
+    }
+    if (depth == 0) {
+      return this.scanner.skipToEndOfStatement();
+    }
+    if (!this.scanner.skipToClosingBrace(depth - 1)) {
+      return false;
+    }
+    this.consume();
+    return true;
+  }
+
+  /**
+   * Creates the String of the text of the tokens not consumed yet so that they do not depend on the
+   * buffer of the token source.
+   */
+  public void materializeTexts() {
+    for (int i = 0; i < this.count; i++) {
+      Token token = this.tokens[(this.head + i) % this.tokens.length];
+      if (token instanceof YangToken) {
+        ((YangToken) token).materializeText();
+      }
+    }
+  }
+}
@@ -0,0 +1,694 @@
+package iwostaq.yppj;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import iwostaq.yppj.g.YangLexer;
+
+/**
+ * A hand-written scanner working on UTF-8 bytes.
+ *
+ * <p>
+ * The scanner produces the same tokens as YangScanner without decoding the input to chars. The
+ * keywords, identifiers, braces and separators of Yang are ASCII, so they are found and compared
+ * as bytes, and an unquoted string of ASCII bytes is interned without being decoded. The text of a
+ * string token is decoded to a String only when the text of the token is taken, and a string of
+ * ASCII bytes is copied without a charset decoder.
+ * </p>
+ *
+ * <p>
+ * The bytes of a buffer backed by an array are scanned in place. The bytes of a direct buffer, e.g.
+ * a memory-mapped file, are copied to a byte array in bulk as the scanning proceeds. The offsets of
+ * tokens are counted in bytes. A malformed byte sequence in a string token is reported as a
+ * CharacterCodingException wrapped in UncheckedIOException when the token is read; the bytes in
+ * comments are not checked.
+ * </p>
+ */
+public class YangByteScanner implements YangTokenSource {
+
+  protected static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private static final String TEXT_SEMICOLON = ";";
+  private static final String TEXT_LBR = "{";
+  private static final String TEXT_RBR = "}";
+
+  /** Bytes which terminate an unquoted string. */
+  private static final boolean[] UNQUOTED_STOP = new boolean[128];
+
+  static {
+    for (char c : new char[] {' ', '\t', ';', '{', '}', '"', '\'', '\n', '\r'}) {
+      YangByteScanner.UNQUOTED_STOP[c] = true;
+    }
+  }
+
+  protected ByteBuffer input;
+  protected byte[] buf;
+  protected int pos;
+  protected int limit;
+  protected int bufferOffset;
+  protected boolean eof;
+
+  /** The line of the position counted up to, the offset of its start, and the position. */
+  protected boolean lineTracking;
+  protected int line;
+  protected int lineStart;
+  protected int lineCounted;
+
+  protected int tokenType;
+  protected int tokenStart;
+  protected int textStart;
+  protected int textEnd;
+  protected boolean textAscii;
+  protected YangSyntax.Keyword keyword;
+
+  protected CharsetDecoder decoder;
+
+  protected TokenFactory<?> tokenFactory;
+  protected SymbolTable symbolTable;
+  protected Runnable discardListener;
+
+  /**
+   * Constructor. The bytes between the position and the limit of the buffer are read, and the
+   * position of the given buffer is not changed.
+   *
+   * @param utf8Bytes the buffer holding the input encoded in UTF-8
+   */
+  public YangByteScanner(ByteBuffer utf8Bytes) {
+    if (utf8Bytes == null) {
+      throw new IllegalArgumentException();
+    }
+    if (utf8Bytes.hasArray()) {
+      this.input = null;
+      this.buf = utf8Bytes.array();
+      this.pos = utf8Bytes.arrayOffset() + utf8Bytes.position();
+      this.limit = utf8Bytes.arrayOffset() + utf8Bytes.limit();
+      this.eof = true;
+    } else {
+      this.input = utf8Bytes.duplicate();
+      this.buf = new byte[DEFAULT_BUFFER_SIZE];
+      this.pos = 0;
+      this.limit = 0;
+      this.eof = false;
+    }
+    this.bufferOffset = -this.pos;
+    this.lineTracking = true;
+    this.line = 1;
+    this.lineStart = 0;
+    this.lineCounted = this.pos;
+    this.tokenType = Token.INVALID_TYPE;
+    this.tokenStart = this.pos;
+    this.textStart = this.pos;
+    this.textEnd = this.pos;
+    this.textAscii = true;
+    this.keyword = null;
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    this.tokenFactory = CommonTokenFactory.DEFAULT;
+    this.symbolTable = new SymbolTable();
+    this.discardListener = null;
+  }
+
+  /**
+   * Scans the next token. The result is available through getTokenType() and getTokenText().
+   *
+   * @return the type of the token; one of the token types of YangLexer, Token.EOF or
+   *         Token.INVALID_TYPE
+   */
+  public int scan() {
+    this.keyword = null;
+    while (true) {
+      this.tokenStart = this.pos;
+      int c = this.byteAt(0);
+      switch (c) {
+        case -1:
+          return this.setToken(Token.EOF, this.pos, this.pos, this.pos, true);
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+          this.skipWhiteSpaces();
+          break;
+        case ';':
+          return this.setToken(YangLexer.S_SEMICOLON, this.pos, this.pos + 1, this.pos + 1, true);
+        case '{':
+          return this.setToken(YangLexer.S_LBR, this.pos, this.pos + 1, this.pos + 1, true);
+        case '}':
+          return this.setToken(YangLexer.S_RBR, this.pos, this.pos + 1, this.pos + 1, true);
+        case '"':
+          return this.lookupKeyword(this.scanDoubleQuotedString());
+        case '\'':
+          return this.lookupKeyword(this.scanSingleQuotedString());
+        case '/':
+          if (this.skipComment()) {
+            break;
+          }
+          return this.lookupKeyword(this.scanUnquotedString());
+        default:
+          return this.lookupKeyword(this.scanUnquotedString());
+      }
+    }
+  }
+
+  @Override
+  public boolean skipToClosingBrace(int depth) {
+    return this.skipBlocks(depth, false);
+  }
+
+  @Override
+  public boolean skipToEndOfStatement() {
+    return this.skipBlocks(0, true);
+  }
+
+  /**
+   * Skips the input counting braces. Strings and comments are scanned as they are by scan() so
+   * that the braces in them are ignored.
+   *
+   * @param depth the number of the blocks opened and not closed yet
+   * @param toEndOfStatement true to stop after the ';' or '}' ending the statement at the depth;
+   *        false to stop before the '}' closing the current block
+   * @return true if the end is found
+   */
+  private boolean skipBlocks(int depth, boolean toEndOfStatement) {
+    this.keyword = null;
+    int level = depth;
+    while (true) {
+      this.tokenStart = this.pos;
+      int c = this.byteAt(0);
+      switch (c) {
+        case -1:
+          return false;
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+          this.skipWhiteSpaces();
+          break;
+        case ';':
+          this.pos++;
+          if (toEndOfStatement && level == 0) {
+            return true;
+          }
+          break;
+        case '{':
+          level++;
+          this.pos++;
+          break;
+        case '}':
+          if (level == 0) {
+            // the '}' closing the enclosing block is left as the next token.
+            return !toEndOfStatement;
+          }
+          level--;
+          this.pos++;
+          if (toEndOfStatement && level == 0) {
+            return true;
+          }
+          break;
+        case '"':
+          if (this.scanDoubleQuotedString() == Token.INVALID_TYPE) {
+            this.pos = this.tokenStart;
+            return false;
+          }
+          break;
+        case '\'':
+          if (this.scanSingleQuotedString() == Token.INVALID_TYPE) {
+            this.pos = this.tokenStart;
+            return false;
+          }
+          break;
+        case '/':
+          if (this.skipComment()) {
+            break;
+          }
+          this.scanUnquotedString();
+          break;
+        default:
+          this.scanUnquotedString();
+          break;
+      }
+    }
+  }
+
+  /**
+   * Returns the type of the token scanned last.
+   *
+   * @return the type of the token
+   */
+  public int getTokenType() {
+    return this.tokenType;
+  }
+
+  /**
+   * Returns the text of the token scanned last. The quotes of a quoted string are not included.
+   *
+   * @return the text of the token
+   * @throws UncheckedIOException when the text is not a valid UTF-8 sequence
+   */
+  public String getTokenText() {
+    int length = this.textEnd - this.textStart;
+    switch (this.tokenType) {
+      case YangLexer.S_SEMICOLON:
+        return TEXT_SEMICOLON;
+      case YangLexer.S_LBR:
+        return TEXT_LBR;
+      case YangLexer.S_RBR:
+        return TEXT_RBR;
+      case Token.EOF:
+        return "<EOF>";
+      case YangLexer.UNQUOTED_STRING:
+        if (this.keyword != null) {
+          return this.keyword.getName();
+        }
+        if (this.textAscii) {
+          return this.symbolTable.internAscii(this.buf, this.textStart, length);
+        }
+        String text = this.decodeText();
+        return this.symbolTable.intern(text, 0, text.length());
+      case YangLexer.QUOTED_STRING:
+        if (this.keyword != null) {
+          return this.keyword.getName();
+        }
+        return this.decodeText();
+      default:
+        // the text of an invalid token may end in the middle of a sequence.
+        return new String(this.buf, this.textStart, length, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Returns the keyword of which text is the same as the token scanned last.
+   *
+   * @return the keyword, or null if the token is not a keyword
+   */
+  public YangSyntax.Keyword getKeyword() {
+    return this.keyword;
+  }
+
+  @Override
+  public SymbolTable getSymbolTable() {
+    return this.symbolTable;
+  }
+
+  @Override
+  public void setDiscardListener(Runnable listener) {
+    this.discardListener = listener;
+  }
+
+  @Override
+  public void setLineTracking(boolean lineTracking) {
+    this.lineTracking = lineTracking;
+  }
+
+  /**
+   * Sets the position of the start of the input in a larger input, e.g. a file of which a part is
+   * scanned, so that the tokens have their positions in the larger input. It must be called before
+   * the first token is scanned.
+   *
+   * @param offset the offset of the start
+   * @param line the line of the start, from 1
+   * @param column the column of the start, from 1
+   */
+  void setOrigin(int offset, int line, int column) {
+    this.bufferOffset += offset;
+    this.line = line;
+    this.lineStart = offset - (column - 1);
+  }
+
+  /**
+   * Returns the offset in bytes of the token scanned last from the beginning of the input.
+   *
+   * @return the offset of the token
+   */
+  public int getTokenOffset() {
+    return this.bufferOffset + this.tokenStart;
+  }
+
+  @Override
+  public Token nextToken() {
+    if (this.tokenFactory == CommonTokenFactory.DEFAULT) {
+      return this.nextToken((YangToken) null);
+    }
+
+    int type = this.scan();
+    Token token = this.tokenFactory.create(type, this.getTokenText());
+    if (token instanceof CommonToken) {
+      ((CommonToken) token).setStartIndex(this.getTokenOffset());
+      ((CommonToken) token).setStopIndex(this.bufferOffset + this.pos - 1);
+      if (this.lineTracking) {
+        this.countLines(this.tokenStart);
+        ((CommonToken) token).setLine(this.line);
+        ((CommonToken) token).setCharPositionInLine(this.getTokenOffset() - this.lineStart);
+      }
+    }
+    return token;
+  }
+
+  @Override
+  public YangToken nextToken(YangToken reusedToken) {
+    int type = this.scan();
+
+    YangToken token = reusedToken;
+    if (token == null) {
+      token = new YangToken(type, null);
+    } else {
+      token.setType(type);
+    }
+    if (type == YangLexer.QUOTED_STRING && this.keyword == null && this.textAscii) {
+      token.setAsciiText(this.buf, this.textStart, this.textEnd - this.textStart);
+    } else {
+      token.setText(this.getTokenText());
+    }
+    token.setKeyword(this.keyword);
+    token.setStartIndex(this.getTokenOffset());
+    token.setStopIndex(this.bufferOffset + this.pos - 1);
+    if (this.lineTracking) {
+      this.countLines(this.tokenStart);
+      token.setLine(this.line);
+      token.setCharPositionInLine(this.getTokenOffset() - this.lineStart);
+    }
+    return token;
+  }
+
+  @Override
+  public int getLine() {
+    return 0;
+  }
+
+  @Override
+  public int getCharPositionInLine() {
+    return -1;
+  }
+
+  @Override
+  public CharStream getInputStream() {
+    return null;
+  }
+
+  @Override
+  public String getSourceName() {
+    return CharStream.UNKNOWN_SOURCE_NAME;
+  }
+
+  @Override
+  public void setTokenFactory(TokenFactory<?> factory) {
+    this.tokenFactory = (factory == null) ? CommonTokenFactory.DEFAULT : factory;
+  }
+
+  @Override
+  public TokenFactory<?> getTokenFactory() {
+    return this.tokenFactory;
+  }
+
+  private int setToken(int type, int textStart, int textEnd, int nextPos, boolean ascii) {
+    this.tokenType = type;
+    this.textStart = textStart;
+    this.textEnd = textEnd;
+    this.textAscii = ascii;
+    this.pos = nextPos;
+    return type;
+  }
+
+  private int lookupKeyword(int type) {
+    if (this.textAscii && (type == YangLexer.UNQUOTED_STRING || type == YangLexer.QUOTED_STRING)) {
+      this.keyword =
+          YangSyntax.lookupKeyword(this.buf, this.textStart, this.textEnd - this.textStart);
+    }
+    return type;
+  }
+
+  private String decodeText() {
+    int length = this.textEnd - this.textStart;
+    if (this.textAscii) {
+      return new String(this.buf, this.textStart, length, StandardCharsets.ISO_8859_1);
+    }
+    try {
+      return this.decoder.decode(ByteBuffer.wrap(this.buf, this.textStart, length)).toString();
+    } catch (CharacterCodingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void skipWhiteSpaces() {
+    int p = this.pos;
+    while (true) {
+      byte[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim) {
+        byte c = b[p];
+        if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+          this.pos = p;
+          return;
+        }
+        p++;
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        this.pos = p;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Skips a comment at the current position. A comment is not skipped when an unquoted string
+   * starting at the same position is longer than the comment, as ANTLR takes the longest match.
+   *
+   * @return true if a comment is skipped
+   */
+  private boolean skipComment() {
+    int commentLength = -1;
+    int c = this.byteAt(1);
+    if (c == '/') {
+      int i = 2;
+      while ((c = this.byteAt(i)) != -1 && c != '\r' && c != '\n') {
+        i++;
+      }
+      if (c == '\r') {
+        c = this.byteAt(++i);
+      }
+      if (c == '\n') {
+        commentLength = i + 1;
+      }
+    } else if (c == '*') {
+      int i = 2;
+      while ((c = this.byteAt(i)) != -1) {
+        if (c == '*' && this.byteAt(i + 1) == '/') {
+          commentLength = i + 2;
+          break;
+        }
+        i++;
+      }
+    }
+    if (commentLength < 0) {
+      return false;
+    }
+
+    int unquotedLength = 0;
+    while ((c = this.byteAt(unquotedLength)) != -1 && !YangByteScanner.isUnquotedStop(c)) {
+      unquotedLength++;
+    }
+    if (commentLength < unquotedLength) {
+      return false;
+    }
+    this.pos = this.tokenStart + commentLength;
+    return true;
+  }
+
+  private int scanUnquotedString() {
+    int p = this.pos;
+    int bits = 0;
+    while (true) {
+      byte[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim) {
+        byte c = b[p];
+        if (0 <= c && YangByteScanner.UNQUOTED_STOP[c]) {
+          break;
+        }
+        bits |= c;
+        p++;
+      }
+      if (p < lim) {
+        break;
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        break;
+      }
+    }
+    return this.setToken(YangLexer.UNQUOTED_STRING, this.tokenStart, p, p, 0 <= bits);
+  }
+
+  private int scanSingleQuotedString() {
+    int p = this.pos + 1;
+    int bits = 0;
+    while (true) {
+      byte[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim && b[p] != '\'') {
+        bits |= b[p];
+        p++;
+      }
+      if (p < lim) {
+        return this.setToken(YangLexer.QUOTED_STRING, this.tokenStart + 1, p, p + 1, 0 <= bits);
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        return this.setToken(Token.INVALID_TYPE, this.tokenStart, p, p, false);
+      }
+    }
+  }
+
+  private int scanDoubleQuotedString() {
+    int p = this.pos + 1;
+    int bits = 0;
+    while (true) {
+      byte[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim) {
+        byte c = b[p];
+        if (c == '"') {
+          return this.setToken(YangLexer.QUOTED_STRING, this.tokenStart + 1, p, p + 1,
+              0 <= bits);
+        } else if (c == '\\') {
+          if (p + 1 == lim) {
+            break;
+          }
+          c = b[p + 1];
+          if (c != 'n' && c != 't' && c != '"' && c != '\\') {
+            return this.setToken(Token.INVALID_TYPE, this.tokenStart, p + 2, p + 2, false);
+          }
+          p += 2;
+        } else if (0x20 <= c) {
+          p++;
+        } else if (0 <= c) {
+          if (c != '\t' && c != '\n' && c != '\r') {
+            return this.setToken(Token.INVALID_TYPE, this.tokenStart, p + 1, p + 1, false);
+          }
+          p++;
+        } else if (c == (byte) 0xEF) {
+          // U+FDD0 to U+FDEF, U+FFFE and U+FFFF are not yang-chars.
+          if (lim < p + 3) {
+            break;
+          }
+          byte c1 = b[p + 1];
+          byte c2 = b[p + 2];
+          if ((c1 == (byte) 0xB7 && (byte) 0x90 <= c2 && c2 <= (byte) 0xAF)
+              || (c1 == (byte) 0xBF && (c2 == (byte) 0xBE || c2 == (byte) 0xBF))) {
+            return this.setToken(Token.INVALID_TYPE, this.tokenStart, p + 3, p + 3, false);
+          }
+          bits |= c;
+          p++;
+        } else {
+          bits |= c;
+          p++;
+        }
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        if (p < this.limit) {
+          // an incomplete sequence at the end of the input
+          p = this.limit;
+        }
+        return this.setToken(Token.INVALID_TYPE, this.tokenStart, p, p, false);
+      }
+    }
+  }
+
+  private static boolean isUnquotedStop(int c) {
+    return c < 128 && YangByteScanner.UNQUOTED_STOP[c];
+  }
+
+  /**
+   * Returns the byte at the given position relative to the start of the current token.
+   *
+   * @param rel the position relative to the start of the token
+   * @return the byte as an unsigned value, or -1 at the end of the input
+   */
+  private int byteAt(int rel) {
+    while (this.limit <= this.tokenStart + rel) {
+      if (!this.fill()) {
+        return -1;
+      }
+    }
+    return this.buf[this.tokenStart + rel] & 0xFF;
+  }
+
+  /**
+   * Counts the line feeds in the buffer up to the position, which is not discarded yet.
+   */
+  private void countLines(int to) {
+    byte[] b = this.buf;
+    for (int i = this.lineCounted; i < to; i++) {
+      if (b[i] == '\n') {
+        this.line++;
+        this.lineStart = this.bufferOffset + i + 1;
+      }
+    }
+    this.lineCounted = to;
+  }
+
+  /**
+   * Copies more bytes from the input buffer. The bytes before the current token are discarded when
+   * the buffer is getting full, and the buffer is extended when the current token occupies more
+   * than half of it.
+   *
+   * @return false when no more bytes are available
+   */
+  protected boolean fill() {
+    if (this.eof) {
+      return false;
+    }
+    if (!this.input.hasRemaining()) {
+      this.eof = true;
+      return false;
+    }
+
+    // the buffer is compacted only when less than half of it is free, as the texts of tokens
+    // referring to the discarded range have to be materialized.
+    int half = this.buf.length / 2;
+    if (this.buf.length - this.limit < half && 0 < this.tokenStart) {
+      if (this.discardListener != null) {
+        this.discardListener.run();
+      }
+      if (this.lineTracking) {
+        this.countLines(this.tokenStart);
+      }
+      this.lineCounted -= this.tokenStart;
+      int keep = this.limit - this.tokenStart;
+      System.arraycopy(this.buf, this.tokenStart, this.buf, 0, keep);
+      this.bufferOffset += this.tokenStart;
+      this.pos -= this.tokenStart;
+      this.textStart -= this.tokenStart;
+      this.textEnd -= this.tokenStart;
+      this.tokenStart = 0;
+      this.limit = keep;
+    }
+    if (this.buf.length - this.limit < half) {
+      this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+    }
+
+    int n = Math.min(this.buf.length - this.limit, this.input.remaining());
+    this.input.get(this.buf, this.limit, n);
+    this.limit += n;
+    return true;
+  }
+}
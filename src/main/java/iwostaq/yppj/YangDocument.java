@@ -0,0 +1,733 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A parsed text of a module, which is parsed again incrementally after an edit, e.g. in a language
+ * server.
+ *
+ * <p>
+ * The events of each top-level statement are kept in an EventTape of their own, with their
+ * positions relative to the statement. edit() re-lexes and re-parses only the range of the
+ * top-level statements touched by the edit, and the other statements are reused as they are; the
+ * statements following the range are only moved by the length and the lines of the edit. The
+ * text and the offsets of the top-level statements are copied, but no more than the range is
+ * scanned, so the time of an edit is proportional to the edited statements rather than the whole
+ * text.
+ * </p>
+ *
+ * <p>
+ * The range is parsed as a sequence of statements. When it is not, e.g. a brace is inserted or a
+ * string or a comment is left open, or when the edit is not in the body of the module, the whole
+ * text is parsed again, and the error of the text is thrown as parsing it from the top does. A
+ * document is not modified by an edit, so the document before the edit is still valid.
+ * </p>
+ */
+public final class YangDocument {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The events of a statement and their positions relative to the start of the statement; the
+   * lines are counted from the line of the start, and the columns are the ones in the text.
+   */
+  private static final class Segment {
+    final EventTape tape;
+    int[] startOffsets;
+    int[] endOffsets;
+    int[] lines;
+    int[] columns;
+
+    Segment() {
+      this.tape = new EventTape();
+      this.startOffsets = new int[YangDocument.INITIAL_CAPACITY];
+      this.endOffsets = new int[YangDocument.INITIAL_CAPACITY];
+      this.lines = new int[YangDocument.INITIAL_CAPACITY];
+      this.columns = new int[YangDocument.INITIAL_CAPACITY];
+    }
+
+    int size() {
+      return this.tape.size();
+    }
+
+    void add(YangPullParser ypp, int offset, int line) {
+      int index = this.tape.size();
+      this.tape.add(ypp.getEventType(), ypp.getStatementType(), ypp.getNamespace(),
+          ypp.getIdentifier(), ypp.getArgumentChars());
+      if (index == this.startOffsets.length) {
+        this.resize(index * 2);
+      }
+      this.startOffsets[index] = ypp.getStartOffset() - offset;
+      this.endOffsets[index] = ypp.getEndOffset() - offset;
+      this.lines[index] = ypp.getLine() - line;
+      this.columns[index] = ypp.getColumn();
+    }
+
+    void trim() {
+      this.tape.trim();
+      if (this.tape.size() < this.startOffsets.length) {
+        this.resize(this.tape.size());
+      }
+    }
+
+    private void resize(int capacity) {
+      this.startOffsets = Arrays.copyOf(this.startOffsets, capacity);
+      this.endOffsets = Arrays.copyOf(this.endOffsets, capacity);
+      this.lines = Arrays.copyOf(this.lines, capacity);
+      this.columns = Arrays.copyOf(this.columns, capacity);
+    }
+  }
+
+  private final char[] text;
+
+  /**
+   * The module statement, of which the start event and the end event are in the tape, or null when
+   * the text is not a module with a block; the whole text is then one statement in statements.
+   */
+  private Segment module;
+
+  /** The offset following the '{' of the module, and its line and column. */
+  private int bodyStart;
+  private int bodyLine;
+  private int bodyColumn;
+
+  /** The top-level statements, and the offsets and the lines of their starts. */
+  private Segment[] statements;
+  private int[] statementOffsets;
+  private int[] statementLines;
+
+  /** The position of the '}' ending the module. */
+  private int closeOffset;
+  private int closeLine;
+  private int closeColumn;
+
+  /** The position of the end of the text. */
+  private int endLine;
+  private int endColumn;
+
+  /** The range of the text parsed to create this document. */
+  private int reparsedStart;
+  private int reparsedEnd;
+
+  private YangDocument(char[] text) {
+    this.text = text;
+  }
+
+  /**
+   * Parses the whole text.
+   *
+   * @param text the text of a module
+   * @return the document
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static YangDocument parse(CharSequence text) throws IOException, YangPullParserException {
+    if (text == null) {
+      throw new IllegalArgumentException();
+    }
+    return YangDocument.parse(text.toString().toCharArray());
+  }
+
+  private static YangDocument parse(char[] text) throws IOException, YangPullParserException {
+    YangDocument doc = new YangDocument(text);
+    doc.reparsedStart = 0;
+    doc.reparsedEnd = text.length;
+
+    YangPullParserImpl ypp = YangPullParserImpl.fromChars(text, 0, text.length, 1, 1);
+    List<Segment> statements = new ArrayList<>();
+    int[] offsets = new int[YangDocument.INITIAL_CAPACITY];
+    int[] lines = new int[YangDocument.INITIAL_CAPACITY];
+    Segment module = null;
+    int moduleCount = 0;
+    boolean blockOpened = false;
+    Segment current = null;
+    EventType eventType;
+    while ((eventType = ypp.next()) != EventType.END_MODULE) {
+      boolean isStart = (eventType == EventType.STATEMENT_START);
+      int depth = isStart ? ypp.getDepth() : ypp.getDepth() + 1;
+      if (depth == 1) {
+        if (isStart) {
+          moduleCount++;
+          module = new Segment();
+          module.add(ypp, 0, 1);
+          blockOpened = (text[ypp.getEndOffset() - 1] == '{');
+          doc.bodyStart = ypp.getEndOffset();
+        } else {
+          module.add(ypp, 0, 1);
+          doc.closeOffset = ypp.getStartOffset();
+          doc.closeLine = ypp.getLine();
+          doc.closeColumn = ypp.getColumn();
+        }
+        continue;
+      }
+
+      if (isStart && depth == 2) {
+        int n = statements.size();
+        if (n == offsets.length) {
+          offsets = Arrays.copyOf(offsets, n * 2);
+          lines = Arrays.copyOf(lines, n * 2);
+        }
+        offsets[n] = ypp.getStartOffset();
+        lines[n] = ypp.getLine();
+        current = new Segment();
+        statements.add(current);
+      }
+      current.add(ypp, offsets[statements.size() - 1], lines[statements.size() - 1]);
+      if (!isStart && depth == 2) {
+        current.trim();
+      }
+    }
+    doc.endLine = ypp.getLine();
+    doc.endColumn = ypp.getColumn();
+
+    if (moduleCount != 1 || !blockOpened || ypp.getDepth() != 0) {
+      // anything else than a module with a block is kept as it is.
+      YangDocument.parseWhole(doc);
+      return doc;
+    }
+    module.trim();
+    doc.module = module;
+    doc.statements = statements.toArray(new Segment[statements.size()]);
+    doc.statementOffsets = Arrays.copyOf(offsets, statements.size());
+    doc.statementLines = Arrays.copyOf(lines, statements.size());
+
+    int moduleStart = module.startOffsets[0];
+    doc.bodyLine = module.lines[0] + 1;
+    doc.bodyColumn = module.columns[0] + (doc.bodyStart - moduleStart);
+    for (int i = moduleStart; i < doc.bodyStart; i++) {
+      if (text[i] == '\n') {
+        doc.bodyLine++;
+        doc.bodyColumn = doc.bodyStart - i;
+      }
+    }
+    return doc;
+  }
+
+  private static void parseWhole(YangDocument doc) throws IOException, YangPullParserException {
+    YangPullParserImpl ypp = YangPullParserImpl.fromChars(doc.text, 0, doc.text.length, 1, 1);
+    Segment whole = new Segment();
+    while (ypp.next() != EventType.END_MODULE) {
+      whole.add(ypp, 0, 1);
+    }
+    whole.trim();
+    doc.module = null;
+    doc.statements = new Segment[] {whole};
+    doc.statementOffsets = new int[] {0};
+    doc.statementLines = new int[] {1};
+    doc.endLine = ypp.getLine();
+    doc.endColumn = ypp.getColumn();
+  }
+
+  /**
+   * Applies an edit to the text and parses the changed range.
+   *
+   * @param offset the offset of the edit in the text
+   * @param removedLength the number of the chars removed at the offset
+   * @param inserted the text inserted at the offset
+   * @return the document of the edited text
+   * @throws IOException
+   * @throws YangPullParserException when the edited text has an error
+   */
+  public YangDocument edit(int offset, int removedLength, CharSequence inserted)
+      throws IOException, YangPullParserException {
+    char[] old = this.text;
+    if (offset < 0 || removedLength < 0 || old.length - offset < removedLength
+        || inserted == null) {
+      throw new IllegalArgumentException();
+    }
+    int editEnd = offset + removedLength;
+    int delta = inserted.length() - removedLength;
+    char[] text = new char[old.length + delta];
+    System.arraycopy(old, 0, text, 0, offset);
+    inserted.toString().getChars(0, inserted.length(), text, offset);
+    System.arraycopy(old, editEnd, text, offset + inserted.length(), old.length - editEnd);
+
+    if (this.module == null || offset < this.bodyStart || this.closeOffset < editEnd) {
+      return YangDocument.parse(text);
+    }
+
+    // the range starts at the end of the last statement ending before the edit.
+    int n = this.statements.length;
+    int from = this.findStatement(offset);
+    int rangeStart;
+    int rangeLine;
+    int rangeColumn;
+    if (from == 0) {
+      rangeStart = this.bodyStart;
+      rangeLine = this.bodyLine;
+      rangeColumn = this.bodyColumn;
+    } else {
+      Segment last = this.statements[from - 1];
+      int i = last.size() - 1;
+      rangeStart = this.statementOffsets[from - 1] + last.endOffsets[i];
+      rangeLine = this.statementLines[from - 1] + last.lines[i];
+      rangeColumn = last.columns[i] + 1;
+    }
+
+    // the range ends at the start of the first statement on a line after the edit, so that the
+    // columns of the statements following the range are not changed.
+    int editEndLine = rangeLine + YangDocument.countLines(old, rangeStart, editEnd);
+    int to = from;
+    while (to < n
+        && (this.statementOffsets[to] <= editEnd || this.statementLines[to] <= editEndLine)) {
+      to++;
+    }
+    int rangeEnd = (to < n) ? this.statementOffsets[to] : this.closeOffset;
+
+    if (!YangDocument.isClosed(text, rangeStart, rangeEnd + delta, to == n)
+        || (YangDocument.hasCommentEnd(text, rangeStart, rangeEnd + delta)
+            && !YangDocument.hasCommentEnd(old, rangeStart, rangeEnd))
+        || (YangDocument.hasLineComment(old, rangeStart)
+            && offset <= YangDocument.indexOfLineEnd(old, rangeStart, rangeEnd) + 1)) {
+      // a comment may be left open at the end of the range. Or, a "/*" before the range is taken
+      // as an unquoted string when no "*/" follows it, and a "//" when no line feed ends its line,
+      // so they may be comments after the edit.
+      return YangDocument.parse(text);
+    }
+
+    YangPullParserImpl ypp = YangPullParserImpl.fromChars(text, rangeStart,
+        rangeEnd + delta - rangeStart, rangeLine, rangeColumn);
+    List<Segment> parsed = new ArrayList<>();
+    int[] offsets = new int[YangDocument.INITIAL_CAPACITY];
+    int[] lines = new int[YangDocument.INITIAL_CAPACITY];
+    try {
+      EventType eventType;
+      while ((eventType = ypp.next()) != EventType.END_MODULE) {
+        if (eventType == EventType.STATEMENT_START && ypp.getDepth() == 1) {
+          int k = parsed.size();
+          if (k == offsets.length) {
+            offsets = Arrays.copyOf(offsets, k * 2);
+            lines = Arrays.copyOf(lines, k * 2);
+          }
+          offsets[k] = ypp.getStartOffset();
+          lines[k] = ypp.getLine();
+          parsed.add(new Segment());
+        } else if (parsed.isEmpty()) {
+          // the range does not start with a statement, e.g. a '}' closing the module is inserted.
+          return YangDocument.parse(text);
+        }
+        int k = parsed.size() - 1;
+        parsed.get(k).add(ypp, offsets[k], lines[k]);
+      }
+    } catch (YangPullParserException e) {
+      // the error is thrown as parsing the text from the top.
+      return YangDocument.parse(text);
+    }
+    if (ypp.getDepth() != 0) {
+      // a statement is left open at the end of the range.
+      return YangDocument.parse(text);
+    }
+
+    int lineDelta = YangDocument.countLines(text, offset, offset + inserted.length())
+        - YangDocument.countLines(old, offset, editEnd);
+    int k = parsed.size();
+    int count = from + k + (n - to);
+    YangDocument doc = new YangDocument(text);
+    doc.module = this.module;
+    doc.bodyStart = this.bodyStart;
+    doc.bodyLine = this.bodyLine;
+    doc.bodyColumn = this.bodyColumn;
+    doc.statements = new Segment[count];
+    doc.statementOffsets = new int[count];
+    doc.statementLines = new int[count];
+    System.arraycopy(this.statements, 0, doc.statements, 0, from);
+    System.arraycopy(this.statementOffsets, 0, doc.statementOffsets, 0, from);
+    System.arraycopy(this.statementLines, 0, doc.statementLines, 0, from);
+    for (int i = 0; i < k; i++) {
+      Segment segment = parsed.get(i);
+      segment.trim();
+      doc.statements[from + i] = segment;
+      doc.statementOffsets[from + i] = offsets[i];
+      doc.statementLines[from + i] = lines[i];
+    }
+    for (int i = to; i < n; i++) {
+      int j = i - to + from + k;
+      doc.statements[j] = this.statements[i];
+      doc.statementOffsets[j] = this.statementOffsets[i] + delta;
+      doc.statementLines[j] = this.statementLines[i] + lineDelta;
+    }
+
+    doc.closeOffset = this.closeOffset + delta;
+    if (to < n) {
+      doc.closeLine = this.closeLine + lineDelta;
+      doc.closeColumn = this.closeColumn;
+      doc.endLine = this.endLine + lineDelta;
+      doc.endColumn = this.endColumn;
+    } else {
+      // the end of the range is the '}' of the module.
+      doc.closeLine = ypp.getLine();
+      doc.closeColumn = ypp.getColumn();
+      doc.endLine = doc.closeLine + (this.endLine - this.closeLine);
+      doc.endColumn = (this.endLine == this.closeLine)
+          ? doc.closeColumn + (this.endColumn - this.closeColumn)
+          : this.endColumn;
+    }
+    doc.reparsedStart = rangeStart;
+    doc.reparsedEnd = rangeEnd + delta;
+    return doc;
+  }
+
+  /**
+   * Returns the index of the first top-level statement ending after the offset.
+   */
+  private int findStatement(int offset) {
+    int low = 0;
+    int high = this.statements.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      Segment segment = this.statements[mid];
+      int end = this.statementOffsets[mid] + segment.endOffsets[segment.size() - 1];
+      if (end <= offset) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Checks that the tokens of the range are not changed by the text following it. The scanner takes
+   * an unterminated block comment, or a comment followed by an unquoted string, as an unquoted
+   * string, so the range is not closed when a block comment may be left open in it, or when it does
+   * not end with a white space; or when it ends at the '}' of the module, with "//" in its last
+   * line.
+   */
+  private static boolean isClosed(char[] chars, int start, int end, boolean endsModule) {
+    int lastOpen = -1;
+    int lastClose = -1;
+    for (int i = start; i + 1 < end; i++) {
+      if (chars[i] == '/' && chars[i + 1] == '*') {
+        lastOpen = i;
+      } else if (chars[i] == '*' && chars[i + 1] == '/' && lastOpen + 1 < i) {
+        lastClose = i;
+      }
+    }
+    if (lastClose < lastOpen) {
+      return false;
+    }
+
+    if (!endsModule) {
+      if (end == start) {
+        return true;
+      }
+      char c = chars[end - 1];
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+    for (int i = end - 1; start < i && chars[i] != '\n'; i--) {
+      if (chars[i] == '/' && chars[i - 1] == '/') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the range has a "*" followed by a "/", which may end a comment.
+   */
+  private static boolean hasCommentEnd(char[] chars, int start, int end) {
+    for (int i = start; i + 1 < end; i++) {
+      if (chars[i] == '*' && chars[i + 1] == '/') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the line before the offset has a "//".
+   */
+  private static boolean hasLineComment(char[] chars, int offset) {
+    for (int i = offset - 1; 0 < i && chars[i] != '\r' && chars[i] != '\n'; i--) {
+      if (chars[i] == '/' && chars[i - 1] == '/') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the first '\r' or '\n' in the range, or the end of the range.
+   */
+  private static int indexOfLineEnd(char[] chars, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (chars[i] == '\r' || chars[i] == '\n') {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  private static int countLines(char[] chars, int start, int end) {
+    int count = 0;
+    for (int i = start; i < end; i++) {
+      if (chars[i] == '\n') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the text.
+   *
+   * @return the text
+   */
+  public String getText() {
+    return new String(this.text);
+  }
+
+  /**
+   * Returns the length of the text.
+   *
+   * @return the length of the text
+   */
+  public int length() {
+    return this.text.length;
+  }
+
+  /**
+   * Returns the offset of the range of the text parsed by the edit creating this document, or 0 if
+   * the whole text is parsed.
+   *
+   * @return the offset of the start of the range
+   */
+  public int getReparsedStart() {
+    return this.reparsedStart;
+  }
+
+  /**
+   * Returns the offset of the end of the range of the text parsed by the edit creating this
+   * document.
+   *
+   * @return the offset of the end of the range
+   */
+  public int getReparsedEnd() {
+    return this.reparsedEnd;
+  }
+
+  /**
+   * Creates a parser replaying the events of the document with their positions in the text. The
+   * offsets count chars.
+   *
+   * @return the parser
+   */
+  public YangPullParser newParser() {
+    return new DocumentParser();
+  }
+
+  /**
+   * A parser replaying the module statement and the tapes of the top-level statements in order.
+   */
+  private final class DocumentParser implements YangPullParser {
+
+    /** The top-level statement of the current event; -1 for the start of the module. */
+    private int statement;
+    private int index;
+    private int depth;
+    private EventType eventType;
+
+    DocumentParser() {
+      this.statement = -1;
+      this.index = 0;
+      this.depth = 0;
+      this.eventType = null;
+    }
+
+    @Override
+    public EventType next() {
+      Segment[] statements = YangDocument.this.statements;
+      if (this.eventType == EventType.END_MODULE) {
+        return this.eventType;
+      }
+      if (this.eventType == null) {
+        this.statement = (YangDocument.this.module != null) ? -1 : 0;
+        this.index = 0;
+      } else if (0 <= this.statement && this.statement < statements.length
+          && this.index + 1 < statements[this.statement].size()) {
+        this.index++;
+      } else {
+        this.statement++;
+        this.index = 0;
+      }
+      if (this.statement == 0 && YangDocument.this.module == null
+          && statements[0].size() == 0) {
+        this.statement++;
+      }
+
+      if (this.statement == statements.length) {
+        if (YangDocument.this.module == null) {
+          return this.endModule();
+        }
+        this.index = 1;
+      } else if (statements.length < this.statement) {
+        return this.endModule();
+      }
+      this.eventType = this.segment().tape.getEventType(this.index);
+      if (this.eventType == EventType.STATEMENT_START) {
+        this.depth++;
+      } else {
+        this.depth--;
+      }
+      return this.eventType;
+    }
+
+    private EventType endModule() {
+      this.statement = YangDocument.this.statements.length + 1;
+      this.eventType = EventType.END_MODULE;
+      return this.eventType;
+    }
+
+    /**
+     * Skips the sub-statements of the current statement by jumping to its end event.
+     *
+     * @return the type of the event moved to; STATEMENT_END, or END_MODULE if the statement is not
+     *         closed in the text
+     * @throws IllegalStateException when the current event is not STATEMENT_START
+     */
+    @Override
+    public EventType skipStatement() {
+      if (this.eventType != EventType.STATEMENT_START) {
+        throw new IllegalStateException();
+      }
+      if (this.statement < 0) {
+        this.statement = YangDocument.this.statements.length;
+        this.index = 1;
+      } else {
+        int end = this.segment().tape.getMatchingIndex(this.index);
+        if (end < 0) {
+          return this.endModule();
+        }
+        this.index = end;
+      }
+      this.depth--;
+      this.eventType = EventType.STATEMENT_END;
+      return this.eventType;
+    }
+
+    private Segment segment() {
+      if (this.statement < 0 || this.statement == YangDocument.this.statements.length) {
+        return YangDocument.this.module;
+      }
+      return YangDocument.this.statements[this.statement];
+    }
+
+    private boolean hasStatement() {
+      return this.eventType != null && this.eventType != EventType.END_MODULE;
+    }
+
+    /**
+     * Returns whether the current event is the end of the module, of which the position is kept by
+     * the document.
+     */
+    private boolean isModuleEnd() {
+      return this.statement == YangDocument.this.statements.length;
+    }
+
+    @Override
+    public int getDepth() {
+      return this.depth;
+    }
+
+    @Override
+    public int getStartOffset() {
+      if (this.eventType == null) {
+        return -1;
+      } else if (this.eventType == EventType.END_MODULE) {
+        return YangDocument.this.text.length;
+      } else if (this.isModuleEnd()) {
+        return YangDocument.this.closeOffset;
+      } else if (this.statement < 0) {
+        return YangDocument.this.module.startOffsets[0];
+      }
+      return YangDocument.this.statementOffsets[this.statement]
+          + this.segment().startOffsets[this.index];
+    }
+
+    @Override
+    public int getEndOffset() {
+      if (this.eventType == null) {
+        return -1;
+      } else if (this.eventType == EventType.END_MODULE) {
+        return YangDocument.this.text.length;
+      } else if (this.isModuleEnd()) {
+        return YangDocument.this.closeOffset + 1;
+      } else if (this.statement < 0) {
+        return YangDocument.this.module.endOffsets[0];
+      }
+      return YangDocument.this.statementOffsets[this.statement]
+          + this.segment().endOffsets[this.index];
+    }
+
+    @Override
+    public int getLine() {
+      if (this.eventType == null) {
+        return -1;
+      } else if (this.eventType == EventType.END_MODULE) {
+        return YangDocument.this.endLine;
+      } else if (this.isModuleEnd()) {
+        return YangDocument.this.closeLine;
+      } else if (this.statement < 0) {
+        return 1 + YangDocument.this.module.lines[0];
+      }
+      return YangDocument.this.statementLines[this.statement] + this.segment().lines[this.index];
+    }
+
+    @Override
+    public int getColumn() {
+      if (this.eventType == null) {
+        return -1;
+      } else if (this.eventType == EventType.END_MODULE) {
+        return YangDocument.this.endColumn;
+      } else if (this.isModuleEnd()) {
+        return YangDocument.this.closeColumn;
+      }
+      return this.segment().columns[this.index];
+    }
+
+    @Override
+    public EventType getEventType() {
+      return this.eventType;
+    }
+
+    @Override
+    public StatementType getStatementType() {
+      if (!this.hasStatement()) {
+        return null;
+      }
+      return this.segment().tape.getStatementType(this.index);
+    }
+
+    @Override
+    public String getNamespace() {
+      if (!this.hasStatement()) {
+        return null;
+      }
+      EventTape tape = this.segment().tape;
+      return tape.getSymbolTable().getSymbol(tape.getNamespaceId(this.index));
+    }
+
+    @Override
+    public String getIdentifier() {
+      if (!this.hasStatement()) {
+        return null;
+      }
+      EventTape tape = this.segment().tape;
+      return tape.getSymbolTable().getSymbol(tape.getIdentifierId(this.index));
+    }
+
+    @Override
+    public String getArgument() {
+      if (!this.hasStatement()) {
+        return null;
+      }
+      EventTape tape = this.segment().tape;
+      return tape.getSymbolTable().getSymbol(tape.getArgumentId(this.index));
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package iwostaq.yppj;
 
 import java.io.IOException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import iwostaq.yppj.exception.YangPullParserException;
 
 /**
@@ -16,6 +19,8 @@ public interface YangPullParser {
     STATEMENT_START, //
     /** At the end of a statement. */
     STATEMENT_END,
+    /** More input has to be fed to an AsyncYangPullParser to read the next event. */
+    INCOMPLETE,
   }
 
   public enum StatementType {
@@ -99,6 +104,87 @@ public interface YangPullParser {
    */
   public EventType next() throws IOException, YangPullParserException;
 
+  /**
+   * Skips the sub-statements of the current statement, which must be at STATEMENT_START, and moves
+   * to its STATEMENT_END. No event is reported for the skipped statements.
+   *
+   * @return the type of the event moved to; STATEMENT_END, or END_MODULE if the input ends
+   * @throws IOException
+   * @throws YangPullParserException
+   * @throws IllegalStateException when the current event is not STATEMENT_START
+   */
+  public default EventType skipStatement() throws IOException, YangPullParserException {
+    if (this.getEventType() != EventType.STATEMENT_START) {
+      throw new IllegalStateException();
+    }
+    int depth = this.getDepth();
+    while (true) {
+      EventType eventType = this.next();
+      if (eventType == EventType.END_MODULE
+          || (eventType == EventType.STATEMENT_END && this.getDepth() < depth)) {
+        return eventType;
+      }
+    }
+  }
+
+  /**
+   * Reads the next events into the buffer, up to its capacity. The events are read as next() does,
+   * and the parser is left at the last event in the buffer. The batch ends with END_MODULE at the
+   * end of the input, and no event is read after END_MODULE.
+   *
+   * @param buffer the buffer to be filled; the events in it are discarded
+   * @return the number of the events read, 0 after END_MODULE
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public default int nextBatch(EventBuffer buffer) throws IOException, YangPullParserException {
+    if (buffer == null) {
+      throw new IllegalArgumentException();
+    }
+    buffer.clear();
+    if (this.getEventType() == EventType.END_MODULE) {
+      return 0;
+    }
+    while (!buffer.isFull()) {
+      EventType eventType = this.next();
+      buffer.add(eventType, this.getStatementType(), this.getDepth(), this.getNamespace(),
+          this.getIdentifier(), this.getArgumentChars());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+    return buffer.size();
+  }
+
+  /**
+   * Returns a spliterator over the events from the current position up to END_MODULE, which is not
+   * included, or up to INCOMPLETE of a feed-based parser. The parser is moved as the spliterator is
+   * advanced, so the parser should not be used together with it. The errors are thrown as
+   * UncheckedIOException or UncheckedYangPullParserException.
+   *
+   * <p>
+   * The events are read in batches, and the elements are immutable snapshots referring to the
+   * batches. The spliterator splits at the boundaries of whole top-level statements, so a parallel
+   * stream gives each thread whole statements.
+   * </p>
+   *
+   * @return the spliterator
+   */
+  public default Spliterator<EventSnapshot> spliterator() {
+    return new ParserSpliterator(this);
+  }
+
+  /**
+   * Returns a sequential stream of the events from the current position up to END_MODULE, which is
+   * not included.
+   *
+   * @return the stream
+   * @see #spliterator()
+   */
+  public default Stream<EventSnapshot> stream() {
+    return StreamSupport.stream(this.spliterator(), false);
+  }
+
   /**
    * Return the depth of the current position in the module.
    * 
@@ -106,6 +192,44 @@ public interface YangPullParser {
    */
   public int getDepth();
 
+  /**
+   * Returns the offset of the start of the current event in the input; the keyword of a statement
+   * start, or the ';' or '}' of a statement end.
+   *
+   * @return the offset, or -1 if the parser does not track the positions
+   */
+  public default int getStartOffset() {
+    return -1;
+  }
+
+  /**
+   * Returns the offset following the end of the current event in the input; the ';' or '{' ending
+   * the head of a statement start, or the ';' or '}' of a statement end.
+   *
+   * @return the offset, or -1 if the parser does not track the positions
+   */
+  public default int getEndOffset() {
+    return -1;
+  }
+
+  /**
+   * Returns the line of the start of the current event, which starts from 1.
+   *
+   * @return the line, or -1 if the parser does not track the positions
+   */
+  public default int getLine() {
+    return -1;
+  }
+
+  /**
+   * Returns the column of the start of the current event, which starts from 1.
+   *
+   * @return the column, or -1 if the parser does not track the positions
+   */
+  public default int getColumn() {
+    return -1;
+  }
+
   /**
    * Returns the type of the current event.
    * 
@@ -140,4 +264,14 @@ public interface YangPullParser {
    * @return the argument of the current statement
    */
   public String getArgument();
+
+  /**
+   * Returns the argument of the current statement without creating a String if possible. The char
+   * sequence is valid until next() is called.
+   * 
+   * @return the argument of the current statement
+   */
+  public default CharSequence getArgumentChars() {
+    return this.getArgument();
+  }
 }
@@ -2,12 +2,17 @@ package iwostaq.yppj;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenFactory;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
 import org.antlr.v4.runtime.UnbufferedCharStream;
 import iwostaq.yppj.exception.YangPullParserException;
 import iwostaq.yppj.g.YangLexer;
@@ -15,42 +20,306 @@ import iwostaq.yppj.g.YangLexer;
 /**
  * A Yang pull parser implementation.
  *
+ * <p>
+ * The parser keeps the current event in a single reusable event object. The enclosing statements
+ * are kept in a StatementStack as primitives, and the event of a statement end is restored from
+ * the stack, so no event object is created while parsing.
+ * </p>
  */
 public class YangPullParserImpl implements YangPullParser {
 
   public static final String VERSION = "1.1.0";
 
-  protected static Pattern PATTERN_DATE = Pattern.compile("\\d{4}\\-\\d\\d\\-\\d\\d");
-  protected static Pattern PATTERN_IDTF =
-      Pattern.compile("(?:(?<ns>[A-Za-z_][\\w_\\-\\.]*):)?(?<id>[A-Za-z_][\\w_\\-\\.]*)");
+  /**
+   * Lexers available to the parser.
+   */
+  public enum LexerEngine {
+    /** The lexer generated from YangLexer.g4 by ANTLR. This is the reference implementation. */
+    ANTLR,
+    /** The hand-written scanner, YangScanner. */
+    SCANNER,
+    /**
+     * The hand-written scanner working on UTF-8 bytes, YangByteScanner. It is available only for
+     * the input given as bytes.
+     */
+    BYTE_SCANNER,
+  }
 
-  protected CommonTokenStream tokenStream;
+  protected TokenWindow tokenWindow;
 
   protected ParserContext context;
   protected YangSyntax syntax;
+  protected SymbolTable symbolTable;
 
   protected Event currentEvent;
+  protected Event reusableEvent;
+
+  /** Whether the current statement start is followed by '{' rather than ';'. */
+  protected boolean blockOpened;
+
+  /** The types of the statements reported, or null to report all of them. */
+  protected Set<StatementType> statementFilter;
+
+  /** Whether the positions of the events are tracked, and the position of the current event. */
+  protected boolean positionTracking;
+  protected int startOffset;
+  protected int endOffset;
+  protected int line;
+  protected int column;
 
   /**
-   * Constructor.
+   * Constructor. The hand-written scanner is used as the lexer.
    *
    * @param fromReader the Reader object to read data.
    */
   public YangPullParserImpl(Reader fromReader) {
-    if (fromReader == null) {
+    this(fromReader, LexerEngine.SCANNER);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param fromReader the Reader object to read data.
+   * @param lexerEngine the lexer to be used; ANTLR or SCANNER
+   */
+  public YangPullParserImpl(Reader fromReader, LexerEngine lexerEngine) {
+    this(fromReader, lexerEngine, null);
+  }
+
+  /**
+   * Constructor with a statement filter. A statement of which type is not in the filter is not
+   * reported together with its sub-statements; they are skipped by the scanner counting braces, so
+   * the argument is not read and the sub-statements are not checked for errors. The statements
+   * enclosing the reported statements, e.g. MODULE, must be in the filter as well.
+   *
+   * @param fromReader the Reader object to read data.
+   * @param lexerEngine the lexer to be used; ANTLR or SCANNER
+   * @param statementFilter the types of the statements to be reported, or null to report all of
+   *        them
+   */
+  public YangPullParserImpl(Reader fromReader, LexerEngine lexerEngine,
+      Set<StatementType> statementFilter) {
+    if (fromReader == null || lexerEngine == null || lexerEngine == LexerEngine.BYTE_SCANNER) {
+      throw new IllegalArgumentException();
+    }
+
+    if (lexerEngine == LexerEngine.ANTLR) {
+      // The text must be copied because the unbuffered stream discards the consumed chars.
+      CharStream fromCharStream = new UnbufferedCharStream(fromReader);
+      YangLexer antlrLexer = new YangLexer(fromCharStream);
+      antlrLexer.setTokenFactory(new CommonTokenFactory(true));
+      this.init(antlrLexer, new SymbolTable(), statementFilter);
+    } else {
+      YangScanner scanner = new YangScanner(fromReader);
+      this.init(scanner, scanner.getSymbolTable(), statementFilter);
+    }
+  }
+
+  /**
+   * Creates a parser for UTF-8 bytes. The bytes between the position and the limit of the buffer
+   * are parsed with the byte-oriented scanner, so the input is not decoded to chars except for the
+   * strings of the events.
+   *
+   * @param utf8Bytes the buffer holding a module encoded in UTF-8
+   * @return the parser
+   */
+  public static YangPullParserImpl fromBytes(ByteBuffer utf8Bytes) {
+    return YangPullParserImpl.fromBytes(utf8Bytes, LexerEngine.BYTE_SCANNER);
+  }
+
+  /**
+   * Creates a parser for UTF-8 bytes with the given lexer.
+   *
+   * @param utf8Bytes the buffer holding a module encoded in UTF-8
+   * @param lexerEngine the lexer to be used; BYTE_SCANNER, or SCANNER to decode the bytes to chars
+   *        in bulk
+   * @return the parser
+   */
+  public static YangPullParserImpl fromBytes(ByteBuffer utf8Bytes, LexerEngine lexerEngine) {
+    return YangPullParserImpl.fromBytes(utf8Bytes, lexerEngine, null);
+  }
+
+  /**
+   * Creates a parser for UTF-8 bytes with the given lexer and statement filter.
+   *
+   * @param utf8Bytes the buffer holding a module encoded in UTF-8
+   * @param lexerEngine the lexer to be used; BYTE_SCANNER, or SCANNER to decode the bytes to chars
+   *        in bulk
+   * @param statementFilter the types of the statements to be reported, or null to report all of
+   *        them
+   * @return the parser
+   * @see #YangPullParserImpl(Reader, LexerEngine, Set)
+   */
+  public static YangPullParserImpl fromBytes(ByteBuffer utf8Bytes, LexerEngine lexerEngine,
+      Set<StatementType> statementFilter) {
+    if (utf8Bytes == null || lexerEngine == null || lexerEngine == LexerEngine.ANTLR) {
       throw new IllegalArgumentException();
     }
+    if (lexerEngine == LexerEngine.SCANNER) {
+      return new YangPullParserImpl(YangScanner.fromBytes(utf8Bytes), statementFilter);
+    }
+    return new YangPullParserImpl(new YangByteScanner(utf8Bytes), statementFilter);
+  }
+
+  /**
+   * Creates a parser for a file encoded in UTF-8. The file is mapped on memory and closed before
+   * the method returns.
+   *
+   * @param path the path of the file
+   * @return the parser
+   * @throws IOException when the file cannot be mapped
+   */
+  public static YangPullParserImpl fromPath(Path path) throws IOException {
+    return YangPullParserImpl.fromBytes(YangPullParserImpl.map(path));
+  }
+
+  /**
+   * Creates a parser with a statement filter for a file encoded in UTF-8.
+   *
+   * @param path the path of the file
+   * @param statementFilter the types of the statements to be reported, or null to report all of
+   *        them
+   * @return the parser
+   * @throws IOException when the file cannot be mapped
+   * @see #YangPullParserImpl(Reader, LexerEngine, Set)
+   */
+  public static YangPullParserImpl fromPath(Path path, Set<StatementType> statementFilter)
+      throws IOException {
+    return YangPullParserImpl.fromBytes(YangPullParserImpl.map(path), LexerEngine.BYTE_SCANNER,
+        statementFilter);
+  }
+
+  /**
+   * Creates a parser for a file channel encoded in UTF-8. The region from the current position to
+   * the end of the channel is mapped on memory. The channel can be closed after the method returns.
+   *
+   * @param channel the file channel
+   * @return the parser
+   * @throws IOException when the channel cannot be mapped
+   */
+  public static YangPullParserImpl fromChannel(FileChannel channel) throws IOException {
+    return YangPullParserImpl.fromBytes(YangPullParserImpl.map(channel));
+  }
+
+  /**
+   * Creates a parser for a part of a larger input encoded in UTF-8, e.g. a statement in a file. The
+   * events have their positions in the larger input.
+   *
+   * @param utf8Bytes the buffer holding the part
+   * @param offset the offset of the part in the larger input
+   * @param line the line of the start of the part
+   * @param column the column of the start of the part
+   * @return the parser
+   */
+  static YangPullParserImpl fromBytes(ByteBuffer utf8Bytes, int offset, int line, int column) {
+    YangByteScanner scanner = new YangByteScanner(utf8Bytes);
+    scanner.setOrigin(offset, line, column);
+    return new YangPullParserImpl(scanner, null);
+  }
 
-    CharStream fromCharStream = new UnbufferedCharStream(fromReader);
+  /**
+   * Creates a parser for a part of a text on memory, e.g. a statement in a document being edited.
+   * The events have their positions in the text.
+   *
+   * @param chars the array holding the text, which is not modified
+   * @param offset the offset of the part in the text
+   * @param length the length of the part
+   * @param line the line of the start of the part
+   * @param column the column of the start of the part
+   * @return the parser
+   */
+  static YangPullParserImpl fromChars(char[] chars, int offset, int length, int line,
+      int column) {
+    YangScanner scanner = new YangScanner(chars, offset, length);
+    scanner.setOrigin(offset, line, column);
+    return new YangPullParserImpl(scanner, null);
+  }
+
+  private YangPullParserImpl(YangTokenSource scanner, Set<StatementType> statementFilter) {
+    this.init(scanner, scanner.getSymbolTable(), statementFilter);
+  }
 
-    YangLexer lexer = new YangLexer(fromCharStream);
-    lexer.setTokenFactory(new CommonTokenFactory(true));
-    this.tokenStream = new CommonTokenStream(lexer);
-    // this.tokenStream.seek(0);
+  private void init(TokenSource lexer, SymbolTable symbolTable,
+      Set<StatementType> statementFilter) {
+    this.tokenWindow = new TokenWindow(lexer);
+    this.symbolTable = symbolTable;
 
-    this.context = new ParserContext(this.tokenStream); // by default
+    this.context = new ParserContext(this.tokenWindow); // by default
     this.syntax = new YangSyntax();
     this.currentEvent = null;
+    this.reusableEvent = new Event(EventType.STATEMENT_START, null);
+    this.blockOpened = false;
+    this.statementFilter = null;
+    this.positionTracking = true;
+    this.clearPosition();
+    if (statementFilter != null) {
+      this.statementFilter = EnumSet.noneOf(StatementType.class);
+      this.statementFilter.addAll(statementFilter);
+    }
+  }
+
+  /**
+   * Sets whether the positions of the events are tracked, which is the default. When they are not
+   * tracked, the scanner does not count the lines, and the getters of the positions return -1. It
+   * must be called before the first event is read.
+   *
+   * @param positionTracking false not to track the positions
+   * @return this parser
+   * @throws IllegalStateException when an event has been read
+   */
+  public YangPullParserImpl setPositionTracking(boolean positionTracking) {
+    if (this.currentEvent != null) {
+      throw new IllegalStateException();
+    }
+    this.positionTracking = positionTracking;
+    TokenSource tokenSource = this.tokenWindow.getTokenSource();
+    if (tokenSource instanceof YangTokenSource) {
+      ((YangTokenSource) tokenSource).setLineTracking(positionTracking);
+    }
+    return this;
+  }
+
+  private void clearPosition() {
+    this.startOffset = -1;
+    this.endOffset = -1;
+    this.line = -1;
+    this.column = -1;
+  }
+
+  /**
+   * Sets the position of the token to the current event.
+   */
+  private void setPosition(Token token) {
+    if (this.positionTracking) {
+      this.startOffset = token.getStartIndex();
+      this.endOffset = token.getStopIndex() + 1;
+      this.line = token.getLine();
+      this.column = token.getCharPositionInLine() + 1;
+    }
+  }
+
+  /**
+   * Maps the whole file on memory read-only. The file is closed before the method returns.
+   */
+  static ByteBuffer map(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException();
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return YangPullParserImpl.map(channel);
+    }
+  }
+
+  private static ByteBuffer map(FileChannel channel) throws IOException {
+    if (channel == null) {
+      throw new IllegalArgumentException();
+    }
+    long position = channel.position();
+    long size = channel.size() - position;
+    if (Integer.MAX_VALUE < size) {
+      throw new IOException("too large to map: " + size + " bytes");
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.max(size, 0));
   }
 
   /**
@@ -62,47 +331,123 @@ public class YangPullParserImpl implements YangPullParser {
    */
   @Override
   public EventType next() throws IOException, YangPullParserException {
+    try {
+      return this.nextEvent();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
 
-    Token token = this.context.getCurrentToken();
+  /**
+   * Skips the sub-statements of the current statement and moves to its STATEMENT_END. The scanner
+   * skips the block counting only braces, so neither tokens nor events nor argument strings are
+   * created for the skipped statements, and they are not checked for errors.
+   *
+   * @return the type of the event moved to; STATEMENT_END, or END_MODULE if the input ends
+   * @throws IOException
+   * @throws YangPullParserException
+   * @throws IllegalStateException when the current event is not STATEMENT_START
+   */
+  @Override
+  public EventType skipStatement() throws IOException, YangPullParserException {
+    if (this.getEventType() != EventType.STATEMENT_START) {
+      throw new IllegalStateException();
+    }
+    try {
+      if (this.blockOpened) {
+        // the end of the input or an invalid token met instead of '}' is reported by next().
+        this.tokenWindow.skipToClosingBrace();
+      }
+      return this.nextEvent();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
 
-    if (token.getType() == YangLexer.EOF) {
-      this.currentEvent = Event.END_DEFINITION;
+  /**
+   * Reads the next events into the buffer, up to its capacity. The namespaces and the identifiers
+   * are interned with the symbol table of the buffer, and the arguments are copied into the buffer
+   * without creating Strings.
+   *
+   * @param buffer the buffer to be filled; the events in it are discarded
+   * @return the number of the events read, 0 after END_MODULE
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  @Override
+  public int nextBatch(EventBuffer buffer) throws IOException, YangPullParserException {
+    if (buffer == null) {
+      throw new IllegalArgumentException();
+    }
+    buffer.clear();
+    if (this.getEventType() == EventType.END_MODULE) {
+      return 0;
+    }
 
-      return this.currentEvent.getEventType();
+    StatementStack stack = this.context.getStatementStack();
+    try {
+      while (!buffer.isFull()) {
+        EventType eventType = this.nextEvent();
+        if (eventType == EventType.END_MODULE) {
+          buffer.add(eventType, null, stack.getDepth(), null, null, null);
+          break;
+        }
+        // the statement of an end event has just been popped and is left at the depth.
+        int depth = stack.getDepth();
+        int level = (eventType == EventType.STATEMENT_START) ? depth - 1 : depth;
+        buffer.add(eventType, this.currentEvent.getStatementType(), depth,
+            stack.getNamespaceAt(level), stack.getIdentifierAt(level),
+            this.currentEvent.getArgumentRef());
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
     }
+    return buffer.size();
+  }
 
-    if (this.syntax.isEndStatement(token)) {
-      this.currentEvent = this.createEndStatementEvent();
-      return this.currentEvent.getEventType();
+  /**
+   * Reads tokens and creates the next parser event.
+   *
+   * @return the next parser event
+   * @throws YangPullParserException
+   */
+  protected EventType nextEvent() throws YangPullParserException {
+
+    Token token = this.context.getCurrentToken();
+    while (this.isFilteredOut(token)) {
+      this.context.consume();
+      // the end of the input or an unexpected token is reported below.
+      this.tokenWindow.skipToEndOfStatement();
+      token = this.context.getCurrentToken();
     }
 
-    StatementType statementType;
+    this.setPosition(token);
+    if (token.getType() == YangLexer.EOF) {
+      this.currentEvent = Event.END_DEFINITION;
 
-    // check if the token is a statement followed by an ID.
-    statementType = this.syntax.searchStatementsExpectingIdFor(token);
-    if (statementType != null) {
-      Event event = this.createStartStatementEvent(statementType, token);
-      this.parseIdentifier(event);
-      this.closeStartStatement(event);
-      this.currentEvent = event;
       return this.currentEvent.getEventType();
     }
 
-    // check if the token is a statemnt followed by arguments.
-    statementType = this.syntax.searchStatementsExpectingArgumentsFor(token);
-    if (statementType != null) {
-      Event event = this.createStartStatementEvent(statementType, token);
-      event.setArgument(this.readString());
-      this.closeStartStatement(event);
-      this.currentEvent = event;
+    if (this.syntax.isEndStatement(token)) {
+      this.currentEvent = this.createEndStatementEvent();
       return this.currentEvent.getEventType();
-
     }
 
-    // check if the token is a statement followed by none.
-    statementType = this.syntax.searchStatementsExpectingNoArgFor(token);
-    if (statementType != null) {
-      Event event = this.createStartStatementEvent(statementType, token);
+    // check if the token is a statement keyword.
+    YangSyntax.Keyword keyword = this.syntax.lookupKeyword(token);
+    if (keyword != null) {
+      Event event = this.createStartStatementEvent(keyword.getStatementType(), token);
+      switch (keyword.getArgumentType()) {
+        case IDENTIFIER:
+          this.parseIdentifier(event);
+          break;
+        case STRING:
+          this.readString(this.context.getArgumentText());
+          event.setArgumentRef(this.context.getArgumentText());
+          break;
+        default:
+          break;
+      }
       this.closeStartStatement(event);
       this.currentEvent = event;
       return this.currentEvent.getEventType();
@@ -110,14 +455,32 @@ public class YangPullParserImpl implements YangPullParser {
 
     // check if the token is an unknown statement.
     if (this.syntax.isUnknownStatement(token)) {
-      Event event = new Event(EventType.STATEMENT_START, StatementType.UNKNOWN);
+      Event event = this.resetReusableEvent(StatementType.UNKNOWN);
       this.parseUnknownStatement(event);
       this.closeStartStatement(event);
       this.currentEvent = event;
       return this.currentEvent.getEventType();
     }
 
-    throw new YangPullParserException("unknown token:" + token.getText());
+    throw new YangPullParserException("err.unknown_token", token.getText());
+  }
+
+  /**
+   * Checks if the token starts a statement which is not in the statement filter.
+   *
+   * @param token the token
+   * @return true if the statement is to be skipped
+   */
+  private boolean isFilteredOut(Token token) {
+    if (this.statementFilter == null) {
+      return false;
+    }
+    YangSyntax.Keyword keyword = this.syntax.lookupKeyword(token);
+    if (keyword != null) {
+      return !this.statementFilter.contains(keyword.getStatementType());
+    }
+    return this.syntax.isUnknownStatement(token)
+        && !this.statementFilter.contains(StatementType.UNKNOWN);
   }
 
   /**
@@ -130,6 +493,60 @@ public class YangPullParserImpl implements YangPullParser {
     return this.context.getEventStackSize();
   }
 
+  /**
+   * Returns the offset of the start of the current event; the keyword of a statement start, or the
+   * ';' or '}' of a statement end. The offsets count chars, or bytes for the input of UTF-8 bytes
+   * read by the byte scanner.
+   *
+   * @return the offset, or -1 if the position is not tracked
+   */
+  @Override
+  public int getStartOffset() {
+    return this.startOffset;
+  }
+
+  /**
+   * Returns the offset following the end of the current event; the ';' or '{' ending the head of a
+   * statement start, or the ';' or '}' of a statement end.
+   *
+   * @return the offset, or -1 if the position is not tracked
+   */
+  @Override
+  public int getEndOffset() {
+    return this.endOffset;
+  }
+
+  /**
+   * Returns the line of the start of the current event, which starts from 1.
+   *
+   * @return the line, or -1 if the position is not tracked
+   */
+  @Override
+  public int getLine() {
+    return this.line;
+  }
+
+  /**
+   * Returns the column of the start of the current event, which starts from 1 and counts the same
+   * units as the offsets.
+   *
+   * @return the column, or -1 if the position is not tracked
+   */
+  @Override
+  public int getColumn() {
+    return this.column;
+  }
+
+  /**
+   * Returns the statements enclosing the current position from the root module statement. The
+   * view is not copied and reflects the later events.
+   * 
+   * @return the view of the enclosing statements
+   */
+  public StatementStack.Ancestors getAncestors() {
+    return this.context.getStatementStack().getAncestors();
+  }
+
   /**
    * Returns the type of the current event.
    * 
@@ -186,7 +603,8 @@ public class YangPullParserImpl implements YangPullParser {
   }
 
   /**
-   * Returns the argument of the current statement.
+   * Returns the argument of the current statement. The String is created when this method is
+   * called first for the statement.
    *
    * @return the argument of the current statement.
    */
@@ -199,6 +617,21 @@ public class YangPullParserImpl implements YangPullParser {
     }
   }
 
+  /**
+   * Returns the argument of the current statement without creating a String. The char sequence
+   * may refer to the buffer of the scanner and is valid until next() is called.
+   *
+   * @return the argument of the current statement
+   */
+  @Override
+  public CharSequence getArgumentChars() {
+    if (this.currentEvent == null) {
+      return null;
+    } else {
+      return this.currentEvent.getArgumentChars();
+    }
+  }
+
   /**
    * Create a start event from the given token.
    *
@@ -210,43 +643,53 @@ public class YangPullParserImpl implements YangPullParser {
     assert (statementType != null);
     assert (token != null);
 
-    Event startEvent = new Event(EventType.STATEMENT_START, statementType);
+    Event startEvent = this.resetReusableEvent(statementType);
     this.context.consume();
 
     return startEvent;
   }
 
   /**
-   * Create an end event.
+   * Create an end event from the top of the statement stack.
    * 
-   * @return the created end event
+   * @return the end event
    * @throws YangPullParserException
    */
   protected Event createEndStatementEvent() throws YangPullParserException {
-    Event startEvent = this.context.popTopEvent();
-    if (startEvent == null) {
+    Event endEvent = this.reusableEvent;
+    if (!this.context.popTopEvent(endEvent)) {
       throw new YangPullParserException();
     }
 
-    Event endEvent = new Event(EventType.STATEMENT_END, startEvent.getStatementType());
-    endEvent.setNamespace(startEvent.getNamespace());
-    endEvent.setIdentifier(startEvent.getIdentifier());
-    endEvent.setArgument(startEvent.getArgument());
-
     this.context.consume();
 
     return endEvent;
   }
 
+  private Event resetReusableEvent(StatementType statementType) {
+    Event event = this.reusableEvent;
+    event.setEventType(EventType.STATEMENT_START);
+    event.setStatementType(statementType);
+    event.setNamespace(null);
+    event.setIdentifier(null);
+    event.setArgumentRef(null);
+    return event;
+  }
+
   protected void closeStartStatement(Event event) throws YangPullParserException {
     this.context.pushEvent(event);
 
     Token nextToken = this.context.getCurrentToken();
+    if (this.positionTracking) {
+      this.endOffset = nextToken.getStopIndex() + 1;
+    }
     switch (nextToken.getType()) {
       case YangLexer.S_LBR:
         this.context.consume();
+        this.blockOpened = true;
         break;
       case YangLexer.S_SEMICOLON:
+        this.blockOpened = false;
         break;
       default:
         throw new YangPullParserException("err.unexpected_token", nextToken.getText());
@@ -261,30 +704,57 @@ public class YangPullParserImpl implements YangPullParser {
     Token nextToken = this.context.getCurrentToken();
     if (nextToken.getType() == YangLexer.QUOTED_STRING
         || nextToken.getType() == YangLexer.UNQUOTED_STRING) {
-      event.setArgument(this.readString());
+      this.readString(this.context.getArgumentText());
+      event.setArgumentRef(this.context.getArgumentText());
     }
   }
 
+  /**
+   * Reads a string and sets the node identifier, [prefix ":"] identifier, found first in the string
+   * to the event.
+   *
+   * @param event the event
+   * @throws YangPullParserException when no identifier is found.
+   */
   protected void parseIdentifier(Event event) throws YangPullParserException {
     assert (event != null);
     assert (event.getEventType() == EventType.STATEMENT_START);
 
-    String prefixOrIdtring = this.readString();
+    String prefixOrIdString = this.readString();
 
-    Matcher m = PATTERN_IDTF.matcher(prefixOrIdtring);
-    if (!m.find()) {
-      throw new YangPullParserException("");
+    int length = prefixOrIdString.length();
+    for (int start = 0; start < length; start++) {
+      if (!YangSyntax.isIdentifierStartChar(prefixOrIdString.charAt(start))) {
+        continue;
+      }
+
+      int end = YangSyntax.skipIdentifierChars(prefixOrIdString, start + 1);
+      if (end + 1 < length && prefixOrIdString.charAt(end) == ':'
+          && YangSyntax.isIdentifierStartChar(prefixOrIdString.charAt(end + 1))) {
+        int idEnd = YangSyntax.skipIdentifierChars(prefixOrIdString, end + 2);
+        event.setNamespace(this.toSymbol(prefixOrIdString, start, end));
+        event.setIdentifier(this.toSymbol(prefixOrIdString, end + 1, idEnd));
+      } else {
+        event.setNamespace(null);
+        event.setIdentifier(this.toSymbol(prefixOrIdString, start, end));
+      }
+      return;
     }
 
-    event.setNamespace(m.group("ns"));
-    event.setIdentifier(m.group("id"));
+    throw new YangPullParserException("");
+  }
+
+  private String toSymbol(String s, int start, int end) {
+    if (start == 0 && end == s.length()) {
+      return s;
+    }
+    return this.symbolTable.intern(s, start, end - start);
   }
 
   protected String readDateString() throws YangPullParserException {
     String dateString = this.readString();
 
-    Matcher m = PATTERN_DATE.matcher(dateString);
-    if (!m.matches()) {
+    if (!YangSyntax.isDateString(dateString)) {
       throw new YangPullParserException("err.unexpected_token", dateString);
     }
     return dateString;
@@ -297,20 +767,45 @@ public class YangPullParserImpl implements YangPullParser {
    * @throws YangPullParserException when meets a token that is not expected.
    */
   protected String readString() throws YangPullParserException {
+    TextRef text = this.context.getArgumentText();
+    this.readString(text);
+    return text.getString();
+  }
+
+  /**
+   * Reads a string from the stream into the given reference. A quoted string which is not
+   * concatenated with another is left in the buffer of the scanner.
+   * 
+   * @param text the reference to be set
+   * @throws YangPullParserException when meets a token that is not expected.
+   */
+  protected void readString(TextRef text) throws YangPullParserException {
     Token stringToken = this.context.getCurrentToken();
     if (stringToken.getType() == YangLexer.UNQUOTED_STRING) {
+      text.set(stringToken.getText());
       this.context.consume();
-      return stringToken.getText();
+      return;
     }
 
     if (stringToken.getType() != YangLexer.QUOTED_STRING) {
       throw new YangPullParserException("err.unexpected_token", stringToken.getText());
     }
 
-    StringBuilder sb = new StringBuilder();
-    sb.append(stringToken.getText());
+    if (stringToken instanceof YangToken) {
+      text.set(((YangToken) stringToken).getTextRef());
+    } else {
+      text.set(stringToken.getText());
+    }
     this.context.consume();
 
+    Token plusToken = this.context.getCurrentToken();
+    if (plusToken.getType() != YangLexer.UNQUOTED_STRING || !("+".equals(plusToken.getText()))) {
+      return;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(text);
+
     while (true) {
       Token nextToken = this.context.getCurrentToken();
       if (nextToken.getType() != YangLexer.UNQUOTED_STRING || !("+".equals(nextToken.getText()))) {
@@ -326,6 +821,6 @@ public class YangPullParserImpl implements YangPullParser {
       this.context.consume();
     }
 
-    return sb.toString();
+    text.set(sb.toString());
   }
 }
@@ -0,0 +1,145 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+/**
+ * A push parser, which reports the statements of a module to a handler like SAX.
+ *
+ * <p>
+ * The statements are read by YangPullParserImpl, but the parse loop passes the fields of the
+ * reusable event of the parser and the depth of its statement stack to the handler directly,
+ * instead of going through the getters of the pull interface. The arguments are given as char
+ * sequences which may refer to the buffer of the scanner, so no String is created for an argument
+ * unless the handler creates it.
+ * </p>
+ */
+public final class YangPushParser {
+
+  /**
+   * A handler receiving the statements.
+   */
+  public interface StatementHandler {
+
+    /**
+     * Called at the start of a statement.
+     *
+     * @param statementType the type of the statement
+     * @param namespace the prefix of the keyword of an extension statement, or null
+     * @param identifier the identifier of the statement, or null
+     * @param argument the argument of the statement, or null; it is valid only in the call
+     * @param depth the depth of the statement, which is 1 for the module statement
+     * @throws IOException
+     * @throws YangPullParserException
+     */
+    void startStatement(StatementType statementType, CharSequence namespace,
+        CharSequence identifier, CharSequence argument, int depth)
+        throws IOException, YangPullParserException;
+
+    /**
+     * Called at the end of a statement with the same values as startStatement().
+     *
+     * @param statementType the type of the statement
+     * @param namespace the prefix of the keyword of an extension statement, or null
+     * @param identifier the identifier of the statement, or null
+     * @param argument the argument of the statement, or null; it is valid only in the call
+     * @param depth the depth of the statement, which is 1 for the module statement
+     * @throws IOException
+     * @throws YangPullParserException
+     */
+    void endStatement(StatementType statementType, CharSequence namespace,
+        CharSequence identifier, CharSequence argument, int depth)
+        throws IOException, YangPullParserException;
+  }
+
+  private YangPushParser() {}
+
+  /**
+   * Parses the module read from the reader.
+   *
+   * @param fromReader the reader
+   * @param handler the handler
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static void parse(Reader fromReader, StatementHandler handler)
+      throws IOException, YangPullParserException {
+    if (fromReader == null) {
+      throw new IllegalArgumentException();
+    }
+    YangPushParser.parse(new YangPullParserImpl(fromReader), handler);
+  }
+
+  /**
+   * Parses the module encoded in UTF-8 between the position and the limit of the buffer.
+   *
+   * @param utf8Bytes the buffer holding the module
+   * @param handler the handler
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static void parse(ByteBuffer utf8Bytes, StatementHandler handler)
+      throws IOException, YangPullParserException {
+    YangPushParser.parse(YangPullParserImpl.fromBytes(utf8Bytes), handler);
+  }
+
+  /**
+   * Parses the module in the file encoded in UTF-8, which is mapped on memory.
+   *
+   * @param path the path of the file
+   * @param handler the handler
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static void parse(Path path, StatementHandler handler)
+      throws IOException, YangPullParserException {
+    YangPushParser.parse(YangPullParserImpl.fromPath(path), handler);
+  }
+
+  /**
+   * Reports the statements from the current position of the parser to the end of the module. A
+   * statement started before the position is reported only at its end. The handler can read the
+   * position of the statement from the parser.
+   *
+   * @param ypp the parser
+   * @param handler the handler
+   * @throws IOException
+   * @throws YangPullParserException
+   */
+  public static void parse(YangPullParserImpl ypp, StatementHandler handler)
+      throws IOException, YangPullParserException {
+    if (ypp == null || handler == null) {
+      throw new IllegalArgumentException();
+    }
+    if (ypp.getEventType() == EventType.END_MODULE) {
+      return;
+    }
+
+    StatementStack stack = ypp.context.getStatementStack();
+    try {
+      while (true) {
+        EventType eventType = ypp.nextEvent();
+        if (eventType == EventType.END_MODULE) {
+          return;
+        }
+        Event event = ypp.currentEvent;
+        if (eventType == EventType.STATEMENT_START) {
+          handler.startStatement(event.getStatementType(), event.getNamespace(),
+              event.getIdentifier(), event.getArgumentChars(), stack.getDepth());
+        } else {
+          // the statement of an end event has just been popped from the stack.
+          handler.endStatement(event.getStatementType(), event.getNamespace(),
+              event.getIdentifier(), event.getArgumentChars(), stack.getDepth() + 1);
+        }
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,716 @@
+package iwostaq.yppj;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import iwostaq.yppj.g.YangLexer;
+
+/**
+ * A hand-written scanner for Yang models.
+ *
+ * <p>
+ * The scanner produces the same tokens as the ANTLR lexer generated from YangLexer.g4, i.e.
+ * QUOTED_STRING, UNQUOTED_STRING, S_SEMICOLON, S_LBR and S_RBR, while skipping white spaces and
+ * comments. The text of a quoted string is the raw text between the quotes. It works directly on
+ * a char array which is refilled in bulk from a Reader, or decoded in bulk from UTF-8 bytes, e.g.
+ * a memory-mapped file.
+ * </p>
+ *
+ * <p>
+ * Strings are looked up in the keyword table of YangSyntax on the buffer, and the other unquoted
+ * strings, which are mostly identifiers, are interned with a SymbolTable. nextToken(YangToken)
+ * refills a token object instead of creating one. Scanning a sequence
+ * of known symbols therefore allocates no objects.
+ * </p>
+ *
+ * <p>
+ * Malformed input, e.g. an unterminated quoted string or an illegal escape sequence in a double
+ * quoted string, is reported as a token of Token.INVALID_TYPE instead of being recovered from.
+ * </p>
+ */
+public class YangScanner implements YangTokenSource {
+
+  protected static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private static final String TEXT_SEMICOLON = ";";
+  private static final String TEXT_LBR = "{";
+  private static final String TEXT_RBR = "}";
+
+  /** Characters which terminate an unquoted string. */
+  private static final boolean[] UNQUOTED_STOP = new boolean[128];
+
+  static {
+    for (char c : new char[] {' ', '\t', ';', '{', '}', '"', '\'', '\n', '\r'}) {
+      YangScanner.UNQUOTED_STOP[c] = true;
+    }
+  }
+
+  protected Reader reader;
+  protected ByteBuffer byteInput;
+  protected CharsetDecoder decoder;
+  protected char[] buf;
+  protected int pos;
+  protected int limit;
+  protected int bufferOffset;
+  protected boolean eof;
+
+  /** The line of the position counted up to, the offset of its start, and the position. */
+  protected boolean lineTracking;
+  protected int line;
+  protected int lineStart;
+  protected int lineCounted;
+
+  protected int tokenType;
+  protected int tokenStart;
+  protected int textStart;
+  protected int textEnd;
+  protected YangSyntax.Keyword keyword;
+
+  protected TokenFactory<?> tokenFactory;
+  protected SymbolTable symbolTable;
+  protected Runnable discardListener;
+
+  /**
+   * Constructor.
+   *
+   * @param fromReader the Reader object to read data.
+   */
+  public YangScanner(Reader fromReader) {
+    if (fromReader == null) {
+      throw new IllegalArgumentException();
+    }
+    this.reader = fromReader;
+    this.byteInput = null;
+    this.decoder = null;
+    this.buf = new char[DEFAULT_BUFFER_SIZE];
+    this.limit = 0;
+    this.eof = false;
+    this.init();
+  }
+
+  /**
+   * Constructor for the input which is already on memory.
+   *
+   * @param chars the char array holding the whole input
+   * @param offset the offset of the input in the array
+   * @param length the length of the input
+   */
+  public YangScanner(char[] chars, int offset, int length) {
+    if (chars == null || offset < 0 || length < 0 || chars.length < offset + length) {
+      throw new IllegalArgumentException();
+    }
+    this.reader = null;
+    this.byteInput = null;
+    this.decoder = null;
+    this.buf = chars;
+    this.limit = offset + length;
+    this.eof = true;
+    this.init();
+    this.pos = offset;
+    this.bufferOffset = -offset;
+    this.lineCounted = offset;
+  }
+
+  /**
+   * Creates a scanner for UTF-8 bytes. The bytes between the position and the limit of the buffer
+   * are read, and the position of the given buffer is not changed. A malformed byte sequence is
+   * reported as a CharacterCodingException.
+   *
+   * @param utf8Bytes the buffer holding the input encoded in UTF-8
+   * @return the scanner
+   */
+  public static YangScanner fromBytes(ByteBuffer utf8Bytes) {
+    if (utf8Bytes == null) {
+      throw new IllegalArgumentException();
+    }
+    return new YangScanner(utf8Bytes);
+  }
+
+  private YangScanner(ByteBuffer utf8Bytes) {
+    this.reader = null;
+    this.byteInput = utf8Bytes.duplicate();
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    this.buf = new char[DEFAULT_BUFFER_SIZE];
+    this.limit = 0;
+    this.eof = false;
+    this.init();
+  }
+
+  private void init() {
+    this.pos = 0;
+    this.bufferOffset = 0;
+    this.lineTracking = true;
+    this.line = 1;
+    this.lineStart = 0;
+    this.lineCounted = 0;
+    this.tokenType = Token.INVALID_TYPE;
+    this.tokenStart = 0;
+    this.textStart = 0;
+    this.textEnd = 0;
+    this.keyword = null;
+    this.tokenFactory = CommonTokenFactory.DEFAULT;
+    this.symbolTable = new SymbolTable();
+    this.discardListener = null;
+  }
+
+  /**
+   * Scans the next token. The result is available through getTokenType() and getTokenText().
+   *
+   * @return the type of the token; one of the token types of YangLexer, Token.EOF or
+   *         Token.INVALID_TYPE
+   */
+  public int scan() {
+    this.keyword = null;
+    while (true) {
+      this.tokenStart = this.pos;
+      int c = this.charAt(0);
+      switch (c) {
+        case -1:
+          return this.setToken(Token.EOF, this.pos, this.pos, this.pos);
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+          this.skipWhiteSpaces();
+          break;
+        case ';':
+          return this.setToken(YangLexer.S_SEMICOLON, this.pos, this.pos + 1, this.pos + 1);
+        case '{':
+          return this.setToken(YangLexer.S_LBR, this.pos, this.pos + 1, this.pos + 1);
+        case '}':
+          return this.setToken(YangLexer.S_RBR, this.pos, this.pos + 1, this.pos + 1);
+        case '"':
+          return this.lookupKeyword(this.scanDoubleQuotedString());
+        case '\'':
+          return this.lookupKeyword(this.scanSingleQuotedString());
+        case '/':
+          if (this.skipComment()) {
+            break;
+          }
+          return this.lookupKeyword(this.scanUnquotedString());
+        default:
+          return this.lookupKeyword(this.scanUnquotedString());
+      }
+    }
+  }
+
+  @Override
+  public boolean skipToClosingBrace(int depth) {
+    return this.skipBlocks(depth, false);
+  }
+
+  @Override
+  public boolean skipToEndOfStatement() {
+    return this.skipBlocks(0, true);
+  }
+
+  /**
+   * Skips the input counting braces. Strings and comments are scanned as they are by scan() so
+   * that the braces in them are ignored.
+   *
+   * @param depth the number of the blocks opened and not closed yet
+   * @param toEndOfStatement true to stop after the ';' or '}' ending the statement at the depth;
+   *        false to stop before the '}' closing the current block
+   * @return true if the end is found
+   */
+  private boolean skipBlocks(int depth, boolean toEndOfStatement) {
+    this.keyword = null;
+    int level = depth;
+    while (true) {
+      this.tokenStart = this.pos;
+      int c = this.charAt(0);
+      switch (c) {
+        case -1:
+          return false;
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+          this.skipWhiteSpaces();
+          break;
+        case ';':
+          this.pos++;
+          if (toEndOfStatement && level == 0) {
+            return true;
+          }
+          break;
+        case '{':
+          level++;
+          this.pos++;
+          break;
+        case '}':
+          if (level == 0) {
+            // the '}' closing the enclosing block is left as the next token.
+            return !toEndOfStatement;
+          }
+          level--;
+          this.pos++;
+          if (toEndOfStatement && level == 0) {
+            return true;
+          }
+          break;
+        case '"':
+          if (this.scanDoubleQuotedString() == Token.INVALID_TYPE) {
+            this.pos = this.tokenStart;
+            return false;
+          }
+          break;
+        case '\'':
+          if (this.scanSingleQuotedString() == Token.INVALID_TYPE) {
+            this.pos = this.tokenStart;
+            return false;
+          }
+          break;
+        case '/':
+          if (this.skipComment()) {
+            break;
+          }
+          this.scanUnquotedString();
+          break;
+        default:
+          this.scanUnquotedString();
+          break;
+      }
+    }
+  }
+
+  /**
+   * Returns the type of the token scanned last.
+   *
+   * @return the type of the token
+   */
+  public int getTokenType() {
+    return this.tokenType;
+  }
+
+  /**
+   * Returns the text of the token scanned last. The quotes of a quoted string are not included.
+   *
+   * @return the text of the token
+   */
+  public String getTokenText() {
+    switch (this.tokenType) {
+      case YangLexer.S_SEMICOLON:
+        return TEXT_SEMICOLON;
+      case YangLexer.S_LBR:
+        return TEXT_LBR;
+      case YangLexer.S_RBR:
+        return TEXT_RBR;
+      case Token.EOF:
+        return "<EOF>";
+      case YangLexer.UNQUOTED_STRING:
+        if (this.keyword != null) {
+          return this.keyword.getName();
+        }
+        return this.symbolTable.intern(this.buf, this.textStart, this.textEnd - this.textStart);
+      case YangLexer.QUOTED_STRING:
+        if (this.keyword != null) {
+          return this.keyword.getName();
+        }
+        return new String(this.buf, this.textStart, this.textEnd - this.textStart);
+      default:
+        return new String(this.buf, this.textStart, this.textEnd - this.textStart);
+    }
+  }
+
+  /**
+   * Returns the keyword of which text is the same as the token scanned last.
+   *
+   * @return the keyword, or null if the token is not a keyword
+   */
+  public YangSyntax.Keyword getKeyword() {
+    return this.keyword;
+  }
+
+  @Override
+  public SymbolTable getSymbolTable() {
+    return this.symbolTable;
+  }
+
+  @Override
+  public void setDiscardListener(Runnable listener) {
+    this.discardListener = listener;
+  }
+
+  @Override
+  public void setLineTracking(boolean lineTracking) {
+    this.lineTracking = lineTracking;
+  }
+
+  /**
+   * Sets the position of the start of the input in a larger input, e.g. a text of which a part is
+   * scanned, so that the tokens have their positions in the larger input. It must be called before
+   * the first token is scanned.
+   *
+   * @param offset the offset of the start
+   * @param line the line of the start, from 1
+   * @param column the column of the start, from 1
+   */
+  void setOrigin(int offset, int line, int column) {
+    this.bufferOffset += offset;
+    this.line = line;
+    this.lineStart = offset - (column - 1);
+  }
+
+  /**
+   * Returns the offset of the token scanned last from the beginning of the input.
+   *
+   * @return the offset of the token
+   */
+  public int getTokenOffset() {
+    return this.bufferOffset + this.tokenStart;
+  }
+
+  @Override
+  public Token nextToken() {
+    if (this.tokenFactory == CommonTokenFactory.DEFAULT) {
+      return this.nextToken((YangToken) null);
+    }
+
+    int type = this.scan();
+    Token token = this.tokenFactory.create(type, this.getTokenText());
+    if (token instanceof CommonToken) {
+      ((CommonToken) token).setStartIndex(this.getTokenOffset());
+      ((CommonToken) token).setStopIndex(this.bufferOffset + this.pos - 1);
+      if (this.lineTracking) {
+        this.countLines(this.tokenStart);
+        ((CommonToken) token).setLine(this.line);
+        ((CommonToken) token).setCharPositionInLine(this.getTokenOffset() - this.lineStart);
+      }
+    }
+    return token;
+  }
+
+  @Override
+  public YangToken nextToken(YangToken reusedToken) {
+    int type = this.scan();
+
+    YangToken token = reusedToken;
+    if (token == null) {
+      token = new YangToken(type, null);
+    } else {
+      token.setType(type);
+    }
+    if (type == YangLexer.QUOTED_STRING && this.keyword == null) {
+      token.setText(this.buf, this.textStart, this.textEnd - this.textStart);
+    } else {
+      token.setText(this.getTokenText());
+    }
+    token.setKeyword(this.keyword);
+    token.setStartIndex(this.getTokenOffset());
+    token.setStopIndex(this.bufferOffset + this.pos - 1);
+    if (this.lineTracking) {
+      this.countLines(this.tokenStart);
+      token.setLine(this.line);
+      token.setCharPositionInLine(this.getTokenOffset() - this.lineStart);
+    }
+    return token;
+  }
+
+  @Override
+  public int getLine() {
+    return 0;
+  }
+
+  @Override
+  public int getCharPositionInLine() {
+    return -1;
+  }
+
+  @Override
+  public CharStream getInputStream() {
+    return null;
+  }
+
+  @Override
+  public String getSourceName() {
+    return CharStream.UNKNOWN_SOURCE_NAME;
+  }
+
+  @Override
+  public void setTokenFactory(TokenFactory<?> factory) {
+    this.tokenFactory = (factory == null) ? CommonTokenFactory.DEFAULT : factory;
+  }
+
+  @Override
+  public TokenFactory<?> getTokenFactory() {
+    return this.tokenFactory;
+  }
+
+  private int setToken(int type, int textStart, int textEnd, int nextPos) {
+    this.tokenType = type;
+    this.textStart = textStart;
+    this.textEnd = textEnd;
+    this.pos = nextPos;
+    return type;
+  }
+
+  private int lookupKeyword(int type) {
+    if (type == YangLexer.UNQUOTED_STRING || type == YangLexer.QUOTED_STRING) {
+      this.keyword =
+          YangSyntax.lookupKeyword(this.buf, this.textStart, this.textEnd - this.textStart);
+    }
+    return type;
+  }
+
+  private void skipWhiteSpaces() {
+    int p = this.pos;
+    while (true) {
+      char[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim) {
+        char c = b[p];
+        if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+          this.pos = p;
+          return;
+        }
+        p++;
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        this.pos = p;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Skips a comment at the current position. A comment is not skipped when an unquoted string
+   * starting at the same position is longer than the comment, as ANTLR takes the longest match.
+   *
+   * @return true if a comment is skipped
+   */
+  private boolean skipComment() {
+    int commentLength = -1;
+    int c = this.charAt(1);
+    if (c == '/') {
+      int i = 2;
+      while ((c = this.charAt(i)) != -1 && c != '\r' && c != '\n') {
+        i++;
+      }
+      if (c == '\r') {
+        c = this.charAt(++i);
+      }
+      if (c == '\n') {
+        commentLength = i + 1;
+      }
+    } else if (c == '*') {
+      int i = 2;
+      while ((c = this.charAt(i)) != -1) {
+        if (c == '*' && this.charAt(i + 1) == '/') {
+          commentLength = i + 2;
+          break;
+        }
+        i++;
+      }
+    }
+    if (commentLength < 0) {
+      return false;
+    }
+
+    int unquotedLength = 0;
+    while ((c = this.charAt(unquotedLength)) != -1 && !YangScanner.isUnquotedStop(c)) {
+      unquotedLength++;
+    }
+    if (commentLength < unquotedLength) {
+      return false;
+    }
+    this.pos = this.tokenStart + commentLength;
+    return true;
+  }
+
+  private int scanUnquotedString() {
+    int p = this.pos;
+    while (true) {
+      char[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim && !YangScanner.isUnquotedStop(b[p])) {
+        p++;
+      }
+      if (p < lim) {
+        break;
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        break;
+      }
+    }
+    return this.setToken(YangLexer.UNQUOTED_STRING, this.tokenStart, p, p);
+  }
+
+  private int scanSingleQuotedString() {
+    int p = this.pos + 1;
+    while (true) {
+      char[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim && b[p] != '\'') {
+        p++;
+      }
+      if (p < lim) {
+        return this.setToken(YangLexer.QUOTED_STRING, this.tokenStart + 1, p, p + 1);
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        return this.setToken(Token.INVALID_TYPE, this.tokenStart, p, p);
+      }
+    }
+  }
+
+  private int scanDoubleQuotedString() {
+    int p = this.pos + 1;
+    while (true) {
+      char[] b = this.buf;
+      int lim = this.limit;
+      while (p < lim) {
+        char c = b[p];
+        if (c == '"') {
+          return this.setToken(YangLexer.QUOTED_STRING, this.tokenStart + 1, p, p + 1);
+        } else if (c == '\\') {
+          if (p + 1 == lim) {
+            break;
+          }
+          c = b[p + 1];
+          if (c != 'n' && c != 't' && c != '"' && c != '\\') {
+            return this.setToken(Token.INVALID_TYPE, this.tokenStart, p + 2, p + 2);
+          }
+          p += 2;
+        } else if (YangScanner.isYangChar(c)) {
+          p++;
+        } else {
+          return this.setToken(Token.INVALID_TYPE, this.tokenStart, p + 1, p + 1);
+        }
+      }
+      int rel = p - this.tokenStart;
+      boolean filled = this.fill();
+      p = this.tokenStart + rel;
+      if (!filled) {
+        return this.setToken(Token.INVALID_TYPE, this.tokenStart, this.limit, this.limit);
+      }
+    }
+  }
+
+  static boolean isUnquotedStop(int c) {
+    return c < 128 && YangScanner.UNQUOTED_STOP[c];
+  }
+
+  /**
+   * Checks if the char is a yang-char defined in RFC 7950 (excluding '"' and '\\', which are
+   * handled by the caller). Surrogates are accepted to allow the characters beyond U+FFFF.
+   */
+  static boolean isYangChar(char c) {
+    if (c < 0x20) {
+      return c == '\t' || c == '\n' || c == '\r';
+    }
+    return c < 0xFDD0 || (0xFDEF < c && c < 0xFFFE);
+  }
+
+  /**
+   * Returns the char at the given position relative to the start of the current token.
+   *
+   * @param rel the position relative to the start of the token
+   * @return the char, or -1 at the end of the input
+   */
+  private int charAt(int rel) {
+    while (this.limit <= this.tokenStart + rel) {
+      if (!this.fill()) {
+        return -1;
+      }
+    }
+    return this.buf[this.tokenStart + rel];
+  }
+
+  /**
+   * Reads more chars from the input. The chars before the current token are discarded when the
+   * buffer is getting full, and the buffer is extended when the current token occupies more than
+   * half of it.
+   *
+   * @return false when no more chars are available
+   */
+  protected boolean fill() {
+    if (this.eof) {
+      return false;
+    }
+
+    // the buffer is compacted only when less than half of it is free, as the texts of tokens
+    // referring to the discarded range have to be materialized.
+    int half = this.buf.length / 2;
+    if (this.buf.length - this.limit < half && 0 < this.tokenStart) {
+      if (this.discardListener != null) {
+        this.discardListener.run();
+      }
+      if (this.lineTracking) {
+        this.countLines(this.tokenStart);
+      }
+      this.lineCounted -= this.tokenStart;
+      int keep = this.limit - this.tokenStart;
+      System.arraycopy(this.buf, this.tokenStart, this.buf, 0, keep);
+      this.bufferOffset += this.tokenStart;
+      this.pos -= this.tokenStart;
+      this.tokenStart = 0;
+      this.limit = keep;
+    }
+    if (this.buf.length - this.limit < half) {
+      this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+    }
+
+    try {
+      int n = this.read(this.buf, this.limit, this.buf.length - this.limit);
+      if (n < 0) {
+        this.eof = true;
+        return false;
+      }
+      this.limit += n;
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Counts the line feeds in the buffer up to the position, which is not discarded yet.
+   */
+  private void countLines(int to) {
+    char[] b = this.buf;
+    for (int i = this.lineCounted; i < to; i++) {
+      if (b[i] == '\n') {
+        this.line++;
+        this.lineStart = this.bufferOffset + i + 1;
+      }
+    }
+    this.lineCounted = to;
+  }
+
+  private int read(char[] chars, int offset, int length) throws IOException {
+    if (this.reader != null) {
+      return this.reader.read(chars, offset, length);
+    }
+
+    CharBuffer out = CharBuffer.wrap(chars, offset, length);
+    CoderResult result = this.decoder.decode(this.byteInput, out, true);
+    if (result.isError()) {
+      result.throwException();
+    }
+    int n = out.position() - offset;
+    return (n == 0 && !this.byteInput.hasRemaining()) ? -1 : n;
+  }
+}
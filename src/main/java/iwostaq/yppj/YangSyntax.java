@@ -1,6 +1,7 @@
 package iwostaq.yppj;
 
 import java.util.Arrays;
+import java.util.stream.Stream;
 import org.antlr.v4.runtime.Token;
 import iwostaq.yppj.YangPullParser.StatementType;
 import iwostaq.yppj.g.YangLexer;
@@ -8,10 +9,68 @@ import iwostaq.yppj.g.YangLexer;
 /**
  * Yang syntax class.
  * 
- *
+ * <p>
+ * The keywords of the statements are held in a table with a perfect hash, so a token is mapped to
+ * its statement type and the type of its argument with a single probe. The table can be looked up
+ * with the chars in the buffer of the scanner without creating a String.
+ * </p>
  */
 public class YangSyntax {
 
+  /**
+   * Types of what follows a statement keyword.
+   */
+  public enum ArgumentType {
+    /** An identifier, which may have a prefix. */
+    IDENTIFIER,
+    /** A string argument. */
+    STRING,
+    /** Nothing. */
+    NONE,
+  }
+
+  /**
+   * A statement keyword.
+   */
+  public static final class Keyword {
+    private final String name;
+    private final StatementType statementType;
+    private final ArgumentType argumentType;
+
+    private Keyword(String name, ArgumentType argumentType) {
+      this.name = name;
+      this.statementType = StatementType.valueOf(name.toUpperCase().replaceAll("-", "_"));
+      this.argumentType = argumentType;
+    }
+
+    /**
+     * Returns the keyword string.
+     *
+     * @return the keyword string
+     */
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Returns the type of the statement.
+     *
+     * @return the type of the statement
+     */
+    public StatementType getStatementType() {
+      return this.statementType;
+    }
+
+    /**
+     * Returns the type of the argument following the keyword.
+     *
+     * @return the type of the argument
+     */
+    public ArgumentType getArgumentType() {
+      return this.argumentType;
+    }
+  }
+
   private static final String[] STATEMENTS_WITHOUT_ARG = new String[] {"input", "output"};
 
   private static final String[] STATEMENTS_WITH_ID = new String[] { //
@@ -78,9 +137,31 @@ public class YangSyntax {
       "yang-version", //
       "yin-element"};
 
-  protected StatementType[] stTypeWithId;
-  protected StatementType[] stTypeWithArgs;
-  protected StatementType[] stTypeWithoutArg;
+  /** The length of the longest keyword. */
+  public static final int MAX_KEYWORD_LENGTH;
+
+  private static final int KEYWORD_TABLE_BITS = 8;
+  private static final Keyword[] KEYWORD_TABLE = new Keyword[1 << KEYWORD_TABLE_BITS];
+  private static final int KEYWORD_HASH_MULTIPLIER;
+
+  static {
+    Keyword[] keywords = Stream
+        .of(Arrays.stream(YangSyntax.STATEMENTS_WITH_ID)
+            .map(s -> new Keyword(s, ArgumentType.IDENTIFIER)),
+            Arrays.stream(YangSyntax.STATEMENTS_WITH_ARGS)
+                .map(s -> new Keyword(s, ArgumentType.STRING)),
+            Arrays.stream(YangSyntax.STATEMENTS_WITHOUT_ARG)
+                .map(s -> new Keyword(s, ArgumentType.NONE)))
+        .flatMap(s -> s).toArray(Keyword[]::new);
+    MAX_KEYWORD_LENGTH = Arrays.stream(keywords).mapToInt(k -> k.name.length()).max().getAsInt();
+
+    // search a multiplier with which no keywords collide.
+    int multiplier = 0x9E3779B9;
+    while (!YangSyntax.fillKeywordTable(keywords, multiplier)) {
+      multiplier += 2;
+    }
+    KEYWORD_HASH_MULTIPLIER = multiplier;
+  }
 
   /*
    * private class StatementToken implements Comparable<StatementToken> { String name; StatementType
@@ -97,33 +178,130 @@ public class YangSyntax {
    * Constructor.
    * 
    */
-  public YangSyntax() {
-    this.stTypeWithId = Arrays.stream(YangSyntax.STATEMENTS_WITH_ID)
-        .map(s -> StatementType.valueOf(s.toUpperCase().replaceAll("-", "_")))
-        .toArray(StatementType[]::new);
+  public YangSyntax() {}
 
-    this.stTypeWithArgs = Arrays.stream(YangSyntax.STATEMENTS_WITH_ARGS)
-        .map(s -> StatementType.valueOf(s.toUpperCase().replaceAll("-", "_")))
-        .toArray(StatementType[]::new);
+  private static boolean fillKeywordTable(Keyword[] keywords, int multiplier) {
+    Arrays.fill(YangSyntax.KEYWORD_TABLE, null);
+    for (Keyword keyword : keywords) {
+      int index = YangSyntax.indexOf(keyword.name.hashCode(), multiplier);
+      if (YangSyntax.KEYWORD_TABLE[index] != null) {
+        return false;
+      }
+      YangSyntax.KEYWORD_TABLE[index] = keyword;
+    }
+    return true;
+  }
 
-    this.stTypeWithoutArg = Arrays.stream(YangSyntax.STATEMENTS_WITHOUT_ARG)
-        .map(s -> StatementType.valueOf(s.toUpperCase().replaceAll("-", "_")))
-        .toArray(StatementType[]::new);
+  private static int indexOf(int hash, int multiplier) {
+    return (hash * multiplier) >>> (32 - YangSyntax.KEYWORD_TABLE_BITS);
+  }
+
+  /**
+   * Looks up the keyword which has the same chars as the given range of the array.
+   *
+   * @param chars the char array
+   * @param start the start index of the string in the array
+   * @param length the length of the string
+   * @return the keyword, or null if the string is not a keyword
+   */
+  public static Keyword lookupKeyword(char[] chars, int start, int length) {
+    if (YangSyntax.MAX_KEYWORD_LENGTH < length) {
+      return null;
+    }
+
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    Keyword keyword =
+        YangSyntax.KEYWORD_TABLE[YangSyntax.indexOf(hash, YangSyntax.KEYWORD_HASH_MULTIPLIER)];
+    if (keyword == null || keyword.name.length() != length) {
+      return null;
+    }
+    for (int i = 0; i < length; i++) {
+      if (keyword.name.charAt(i) != chars[start + i]) {
+        return null;
+      }
+    }
+    return keyword;
+  }
+
+  /**
+   * Looks up the keyword which has the same bytes in ASCII as the given range of the array.
+   *
+   * @param bytes the byte array
+   * @param start the start index of the string in the array
+   * @param length the length of the string in bytes
+   * @return the keyword, or null if the string is not a keyword
+   */
+  public static Keyword lookupKeyword(byte[] bytes, int start, int length) {
+    if (YangSyntax.MAX_KEYWORD_LENGTH < length) {
+      return null;
+    }
+
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    Keyword keyword =
+        YangSyntax.KEYWORD_TABLE[YangSyntax.indexOf(hash, YangSyntax.KEYWORD_HASH_MULTIPLIER)];
+    if (keyword == null || keyword.name.length() != length) {
+      return null;
+    }
+    for (int i = 0; i < length; i++) {
+      if (keyword.name.charAt(i) != bytes[start + i]) {
+        return null;
+      }
+    }
+    return keyword;
+  }
+
+  /**
+   * Looks up the keyword which is the same as the string.
+   *
+   * @param s the string
+   * @return the keyword, or null if the string is not a keyword
+   */
+  public static Keyword lookupKeyword(String s) {
+    if (s == null || YangSyntax.MAX_KEYWORD_LENGTH < s.length()) {
+      return null;
+    }
+
+    Keyword keyword = YangSyntax.KEYWORD_TABLE[YangSyntax.indexOf(s.hashCode(),
+        YangSyntax.KEYWORD_HASH_MULTIPLIER)];
+    if (keyword == null || (keyword.name != s && !keyword.name.equals(s))) {
+      return null;
+    }
+    return keyword;
+  }
+
+  /**
+   * Looks up the keyword which is the same as the text of the token.
+   *
+   * @param token the token
+   * @return the keyword, or null if the token is not a keyword
+   */
+  public Keyword lookupKeyword(Token token) {
+    if (token == null || (token.getType() != YangLexer.QUOTED_STRING
+        && token.getType() != YangLexer.UNQUOTED_STRING)) {
+      return null;
+    }
+    if (token instanceof YangToken) {
+      return ((YangToken) token).getKeyword();
+    }
+    return YangSyntax.lookupKeyword(token.getText());
   }
 
   public StatementType searchStatementsExpectingIdFor(Token token) {
-    return this.searchGivenStatementArrayFor(token, YangSyntax.STATEMENTS_WITH_ID,
-        this.stTypeWithId);
+    return this.searchKeywordFor(token, ArgumentType.IDENTIFIER);
   }
 
   public StatementType searchStatementsExpectingArgumentsFor(Token token) {
-    return this.searchGivenStatementArrayFor(token, YangSyntax.STATEMENTS_WITH_ARGS,
-        this.stTypeWithArgs);
+    return this.searchKeywordFor(token, ArgumentType.STRING);
   }
 
   public StatementType searchStatementsExpectingNoArgFor(Token token) {
-    return this.searchGivenStatementArrayFor(token, YangSyntax.STATEMENTS_WITHOUT_ARG,
-        this.stTypeWithoutArg);
+    return this.searchKeywordFor(token, ArgumentType.NONE);
   }
 
   public boolean isUnknownStatement(Token token) {
@@ -134,22 +312,74 @@ public class YangSyntax {
     return (token.getType() == YangLexer.S_RBR || token.getType() == YangLexer.S_SEMICOLON);
   }
 
-  protected StatementType searchGivenStatementArrayFor(Token token, String[] statementNames,
-      StatementType[] statementTypes) {
-    assert (statementNames != null);
-    assert (statementTypes != null);
+  /**
+   * Checks if the char can be the first char of an identifier, i.e. [A-Za-z_].
+   *
+   * @param c the char
+   * @return true if the char can start an identifier
+   */
+  public static boolean isIdentifierStartChar(char c) {
+    return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || c == '_';
+  }
 
-    if (token == null || (token.getType() != YangLexer.QUOTED_STRING
-        && token.getType() != YangLexer.UNQUOTED_STRING)) {
-      return null;
+  /**
+   * Checks if the char can be a char of an identifier following the first one, i.e. [\w_\-\.].
+   *
+   * @param c the char
+   * @return true if the char can be in an identifier
+   */
+  public static boolean isIdentifierChar(char c) {
+    return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || ('0' <= c && c <= '9') || c == '_'
+        || c == '-' || c == '.';
+  }
+
+  /**
+   * Returns the index of the first char which cannot be a part of an identifier.
+   *
+   * @param s the string
+   * @param from the index to start from
+   * @return the index of the char after the identifier chars
+   */
+  public static int skipIdentifierChars(CharSequence s, int from) {
+    int length = s.length();
+    int index = from;
+    while (index < length && YangSyntax.isIdentifierChar(s.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Checks if the string is a date, i.e. matches \d{4}-\d\d-\d\d.
+   *
+   * @param s the string
+   * @return true if the string is a date
+   */
+  public static boolean isDateString(CharSequence s) {
+    if (s.length() != 10) {
+      return false;
+    }
+    for (int i = 0; i < 10; i++) {
+      char c = s.charAt(i);
+      if (i == 4 || i == 7) {
+        if (c != '-') {
+          return false;
+        }
+      } else if (c < '0' || '9' < c) {
+        return false;
+      }
     }
+    return true;
+  }
+
+  protected StatementType searchKeywordFor(Token token, ArgumentType argumentType) {
+    assert (argumentType != null);
 
-    int index = -1;
-    String tokenString = token.getText();
-    if ((index = Arrays.binarySearch(statementNames, tokenString)) < 0) {
+    Keyword keyword = this.lookupKeyword(token);
+    if (keyword == null || keyword.getArgumentType() != argumentType) {
       return null;
     } else {
-      return statementTypes[index];
+      return keyword.getStatementType();
     }
   }
 }
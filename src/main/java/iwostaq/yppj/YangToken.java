@@ -0,0 +1,107 @@
+package iwostaq.yppj;
+
+import org.antlr.v4.runtime.CommonToken;
+
+/**
+ * A token created by YangScanner or YangByteScanner. It holds the keyword looked up while the token
+ * is scanned.
+ *
+ * <p>
+ * The text of a quoted string may be left in the buffer of the scanner. It is referred to by the
+ * TextRef of the token, and a String is created when getText() is called first.
+ * </p>
+ */
+public class YangToken extends CommonToken {
+
+  private static final long serialVersionUID = 1L;
+
+  protected YangSyntax.Keyword keyword;
+  protected transient TextRef textRef;
+
+  /**
+   * Constructor.
+   *
+   * @param type the type of the token
+   * @param text the text of the token
+   */
+  public YangToken(int type, String text) {
+    super(type, text);
+    this.keyword = null;
+    this.textRef = new TextRef();
+    this.textRef.set(text);
+  }
+
+  /**
+   * Returns the keyword of which text is the same as the token.
+   *
+   * @return the keyword, or null if the token is not a keyword
+   */
+  public YangSyntax.Keyword getKeyword() {
+    return this.keyword;
+  }
+
+  /**
+   * Sets the keyword to the token.
+   *
+   * @param keyword the keyword
+   */
+  public void setKeyword(YangSyntax.Keyword keyword) {
+    this.keyword = keyword;
+  }
+
+  /**
+   * Returns the reference to the text of the token. It is valid until the scanner discards the
+   * range or the token object is reused.
+   *
+   * @return the reference to the text
+   */
+  public TextRef getTextRef() {
+    return this.textRef;
+  }
+
+  @Override
+  public String getText() {
+    if (this.text == null && !this.textRef.isNull()) {
+      this.text = this.textRef.getString();
+    }
+    return this.text;
+  }
+
+  @Override
+  public void setText(String text) {
+    this.text = text;
+    this.textRef.set(text);
+  }
+
+  /**
+   * Sets the range of the char array to the text without creating a String.
+   *
+   * @param chars the char array
+   * @param start the start index of the text in the array
+   * @param length the length of the text
+   */
+  public void setText(char[] chars, int start, int length) {
+    this.text = null;
+    this.textRef.set(chars, start, length);
+  }
+
+  /**
+   * Sets the range of the byte array holding ASCII bytes to the text without creating a String.
+   *
+   * @param bytes the byte array
+   * @param start the start index of the text in the array
+   * @param length the length of the text
+   */
+  public void setAsciiText(byte[] bytes, int start, int length) {
+    this.text = null;
+    this.textRef.setAscii(bytes, start, length);
+  }
+
+  /**
+   * Creates the String of the text so that the token does not depend on the buffer of the scanner.
+   */
+  public void materializeText() {
+    this.textRef.materialize();
+    this.text = this.textRef.getString();
+  }
+}
@@ -0,0 +1,65 @@
+package iwostaq.yppj;
+
+import org.antlr.v4.runtime.TokenSource;
+
+/**
+ * A token source written for the parser, which can refill a token object instead of creating one
+ * and which interns unquoted strings with a symbol table. The text of a token may refer to the
+ * buffer of the source until the source discards it.
+ */
+public interface YangTokenSource extends TokenSource {
+
+  /**
+   * Scans the next token and stores it into the given token object. The token factory is not
+   * used.
+   *
+   * @param reusedToken the token object to be overwritten, or null to create a new one
+   * @return the token
+   */
+  YangToken nextToken(YangToken reusedToken);
+
+  /**
+   * Returns the symbol table interning the unquoted strings.
+   *
+   * @return the symbol table
+   */
+  SymbolTable getSymbolTable();
+
+  /**
+   * Sets the listener called before the scanner discards the input preceding the current token.
+   * The text of the tokens referring to the buffer of the scanner must be materialized by then.
+   *
+   * @param listener the listener, or null
+   */
+  void setDiscardListener(Runnable listener);
+
+  /**
+   * Skips the input up to the '}' closing the current block without creating tokens. Only braces
+   * are counted; strings and comments are skipped as a whole, so the braces in them are ignored.
+   * The closing '}' is not consumed and is returned as the next token.
+   *
+   * @param depth the number of the blocks opened in the current block and not closed yet
+   * @return true if the closing '}' is found; false when the end of the input or a malformed token
+   *         is met, which is then returned as the next token
+   */
+  boolean skipToClosingBrace(int depth);
+
+  /**
+   * Skips the input up to the end of the current statement, i.e. the ';' or the '}' closing the
+   * block of the statement, without creating tokens. The ';' or '}' is consumed. Strings and
+   * comments are skipped as a whole.
+   *
+   * @return true if the end of the statement is found; false when the end of the input, a malformed
+   *         token or the '}' closing the enclosing block is met, which is then returned as the next
+   *         token
+   */
+  boolean skipToEndOfStatement();
+
+  /**
+   * Sets whether the line and the position in the line are set to the tokens. It must be called
+   * before the first token is scanned. The lines are tracked by default.
+   *
+   * @param lineTracking false not to count the lines
+   */
+  void setLineTracking(boolean lineTracking);
+}
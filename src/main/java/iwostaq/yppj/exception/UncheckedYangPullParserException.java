@@ -0,0 +1,30 @@
+package iwostaq.yppj.exception;
+
+/**
+ * An unchecked exception wrapping a YangPullParserException, thrown where a checked exception is
+ * not allowed, e.g. in the streams of the events.
+ */
+public class UncheckedYangPullParserException extends RuntimeException {
+
+  /**
+   * Constructor.
+   *
+   * @param e the underlying exception
+   */
+  public UncheckedYangPullParserException(YangPullParserException e) {
+    super(e);
+    if (e == null) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  /**
+   * Returns the underlying exception.
+   *
+   * @return the underlying exception
+   */
+  @Override
+  public synchronized YangPullParserException getCause() {
+    return (YangPullParserException) super.getCause();
+  }
+}
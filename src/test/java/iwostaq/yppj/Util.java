@@ -4,6 +4,8 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
 import iwostaq.yppj.YangPullParser.EventType;
 import iwostaq.yppj.YangPullParser.StatementType;
 
@@ -13,6 +15,52 @@ public class Util {
     return new FileReader(new File("./test/testdata", filename));
   }
 
+  /**
+   * Returns a reader which generates a module containing the given number of containers without
+   * holding the whole text on memory.
+   */
+  static Reader getGeneratedModuleReader(int containerCount) {
+    return Util.getGeneratedModuleReader("  container c {\n    leaf l {\n      type string;\n"
+        + "      description \"a leaf in a generated module\";\n    }\n  }\n", containerCount);
+  }
+
+  /**
+   * Returns a reader which generates a module repeating the given body text without holding the
+   * whole text on memory.
+   */
+  static Reader getGeneratedModuleReader(String bodyText, int repeatCount) {
+    return new Reader() {
+      private final String header = "module generated {\n  namespace \"urn:generated\";\n";
+      private final String body = Objects.requireNonNull(bodyText);
+      private final String footer = "}\n";
+      private String chunk = this.header;
+      private int chunkPos = 0;
+      private int rest = repeatCount;
+
+      @Override
+      public int read(char[] cbuf, int off, int len) {
+        if (this.chunkPos == this.chunk.length()) {
+          if (0 < this.rest) {
+            this.rest--;
+            this.chunk = this.body;
+          } else if (this.chunk != this.footer) {
+            this.chunk = this.footer;
+          } else {
+            return -1;
+          }
+          this.chunkPos = 0;
+        }
+        int n = Math.min(len, this.chunk.length() - this.chunkPos);
+        this.chunk.getChars(this.chunkPos, this.chunkPos + n, cbuf, off);
+        this.chunkPos += n;
+        return n;
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
   static void assertStartStatementWithId(YangPullParser ypp, StatementType stmt, String ns,
       String id) {
     assertEquals(EventType.STATEMENT_START, ypp.getEventType());
@@ -47,4 +95,19 @@ public class Util {
     assertNull(ypp.getIdentifier());
     assertEquals(arg, ypp.getArgument());
   }
+
+  static void assertSameEvents(YangPullParser expected, YangPullParser actual) throws Exception {
+    while (true) {
+      EventType eventType = expected.next();
+      assertEquals(eventType, actual.next());
+      assertEquals(expected.getDepth(), actual.getDepth());
+      assertEquals(expected.getStatementType(), actual.getStatementType());
+      assertEquals(expected.getNamespace(), actual.getNamespace());
+      assertEquals(expected.getIdentifier(), actual.getIdentifier());
+      assertEquals(expected.getArgument(), actual.getArgument());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+  }
 }
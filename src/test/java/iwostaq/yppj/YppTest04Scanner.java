@@ -0,0 +1,188 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParserImpl.LexerEngine;
+import iwostaq.yppj.g.YangLexer;
+
+public class YppTest04Scanner {
+
+  private static final String[] TRICKY_INPUTS = new String[] { //
+      "module m { }", //
+      "a \"x\\ny\\\"z\\\\\" ;", //
+      "a 'b\"c\\d' ;", //
+      "/*x*/abc d", //
+      "a/*b*/c d", //
+      "/*x*/ abc", //
+      "//abc", //
+      "a //c\nb", //
+      "a //c\r\nb", //
+      "\n\n//c\n\n b", //
+      "a /* multi\n line */ b", //
+      "\"a\"b", //
+      "a\"\"b", //
+      "a b+c \"d\" + 'e';", //
+      "x \"\u00e9\u3042\" ;", //
+      "x y\uD83D\uDE00z ;", //
+      "a;b{c}d", //
+      "  \t\r\n "};
+
+  /**
+   * A reader returning one char at a time, which makes the scanner refill its buffer for every
+   * char.
+   */
+  private static class TrickleReader extends Reader {
+    private final Reader reader;
+
+    TrickleReader(Reader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      return this.reader.read(cbuf, off, Math.min(1, len));
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.reader.close();
+    }
+  }
+
+  private static TokenSource createAntlrLexer(Reader fromReader) {
+    YangLexer lexer = new YangLexer(new UnbufferedCharStream(fromReader));
+    lexer.setTokenFactory(new CommonTokenFactory(true));
+    return lexer;
+  }
+
+  private static void assertSameTokens(String input, TokenSource expectedSource,
+      TokenSource actualSource) {
+    CommonTokenStream expected = new CommonTokenStream(expectedSource);
+    CommonTokenStream actual = new CommonTokenStream(actualSource);
+    while (true) {
+      Token expectedToken = expected.LT(1);
+      Token actualToken = actual.LT(1);
+      assertEquals(input, expectedToken.getType(), actualToken.getType());
+      if (expectedToken.getType() == Token.EOF) {
+        break;
+      }
+      assertEquals(input, expectedToken.getText(), actualToken.getText());
+      expected.consume();
+      actual.consume();
+    }
+  }
+
+  private static File[] listTestFiles() {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    assertTrue(0 < files.length);
+    return files;
+  }
+
+  @Test
+  public void ConstructorWithNullReader() {
+    try {
+      new YangScanner(null);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void TokensAreSameAsAntlrLexerForTestData() throws Exception {
+    for (File file : YppTest04Scanner.listTestFiles()) {
+      try (FileReader expectedReader = new FileReader(file);
+          FileReader actualReader = new FileReader(file)) {
+        YppTest04Scanner.assertSameTokens(file.getName(),
+            YppTest04Scanner.createAntlrLexer(expectedReader), new YangScanner(actualReader));
+      }
+    }
+  }
+
+  @Test
+  public void TokensAreSameAsAntlrLexerForTrickyInputs() {
+    for (String input : YppTest04Scanner.TRICKY_INPUTS) {
+      YppTest04Scanner.assertSameTokens(input,
+          YppTest04Scanner.createAntlrLexer(new StringReader(input)),
+          new YangScanner(new StringReader(input)));
+      YppTest04Scanner.assertSameTokens(input,
+          YppTest04Scanner.createAntlrLexer(new StringReader(input)),
+          new YangScanner(new TrickleReader(new StringReader(input))));
+      YppTest04Scanner.assertSameTokens(input,
+          YppTest04Scanner.createAntlrLexer(new StringReader(input)),
+          new YangScanner(input.toCharArray(), 0, input.length()));
+    }
+  }
+
+  @Test
+  public void MalformedStringsAreInvalidTokens() {
+    for (String input : new String[] {"\"a\\d\"", "\"a", "'a", "\"a\u0001\""}) {
+      YangScanner scanner = new YangScanner(new StringReader(input));
+      assertEquals(input, Token.INVALID_TYPE, scanner.scan());
+    }
+  }
+
+  @Test
+  public void TokenWindowLooksAheadWithinItsSize() {
+    TokenWindow window = new TokenWindow(new YangScanner(new StringReader("a b ;")), 2);
+    assertEquals("a", window.LT(1).getText());
+    assertEquals("b", window.LT(2).getText());
+    try {
+      window.LT(3);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // success
+    }
+    window.consume();
+    assertEquals("b", window.LT(1).getText());
+    assertEquals(";", window.LT(2).getText());
+    window.consume();
+    window.consume();
+    assertEquals(Token.EOF, window.LT(1).getType());
+    assertEquals(Token.EOF, window.LT(2).getType());
+    window.consume();
+    assertEquals(Token.EOF, window.LT(1).getType());
+  }
+
+  @Test
+  public void LargeModuleIsParsedInFixedSizeBuffers() throws Exception {
+    int containerCount = 50000;
+    YangPullParserImpl ypp = new YangPullParserImpl(Util.getGeneratedModuleReader(containerCount));
+    int leafCount = 0;
+    while (ypp.next() != EventType.END_MODULE) {
+      if (ypp.getEventType() == EventType.STATEMENT_END && ypp.getIdentifier() != null
+          && ypp.getIdentifier().equals("l")) {
+        leafCount++;
+      }
+    }
+    assertEquals(containerCount, leafCount);
+    assertEquals(TokenWindow.DEFAULT_SIZE, ypp.tokenWindow.getSize());
+    YangScanner scanner = (YangScanner) ypp.tokenWindow.getTokenSource();
+    assertEquals(YangScanner.DEFAULT_BUFFER_SIZE, scanner.buf.length);
+  }
+
+  @Test
+  public void EventsAreSameAsAntlrLexer() throws Exception {
+    for (File file : YppTest04Scanner.listTestFiles()) {
+      String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      Util.assertSameEvents(
+          new YangPullParserImpl(new StringReader(content), LexerEngine.ANTLR),
+          new YangPullParserImpl(new TrickleReader(new StringReader(content)),
+              LexerEngine.SCANNER));
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assume;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+
+public class YppTest05Allocation {
+
+  /** A body repeated in the generated module, which has 8 events. */
+  private static final String BODY_WITHOUT_ID =
+      "  input {\n    config true;\n    mandatory false;\n  }\n  output;\n";
+  private static final int EVENTS_PER_BODY_WITHOUT_ID = 8;
+
+  /** A body with identifiers, which has 8 events. */
+  private static final String BODY_WITH_ID = "  container c {\n    leaf l {\n      type p:t;\n"
+      + "      config false;\n    }\n  }\n";
+  private static final int EVENTS_PER_BODY_WITH_ID = 8;
+
+  /** A body with arguments which are not read, which has 6 events. */
+  private static final String BODY_WITH_DESCRIPTION = "  leaf l {\n"
+      + "    description \"a description which nobody reads\";\n    reference 'RFC 6020';\n  }\n";
+  private static final int EVENTS_PER_BODY_WITH_DESCRIPTION = 6;
+
+  private static com.sun.management.ThreadMXBean getThreadMXBean() {
+    Object bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+    return threadBean;
+  }
+
+  private static YangPullParser createParser(String body, int repeatCount, boolean bytes)
+      throws Exception {
+    Reader reader = Util.getGeneratedModuleReader(body, repeatCount);
+    if (!bytes) {
+      return new YangPullParserImpl(reader);
+    }
+
+    StringBuilder sb = new StringBuilder();
+    char[] chars = new char[8192];
+    int n;
+    while ((n = reader.read(chars)) != -1) {
+      sb.append(chars, 0, n);
+    }
+    byte[] utf8 = sb.toString().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(utf8.length);
+    buffer.put(utf8);
+    buffer.flip();
+    return YangPullParserImpl.fromBytes(buffer);
+  }
+
+  private static long measureAllocatedBytes(String body, int repeatCount, boolean bytes)
+      throws Exception {
+    com.sun.management.ThreadMXBean threadBean = YppTest05Allocation.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    YangPullParser ypp = YppTest05Allocation.createParser(body, repeatCount, bytes);
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    while (ypp.next() != EventType.END_MODULE) {
+      // nothing to do
+    }
+    return threadBean.getThreadAllocatedBytes(threadId) - before;
+  }
+
+  private static void assertNoAllocationPerEvent(String body, int eventsPerBody, boolean bytes)
+      throws Exception {
+    // warm up
+    YppTest05Allocation.measureAllocatedBytes(body, 20000, bytes);
+
+    int smallCount = 1000;
+    int largeCount = 51000;
+    long small = YppTest05Allocation.measureAllocatedBytes(body, smallCount, bytes);
+    long large = YppTest05Allocation.measureAllocatedBytes(body, largeCount, bytes);
+    long events = (long) (largeCount - smallCount) * eventsPerBody;
+
+    // an object takes 16 bytes at least, so less than a byte per event means no allocation.
+    assertTrue(String.format("%d bytes allocated for %d events", large - small, events),
+        large - small < events);
+  }
+
+  private static long measureAllocatedBytesForSkipping(String body, int repeatCount, boolean bytes)
+      throws Exception {
+    com.sun.management.ThreadMXBean threadBean = YppTest05Allocation.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    YangPullParser ypp = YppTest05Allocation.createParser(body, repeatCount, bytes);
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+    return threadBean.getThreadAllocatedBytes(threadId) - before;
+  }
+
+  @Test
+  public void NoAllocationPerEventInBatches() throws Exception {
+    com.sun.management.ThreadMXBean threadBean = YppTest05Allocation.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    EventBuffer buffer = new EventBuffer();
+
+    long[] allocated = new long[2];
+    int[] counts = new int[] {1000, 51000};
+    for (int round = 0; round < 3; round++) {
+      int count = (round == 0) ? 20000 : counts[round - 1];
+      YangPullParser ypp =
+          YppTest05Allocation.createParser(YppTest05Allocation.BODY_WITH_DESCRIPTION, count, false);
+      long before = threadBean.getThreadAllocatedBytes(threadId);
+      while (ypp.nextBatch(buffer) != 0) {
+        // nothing to do
+      }
+      if (0 < round) {
+        allocated[round - 1] = threadBean.getThreadAllocatedBytes(threadId) - before;
+      }
+    }
+    long events =
+        (long) (counts[1] - counts[0]) * YppTest05Allocation.EVENTS_PER_BODY_WITH_DESCRIPTION;
+    assertTrue(String.format("%d bytes allocated for %d events", allocated[1] - allocated[0],
+        events), allocated[1] - allocated[0] < events);
+  }
+
+  @Test
+  public void NoAllocationForSkippedStatements() throws Exception {
+    for (boolean bytes : new boolean[] {false, true}) {
+      // warm up
+      YppTest05Allocation.measureAllocatedBytesForSkipping(YppTest05Allocation.BODY_WITH_ID, 20000,
+          bytes);
+
+      int smallCount = 1000;
+      int largeCount = 51000;
+      long small = YppTest05Allocation
+          .measureAllocatedBytesForSkipping(YppTest05Allocation.BODY_WITH_ID, smallCount, bytes);
+      long large = YppTest05Allocation
+          .measureAllocatedBytesForSkipping(YppTest05Allocation.BODY_WITH_ID, largeCount, bytes);
+      long bodies = largeCount - smallCount;
+      assertTrue(String.format("%d bytes allocated for %d bodies", large - small, bodies),
+          large - small < bodies);
+    }
+  }
+
+  @Test
+  public void NoAllocationPerEventInSteadyState() throws Exception {
+    YppTest05Allocation.assertNoAllocationPerEvent(YppTest05Allocation.BODY_WITHOUT_ID,
+        YppTest05Allocation.EVENTS_PER_BODY_WITHOUT_ID, false);
+  }
+
+  @Test
+  public void NoAllocationPerEventWithIdentifiers() throws Exception {
+    YppTest05Allocation.assertNoAllocationPerEvent(YppTest05Allocation.BODY_WITH_ID,
+        YppTest05Allocation.EVENTS_PER_BODY_WITH_ID, false);
+  }
+
+  @Test
+  public void NoAllocationPerEventWithByteScanner() throws Exception {
+    YppTest05Allocation.assertNoAllocationPerEvent(YppTest05Allocation.BODY_WITH_ID,
+        YppTest05Allocation.EVENTS_PER_BODY_WITH_ID, true);
+  }
+
+  @Test
+  public void NoAllocationForUnreadArguments() throws Exception {
+    YppTest05Allocation.assertNoAllocationPerEvent(YppTest05Allocation.BODY_WITH_DESCRIPTION,
+        YppTest05Allocation.EVENTS_PER_BODY_WITH_DESCRIPTION, false);
+    YppTest05Allocation.assertNoAllocationPerEvent(YppTest05Allocation.BODY_WITH_DESCRIPTION,
+        YppTest05Allocation.EVENTS_PER_BODY_WITH_DESCRIPTION, true);
+  }
+}
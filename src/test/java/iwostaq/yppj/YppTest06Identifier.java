@@ -0,0 +1,64 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.StringReader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest06Identifier {
+
+  /** The patterns used by the parser before, which are the specification of the scanning. */
+  private static final Pattern PATTERN_DATE = Pattern.compile("\\d{4}\\-\\d\\d\\-\\d\\d");
+  private static final Pattern PATTERN_IDTF =
+      Pattern.compile("(?:(?<ns>[A-Za-z_][\\w_\\-\\.]*):)?(?<id>[A-Za-z_][\\w_\\-\\.]*)");
+
+  private static final String[] IDENTIFIERS = new String[] { //
+      "id", "pre:id", "a:b:c", "123abc", "-x", "x:", ":x", "a:1b", "_a.b-c", "pre:_x", //
+      "a b", "a:b c", "p-1:l.2", "x\u00e9y", "\u00e9", "", "1:2", "a::b", "/a:b/c:d"};
+
+  private static final String[] DATES = new String[] { //
+      "2017-01-01", "2017-1-01", "2017-01-011", "20a7-01-01", "2017/01/01", "", "9999-99-99"};
+
+  @Test
+  public void IdentifiersAreFoundSameAsRegex() throws Exception {
+    for (String identifier : YppTest06Identifier.IDENTIFIERS) {
+      YangPullParser ypp = new YangPullParserImpl(new StringReader("leaf \"" + identifier + "\";"));
+
+      Matcher m = YppTest06Identifier.PATTERN_IDTF.matcher(identifier);
+      if (m.find()) {
+        assertEquals(EventType.STATEMENT_START, ypp.next());
+        Util.assertStartStatementWithId(ypp, StatementType.LEAF, m.group("ns"), m.group("id"));
+      } else {
+        try {
+          ypp.next();
+          fail(identifier);
+        } catch (YangPullParserException e) {
+          // success
+        }
+      }
+    }
+  }
+
+  @Test
+  public void IdentifiersAreInterned() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("pre:ext-01 { pre:ext-01; }"));
+    ypp.next();
+    String namespace = ypp.getNamespace();
+    String identifier = ypp.getIdentifier();
+    ypp.next();
+    assertSame(namespace, ypp.getNamespace());
+    assertSame(identifier, ypp.getIdentifier());
+  }
+
+  @Test
+  public void DatesAreCheckedSameAsRegex() {
+    for (String date : YppTest06Identifier.DATES) {
+      assertEquals(date, YppTest06Identifier.PATTERN_DATE.matcher(date).matches(),
+          YangSyntax.isDateString(date));
+    }
+  }
+}
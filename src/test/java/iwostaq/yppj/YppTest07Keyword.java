@@ -0,0 +1,62 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.StringReader;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangSyntax.ArgumentType;
+import iwostaq.yppj.YangSyntax.Keyword;
+
+public class YppTest07Keyword {
+
+  private static String toKeywordName(StatementType statementType) {
+    return statementType.name().toLowerCase().replace('_', '-');
+  }
+
+  private static Keyword lookupInBuffer(String s) {
+    char[] chars = ("  " + s + ";").toCharArray();
+    return YangSyntax.lookupKeyword(chars, 2, s.length());
+  }
+
+  @Test
+  public void KeywordsAreMappedToStatementTypes() {
+    int keywordCount = 0;
+    for (StatementType statementType : StatementType.values()) {
+      String name = YppTest07Keyword.toKeywordName(statementType);
+      Keyword keyword = YangSyntax.lookupKeyword(name);
+      assertSame(keyword, YppTest07Keyword.lookupInBuffer(name));
+      if (keyword != null) {
+        assertEquals(statementType, keyword.getStatementType());
+        assertEquals(name, keyword.getName());
+        keywordCount++;
+      }
+    }
+    assertEquals(62, keywordCount);
+  }
+
+  @Test
+  public void ArgumentTypesOfKeywords() {
+    assertEquals(ArgumentType.IDENTIFIER, YangSyntax.lookupKeyword("leaf-list").getArgumentType());
+    assertEquals(ArgumentType.STRING, YangSyntax.lookupKeyword("revision-date").getArgumentType());
+    assertEquals(ArgumentType.NONE, YangSyntax.lookupKeyword("input").getArgumentType());
+  }
+
+  @Test
+  public void NonKeywordsAreNotFound() {
+    for (String s : new String[] {"", "leaf-", "leaflist", "modules", "modul", "Module",
+        "pre:leaf", "require-instances", "description description"}) {
+      assertNull(s, YangSyntax.lookupKeyword(s));
+      assertNull(s, YppTest07Keyword.lookupInBuffer(s));
+    }
+    assertNull(YangSyntax.lookupKeyword((String) null));
+  }
+
+  @Test
+  public void QuotedKeywordsAreStatements() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("\"leaf\" l-01;"));
+    ypp.next();
+    Util.assertStartStatementWithId(ypp, StatementType.LEAF, null, "l-01");
+    ypp.next();
+    Util.assertEndStatementWithId(ypp, StatementType.LEAF, null, "l-01");
+  }
+}
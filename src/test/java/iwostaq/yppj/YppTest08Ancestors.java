@@ -0,0 +1,123 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+public class YppTest08Ancestors {
+
+  @Test
+  public void AncestorsFollowTheEvents() throws Exception {
+    YangPullParserImpl ypp = new YangPullParserImpl(new StringReader(
+        "module m { container c { leaf l { type p:t; } } description \"d\"; }"));
+    StatementStack.Ancestors ancestors = ypp.getAncestors();
+    assertEquals(0, ancestors.size());
+
+    ypp.next(); // module
+    ypp.next(); // container
+    ypp.next(); // leaf
+    ypp.next(); // type
+    assertEquals(4, ypp.getDepth());
+    assertEquals(4, ancestors.size());
+    assertEquals(StatementType.MODULE, ancestors.getStatementType(0));
+    assertEquals("m", ancestors.getIdentifier(0));
+    assertEquals(StatementType.CONTAINER, ancestors.getStatementType(1));
+    assertEquals("c", ancestors.getIdentifier(1));
+    assertEquals(StatementType.LEAF, ancestors.getStatementType(2));
+    assertEquals(StatementType.TYPE, ancestors.getStatementType(3));
+    assertEquals("p", ancestors.getNamespace(3));
+    assertEquals("t", ancestors.getIdentifier(3));
+    assertNull(ancestors.getNamespace(2));
+
+    ypp.next(); // end of type
+    Util.assertEndStatementWithId(ypp, StatementType.TYPE, "p", "t");
+    assertEquals(3, ancestors.size());
+    ypp.next(); // end of leaf
+    ypp.next(); // end of container
+    ypp.next(); // description
+    assertEquals(2, ancestors.size());
+    assertEquals(StatementType.DESCRIPTION, ancestors.getStatementType(1));
+    assertEquals("d", ancestors.getArgument(1));
+    ypp.next(); // end of description
+    assertEquals("d", ypp.getArgument());
+    ypp.next(); // end of module
+    assertEquals(0, ancestors.size());
+    assertEquals(EventType.END_MODULE, ypp.next());
+  }
+
+  @Test
+  public void PeekFromTheTop() {
+    StatementStack stack = new StatementStack();
+    assertFalse(stack.pop());
+    for (int i = 0; i < 100; i++) {
+      stack.push(StatementType.CONTAINER, "p", "c" + i, null);
+    }
+    stack.push(StatementType.LEAF, null, "l", "a");
+    assertEquals(101, stack.getDepth());
+    assertEquals(StatementType.LEAF, stack.peek(0));
+    assertEquals("a", stack.peekArgument(0));
+    assertNull(stack.peekNamespace(0));
+    assertEquals(StatementType.CONTAINER, stack.peek(1));
+    assertEquals("c99", stack.peekIdentifier(1));
+    assertEquals("c0", stack.peekIdentifier(100));
+    assertEquals("p", stack.peekNamespace(100));
+    assertEquals("c0", stack.getAncestors().getIdentifier(0));
+
+    try {
+      stack.peek(101);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+
+    assertTrue(stack.pop());
+    assertEquals(StatementType.CONTAINER, stack.peek(0));
+    assertEquals(100, stack.getAncestors().size());
+  }
+
+  @Test
+  public void SymbolTableIsLimited() throws Exception {
+    StringBuilder sb = new StringBuilder("module m {\n");
+    int count = SymbolTable.MAX_SYMBOL_COUNT + 1000;
+    for (int i = 0; i < count; i++) {
+      sb.append("  leaf l").append(i).append(" { type string; }\n");
+    }
+    String module = sb.append("}\n").toString();
+
+    YangPullParserImpl[] parsers = {new YangPullParserImpl(new StringReader(module)),
+        YangPullParserImpl.fromBytes(ByteBuffer.wrap(module.getBytes(StandardCharsets.UTF_8)))};
+    for (YangPullParserImpl ypp : parsers) {
+      int leafCount = 0;
+      while (ypp.next() != EventType.END_MODULE) {
+        if (ypp.getEventType() == EventType.STATEMENT_END
+            && ypp.getStatementType() == StatementType.LEAF) {
+          assertEquals("l" + leafCount, ypp.getIdentifier());
+          leafCount++;
+        }
+      }
+      assertEquals(count, leafCount);
+      assertTrue(ypp.symbolTable.size() <= SymbolTable.MAX_SYMBOL_COUNT);
+    }
+
+    YangPullParserImpl ypp = new YangPullParserImpl(new StringReader(module));
+    EventBuffer buffer = new EventBuffer(100);
+    int leafCount = 0;
+    int n;
+    while ((n = ypp.nextBatch(buffer)) != 0) {
+      assertTrue(buffer.getSymbolTable().size() <= 2 * buffer.capacity());
+      for (int i = 0; i < n; i++) {
+        if (buffer.getEventType(i) == EventType.STATEMENT_START
+            && buffer.getStatementType(i) == StatementType.LEAF) {
+          assertEquals("l" + leafCount, buffer.getIdentifier(i));
+          leafCount++;
+        }
+      }
+    }
+    assertEquals(count, leafCount);
+    assertTrue(ypp.symbolTable.size() <= SymbolTable.MAX_SYMBOL_COUNT);
+  }
+}
@@ -0,0 +1,112 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.FileReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+public class YppTest09FileInput {
+
+  /** A description with 2, 3 and 4 byte sequences in UTF-8. */
+  private static final String BODY = "  leaf l {\n"
+      + "    description \"caf\u00e9 \u65e5\u672c \ud83d\ude00 \u00e9\u00e9\u00e9\";\n  }\n";
+
+  private static Path createTempFile(byte[] bytes) throws Exception {
+    Path path = Files.createTempFile("yppj", ".yang");
+    path.toFile().deleteOnExit();
+    Files.write(path, bytes);
+    return path;
+  }
+
+  private static String generateModule(int repeatCount) {
+    StringBuilder sb = new StringBuilder("module m {\n");
+    for (int i = 0; i < repeatCount; i++) {
+      sb.append(YppTest09FileInput.BODY);
+    }
+    return sb.append("}\n").toString();
+  }
+
+  @Test
+  public void PathEventsAreSameAsReaderForTestData() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      try (FileReader reader = new FileReader(file)) {
+        Util.assertSameEvents(new YangPullParserImpl(reader),
+            YangPullParserImpl.fromPath(file.toPath()));
+      }
+    }
+  }
+
+  @Test
+  public void MultiByteCharsAcrossBufferBoundaries() throws Exception {
+    // larger than the buffer of the scanner so that sequences are split by refills.
+    String module = YppTest09FileInput.generateModule(1000);
+    Path path = YppTest09FileInput.createTempFile(module.getBytes(StandardCharsets.UTF_8));
+
+    Util.assertSameEvents(new YangPullParserImpl(new StringReader(module)),
+        YangPullParserImpl.fromPath(path));
+  }
+
+  @Test
+  public void ChannelIsReadFromItsPosition() throws Exception {
+    String module = YppTest09FileInput.generateModule(3);
+    byte[] garbage = "garbage ".getBytes(StandardCharsets.UTF_8);
+    byte[] moduleBytes = module.getBytes(StandardCharsets.UTF_8);
+    byte[] bytes = new byte[garbage.length + moduleBytes.length];
+    System.arraycopy(garbage, 0, bytes, 0, garbage.length);
+    System.arraycopy(moduleBytes, 0, bytes, garbage.length, moduleBytes.length);
+    Path path = YppTest09FileInput.createTempFile(bytes);
+
+    YangPullParser ypp;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      channel.position(garbage.length);
+      ypp = YangPullParserImpl.fromChannel(channel);
+    }
+    Util.assertSameEvents(new YangPullParserImpl(new StringReader(module)), ypp);
+  }
+
+  @Test
+  public void ByteBufferPositionIsNotChanged() throws Exception {
+    ByteBuffer bytes = ByteBuffer.wrap("leaf l;".getBytes(StandardCharsets.UTF_8));
+    YangPullParser ypp = YangPullParserImpl.fromBytes(bytes);
+    ypp.next();
+    Util.assertStartStatementWithId(ypp, StatementType.LEAF, null, "l");
+    ypp.next();
+    assertEquals(EventType.END_MODULE, ypp.next());
+    assertEquals(0, bytes.position());
+  }
+
+  @Test
+  public void EmptyFile() throws Exception {
+    Path path = YppTest09FileInput.createTempFile(new byte[0]);
+    assertEquals(EventType.END_MODULE, YangPullParserImpl.fromPath(path).next());
+  }
+
+  @Test
+  public void MalformedUtf8IsReported() throws Exception {
+    byte[] bytes = "leaf l { description \"x\"; }".getBytes(StandardCharsets.UTF_8);
+    bytes[22] = (byte) 0xC3; // a lead byte followed by an ascii char
+    Path path = YppTest09FileInput.createTempFile(bytes);
+
+    YangPullParser ypp = YangPullParserImpl.fromPath(path);
+    try {
+      while (ypp.next() != EventType.END_MODULE) {
+        // nothing to do
+      }
+      fail();
+    } catch (CharacterCodingException e) {
+      // success
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.g.YangLexer;
+
+public class YppTest10ByteScanner {
+
+  private static final String[] INPUTS = new String[] { //
+      "module m { }", //
+      "a \"x\\ny\\\"z\\\\\" ;", //
+      "a 'b\"c\\d' ;", //
+      "/*x*/abc d", //
+      "a/*b*/c d", //
+      "//abc", //
+      "a //c\r\nb", //
+      "a /* \u00e9 multi\n line */ b", //
+      "a b+c \"d\" + 'e';", //
+      "x \"\u00e9\u3042\" ;", //
+      "x y\ud83d\ude00z ;", //
+      "x '\u00e9\u3042' \u00e9;", //
+      "a;b{c}d", //
+      "\"leaf\" 'container' leaf-list", //
+      "x \"abc", //
+      "x 'abc", //
+      "x \"a\\qb\"", //
+      "x \"a\u0001b\"", //
+      "x \"a\ufdd0b\"", //
+      "x \"a\ufffeb\"", //
+      "x \"a\ufdcfb\ufdf0\"", //
+      "  \t\r\n "};
+
+  private static ByteBuffer toDirectBuffer(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static void assertSameTokens(String input, YangScanner expected,
+      YangByteScanner actual) {
+    while (true) {
+      int type = expected.scan();
+      assertEquals(input, type, actual.scan());
+      assertEquals(input, expected.getTokenText(), actual.getTokenText());
+      assertSame(input, expected.getKeyword(), actual.getKeyword());
+      if (type == Token.EOF) {
+        break;
+      }
+    }
+  }
+
+  @Test
+  public void TokensAreSameAsCharScanner() {
+    for (String input : YppTest10ByteScanner.INPUTS) {
+      byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+      YppTest10ByteScanner.assertSameTokens(input, new YangScanner(new StringReader(input)),
+          new YangByteScanner(ByteBuffer.wrap(bytes)));
+      YppTest10ByteScanner.assertSameTokens(input, new YangScanner(new StringReader(input)),
+          new YangByteScanner(YppTest10ByteScanner.toDirectBuffer(bytes)));
+    }
+  }
+
+  @Test
+  public void TokensAreSameAsCharScannerForTestData() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      String input = new String(bytes, StandardCharsets.UTF_8);
+      YppTest10ByteScanner.assertSameTokens(file.getName(),
+          new YangScanner(new StringReader(input)),
+          new YangByteScanner(YppTest10ByteScanner.toDirectBuffer(bytes)));
+    }
+  }
+
+  @Test
+  public void OffsetsAreCountedInBytes() {
+    ByteBuffer buffer = ByteBuffer.wrap("xx\u00e9 ab;".getBytes(StandardCharsets.UTF_8));
+    buffer.position(2);
+    YangByteScanner scanner = new YangByteScanner(buffer);
+    assertEquals(YangLexer.UNQUOTED_STRING, scanner.scan());
+    assertEquals(0, scanner.getTokenOffset());
+    assertEquals(YangLexer.UNQUOTED_STRING, scanner.scan());
+    assertEquals("ab", scanner.getTokenText());
+    assertEquals(3, scanner.getTokenOffset());
+    assertEquals(2, buffer.position());
+  }
+
+  @Test
+  public void AsciiSymbolsAreInterned() {
+    YangByteScanner scanner = new YangByteScanner(
+        YppTest10ByteScanner.toDirectBuffer("abc abc".getBytes(StandardCharsets.UTF_8)));
+    scanner.scan();
+    String first = scanner.getTokenText();
+    scanner.scan();
+    assertSame(first, scanner.getTokenText());
+  }
+
+  @Test
+  public void MalformedStringIsReported() {
+    byte[] bytes = "x \"a?\";".getBytes(StandardCharsets.UTF_8);
+    bytes[4] = (byte) 0xC3;
+    YangByteScanner scanner = new YangByteScanner(ByteBuffer.wrap(bytes));
+    scanner.scan();
+    scanner.scan();
+    try {
+      scanner.getTokenText();
+      fail();
+    } catch (UncheckedIOException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void EventsAreSameAsCharScanner() throws Exception {
+    for (File file : new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"))) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      Util.assertSameEvents(
+          YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes),
+              YangPullParserImpl.LexerEngine.SCANNER),
+          YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes)));
+    }
+  }
+
+  @Test
+  public void ByteScannerNeedsBytes() {
+    try {
+      new YangPullParserImpl(new StringReader("module m;"),
+          YangPullParserImpl.LexerEngine.BYTE_SCANNER);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void EmptyInput() throws Exception {
+    assertEquals(EventType.END_MODULE,
+        YangPullParserImpl.fromBytes(ByteBuffer.allocate(0)).next());
+  }
+}
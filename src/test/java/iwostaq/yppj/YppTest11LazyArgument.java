@@ -0,0 +1,106 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+public class YppTest11LazyArgument {
+
+  private static String generateAugment(int leafCount) {
+    StringBuilder sb = new StringBuilder("module m {\n  augment \"/x:a/x:b\" {\n");
+    for (int i = 0; i < leafCount; i++) {
+      sb.append("    leaf l").append(i).append(" {\n      description \"leaf ").append(i)
+          .append("\";\n    }\n");
+    }
+    return sb.append("  }\n}\n").toString();
+  }
+
+  private static ByteBuffer toDirectBuffer(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static void assertArgumentsSurvive(YangPullParser ypp, int leafCount) throws Exception {
+    int descriptionCount = 0;
+    while (ypp.next() != EventType.END_MODULE) {
+      if (ypp.getStatementType() == StatementType.DESCRIPTION) {
+        String expected = "leaf " + (descriptionCount / 2);
+        assertEquals(expected, ypp.getArgumentChars().toString());
+        descriptionCount++;
+      } else if (ypp.getStatementType() == StatementType.AUGMENT) {
+        assertEquals("/x:a/x:b", ypp.getArgument());
+      }
+    }
+    assertEquals(leafCount * 2, descriptionCount);
+  }
+
+  @Test
+  public void ArgumentsSurviveBufferCompaction() throws Exception {
+    // larger than the buffers of the scanners so that the augment argument is discarded.
+    String module = YppTest11LazyArgument.generateAugment(2000);
+    YppTest11LazyArgument.assertArgumentsSurvive(new YangPullParserImpl(new StringReader(module)),
+        2000);
+    YppTest11LazyArgument.assertArgumentsSurvive(
+        YangPullParserImpl.fromBytes(YppTest11LazyArgument.toDirectBuffer(module)), 2000);
+    YppTest11LazyArgument.assertArgumentsSurvive(new YangPullParserImpl(new Reader() {
+      private final Reader reader = new StringReader(module);
+
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        return this.reader.read(cbuf, off, Math.min(7, len));
+      }
+
+      @Override
+      public void close() {}
+    }), 2000);
+  }
+
+  @Test
+  public void ArgumentCharsAreNotCopied() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("description \"not copied\";"));
+    ypp.next();
+    CharSequence chars = ypp.getArgumentChars();
+    assertFalse(chars instanceof String);
+    assertEquals(10, chars.length());
+    assertEquals('c', chars.charAt(4));
+    assertEquals("copied", chars.subSequence(4, 10).toString());
+    assertEquals("not copied", ypp.getArgument());
+  }
+
+  @Test
+  public void ArgumentIsSharedByStartAndEnd() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("reference 'RFC 6020';"));
+    ypp.next();
+    String start = ypp.getArgument();
+    assertSame(start, ypp.getArgument());
+    ypp.next();
+    assertEquals(EventType.STATEMENT_END, ypp.getEventType());
+    assertSame(start, ypp.getArgument());
+  }
+
+  @Test
+  public void ConcatenatedArgument() throws Exception {
+    YangPullParser ypp =
+        new YangPullParserImpl(new StringReader("description \"a\" + 'b' + \"c\";"));
+    ypp.next();
+    assertEquals("abc", ypp.getArgumentChars().toString());
+    assertEquals("abc", ypp.getArgument());
+  }
+
+  @Test
+  public void NoArgument() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("input;"));
+    ypp.next();
+    assertNull(ypp.getArgumentChars());
+    assertNull(ypp.getArgument());
+  }
+}
@@ -0,0 +1,210 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangPullParserImpl.LexerEngine;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest12SkipStatement {
+
+  private static final String TRICKY_MODULE = "module m {\n" //
+      + "  grouping g {\n" //
+      + "    description \"} { \\\" }\";\n" //
+      + "    reference '{ \\';\n" //
+      + "    /* } */ // }\n" //
+      + "    container a/*b { leaf x; }\n" //
+      + "    container c { leaf l { type string; } }\n" //
+      + "    ex:ext \"}\" + '}' {\n" //
+      + "      ex:sub \"x}y\";\n" //
+      + "    }\n" //
+      + "  }\n" //
+      + "  leaf after { type string; }\n" //
+      + "  ex:block \"an argument\" {\n" //
+      + "    container d { }\n" //
+      + "  }\n" //
+      + "}\n";
+
+  private static final Set<StatementType> SKIPPED_STATEMENTS = EnumSet.of(StatementType.GROUPING,
+      StatementType.CONTAINER, StatementType.DESCRIPTION, StatementType.UNKNOWN);
+
+  /**
+   * Wraps a parser so that the default implementation of skipStatement(), which reads every event,
+   * is used.
+   */
+  private static YangPullParser withDefaultSkip(YangPullParser ypp) {
+    return new YangPullParser() {
+      @Override
+      public EventType next() throws IOException, YangPullParserException {
+        return ypp.next();
+      }
+
+      @Override
+      public int getDepth() {
+        return ypp.getDepth();
+      }
+
+      @Override
+      public EventType getEventType() {
+        return ypp.getEventType();
+      }
+
+      @Override
+      public StatementType getStatementType() {
+        return ypp.getStatementType();
+      }
+
+      @Override
+      public String getNamespace() {
+        return ypp.getNamespace();
+      }
+
+      @Override
+      public String getIdentifier() {
+        return ypp.getIdentifier();
+      }
+
+      @Override
+      public String getArgument() {
+        return ypp.getArgument();
+      }
+    };
+  }
+
+  private static void assertSameEventsSkipping(YangPullParser expected, YangPullParser actual)
+      throws Exception {
+    EventType eventType = expected.next();
+    assertEquals(eventType, actual.next());
+    while (true) {
+      assertEquals(expected.getDepth(), actual.getDepth());
+      assertEquals(expected.getStatementType(), actual.getStatementType());
+      assertEquals(expected.getNamespace(), actual.getNamespace());
+      assertEquals(expected.getIdentifier(), actual.getIdentifier());
+      assertEquals(expected.getArgument(), actual.getArgument());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+      if (eventType == EventType.STATEMENT_START && 1 < expected.getDepth()
+          && YppTest12SkipStatement.SKIPPED_STATEMENTS.contains(expected.getStatementType())) {
+        eventType = expected.skipStatement();
+        assertEquals(eventType, actual.skipStatement());
+      } else {
+        eventType = expected.next();
+        assertEquals(eventType, actual.next());
+      }
+    }
+  }
+
+  private static ByteBuffer toBuffer(String content) {
+    return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void assertSkippedInAllEngines(String content) throws Exception {
+    YppTest12SkipStatement.assertSameEventsSkipping(
+        YppTest12SkipStatement.withDefaultSkip(new YangPullParserImpl(new StringReader(content))),
+        new YangPullParserImpl(new StringReader(content), LexerEngine.ANTLR));
+    YppTest12SkipStatement.assertSameEventsSkipping(
+        YppTest12SkipStatement.withDefaultSkip(new YangPullParserImpl(new StringReader(content))),
+        new YangPullParserImpl(new StringReader(content), LexerEngine.SCANNER));
+    YppTest12SkipStatement.assertSameEventsSkipping(
+        YppTest12SkipStatement.withDefaultSkip(new YangPullParserImpl(new StringReader(content))),
+        YangPullParserImpl.fromBytes(YppTest12SkipStatement.toBuffer(content)));
+  }
+
+  @Test
+  public void SkippedStatementsAreSameAsReadingAllEvents() throws Exception {
+    YppTest12SkipStatement.assertSkippedInAllEngines(YppTest12SkipStatement.TRICKY_MODULE);
+  }
+
+  @Test
+  public void SkippedStatementsAreSameAsReadingAllEventsForTestData() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      YppTest12SkipStatement.assertSkippedInAllEngines(
+          new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void StatementEndingWithSemicolonIsSkippedToItsEnd() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("leaf l; leaf m;"));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+    assertEquals("l", ypp.getIdentifier());
+    assertEquals(0, ypp.getDepth());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("m", ypp.getIdentifier());
+  }
+
+  @Test
+  public void ArgumentSurvivesSkippingLargeBlock() throws Exception {
+    StringBuilder sb = new StringBuilder("ex:block \"the argument\" {\n");
+    for (int i = 0; i < 10000; i++) {
+      sb.append("  container c").append(i).append(" { description \"}\"; }\n");
+    }
+    sb.append("}\nleaf after;\n");
+    String content = sb.toString();
+
+    YangPullParser[] parsers = new YangPullParser[] {
+        new YangPullParserImpl(new StringReader(content)),
+        YangPullParserImpl.fromBytes(YppTest12SkipStatement.toBuffer(content))};
+    for (YangPullParser ypp : parsers) {
+      assertEquals(EventType.STATEMENT_START, ypp.next());
+      assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+      assertEquals(StatementType.UNKNOWN, ypp.getStatementType());
+      assertEquals("ex", ypp.getNamespace());
+      assertEquals("block", ypp.getIdentifier());
+      assertEquals("the argument", ypp.getArgument());
+      assertEquals(EventType.STATEMENT_START, ypp.next());
+      assertEquals("after", ypp.getIdentifier());
+    }
+  }
+
+  @Test
+  public void UnclosedBlockIsSkippedToEndOfModule() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("container c { leaf l;"));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.END_MODULE, ypp.skipStatement());
+  }
+
+  @Test
+  public void InvalidTokenStopsSkipping() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("container c { leaf \"a\\q\"; }"));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    try {
+      ypp.skipStatement();
+      fail();
+    } catch (YangPullParserException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void SkippingOtherThanStatementStartIsIllegal() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("leaf l;"));
+    try {
+      ypp.skipStatement();
+      fail();
+    } catch (IllegalStateException e) {
+      // success
+    }
+    ypp.next();
+    ypp.next();
+    try {
+      ypp.skipStatement();
+      fail();
+    } catch (IllegalStateException e) {
+      // success
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangPullParserImpl.LexerEngine;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest13StatementFilter {
+
+  private static final Set<StatementType> HEADER_STATEMENTS =
+      EnumSet.of(StatementType.MODULE, StatementType.SUBMODULE, StatementType.BELONGS_TO,
+          StatementType.IMPORT, StatementType.INCLUDE, StatementType.REVISION,
+          StatementType.NAMESPACE, StatementType.PREFIX);
+
+  private static final Set<StatementType> DATA_DEFINITION_STATEMENTS =
+      EnumSet.of(StatementType.MODULE, StatementType.CONTAINER, StatementType.LEAF,
+          StatementType.LEAF_LIST, StatementType.LIST, StatementType.CHOICE, StatementType.CASE,
+          StatementType.ANYDATA, StatementType.ANYXML, StatementType.USES);
+
+  /**
+   * Reads all the events and skips the statements which are not in the filter, as a client
+   * filtering the events would do.
+   */
+  private static void assertSameEventsAsClientFilter(Set<StatementType> filter,
+      YangPullParser all, YangPullParser filtered) throws Exception {
+    while (true) {
+      EventType eventType = all.next();
+      while (eventType == EventType.STATEMENT_START
+          && !filter.contains(all.getStatementType())) {
+        all.skipStatement();
+        eventType = all.next();
+      }
+      assertEquals(eventType, filtered.next());
+      assertEquals(all.getDepth(), filtered.getDepth());
+      assertEquals(all.getStatementType(), filtered.getStatementType());
+      assertEquals(all.getNamespace(), filtered.getNamespace());
+      assertEquals(all.getIdentifier(), filtered.getIdentifier());
+      assertEquals(all.getArgument(), filtered.getArgument());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+  }
+
+  private static void assertFilteredInAllEngines(Set<StatementType> filter, String content)
+      throws Exception {
+    YppTest13StatementFilter.assertSameEventsAsClientFilter(filter,
+        new YangPullParserImpl(new StringReader(content)),
+        new YangPullParserImpl(new StringReader(content), LexerEngine.ANTLR, filter));
+    YppTest13StatementFilter.assertSameEventsAsClientFilter(filter,
+        new YangPullParserImpl(new StringReader(content)),
+        new YangPullParserImpl(new StringReader(content), LexerEngine.SCANNER, filter));
+    YppTest13StatementFilter.assertSameEventsAsClientFilter(filter,
+        new YangPullParserImpl(new StringReader(content)),
+        YangPullParserImpl.fromBytes(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)),
+            LexerEngine.BYTE_SCANNER, filter));
+  }
+
+  @Test
+  public void FilteredEventsAreSameAsClientFilterForTestData() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      YppTest13StatementFilter.assertFilteredInAllEngines(
+          YppTest13StatementFilter.HEADER_STATEMENTS, content);
+      YppTest13StatementFilter.assertFilteredInAllEngines(
+          YppTest13StatementFilter.DATA_DEFINITION_STATEMENTS, content);
+    }
+  }
+
+  @Test
+  public void ExcludedStatementsAreSkippedAnywhere() throws Exception {
+    String content = "module m {\n  description \"{ not a block\";\n  leaf a { type string; }\n"
+        + "  ex:ext '}' { leaf b; }\n  container c {\n    description x;\n    leaf d;\n"
+        + "    must \"../a\" { error-message ';'; }\n  }\n  leaf e;\n}\n";
+    YppTest13StatementFilter.assertFilteredInAllEngines(
+        EnumSet.of(StatementType.MODULE, StatementType.CONTAINER, StatementType.LEAF), content);
+    YppTest13StatementFilter.assertFilteredInAllEngines(
+        EnumSet.complementOf(EnumSet.of(StatementType.DESCRIPTION, StatementType.UNKNOWN)),
+        content);
+  }
+
+  @Test
+  public void ArgumentsOfExcludedStatementsAreNotInterned() throws Exception {
+    StringBuilder sb = new StringBuilder("module m {\n  namespace \"urn:m\";\n");
+    for (int i = 0; i < 1000; i++) {
+      sb.append("  leaf l").append(i).append(" { type t").append(i).append("; }\n");
+    }
+    sb.append("}\n");
+    String content = sb.toString();
+
+    YangPullParserImpl ypp = new YangPullParserImpl(new StringReader(content), LexerEngine.SCANNER,
+        EnumSet.of(StatementType.MODULE, StatementType.NAMESPACE));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("m", ypp.getIdentifier());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("urn:m", ypp.getArgument());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(StatementType.MODULE, ypp.getStatementType());
+    assertEquals(EventType.END_MODULE, ypp.next());
+    assertTrue(ypp.symbolTable.size() < 10);
+  }
+
+  @Test
+  public void NothingIsReportedWithEmptyFilter() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(new StringReader("module m { leaf l; }"),
+        LexerEngine.SCANNER, EnumSet.noneOf(StatementType.class));
+    assertEquals(EventType.END_MODULE, ypp.next());
+  }
+
+  @Test
+  public void InvalidTokenInExcludedStatementIsReported() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(
+        new StringReader("module m { description \"a\\q\"; }"), LexerEngine.SCANNER,
+        EnumSet.of(StatementType.MODULE));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    try {
+      ypp.next();
+      fail();
+    } catch (YangPullParserException e) {
+      // success
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest14ModuleHeader {
+
+  /**
+   * A reader counting the chars read.
+   */
+  private static class CountingReader extends Reader {
+    private final Reader reader;
+    private long count;
+
+    CountingReader(Reader reader) {
+      this.reader = reader;
+      this.count = 0;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      int n = this.reader.read(cbuf, off, len);
+      if (0 < n) {
+        this.count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.reader.close();
+    }
+  }
+
+  @Test
+  public void ModuleHeader() throws Exception {
+    ModuleHeader header;
+    try (Reader reader = Util.getFileReader("testmodule-01moduleheader.yang")) {
+      header = ModuleHeaderScanner.scan(reader);
+    }
+    assertEquals(StatementType.MODULE, header.getStatementType());
+    assertEquals("testmodule-01moduleheader", header.getName());
+    assertEquals("1", header.getYangVersion());
+    assertEquals("urn:ns-01moduleheader", header.getNamespace());
+    assertEquals("pre-01", header.getPrefix());
+    assertNull(header.getBelongsTo());
+    assertNull(header.getRevision());
+    assertTrue(header.getImports().isEmpty());
+    assertTrue(header.getIncludes().isEmpty());
+  }
+
+  @Test
+  public void Linkage() throws Exception {
+    ModuleHeader header = ModuleHeaderScanner
+        .scan(new File("./test/testdata", "testmodule-01linkage.yang").toPath());
+    assertEquals("testmodule-01linkage", header.getName());
+
+    List<ModuleHeader.Linkage> includes = header.getIncludes();
+    assertEquals(2, includes.size());
+    assertEquals(StatementType.INCLUDE, includes.get(0).getStatementType());
+    assertEquals("submodule-01", includes.get(0).getName());
+    assertNull(includes.get(0).getRevisionDate());
+    assertEquals("submodule-02", includes.get(1).getName());
+    assertEquals("2019-01-03", includes.get(1).getRevisionDate());
+
+    List<ModuleHeader.Linkage> imports = header.getImports();
+    assertEquals(1, imports.size());
+    assertEquals(StatementType.IMPORT, imports.get(0).getStatementType());
+    assertEquals("testmodule-01revision", imports.get(0).getName());
+    assertEquals("em01", imports.get(0).getPrefix());
+    assertEquals("2008-02-15", imports.get(0).getRevisionDate());
+  }
+
+  @Test
+  public void NewestRevision() throws Exception {
+    String module = "module m {\n  namespace \"urn:m\";\n  prefix m;\n"
+        + "  organization \"org\";\n  revision 2009-03-07 { description \"2nd\"; }\n"
+        + "  revision 2010-04-21;\n  revision 2007-01-01 { reference \"1st\"; }\n"
+        + "  container c;\n  revision 2020-01-01;\n}\n";
+    ModuleHeader header = ModuleHeaderScanner.scan(new StringReader(module));
+    assertEquals("2010-04-21", header.getRevision());
+  }
+
+  @Test
+  public void Submodule() throws Exception {
+    String submodule = "submodule s {\n  yang-version 1.1;\n  belongs-to m { prefix mp; }\n"
+        + "  import n { prefix np; }\n  ex:ext \"before the body\";\n  leaf l;\n"
+        + "  import after-body { prefix a; }\n}\n";
+    ModuleHeader header = ModuleHeaderScanner.scan(new StringReader(submodule));
+    assertEquals(StatementType.SUBMODULE, header.getStatementType());
+    assertEquals("s", header.getName());
+    assertEquals("1.1", header.getYangVersion());
+    assertNull(header.getNamespace());
+    assertEquals("m", header.getBelongsTo());
+    assertEquals("mp", header.getPrefix());
+    assertEquals(1, header.getImports().size());
+    assertEquals("n", header.getImports().get(0).getName());
+  }
+
+  @Test
+  public void ScanningStopsAtBody() throws Exception {
+    CountingReader reader = new CountingReader(Util.getGeneratedModuleReader(100000));
+    YangPullParser ypp = new YangPullParserImpl(reader);
+    ModuleHeader header = ModuleHeaderScanner.scan(ypp);
+    assertEquals("generated", header.getName());
+    assertEquals("urn:generated", header.getNamespace());
+    assertEquals(EventType.STATEMENT_START, ypp.getEventType());
+    assertEquals(StatementType.CONTAINER, ypp.getStatementType());
+    assertTrue(reader.count + " chars read", reader.count <= YangScanner.DEFAULT_BUFFER_SIZE);
+  }
+
+  @Test
+  public void NotModule() throws Exception {
+    try {
+      ModuleHeaderScanner.scan(new StringReader("leaf l;"));
+      fail();
+    } catch (YangPullParserException e) {
+      // success
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangPullParserImpl.LexerEngine;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest15EventBatch {
+
+  /**
+   * Wraps a parser so that the default implementation of nextBatch() is used.
+   */
+  private static YangPullParser withDefaultBatch(YangPullParser ypp) {
+    return new YangPullParser() {
+      @Override
+      public EventType next() throws IOException, YangPullParserException {
+        return ypp.next();
+      }
+
+      @Override
+      public int getDepth() {
+        return ypp.getDepth();
+      }
+
+      @Override
+      public EventType getEventType() {
+        return ypp.getEventType();
+      }
+
+      @Override
+      public StatementType getStatementType() {
+        return ypp.getStatementType();
+      }
+
+      @Override
+      public String getNamespace() {
+        return ypp.getNamespace();
+      }
+
+      @Override
+      public String getIdentifier() {
+        return ypp.getIdentifier();
+      }
+
+      @Override
+      public String getArgument() {
+        return ypp.getArgument();
+      }
+    };
+  }
+
+  private static void assertSameEventsInBatches(YangPullParser expected, YangPullParser actual,
+      int capacity) throws Exception {
+    EventBuffer buffer = new EventBuffer(capacity);
+    while (true) {
+      int n = actual.nextBatch(buffer);
+      assertEquals(n, buffer.size());
+      assertTrue(0 < n && n <= capacity);
+      SymbolTable symbolTable = buffer.getSymbolTable();
+      for (int i = 0; i < n; i++) {
+        EventType eventType = expected.next();
+        assertEquals(eventType.ordinal(), buffer.getEventTypes()[i]);
+        assertEquals(eventType, buffer.getEventType(i));
+        assertEquals(expected.getDepth(), buffer.getDepths()[i]);
+        assertEquals(expected.getStatementType(), buffer.getStatementType(i));
+        assertEquals(expected.getNamespace(),
+            symbolTable.getSymbol(buffer.getNamespaceIds()[i]));
+        assertEquals(expected.getIdentifier(),
+            symbolTable.getSymbol(buffer.getIdentifierIds()[i]));
+        assertEquals(expected.getArgument(), buffer.getArgument(i));
+        if (eventType == EventType.END_MODULE) {
+          assertEquals(n - 1, i);
+          assertEquals(EventBuffer.NO_STATEMENT, buffer.getStatementTypes()[i]);
+          assertEquals(EventType.END_MODULE, actual.getEventType());
+          assertEquals(0, actual.nextBatch(buffer));
+          assertEquals(0, buffer.size());
+          return;
+        }
+      }
+    }
+  }
+
+  private static void assertBatchesInAllEngines(String content, int capacity) throws Exception {
+    YppTest15EventBatch.assertSameEventsInBatches(
+        new YangPullParserImpl(new StringReader(content)),
+        new YangPullParserImpl(new StringReader(content), LexerEngine.ANTLR), capacity);
+    YppTest15EventBatch.assertSameEventsInBatches(
+        new YangPullParserImpl(new StringReader(content)),
+        new YangPullParserImpl(new StringReader(content), LexerEngine.SCANNER), capacity);
+    YppTest15EventBatch.assertSameEventsInBatches(
+        new YangPullParserImpl(new StringReader(content)),
+        YangPullParserImpl.fromBytes(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8))),
+        capacity);
+    YppTest15EventBatch.assertSameEventsInBatches(
+        new YangPullParserImpl(new StringReader(content)),
+        YppTest15EventBatch.withDefaultBatch(new YangPullParserImpl(new StringReader(content))),
+        capacity);
+  }
+
+  @Test
+  public void BatchesAreSameAsEventsForTestData() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      YppTest15EventBatch.assertBatchesInAllEngines(content, 1);
+      YppTest15EventBatch.assertBatchesInAllEngines(content, 7);
+      YppTest15EventBatch.assertBatchesInAllEngines(content, EventBuffer.DEFAULT_CAPACITY);
+    }
+  }
+
+  @Test
+  public void ArgumentsAreCopiedIntoSharedChars() throws Exception {
+    String content = "module m {\n  description \"\u00e9\u3042\";\n  reference 'a' + \"b\";\n"
+        + "  contact \"" + new String(new char[1000]).replace('\0', 'x') + "\";\n}\n";
+    YppTest15EventBatch.assertBatchesInAllEngines(content, 4);
+
+    EventBuffer buffer = new EventBuffer(16);
+    assertEquals(9, new YangPullParserImpl(new StringReader(content)).nextBatch(buffer));
+    assertEquals(EventBuffer.NO_ARGUMENT, buffer.getArgumentOffsets()[0]);
+    int offset = buffer.getArgumentOffsets()[1];
+    assertEquals(2, buffer.getArgumentLengths()[1]);
+    assertEquals('\u00e9', buffer.getArgumentChars()[offset]);
+    assertEquals("ab", buffer.getArgument(3));
+    assertEquals(1000, buffer.getArgumentLengths()[5]);
+  }
+
+  @Test
+  public void IndexOutOfBatch() throws Exception {
+    EventBuffer buffer = new EventBuffer(4);
+    new YangPullParserImpl(new StringReader("leaf l;")).nextBatch(buffer);
+    assertEquals(3, buffer.size());
+    try {
+      buffer.getEventType(3);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // success
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+public class YppTest16EventTape {
+
+  private static String[] readTestData() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    String[] contents = new String[files.length];
+    for (int i = 0; i < files.length; i++) {
+      contents[i] = new String(Files.readAllBytes(files[i].toPath()), StandardCharsets.UTF_8);
+    }
+    return contents;
+  }
+
+  @Test
+  public void ReplayedEventsAreSameAsParsedForTestData() throws Exception {
+    for (String content : YppTest16EventTape.readTestData()) {
+      EventTape tape = EventTape.record(new YangPullParserImpl(new StringReader(content)));
+      for (int pass = 0; pass < 2; pass++) {
+        Util.assertSameEvents(new YangPullParserImpl(new StringReader(content)),
+            tape.newParser());
+      }
+    }
+  }
+
+  @Test
+  public void RecorderPassesEventsThrough() throws Exception {
+    for (String content : YppTest16EventTape.readTestData()) {
+      EventTapeRecorder recorder =
+          new EventTapeRecorder(new YangPullParserImpl(new StringReader(content)));
+      Util.assertSameEvents(new YangPullParserImpl(new StringReader(content)), recorder);
+      Util.assertSameEvents(new YangPullParserImpl(new StringReader(content)),
+          recorder.getTape().newParser());
+    }
+  }
+
+  @Test
+  public void TapeIsNotAvailableBeforeEndOfModule() throws Exception {
+    EventTapeRecorder recorder =
+        new EventTapeRecorder(new YangPullParserImpl(new StringReader("module m { }")));
+    recorder.next();
+    try {
+      recorder.getTape();
+      fail();
+    } catch (IllegalStateException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void SkipJumpsToEndOfStatement() throws Exception {
+    String content = "module m {\n  grouping g { leaf a; container b { leaf c; } }\n"
+        + "  description \"d\";\n  container x { leaf y; }\n}\n";
+    EventTape tape = EventTape.record(new YangPullParserImpl(new StringReader(content)));
+
+    YangPullParser expected = new YangPullParserImpl(new StringReader(content));
+    EventTapeParser actual = tape.newParser();
+    while (true) {
+      EventType eventType = expected.next();
+      assertEquals(eventType, actual.next());
+      if (eventType == EventType.STATEMENT_START
+          && expected.getStatementType() != StatementType.MODULE) {
+        eventType = expected.skipStatement();
+        assertEquals(eventType, actual.skipStatement());
+      }
+      assertEquals(expected.getDepth(), actual.getDepth());
+      assertEquals(expected.getStatementType(), actual.getStatementType());
+      assertEquals(expected.getIdentifier(), actual.getIdentifier());
+      assertEquals(expected.getArgument(), actual.getArgument());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+  }
+
+  @Test
+  public void StringsAreDeduplicated() throws Exception {
+    EventTape tape = EventTape.record(new YangPullParserImpl(Util.getGeneratedModuleReader(1000)));
+    assertEquals(4 + 1000 * 8, tape.size());
+    // generated, urn:generated, c, l, string, and the description
+    assertEquals(6, tape.getSymbolTable().size());
+  }
+
+  @Test
+  public void UnclosedStatementIsReplayed() throws Exception {
+    String content = "module m { leaf l { type string;";
+    EventTape tape = EventTape.record(new YangPullParserImpl(new StringReader(content)));
+    Util.assertSameEvents(new YangPullParserImpl(new StringReader(content)), tape.newParser());
+
+    EventTapeParser ypp = tape.newParser();
+    ypp.next();
+    ypp.next();
+    assertEquals(EventType.END_MODULE, ypp.skipStatement());
+    assertEquals(EventType.END_MODULE, ypp.next());
+  }
+}
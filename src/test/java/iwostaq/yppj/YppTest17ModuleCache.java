@@ -0,0 +1,239 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import iwostaq.yppj.YangPullParser.EventType;
+
+public class YppTest17ModuleCache {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static File[] listTestFiles() {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    return files;
+  }
+
+  private static long countFiles(Path directory, String suffix) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(suffix)).count();
+    }
+  }
+
+  @Test
+  public void ReplayedEventsAreSameAsParsedFromFile() throws Exception {
+    for (File file : YppTest17ModuleCache.listTestFiles()) {
+      EventTape tape = EventTape.record(YangPullParserImpl.fromPath(file.toPath()));
+      Path tapeFile = this.folder.getRoot().toPath().resolve(file.getName() + ".ypt");
+      EventTapeFile.write(tape, tapeFile);
+
+      Util.assertSameEvents(YangPullParserImpl.fromPath(file.toPath()),
+          EventTapeFileParser.fromPath(tapeFile));
+    }
+  }
+
+  @Test
+  public void SkipJumpsToEndOfStatementInFile() throws Exception {
+    String content = "module m {\n  grouping g { leaf a; container b { leaf c; } }\n"
+        + "  description \"\u00e9\";\n  container x { leaf y; }\n}\n";
+    Path tapeFile = this.folder.newFile().toPath();
+    EventTapeFile.write(EventTape.record(new YangPullParserImpl(new StringReader(content))),
+        tapeFile);
+
+    YangPullParser expected = new YangPullParserImpl(new StringReader(content));
+    YangPullParser actual = EventTapeFileParser.fromPath(tapeFile);
+    while (true) {
+      EventType eventType = expected.next();
+      assertEquals(eventType, actual.next());
+      if (eventType == EventType.STATEMENT_START && 1 < expected.getDepth()) {
+        eventType = expected.skipStatement();
+        assertEquals(eventType, actual.skipStatement());
+      }
+      assertEquals(expected.getDepth(), actual.getDepth());
+      assertEquals(expected.getStatementType(), actual.getStatementType());
+      assertEquals(expected.getIdentifier(), actual.getIdentifier());
+      assertEquals(expected.getArgument(), actual.getArgument());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+  }
+
+  @Test
+  public void SecondOpenHitsCache() throws Exception {
+    ModuleCache cache = new ModuleCache(this.folder.getRoot().toPath().resolve("cache"));
+    for (File file : YppTest17ModuleCache.listTestFiles()) {
+      YangPullParser first = cache.open(file.toPath());
+      assertFalse(first instanceof EventTapeFileParser);
+      Util.assertSameEvents(YangPullParserImpl.fromPath(file.toPath()), first);
+
+      YangPullParser second = cache.open(file.toPath());
+      assertTrue(second instanceof EventTapeFileParser);
+      Util.assertSameEvents(YangPullParserImpl.fromPath(file.toPath()), second);
+    }
+    Path directory = this.folder.getRoot().toPath().resolve("cache");
+    assertEquals(0, YppTest17ModuleCache.countFiles(directory, ".tmp"));
+  }
+
+  @Test
+  public void CacheIsKeyedByContent() throws Exception {
+    ModuleCache cache = new ModuleCache(this.folder.getRoot().toPath());
+    Path a = this.folder.newFile("a.yang").toPath();
+    Path b = this.folder.newFile("b.yang").toPath();
+    Files.write(a, "module m { leaf l; }".getBytes(StandardCharsets.UTF_8));
+    Files.write(b, "module m { leaf l; }".getBytes(StandardCharsets.UTF_8));
+
+    cache.open(a);
+    assertTrue(cache.open(b) instanceof EventTapeFileParser);
+
+    Files.write(b, "module m { leaf k; }".getBytes(StandardCharsets.UTF_8));
+    YangPullParser ypp = cache.open(b);
+    assertFalse(ypp instanceof EventTapeFileParser);
+    ypp.next();
+    ypp.next();
+    assertEquals("k", ypp.getIdentifier());
+    assertEquals(2, YppTest17ModuleCache.countFiles(this.folder.getRoot().toPath(),
+        ModuleCache.SUFFIX));
+  }
+
+  @Test
+  public void FileOfOtherVersionIsReplaced() throws Exception {
+    Path directory = this.folder.getRoot().toPath();
+    ModuleCache cache = new ModuleCache(directory);
+    Path module = this.folder.newFile("m.yang").toPath();
+    Files.write(module, "module m { leaf l; }".getBytes(StandardCharsets.UTF_8));
+    cache.open(module);
+
+    Path cacheFile;
+    try (Stream<Path> files = Files.list(directory)) {
+      cacheFile = files.filter(path -> path.toString().endsWith(ModuleCache.SUFFIX)).findFirst()
+          .get();
+    }
+    byte[] bytes = Files.readAllBytes(cacheFile);
+    bytes[7] = (byte) (EventTapeFile.VERSION + 1);
+    Files.write(cacheFile, bytes);
+    try {
+      EventTapeFileParser.fromPath(cacheFile);
+      fail();
+    } catch (IOException e) {
+      // success
+    }
+
+    assertFalse(cache.open(module) instanceof EventTapeFileParser);
+    assertTrue(cache.open(module) instanceof EventTapeFileParser);
+  }
+
+  @Test
+  public void BrokenFileIsReplaced() throws Exception {
+    Path directory = this.folder.getRoot().toPath();
+    ModuleCache cache = new ModuleCache(directory);
+    Path module = this.folder.newFile("m.yang").toPath();
+    Files.write(module, "module m { leaf l { type string; } }".getBytes(StandardCharsets.UTF_8));
+    cache.open(module);
+
+    Path cacheFile;
+    try (Stream<Path> files = Files.list(directory)) {
+      cacheFile = files.filter(path -> path.toString().endsWith(ModuleCache.SUFFIX)).findFirst()
+          .get();
+    }
+    byte[] original = Files.readAllBytes(cacheFile);
+    int record = EventTapeFile.HEADER_SIZE + EventTapeFile.RECORD_SIZE;
+    int stringCount = ByteBuffer.wrap(original).getInt(12);
+    int strings = EventTapeFile.HEADER_SIZE + 6 * EventTapeFile.RECORD_SIZE;
+    // a statement type, an identifier id, a matching index and a string offset out of range.
+    int[][] changes = {{record + 1, 0x7f}, {record + 11, stringCount}, {record + 19, 6},
+        {strings + 7, 0x7f}};
+    for (int[] change : changes) {
+      byte[] bytes = original.clone();
+      bytes[change[0]] = (byte) change[1];
+      Files.write(cacheFile, bytes);
+      try {
+        EventTapeFileParser.fromPath(cacheFile);
+        fail(String.valueOf(change[0]));
+      } catch (IOException e) {
+        // success
+      }
+      YangPullParser ypp = cache.open(module);
+      assertFalse(ypp instanceof EventTapeFileParser);
+      Util.assertSameEvents(YangPullParserImpl.fromPath(module), ypp);
+      assertTrue(cache.open(module) instanceof EventTapeFileParser);
+    }
+  }
+
+  @Test
+  public void CacheIsKeyedByParserVersion() throws Exception {
+    Path directory = this.folder.getRoot().toPath();
+    Path module = this.folder.newFile("m.yang").toPath();
+    byte[] content = "module m { leaf l; }".getBytes(StandardCharsets.UTF_8);
+    Files.write(module, content);
+    new ModuleCache(directory).open(module);
+
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    digest.update(YangPullParserImpl.VERSION.getBytes(StandardCharsets.UTF_8));
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest(content)) {
+      sb.append(String.format("%02x", b));
+    }
+    assertTrue(Files.isRegularFile(directory.resolve(sb + ModuleCache.SUFFIX)));
+  }
+
+  @Test
+  public void TruncatedFileIsRejected() throws Exception {
+    Path tapeFile = this.folder.newFile().toPath();
+    EventTapeFile.write(
+        EventTape.record(new YangPullParserImpl(new StringReader("module m { leaf l; }"))),
+        tapeFile);
+    byte[] bytes = Files.readAllBytes(tapeFile);
+    Files.write(tapeFile, java.util.Arrays.copyOf(bytes, bytes.length - 1),
+        StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      EventTapeFileParser.fromPath(tapeFile);
+      fail();
+    } catch (IOException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void ConcurrentWritersShareCache() throws Exception {
+    Path directory = this.folder.getRoot().toPath().resolve("cache");
+    File file = new File("./test/testdata", "testmodule-02grouping.yang");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        futures.add(executor.submit((Callable<Void>) () -> {
+          Util.assertSameEvents(YangPullParserImpl.fromPath(file.toPath()),
+              new ModuleCache(directory).open(file.toPath()));
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, YppTest17ModuleCache.countFiles(directory, ModuleCache.SUFFIX));
+    assertEquals(0, YppTest17ModuleCache.countFiles(directory, ".tmp"));
+  }
+}
@@ -0,0 +1,213 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest18ModuleSet {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    this.executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  private static int countEvents(Path path, YangPullParser ypp)
+      throws IOException, YangPullParserException {
+    int count = 0;
+    while (ypp.next() != EventType.END_MODULE) {
+      count++;
+    }
+    return count;
+  }
+
+  private static List<Path> listTestFiles() throws IOException {
+    return ModuleSetParser.find(Paths.get("./test/testdata"), ModuleSetParser.DEFAULT_GLOB);
+  }
+
+  private Path writeModule(String name, String content) throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve(name);
+    Files.createDirectories(path.getParent());
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void ResultsAreInOrderOfPaths() throws Exception {
+    List<Path> paths = YppTest18ModuleSet.listTestFiles();
+    assertFalse(paths.isEmpty());
+
+    List<Integer> expected = new ArrayList<>();
+    for (Path path : paths) {
+      expected.add(YppTest18ModuleSet.countEvents(path, YangPullParserImpl.fromPath(path)));
+    }
+
+    ModuleSetParser parser = new ModuleSetParser(this.executor);
+    assertEquals(expected, parser.parse(paths, YppTest18ModuleSet::countEvents));
+
+    List<Path> delivered = new ArrayList<>();
+    parser.parse(paths, YppTest18ModuleSet::countEvents, (path, count) -> delivered.add(path));
+    assertEquals(paths, delivered);
+
+    assertEquals(expected, new ModuleSetParser().parse(paths, YppTest18ModuleSet::countEvents));
+  }
+
+  @Test
+  public void UnorderedCallbackIsNotConcurrent() throws Exception {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      paths.addAll(YppTest18ModuleSet.listTestFiles());
+    }
+    AtomicInteger running = new AtomicInteger();
+    List<Path> delivered = new ArrayList<>();
+
+    new ModuleSetParser(this.executor).setOrdered(false)
+        .parse(paths, YppTest18ModuleSet::countEvents, (path, count) -> {
+          assertEquals(1, running.incrementAndGet());
+          delivered.add(path);
+          running.decrementAndGet();
+        });
+    assertEquals(paths.size(), delivered.size());
+    assertEquals(new HashSet<>(paths), new HashSet<>(delivered));
+  }
+
+  @Test
+  public void SlowCallbackDoesNotBlockTasks() throws Exception {
+    List<Path> paths = YppTest18ModuleSet.listTestFiles().subList(0, 4);
+    // the tasks except the one calling the callback end while the callback is running.
+    CountDownLatch finished = new CountDownLatch(paths.size() - 1);
+    Executor executor = task -> this.executor.execute(() -> {
+      task.run();
+      finished.countDown();
+    });
+    List<Path> delivered = new ArrayList<>();
+    new ModuleSetParser(executor).parse(paths, YppTest18ModuleSet::countEvents,
+        (path, count) -> {
+          if (delivered.isEmpty()) {
+            try {
+              assertTrue(finished.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              throw new IllegalStateException(e);
+            }
+          }
+          delivered.add(path);
+        });
+    assertEquals(paths, delivered);
+  }
+
+  @Test(timeout = 60000)
+  public void NestedParseDoesNotStarveCommonPool() throws Exception {
+    List<Path> paths = YppTest18ModuleSet.listTestFiles();
+    int expected = 0;
+    for (Path path : paths) {
+      expected += YppTest18ModuleSet.countEvents(path, YangPullParserImpl.fromPath(path));
+    }
+
+    List<Path> outer = new ArrayList<>();
+    for (int i = 0; i < ForkJoinPool.getCommonPoolParallelism() * 4; i++) {
+      outer.add(paths.get(i % paths.size()));
+    }
+    List<Integer> totals = new ModuleSetParser().parse(outer, (path, ypp) -> {
+      int total = 0;
+      for (int count : new ModuleSetParser().parse(paths, YppTest18ModuleSet::countEvents)) {
+        total += count;
+      }
+      return total;
+    });
+    for (int total : totals) {
+      assertEquals(expected, total);
+    }
+  }
+
+  @Test
+  public void FindMatchesFileNames() throws Exception {
+    Path a = this.writeModule("a.yang", "module a { }");
+    Path b = this.writeModule("sub/dir/b.yang", "module b { }");
+    this.writeModule("sub/c.txt", "module c { }");
+    this.writeModule("d.yang.bak", "module d { }");
+
+    Path root = this.folder.getRoot().toPath();
+    assertEquals(Arrays.asList(a, b), ModuleSetParser.find(root, ModuleSetParser.DEFAULT_GLOB));
+    assertEquals(Arrays.asList(b), ModuleSetParser.find(root, "b.*"));
+  }
+
+  @Test
+  public void FailureNamesModule() throws Exception {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      paths.add(this.writeModule("ok" + i + ".yang", "module ok { leaf l; }"));
+    }
+    Path broken = this.writeModule("broken.yang", "module broken { leaf l }");
+    paths.add(3, broken);
+
+    try {
+      new ModuleSetParser(this.executor).parse(paths, YppTest18ModuleSet::countEvents);
+      fail();
+    } catch (YangPullParserException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith(broken.toString()));
+      assertNotNull(e.getCause());
+    }
+
+    try {
+      new ModuleSetParser(this.executor).parse(Arrays.asList(paths.get(0),
+          this.folder.getRoot().toPath().resolve("none.yang")), YppTest18ModuleSet::countEvents);
+      fail();
+    } catch (IOException e) {
+      // success
+    }
+  }
+
+  @Test
+  public void ModulesAreOpenedThroughCache() throws Exception {
+    List<Path> paths = YppTest18ModuleSet.listTestFiles();
+    ModuleCache cache = new ModuleCache(this.folder.getRoot().toPath());
+    ModuleSetParser parser = new ModuleSetParser(this.executor).setCache(cache);
+
+    List<Integer> first = parser.parse(paths, YppTest18ModuleSet::countEvents);
+    List<Boolean> hits = parser.parse(paths, (path, ypp) -> ypp instanceof EventTapeFileParser);
+    assertEquals(first, parser.parse(paths, YppTest18ModuleSet::countEvents));
+    assertFalse(hits.contains(false));
+  }
+
+  @Test
+  public void RejectedTasksFail() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    try {
+      new ModuleSetParser(executor).parse(YppTest18ModuleSet.listTestFiles(),
+          YppTest18ModuleSet::countEvents);
+      fail();
+    } catch (java.util.concurrent.RejectedExecutionException e) {
+      // success
+    }
+  }
+}
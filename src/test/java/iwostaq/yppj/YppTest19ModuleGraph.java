@@ -0,0 +1,168 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import iwostaq.yppj.ModuleGraph.Module;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest19ModuleGraph {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path writeModule(String name, String content) throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve(name + ".yang");
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private ModuleGraph build() throws IOException, YangPullParserException {
+    return ModuleGraph.build(
+        ModuleSetParser.find(this.folder.getRoot().toPath(), ModuleSetParser.DEFAULT_GLOB));
+  }
+
+  private static List<List<String>> names(List<List<Module>> lists) {
+    return lists.stream()
+        .map(list -> list.stream().map(Module::toString).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+  }
+
+  private void writeModuleSet() throws IOException {
+    this.writeModule("a", "module a { namespace urn:a; prefix a; leaf l; }");
+    this.writeModule("b", "module b { namespace urn:b; prefix b; import a { prefix a; } }");
+    this.writeModule("c", "module c { namespace urn:c; prefix c;\n"
+        + "  import b { prefix b; } import a { prefix a; } include s; }");
+    this.writeModule("d", "module d { namespace urn:d; prefix d; import a { prefix a; } }");
+    this.writeModule("s", "submodule s { belongs-to c { prefix c; } leaf l; }");
+  }
+
+  @Test
+  public void ModulesAreDividedIntoWaves() throws Exception {
+    this.writeModuleSet();
+    ModuleGraph graph = this.build();
+    graph.check();
+
+    assertEquals(5, graph.getModules().size());
+    assertEquals(Arrays.asList(Arrays.asList("a", "s"), Arrays.asList("b", "d"),
+        Arrays.asList("c")), YppTest19ModuleGraph.names(graph.getWaves()));
+    assertTrue(graph.getCycles().isEmpty());
+
+    Module c = graph.getModule("c", null);
+    assertEquals(Arrays.asList("b", "a", "s"),
+        c.getDependencies().stream().map(Module::toString).collect(Collectors.toList()));
+    assertTrue(c.getMissing().isEmpty());
+    assertEquals(StatementType.SUBMODULE, graph.getModule("s", null).getHeader()
+        .getStatementType());
+  }
+
+  @Test
+  public void ImportIsResolvedByRevision() throws Exception {
+    this.writeModule("m1", "module m { revision 2020-01-01; revision 2019-01-01; }");
+    this.writeModule("m2", "module m { revision 2021-01-01; }");
+    this.writeModule("x", "module x { import m { prefix m; revision-date 2020-01-01; } }");
+    this.writeModule("y", "module y { import m { prefix m; } }");
+    this.writeModule("z", "module z { import m { prefix m; revision-date 2019-01-01; } }");
+    ModuleGraph graph = this.build();
+
+    assertEquals(Arrays.asList("m@2020-01-01"),
+        graph.getModule("x", null).getDependencies().stream().map(Module::toString)
+            .collect(Collectors.toList()));
+    assertEquals(Arrays.asList("m@2021-01-01"),
+        graph.getModule("y", null).getDependencies().stream().map(Module::toString)
+            .collect(Collectors.toList()));
+    assertEquals("m", graph.getModule("z", null).getMissing().get(0).getName());
+    assertEquals("2019-01-01", graph.getModule("z", null).getMissing().get(0).getRevisionDate());
+  }
+
+  @Test
+  public void MissingModulesAreReported() throws Exception {
+    this.writeModule("a", "module a { import none { prefix n; } include b; }");
+    this.writeModule("b", "module b { }");
+    this.writeModule("s", "submodule s { belongs-to t { prefix t; } }");
+    ModuleGraph graph = this.build();
+
+    List<ModuleHeader.Linkage> missing = graph.getModule("a", null).getMissing();
+    assertEquals(2, missing.size());
+    assertEquals(StatementType.IMPORT, missing.get(0).getStatementType());
+    assertEquals("none", missing.get(0).getName());
+    assertEquals(StatementType.INCLUDE, missing.get(1).getStatementType());
+    assertEquals("b", missing.get(1).getName());
+    missing = graph.getModule("s", null).getMissing();
+    assertEquals(StatementType.BELONGS_TO, missing.get(0).getStatementType());
+    assertEquals("t", missing.get(0).getName());
+
+    try {
+      graph.check();
+      fail();
+    } catch (YangPullParserException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("IMPORT none"));
+    }
+  }
+
+  @Test
+  public void CyclesAreReported() throws Exception {
+    this.writeModule("a", "module a { }");
+    this.writeModule("x", "module x { import y { prefix y; } import a { prefix a; } }");
+    this.writeModule("y", "module y { import x { prefix x; } }");
+    this.writeModule("z", "module z { import x { prefix x; } }");
+    this.writeModule("self", "module self { import self { prefix s; } }");
+    ModuleGraph graph = this.build();
+
+    assertEquals(Arrays.asList(Arrays.asList("a")), YppTest19ModuleGraph.names(graph.getWaves()));
+    assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("self"), Arrays.asList("x", "y"))),
+        new HashSet<>(YppTest19ModuleGraph.names(graph.getCycles())));
+
+    try {
+      graph.check();
+      fail();
+    } catch (YangPullParserException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("circular dependency"));
+    }
+  }
+
+  @Test
+  public void DependenciesAreDeliveredFirst() throws Exception {
+    this.writeModuleSet();
+    for (int i = 0; i < 16; i++) {
+      this.writeModule("e" + i,
+          "module e" + i + " { import c { prefix c; } import d { prefix d; } }");
+    }
+    ModuleGraph graph = this.build();
+
+    Set<Path> delivered = ConcurrentHashMap.newKeySet();
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      new ModuleSetParser(executor).setOrdered(false).parse(graph, (path, ypp) -> {
+        ModuleHeader header = ModuleHeaderScanner.scan(ypp);
+        for (Module dependency : graph.getModule(header.getName(), null).getDependencies()) {
+          assertTrue(delivered.contains(dependency.getPath()));
+        }
+        return header.getName();
+      }, (path, name) -> {
+        delivered.add(path);
+        order.add(name);
+      });
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(21, order.size());
+    assertEquals("c", order.get(4));
+  }
+}
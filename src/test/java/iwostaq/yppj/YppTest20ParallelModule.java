@@ -0,0 +1,215 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest20ParallelModule {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    this.executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  private static ByteBuffer generateModule(int count) {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n"
+        + "  prefix g;\n");
+    for (int i = 0; i < count; i++) {
+      sb.append("  container c").append(i).append(" {\n")
+          .append("    description \"a { brace; and \\\" a quote\";\n")
+          .append("    // a comment with }\n")
+          .append("    leaf l { type string; default '}'; }\n")
+          .append("    /* a block comment with { */\n")
+          .append("    ex:ext \"x}y\";\n  }\n")
+          .append("  grouping g").append(i).append(" { leaf m; }\n");
+    }
+    return ByteBuffer.wrap(sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static int countEvents(YangPullParser ypp) throws Exception {
+    int count = 0;
+    while (ypp.next() != EventType.END_MODULE) {
+      count++;
+    }
+    return count;
+  }
+
+  @Test
+  public void EventsAreSameAsSequential() throws Exception {
+    ByteBuffer module = YppTest20ParallelModule.generateModule(1000);
+    ParallelModuleParser ypp = new ParallelModuleParser(module, this.executor, 4096);
+    assertTrue(16 < ypp.getChunkCount());
+    Util.assertSameEvents(YangPullParserImpl.fromBytes(module), ypp);
+    assertEquals(EventType.END_MODULE, ypp.next());
+    assertEquals(0, ypp.getDepth());
+    assertNull(ypp.getStatementType());
+  }
+
+  @Test
+  public void EventsAreSameInTestFiles() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      ByteBuffer module = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+      Util.assertSameEvents(YangPullParserImpl.fromBytes(module),
+          new ParallelModuleParser(module, this.executor, 1));
+    }
+  }
+
+  @Test
+  public void SmallOrUnsplittableInputIsParsedSequentially() throws Exception {
+    ByteBuffer module = YppTest20ParallelModule.generateModule(10);
+    assertEquals(0, new ParallelModuleParser(module).getChunkCount());
+    Util.assertSameEvents(YangPullParserImpl.fromBytes(module), new ParallelModuleParser(module));
+
+    for (String text : new String[] {"module m;", "module m { leaf a; } leaf b;",
+        "module m { leaf a; { }", "module m { leaf a; leaf b; leaf c;"}) {
+      ByteBuffer input = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+      assertEquals(0, new ParallelModuleParser(input, this.executor, 1).getChunkCount());
+    }
+  }
+
+  @Test
+  public void SkipStatementInChunksAndModule() throws Exception {
+    ByteBuffer module = YppTest20ParallelModule.generateModule(100);
+    YangPullParser expected = YangPullParserImpl.fromBytes(module);
+    YangPullParser actual = new ParallelModuleParser(module, this.executor, 256);
+    while (true) {
+      EventType eventType = expected.next();
+      assertEquals(eventType, actual.next());
+      if (eventType == EventType.STATEMENT_START
+          && expected.getStatementType() == StatementType.CONTAINER) {
+        assertEquals(expected.skipStatement(), actual.skipStatement());
+      }
+      assertEquals(expected.getDepth(), actual.getDepth());
+      assertEquals(expected.getIdentifier(), actual.getIdentifier());
+      if (eventType == EventType.END_MODULE) {
+        break;
+      }
+    }
+
+    actual = new ParallelModuleParser(module, this.executor, 256);
+    assertEquals(EventType.STATEMENT_START, actual.next());
+    assertEquals(EventType.STATEMENT_END, actual.skipStatement());
+    assertEquals(StatementType.MODULE, actual.getStatementType());
+    assertEquals("generated", actual.getIdentifier());
+    assertEquals(0, actual.getDepth());
+    assertEquals(EventType.END_MODULE, actual.next());
+  }
+
+  @Test
+  public void ChunksAreParsedAheadUpToParallelism() throws Exception {
+    AtomicInteger submitted = new AtomicInteger();
+    ForkJoinPool pool = new ForkJoinPool(2) {
+      @Override
+      public void execute(Runnable task) {
+        submitted.incrementAndGet();
+        super.execute(task);
+      }
+    };
+    try {
+      ByteBuffer module = YppTest20ParallelModule.generateModule(1000);
+      ParallelModuleParser ypp = new ParallelModuleParser(module, pool, 4096);
+      assertTrue(16 < ypp.getChunkCount());
+      assertEquals(EventType.STATEMENT_START, ypp.next());
+      assertEquals(3, submitted.get());
+      assertEquals(EventType.STATEMENT_START, ypp.next());
+      assertEquals(4, submitted.get());
+      YppTest20ParallelModule.countEvents(ypp);
+      assertEquals(ypp.getChunkCount(), submitted.get());
+
+      submitted.set(0);
+      ypp = new ParallelModuleParser(module, pool, 4096);
+      assertEquals(EventType.STATEMENT_START, ypp.next());
+      assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+      assertEquals(EventType.END_MODULE, ypp.next());
+      assertEquals(3, submitted.get());
+      for (CompletableFuture<EventTape> tape : ypp.tapes) {
+        assertNull(tape);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void ErrorIsThrownInDocumentOrder() throws Exception {
+    String text = new String(YppTest20ParallelModule.generateModule(200).array(),
+        StandardCharsets.UTF_8);
+    int index = text.indexOf("container c150 {");
+    text = text.substring(0, index) + "leaf bad x;\n" + text.substring(index);
+    ByteBuffer module = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+
+    int expectedCount = 0;
+    YangPullParser ypp = YangPullParserImpl.fromBytes(module);
+    try {
+      while (ypp.next() != EventType.END_MODULE) {
+        expectedCount++;
+      }
+      fail();
+    } catch (YangPullParserException e) {
+      // success
+    }
+
+    int count = 0;
+    ypp = new ParallelModuleParser(module, this.executor, 1024);
+    try {
+      while (ypp.next() != EventType.END_MODULE) {
+        count++;
+      }
+      fail();
+    } catch (YangPullParserException e) {
+      // success
+    }
+    assertEquals(expectedCount, count);
+  }
+
+  @Test
+  public void ChunksAreHandledInParallel() throws Exception {
+    ByteBuffer module = YppTest20ParallelModule.generateModule(1000);
+    ParallelModuleParser ypp = new ParallelModuleParser(module, this.executor, 4096);
+    List<Integer> counts = ypp.parseChunks((index, chunk) -> {
+      int count = 0;
+      while (chunk.next() != EventType.END_MODULE) {
+        if (chunk.getEventType() == EventType.STATEMENT_START) {
+          assertTrue(1 <= chunk.getDepth());
+        }
+        count++;
+      }
+      return count;
+    });
+    assertEquals(ypp.getChunkCount(), counts.size());
+    int total = counts.stream().mapToInt(Integer::intValue).sum();
+    assertEquals(YppTest20ParallelModule.countEvents(YangPullParserImpl.fromBytes(module)) - 2,
+        total);
+
+    ypp.next();
+    try {
+      ypp.parseChunks((index, chunk) -> null);
+      fail();
+    } catch (IllegalStateException e) {
+      // success
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.UncheckedYangPullParserException;
+
+public class YppTest21EventStream {
+
+  private static File[] listTestFiles() {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    return files;
+  }
+
+  private static String toString(EventSnapshot event) {
+    return event.getEventType() + " " + event.getDepth() + " " + event.getStatementType() + " "
+        + event.getNamespace() + " " + event.getIdentifier() + " " + event.getArgument();
+  }
+
+  private static List<String> readEvents(YangPullParser ypp) throws Exception {
+    List<String> events = new ArrayList<>();
+    while (ypp.next() != EventType.END_MODULE) {
+      events.add(ypp.getEventType() + " " + ypp.getDepth() + " " + ypp.getStatementType() + " "
+          + ypp.getNamespace() + " " + ypp.getIdentifier() + " " + ypp.getArgument());
+    }
+    return events;
+  }
+
+  private static String generateModule(int count) {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < count; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l { type string; }\n")
+          .append("    description \"a container in a generated module\";\n  }\n");
+    }
+    return sb.append("}\n").toString();
+  }
+
+  @Test
+  public void StreamHasSameEventsAsParser() throws Exception {
+    for (File file : YppTest21EventStream.listTestFiles()) {
+      List<String> expected =
+          YppTest21EventStream.readEvents(YangPullParserImpl.fromPath(file.toPath()));
+
+      assertEquals(expected, YangPullParserImpl.fromPath(file.toPath()).stream()
+          .map(YppTest21EventStream::toString).collect(Collectors.toList()));
+      EventTape tape = EventTape.record(YangPullParserImpl.fromPath(file.toPath()));
+      assertEquals(expected,
+          tape.stream().map(YppTest21EventStream::toString).collect(Collectors.toList()));
+      assertEquals(expected, tape.newParser().stream().map(YppTest21EventStream::toString)
+          .collect(Collectors.toList()));
+      assertEquals(expected, tape.stream().parallel().map(YppTest21EventStream::toString)
+          .collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void ParallelStreamHasSameEvents() throws Exception {
+    String module = YppTest21EventStream.generateModule(20000);
+    List<String> expected =
+        YppTest21EventStream.readEvents(new YangPullParserImpl(new StringReader(module)));
+
+    assertEquals(expected, new YangPullParserImpl(new StringReader(module)).stream().parallel()
+        .map(YppTest21EventStream::toString).collect(Collectors.toList()));
+    assertEquals(20000, new YangPullParserImpl(new StringReader(module)).stream().parallel()
+        .filter(e -> e.getEventType() == EventType.STATEMENT_START
+            && e.getStatementType() == StatementType.LEAF)
+        .count());
+  }
+
+  @Test
+  public void StreamStartsAtCurrentPosition() throws Exception {
+    String module = YppTest21EventStream.generateModule(3);
+    YangPullParser ypp = new YangPullParserImpl(new StringReader(module));
+    ypp.next();
+    ypp.next();
+    List<String> expected =
+        YppTest21EventStream.readEvents(new YangPullParserImpl(new StringReader(module)));
+    assertEquals(expected.subList(2, expected.size()),
+        ypp.stream().map(YppTest21EventStream::toString).collect(Collectors.toList()));
+    assertEquals(EventType.END_MODULE, ypp.getEventType());
+
+    YangPullParser replay = EventTape.record(new YangPullParserImpl(new StringReader(module)))
+        .newParser();
+    replay.next();
+    replay.next();
+    assertEquals(expected.subList(2, expected.size()),
+        replay.stream().map(YppTest21EventStream::toString).collect(Collectors.toList()));
+    assertEquals(EventType.END_MODULE, replay.getEventType());
+    assertEquals(0, replay.stream().count());
+  }
+
+  @Test
+  public void TapeSplitsAtTopLevelStatements() throws Exception {
+    EventTape tape = EventTape.record(
+        new YangPullParserImpl(new StringReader(YppTest21EventStream.generateModule(100))));
+    Spliterator<EventSnapshot> suffix = tape.spliterator();
+    Spliterator<EventSnapshot> prefix = suffix.trySplit();
+    assertNotNull(prefix);
+    assertEquals(tape.size(), prefix.estimateSize() + suffix.estimateSize());
+
+    List<EventSnapshot> first = StreamSupport.stream(prefix, false).collect(Collectors.toList());
+    EventSnapshot last = first.get(first.size() - 1);
+    assertEquals(EventType.STATEMENT_END, last.getEventType());
+    assertEquals(1, last.getDepth());
+
+    assertTrue(suffix.tryAdvance(event -> {
+      assertEquals(EventType.STATEMENT_START, event.getEventType());
+      assertEquals(StatementType.CONTAINER, event.getStatementType());
+      assertEquals(2, event.getDepth());
+    }));
+
+    Spliterator<EventSnapshot> single = EventTape
+        .record(new YangPullParserImpl(new StringReader("module m { leaf l; }"))).spliterator();
+    assertNull(single.trySplit());
+  }
+
+  @Test
+  public void ParserSplitsAtTopLevelStatements() throws Exception {
+    YangPullParser ypp = new YangPullParserImpl(
+        new StringReader(YppTest21EventStream.generateModule(1000)));
+    Spliterator<EventSnapshot> spliterator = ypp.spliterator();
+    Spliterator<EventSnapshot> prefix = spliterator.trySplit();
+    assertTrue(ParserSpliterator.BATCH_SIZE <= prefix.estimateSize());
+    assertEquals(1, ypp.getDepth());
+
+    Spliterator<EventSnapshot> next = spliterator.trySplit();
+    assertTrue(prefix.estimateSize() < next.estimateSize());
+    assertTrue(next.tryAdvance(event -> assertEquals(2, event.getDepth())));
+
+    // the rest of the batch being read is handed off first
+    assertTrue(spliterator.tryAdvance(event -> assertNotNull(event)));
+    assertEquals(ParserSpliterator.BATCH_SIZE - 1, spliterator.trySplit().estimateSize());
+  }
+
+  @Test(expected = UncheckedYangPullParserException.class)
+  public void ErrorIsThrownUnchecked() throws Exception {
+    new YangPullParserImpl(new StringReader("module m { leaf x y; }")).stream().count();
+  }
+}
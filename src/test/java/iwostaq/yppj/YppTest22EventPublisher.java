@@ -0,0 +1,201 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import iwostaq.yppj.EventPublisher.Subscriber;
+import iwostaq.yppj.EventPublisher.Subscription;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest22EventPublisher {
+
+  /**
+   * A reader counting the chars read, which reads a few chars at a time.
+   */
+  private static class CountingReader extends Reader {
+    private final Reader reader;
+    int count = 0;
+    boolean closed = false;
+
+    CountingReader(String text) {
+      this.reader = new StringReader(text);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      if (this.closed) {
+        throw new IOException("closed");
+      }
+      int n = this.reader.read(cbuf, off, Math.min(len, 64));
+      if (0 < n) {
+        this.count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() {
+      this.closed = true;
+    }
+  }
+
+  /**
+   * A subscriber recording the signals, which requests the given number of events at a time.
+   */
+  private static class RecordingSubscriber implements Subscriber<EventSnapshot> {
+    final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    final long batch;
+    final CountDownLatch terminated = new CountDownLatch(1);
+    Subscription subscription;
+    long outstanding;
+    Throwable error;
+    int completions;
+
+    RecordingSubscriber(long batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      if (0 < this.batch) {
+        this.outstanding = this.batch;
+        subscription.request(this.batch);
+      }
+    }
+
+    @Override
+    public void onNext(EventSnapshot item) {
+      this.events.add(item.toString());
+      if (--this.outstanding == 0 && 0 < this.batch) {
+        this.outstanding = this.batch;
+        this.subscription.request(this.batch);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.error = throwable;
+      this.terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      this.completions++;
+      this.terminated.countDown();
+    }
+  }
+
+  private static String generateModule(int count) {
+    StringBuilder sb = new StringBuilder("module generated {\n  namespace \"urn:generated\";\n");
+    for (int i = 0; i < count; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l { type string; }\n  }\n");
+    }
+    return sb.append("}\n").toString();
+  }
+
+  private static List<String> expectedEvents(String module) {
+    return new YangPullParserImpl(new StringReader(module)).stream().map(EventSnapshot::toString)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void AllEventsAreDelivered() throws Exception {
+    String module = YppTest22EventPublisher.generateModule(3000);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (long batch : new long[] {1, 7, 1000, Long.MAX_VALUE}) {
+        CountingReader reader = new CountingReader(module);
+        RecordingSubscriber subscriber = new RecordingSubscriber(batch);
+        new EventPublisher(new YangPullParserImpl(reader), reader, executor).subscribe(subscriber);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+
+        assertNull(subscriber.error);
+        assertEquals(1, subscriber.completions);
+        assertEquals(YppTest22EventPublisher.expectedEvents(module), subscriber.events);
+        assertTrue(reader.closed);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void ParserIsReadOnDemand() throws Exception {
+    String module = YppTest22EventPublisher.generateModule(3000);
+    CountingReader reader = new CountingReader(module);
+    RecordingSubscriber subscriber = new RecordingSubscriber(0);
+    new EventPublisher(new YangPullParserImpl(reader), reader, Runnable::run)
+        .subscribe(subscriber);
+    assertEquals(0, reader.count);
+
+    subscriber.subscription.request(3);
+    assertEquals(3, subscriber.events.size());
+    int count = reader.count;
+    assertTrue(count < module.length() / 10);
+
+    subscriber.subscription.request(100);
+    assertEquals(103, subscriber.events.size());
+    assertEquals(YppTest22EventPublisher.expectedEvents(module).subList(0, 103),
+        subscriber.events);
+
+    subscriber.subscription.cancel();
+    assertTrue(reader.closed);
+    count = reader.count;
+    subscriber.subscription.request(100);
+    assertEquals(103, subscriber.events.size());
+    assertEquals(count, reader.count);
+    assertEquals(0, subscriber.completions);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void CancelInOnNextStopsDelivery() throws Exception {
+    CountingReader reader = new CountingReader(YppTest22EventPublisher.generateModule(100));
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE) {
+      @Override
+      public void onNext(EventSnapshot item) {
+        super.onNext(item);
+        if (this.events.size() == 5) {
+          this.subscription.cancel();
+        }
+      }
+    };
+    new EventPublisher(new YangPullParserImpl(reader), reader, Runnable::run)
+        .subscribe(subscriber);
+    assertEquals(5, subscriber.events.size());
+    assertTrue(reader.closed);
+    assertEquals(0, subscriber.completions);
+  }
+
+  @Test
+  public void ErrorsAreSignaled() throws Exception {
+    CountingReader reader = new CountingReader("module m { leaf x y; }");
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+    EventPublisher publisher =
+        new EventPublisher(new YangPullParserImpl(reader), reader, Runnable::run);
+    publisher.subscribe(subscriber);
+    assertTrue(subscriber.error instanceof YangPullParserException);
+    assertTrue(reader.closed);
+
+    RecordingSubscriber second = new RecordingSubscriber(1);
+    publisher.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+
+    RecordingSubscriber invalid = new RecordingSubscriber(0);
+    EventPublisher.fromReader(new StringReader("module m { }")).subscribe(invalid);
+    invalid.subscription.request(0);
+    assertTrue(invalid.terminated.await(10, TimeUnit.SECONDS));
+    assertTrue(invalid.error instanceof IllegalArgumentException);
+  }
+}
@@ -0,0 +1,258 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest23AsyncParser {
+
+  private static final String MODULE = "module async {\r\n"
+      + "  // a comment with ; { }\r\n"
+      + "  namespace \"urn:async;{}\";\n"
+      + "  prefix a; /* a block comment ; { */\n"
+      + "  description 'single ; quoted' + \"double \\\"quoted\\\" {\" +\n"
+      + "    \"\u00e9\u3042\ud83d\ude00\";\n"
+      + "  a:ext /*x*/arg;\n"
+      + "  a:ext2 //x;\n"
+      + "  ;\n"
+      + "  container c { leaf l { type string; } }\n"
+      + "}\n";
+
+  private static String toString(YangPullParser ypp) {
+    return ypp.getEventType() + " " + ypp.getDepth() + " " + ypp.getStatementType() + " "
+        + ypp.getNamespace() + " " + ypp.getIdentifier() + " " + ypp.getArgument();
+  }
+
+  private static List<String> readEvents(YangPullParser ypp) throws Exception {
+    List<String> events = new ArrayList<>();
+    while (ypp.next() != EventType.END_MODULE) {
+      events.add(YppTest23AsyncParser.toString(ypp));
+    }
+    return events;
+  }
+
+  /**
+   * Feeds the bytes in chunks of random sizes, reading all the events available after each chunk.
+   */
+  private static List<String> feedAndRead(byte[] bytes, Random random, int maxChunkSize)
+      throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    List<String> events = new ArrayList<>();
+    int offset = 0;
+    while (true) {
+      EventType eventType = ypp.next();
+      if (eventType == EventType.END_MODULE) {
+        break;
+      } else if (eventType != EventType.INCOMPLETE) {
+        events.add(YppTest23AsyncParser.toString(ypp));
+      } else if (offset < bytes.length) {
+        assertTrue(ypp.needsInput());
+        int length = Math.min(bytes.length - offset, 1 + random.nextInt(maxChunkSize));
+        ypp.feedInput(bytes, offset, length);
+        offset += length;
+      } else {
+        ypp.endOfInput();
+      }
+    }
+    assertEquals(bytes.length, offset);
+    return events;
+  }
+
+  @Test
+  public void FedInputHasSameEventsAsParser() throws Exception {
+    Random random = new Random(23);
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      List<String> expected =
+          YppTest23AsyncParser.readEvents(YangPullParserImpl.fromPath(file.toPath()));
+
+      assertEquals(file.getName(), expected,
+          YppTest23AsyncParser.feedAndRead(bytes, random, 1));
+      assertEquals(file.getName(), expected,
+          YppTest23AsyncParser.feedAndRead(bytes, random, 64));
+      assertEquals(file.getName(), expected,
+          YppTest23AsyncParser.feedAndRead(bytes, random, 8192));
+    }
+  }
+
+  @Test
+  public void StringsAndCommentsAreSkipped() throws Exception {
+    byte[] bytes = YppTest23AsyncParser.MODULE.getBytes(StandardCharsets.UTF_8);
+    List<String> expected = YppTest23AsyncParser
+        .readEvents(YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes)));
+    assertTrue(expected.contains("STATEMENT_START 2 UNKNOWN a ext /*x*/arg"));
+    assertTrue(expected.contains("STATEMENT_START 2 UNKNOWN a ext2 null"));
+
+    Random random = new Random(23);
+    for (int i = 0; i < 20; i++) {
+      assertEquals(expected, YppTest23AsyncParser.feedAndRead(bytes, random, 1 + i));
+    }
+  }
+
+  @Test
+  public void IncompleteUntilDelimiterIsFed() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    assertEquals(EventType.INCOMPLETE, ypp.next());
+    ypp.feedInput("module m { leaf x".getBytes(StandardCharsets.UTF_8), 0, 17);
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(StatementType.MODULE, ypp.getStatementType());
+    assertEquals(EventType.INCOMPLETE, ypp.next());
+    assertEquals(EventType.INCOMPLETE, ypp.getEventType());
+    assertNull(ypp.getStatementType());
+    assertEquals(1, ypp.getDepth());
+
+    ypp.feedInput(ByteBuffer.wrap(" { description \"a;".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("x", ypp.getIdentifier());
+    assertEquals(EventType.INCOMPLETE, ypp.next());
+
+    ByteBuffer chunk = ByteBuffer.wrap("b\" + 'c'; } }".getBytes(StandardCharsets.UTF_8));
+    ypp.feedInput(chunk);
+    assertFalse(chunk.hasRemaining());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("a;bc", ypp.getArgument());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(StatementType.LEAF, ypp.getStatementType());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(StatementType.MODULE, ypp.getStatementType());
+
+    // the end of the module is not known until the end of the input
+    assertEquals(EventType.INCOMPLETE, ypp.next());
+    assertTrue(ypp.needsInput());
+    ypp.endOfInput();
+    assertFalse(ypp.needsInput());
+    assertEquals(EventType.END_MODULE, ypp.next());
+  }
+
+  @Test
+  public void MultiByteCharIsSplitAcrossChunks() throws Exception {
+    byte[] bytes = "module m { description \"\u00e9\ud83d\ude00\"; }"
+        .getBytes(StandardCharsets.UTF_8);
+    int split = "module m { description \"".length() + 1;
+    for (int i = split; i < split + 5; i++) {
+      AsyncYangPullParser ypp = new AsyncYangPullParser();
+      ypp.feedInput(bytes, 0, i);
+      ypp.feedInput(bytes, i, bytes.length - i);
+      ypp.endOfInput();
+      ypp.next();
+      ypp.next();
+      assertEquals("\u00e9\ud83d\ude00", ypp.getArgument());
+    }
+  }
+
+  @Test
+  public void SkipStatementContinuesAfterInput() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    ypp.feedInput(ByteBuffer.wrap("module m { container c { leaf a;".getBytes("UTF-8")));
+    ypp.next();
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(StatementType.CONTAINER, ypp.getStatementType());
+    assertEquals(EventType.INCOMPLETE, ypp.skipStatement());
+
+    ypp.feedInput(ByteBuffer.wrap(" leaf b; } leaf c; }".getBytes("UTF-8")));
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(StatementType.CONTAINER, ypp.getStatementType());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("c", ypp.getIdentifier());
+  }
+
+  @Test
+  public void SkipStatementAtEndOfInputHasSameDepth() throws Exception {
+    String module = "module m { leaf a { x { y;";
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    ypp.feedInput(ByteBuffer.wrap(module.getBytes(StandardCharsets.UTF_8)));
+    ypp.endOfInput();
+    ypp.next();
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(StatementType.LEAF, ypp.getStatementType());
+    assertEquals(EventType.END_MODULE, ypp.skipStatement());
+
+    YangPullParser expected = YangPullParserImpl
+        .fromBytes(ByteBuffer.wrap(module.getBytes(StandardCharsets.UTF_8)));
+    expected.next();
+    expected.next();
+    assertEquals(EventType.END_MODULE, expected.skipStatement());
+    assertEquals(2, expected.getDepth());
+    assertEquals(expected.getDepth(), ypp.getDepth());
+  }
+
+  @Test
+  public void BatchEndsBeforeIncompleteEvent() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    EventBuffer buffer = new EventBuffer(16);
+    ypp.feedInput(ByteBuffer.wrap("module m { leaf a; leaf".getBytes("UTF-8")));
+    assertEquals(3, ypp.nextBatch(buffer));
+    assertEquals(EventType.INCOMPLETE, ypp.getEventType());
+    assertEquals(0, ypp.nextBatch(buffer));
+
+    ypp.feedInput(ByteBuffer.wrap(" b; }".getBytes("UTF-8")));
+    ypp.endOfInput();
+    assertEquals(4, ypp.nextBatch(buffer));
+    assertEquals(EventType.END_MODULE, ypp.getEventType());
+    assertEquals(0, ypp.nextBatch(buffer));
+  }
+
+  @Test
+  public void MalformedInputIsThrownAfterPrecedingEvents() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    ypp.feedInput(ByteBuffer.wrap("module m { leaf a; leaf \"".getBytes("UTF-8")));
+    ypp.feedInput(ByteBuffer.wrap(new byte[] {(byte) 0xff, '"', ';', '}'}));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    try {
+      ypp.next();
+      fail();
+    } catch (CharacterCodingException e) {
+      // expected
+    }
+  }
+
+  @Test(expected = YangPullParserException.class)
+  public void SyntaxErrorIsThrown() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    ypp.feedInput(ByteBuffer.wrap("module m { leaf x y; }".getBytes("UTF-8")));
+    ypp.endOfInput();
+    while (ypp.next() != EventType.END_MODULE) {
+      // read all
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void InputAfterEndIsRejected() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    ypp.endOfInput();
+    ypp.feedInput(new byte[1], 0, 1);
+  }
+
+  @Test
+  public void StreamEndsAtIncompleteEvent() throws Exception {
+    AsyncYangPullParser ypp = new AsyncYangPullParser();
+    ypp.feedInput(ByteBuffer.wrap("module m { leaf a; leaf".getBytes("UTF-8")));
+    assertEquals(Arrays.asList("m", "a", "a"), ypp.stream()
+        .map(EventSnapshot::getIdentifier).collect(Collectors.toList()));
+    assertEquals(EventType.INCOMPLETE, ypp.getEventType());
+    assertEquals(0, ypp.stream().count());
+
+    ypp.feedInput(ByteBuffer.wrap(" b; }".getBytes("UTF-8")));
+    ypp.endOfInput();
+    assertEquals(Arrays.asList("b", "b", "m"), ypp.stream()
+        .map(EventSnapshot::getIdentifier).collect(Collectors.toList()));
+    assertEquals(EventType.END_MODULE, ypp.getEventType());
+  }
+}
@@ -0,0 +1,125 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangPushParser.StatementHandler;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest24PushParser {
+
+  /**
+   * A handler recording the statements in the same form as readEvents().
+   */
+  private static class RecordingHandler implements StatementHandler {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void startStatement(StatementType statementType, CharSequence namespace,
+        CharSequence identifier, CharSequence argument, int depth) {
+      this.events.add(EventType.STATEMENT_START + " " + depth + " " + statementType + " "
+          + namespace + " " + identifier + " " + (argument == null ? null : argument.toString()));
+    }
+
+    @Override
+    public void endStatement(StatementType statementType, CharSequence namespace,
+        CharSequence identifier, CharSequence argument, int depth) {
+      this.events.add(EventType.STATEMENT_END + " " + depth + " " + statementType + " "
+          + namespace + " " + identifier + " " + (argument == null ? null : argument.toString()));
+    }
+  }
+
+  private static List<String> readEvents(YangPullParser ypp) throws Exception {
+    List<String> events = new ArrayList<>();
+    EventType eventType;
+    while ((eventType = ypp.next()) != EventType.END_MODULE) {
+      int depth = (eventType == EventType.STATEMENT_START) ? ypp.getDepth() : ypp.getDepth() + 1;
+      events.add(eventType + " " + depth + " " + ypp.getStatementType() + " "
+          + ypp.getNamespace() + " " + ypp.getIdentifier() + " " + ypp.getArgument());
+    }
+    return events;
+  }
+
+  @Test
+  public void HandlerReceivesSameStatementsAsParser() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      List<String> expected =
+          YppTest24PushParser.readEvents(YangPullParserImpl.fromPath(file.toPath()));
+
+      RecordingHandler handler = new RecordingHandler();
+      YangPushParser.parse(file.toPath(), handler);
+      assertEquals(file.getName(), expected, handler.events);
+
+      handler = new RecordingHandler();
+      YangPushParser.parse(Util.getFileReader(file.getName()), handler);
+      assertEquals(file.getName(), expected, handler.events);
+    }
+  }
+
+  @Test
+  public void StartAndEndHaveSameDepth() throws Exception {
+    RecordingHandler handler = new RecordingHandler();
+    YangPushParser.parse(new StringReader("module m { container c { leaf l; } }"), handler);
+    assertEquals("STATEMENT_START 1 MODULE null m null", handler.events.get(0));
+    assertEquals("STATEMENT_START 3 LEAF null l null", handler.events.get(2));
+    assertEquals("STATEMENT_END 3 LEAF null l null", handler.events.get(3));
+    assertEquals("STATEMENT_END 1 MODULE null m null", handler.events.get(5));
+    assertEquals(6, handler.events.size());
+  }
+
+  @Test
+  public void ParseStartsAtCurrentPosition() throws Exception {
+    YangPullParserImpl ypp =
+        new YangPullParserImpl(new StringReader("module m { leaf a; leaf b; }"));
+    ypp.next();
+    ypp.next();
+    RecordingHandler handler = new RecordingHandler();
+    YangPushParser.parse(ypp, handler);
+    assertEquals(4, handler.events.size());
+    assertEquals("STATEMENT_END 2 LEAF null a null", handler.events.get(0));
+    assertEquals(EventType.END_MODULE, ypp.getEventType());
+
+    handler = new RecordingHandler();
+    YangPushParser.parse(ypp, handler);
+    assertTrue(handler.events.isEmpty());
+  }
+
+  @Test(expected = YangPullParserException.class)
+  public void ErrorIsThrown() throws Exception {
+    YangPushParser.parse(new StringReader("module m { leaf x y; }"), new RecordingHandler());
+  }
+
+  @Test
+  public void HandlerExceptionStopsParsing() throws Exception {
+    List<StatementType> started = new ArrayList<>();
+    try {
+      YangPushParser.parse(new StringReader("module m { leaf a; leaf b; }"),
+          new StatementHandler() {
+            @Override
+            public void startStatement(StatementType statementType, CharSequence namespace,
+                CharSequence identifier, CharSequence argument, int depth) throws IOException {
+              started.add(statementType);
+              if (statementType == StatementType.LEAF) {
+                throw new IOException("stop");
+              }
+            }
+
+            @Override
+            public void endStatement(StatementType statementType, CharSequence namespace,
+                CharSequence identifier, CharSequence argument, int depth) {}
+          });
+      fail();
+    } catch (IOException e) {
+      assertEquals("stop", e.getMessage());
+    }
+    assertEquals(2, started.size());
+  }
+}
@@ -0,0 +1,174 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.YangPullParserImpl.LexerEngine;
+
+public class YppTest25Position {
+
+  private static final String MODULE = "module m {\n"
+      + "  leaf x;\n"
+      + "  container c {\n"
+      + "    description \"a\n"
+      + "      b\";\n"
+      + "  }\n"
+      + "}\n";
+
+  private static List<String> readPositions(YangPullParser ypp) throws Exception {
+    List<String> positions = new ArrayList<>();
+    EventType eventType;
+    do {
+      eventType = ypp.next();
+      positions.add(eventType + " " + ypp.getStatementType() + " " + ypp.getStartOffset() + "-"
+          + ypp.getEndOffset() + " " + ypp.getLine() + ":" + ypp.getColumn());
+    } while (eventType != EventType.END_MODULE);
+    return positions;
+  }
+
+  /**
+   * Checks that the line and the column of each event agree with its offset in the text, and that
+   * the text at the offset is the keyword of a statement start or the end of a statement.
+   */
+  private static void assertPositions(String text, YangPullParser ypp) throws Exception {
+    EventType eventType;
+    while ((eventType = ypp.next()) != EventType.END_MODULE) {
+      int offset = ypp.getStartOffset();
+      int lineStart = text.lastIndexOf('\n', offset - 1) + 1;
+      int line = 1;
+      for (int i = 0; i < lineStart; i++) {
+        if (text.charAt(i) == '\n') {
+          line++;
+        }
+      }
+      assertEquals(line, ypp.getLine());
+      assertEquals(offset - lineStart + 1, ypp.getColumn());
+
+      char end = text.charAt(ypp.getEndOffset() - 1);
+      if (eventType == EventType.STATEMENT_START) {
+        assertTrue(end == ';' || end == '{');
+        if (ypp.getStatementType() != StatementType.UNKNOWN) {
+          assertTrue(text.startsWith(ypp.getStatementType().name().toLowerCase().replace('_', '-'),
+              offset));
+        }
+      } else {
+        assertEquals(offset + 1, ypp.getEndOffset());
+        assertTrue(end == ';' || end == '}');
+      }
+    }
+  }
+
+  @Test
+  public void EventsHavePositions() throws Exception {
+    List<String> expected = new ArrayList<>();
+    expected.add("STATEMENT_START MODULE 0-10 1:1");
+    expected.add("STATEMENT_START LEAF 13-20 2:3");
+    expected.add("STATEMENT_END LEAF 19-20 2:9");
+    expected.add("STATEMENT_START CONTAINER 23-36 3:3");
+    expected.add("STATEMENT_START DESCRIPTION 41-65 4:5");
+    expected.add("STATEMENT_END DESCRIPTION 64-65 5:9");
+    expected.add("STATEMENT_END CONTAINER 68-69 6:3");
+    expected.add("STATEMENT_END MODULE 70-71 7:1");
+    expected.add("END_MODULE null 72-72 8:1");
+
+    byte[] bytes = YppTest25Position.MODULE.getBytes(StandardCharsets.UTF_8);
+    assertEquals(expected, YppTest25Position.readPositions(
+        new YangPullParserImpl(new StringReader(YppTest25Position.MODULE))));
+    assertEquals(expected, YppTest25Position.readPositions(new YangPullParserImpl(
+        new StringReader(YppTest25Position.MODULE), LexerEngine.ANTLR)));
+    assertEquals(expected,
+        YppTest25Position.readPositions(YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes))));
+    assertEquals(expected, YppTest25Position.readPositions(
+        YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes), LexerEngine.SCANNER)));
+
+    AsyncYangPullParser async = new AsyncYangPullParser();
+    async.feedInput(bytes, 0, bytes.length);
+    async.endOfInput();
+    assertEquals(expected, YppTest25Position.readPositions(async));
+  }
+
+  @Test
+  public void EnginesAgreeOnPositions() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      List<String> expected = YppTest25Position
+          .readPositions(new YangPullParserImpl(Util.getFileReader(file.getName())));
+      assertEquals(file.getName(), expected, YppTest25Position.readPositions(
+          new YangPullParserImpl(Util.getFileReader(file.getName()), LexerEngine.ANTLR)));
+      assertEquals(file.getName(), expected,
+          YppTest25Position.readPositions(YangPullParserImpl.fromPath(file.toPath())));
+      YppTest25Position.assertPositions(text, new YangPullParserImpl(new StringReader(text)));
+    }
+  }
+
+  @Test
+  public void LinesAreCountedAcrossRefills() throws Exception {
+    StringBuilder sb = new StringBuilder("module generated {\n");
+    for (int i = 0; i < 2000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l { type string; }\n")
+          .append("    description \"a container\n      in a generated module\";\n  }\n");
+    }
+    String text = sb.append("}\n").toString();
+    YppTest25Position.assertPositions(text, new YangPullParserImpl(new StringReader(text)));
+    YppTest25Position.assertPositions(text,
+        YangPullParserImpl.fromBytes(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8))));
+    YppTest25Position.assertPositions(text, YangPullParserImpl
+        .fromBytes(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer()));
+  }
+
+  @Test
+  public void ByteScannerCountsBytes() throws Exception {
+    byte[] bytes = "module m { description \"\u00e9\"; leaf x; }".getBytes(StandardCharsets.UTF_8);
+    YangPullParser ypp = YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes));
+    ypp.next();
+    ypp.next();
+    ypp.next();
+    ypp.next();
+    assertEquals(StatementType.LEAF, ypp.getStatementType());
+    assertEquals(29, ypp.getStartOffset());
+    assertEquals(30, ypp.getColumn());
+
+    ypp = YangPullParserImpl.fromBytes(ByteBuffer.wrap(bytes), LexerEngine.SCANNER);
+    ypp.next();
+    ypp.next();
+    ypp.next();
+    ypp.next();
+    assertEquals(28, ypp.getStartOffset());
+    assertEquals(29, ypp.getColumn());
+  }
+
+  @Test
+  public void TrackingCanBeTurnedOff() throws Exception {
+    YangPullParserImpl ypp = new YangPullParserImpl(new StringReader(YppTest25Position.MODULE))
+        .setPositionTracking(false);
+    while (ypp.next() != EventType.END_MODULE) {
+      assertEquals(-1, ypp.getStartOffset());
+      assertEquals(-1, ypp.getEndOffset());
+      assertEquals(-1, ypp.getLine());
+      assertEquals(-1, ypp.getColumn());
+    }
+
+    YangPullParser tape = EventTape
+        .record(new YangPullParserImpl(new StringReader(YppTest25Position.MODULE))).newParser();
+    tape.next();
+    assertEquals(-1, tape.getStartOffset());
+    assertEquals(-1, tape.getLine());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void TrackingCannotBeChangedAfterFirstEvent() throws Exception {
+    YangPullParserImpl ypp = new YangPullParserImpl(new StringReader(YppTest25Position.MODULE));
+    ypp.next();
+    ypp.setPositionTracking(false);
+  }
+}
@@ -0,0 +1,270 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+
+public class YppTest26StatementIndex {
+
+  private static final String MODULE = "module m {\n"
+      + "  leaf x;\n"
+      + "  grouping g {\n"
+      + "    container c { leaf y { type string; } }\n"
+      + "    description \"a\n"
+      + "      b\";\n"
+      + "  }\n"
+      + "  ex:ext arg;\n"
+      + "}\n";
+
+  private static String toString(YangPullParser ypp, int depthShift) {
+    int depth = ypp.getDepth() + depthShift;
+    return ypp.getEventType() + " " + depth + " " + ypp.getStatementType() + " "
+        + ypp.getNamespace() + " " + ypp.getIdentifier() + " " + ypp.getArgument() + " "
+        + ypp.getStartOffset() + "-" + ypp.getEndOffset() + " " + ypp.getLine() + ":"
+        + ypp.getColumn();
+  }
+
+  /**
+   * Checks that the parser opened at each statement reports the same events as the events of the
+   * statement in the whole input.
+   */
+  private static void assertOpenedStatements(StatementIndex index, ByteBuffer bytes)
+      throws Exception {
+    YangPullParser whole = YangPullParserImpl.fromBytes(bytes.duplicate());
+    List<String> all = new ArrayList<>();
+    List<Integer> startOffsets = new ArrayList<>();
+    while (whole.next() != EventType.END_MODULE) {
+      all.add(YppTest26StatementIndex.toString(whole, 0));
+      startOffsets.add(whole.getEventType() == EventType.STATEMENT_START
+          ? whole.getStartOffset() : -1);
+    }
+
+    for (int i = 0; i < index.size(); i++) {
+      YangPullParser ypp = index.open(bytes, i);
+      List<String> events = new ArrayList<>();
+      while (ypp.next() != EventType.END_MODULE) {
+        events.add(YppTest26StatementIndex.toString(ypp, index.getDepth(i) - 1));
+      }
+      assertEquals(index.getEndOffset(i), ypp.getStartOffset());
+
+      int first = startOffsets.indexOf(index.getStartOffset(i));
+      assertEquals(all.subList(first, first + events.size()), events);
+      assertTrue(events.get(events.size() - 1).startsWith(EventType.STATEMENT_END.name()));
+    }
+  }
+
+  @Test
+  public void TopLevelStatementsAreIndexed() throws Exception {
+    ByteBuffer bytes =
+        ByteBuffer.wrap(YppTest26StatementIndex.MODULE.getBytes(StandardCharsets.UTF_8));
+    StatementIndex index = StatementIndex.build(bytes, StatementIndex.TOP_LEVEL);
+    assertEquals(4, index.size());
+    assertEquals(StatementType.MODULE, index.getStatementType(0));
+    assertEquals(1, index.getDepth(0));
+    assertEquals(0, index.getStartOffset(0));
+    assertEquals(YppTest26StatementIndex.MODULE.length() - 1, index.getEndOffset(0));
+
+    assertEquals(StatementType.GROUPING, index.getStatementType(2));
+    assertEquals("g", index.getIdentifier(2));
+    assertEquals(2, index.getDepth(2));
+    assertEquals(3, index.getLine(2));
+    assertEquals(3, index.getColumn(2));
+    assertEquals("grouping", YppTest26StatementIndex.MODULE.substring(index.getStartOffset(2),
+        index.getStartOffset(2) + 8));
+    assertEquals('}', YppTest26StatementIndex.MODULE.charAt(index.getEndOffset(2) - 1));
+
+    assertEquals(StatementType.UNKNOWN, index.getStatementType(3));
+    assertEquals("ex", index.getNamespace(3));
+    assertEquals("ext", index.getIdentifier(3));
+
+    assertEquals(2, index.find(StatementType.GROUPING, "g"));
+    assertEquals(1, index.find(StatementType.LEAF, "x"));
+    assertEquals(-1, index.find(StatementType.LEAF, "y"));
+    assertEquals(-1, index.find(StatementType.CONTAINER, "g"));
+
+    YppTest26StatementIndex.assertOpenedStatements(index, bytes);
+  }
+
+  @Test
+  public void OpenedParserStartsAtStatement() throws Exception {
+    ByteBuffer bytes =
+        ByteBuffer.wrap(YppTest26StatementIndex.MODULE.getBytes(StandardCharsets.UTF_8));
+    StatementIndex index = StatementIndex.build(bytes, StatementIndex.TOP_LEVEL);
+    YangPullParser ypp = index.open(bytes, index.find(StatementType.GROUPING, "g"));
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(StatementType.GROUPING, ypp.getStatementType());
+    assertEquals(1, ypp.getDepth());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(StatementType.CONTAINER, ypp.getStatementType());
+    assertEquals(4, ypp.getLine());
+    assertEquals(5, ypp.getColumn());
+    assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("a\n      b", ypp.getArgument());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.next());
+    assertEquals(StatementType.GROUPING, ypp.getStatementType());
+    assertEquals(EventType.END_MODULE, ypp.next());
+    assertEquals(0, bytes.position());
+  }
+
+  @Test
+  public void DeeperStatementsAreIndexed() throws Exception {
+    ByteBuffer bytes =
+        ByteBuffer.wrap(YppTest26StatementIndex.MODULE.getBytes(StandardCharsets.UTF_8));
+    StatementIndex index = StatementIndex.build(bytes, 3);
+    assertEquals(6, index.size());
+    assertEquals(StatementType.CONTAINER, index.getStatementType(3));
+    assertEquals(3, index.getDepth(3));
+    assertEquals(StatementType.DESCRIPTION, index.getStatementType(4));
+    YppTest26StatementIndex.assertOpenedStatements(index, bytes);
+
+    index = StatementIndex.build(bytes, 1);
+    assertEquals(1, index.size());
+    assertEquals(YppTest26StatementIndex.MODULE.length() - 1, index.getEndOffset(0));
+  }
+
+  @Test
+  public void FilesAreIndexed() throws Exception {
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      ByteBuffer bytes = YangPullParserImpl.map(file.toPath());
+      for (int maxDepth = 1; maxDepth <= 4; maxDepth++) {
+        StatementIndex index = StatementIndex.build(file.toPath(), maxDepth);
+        assertTrue(file.getName(), index.size() > 0);
+        assertEquals(file.getName(), bytes.remaining(), index.getInputLength());
+        YppTest26StatementIndex.assertOpenedStatements(index, bytes);
+      }
+    }
+  }
+
+  @Test
+  public void IndexIsWrittenAndRead() throws Exception {
+    Path directory = Files.createTempDirectory("ypp");
+    try {
+      File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+      for (File file : files) {
+        StatementIndex index = StatementIndex.build(file.toPath(), 3);
+        Path indexPath = directory.resolve(file.getName() + ".idx");
+        index.write(indexPath);
+        assertTrue(StatementIndex.HEADER_SIZE
+            + index.size() * StatementIndex.RECORD_SIZE < Files.size(indexPath));
+
+        StatementIndex read = StatementIndex.read(indexPath);
+        assertEquals(index.size(), read.size());
+        assertEquals(index.getInputLength(), read.getInputLength());
+        for (int i = 0; i < index.size(); i++) {
+          assertEquals(index.getStatementType(i), read.getStatementType(i));
+          assertEquals(index.getDepth(i), read.getDepth(i));
+          assertEquals(index.getNamespace(i), read.getNamespace(i));
+          assertEquals(index.getIdentifier(i), read.getIdentifier(i));
+          assertEquals(index.getStartOffset(i), read.getStartOffset(i));
+          assertEquals(index.getEndOffset(i), read.getEndOffset(i));
+          assertEquals(index.getLine(i), read.getLine(i));
+          assertEquals(index.getColumn(i), read.getColumn(i));
+        }
+        YppTest26StatementIndex.assertOpenedStatements(read, YangPullParserImpl.map(file.toPath()));
+      }
+    } finally {
+      for (File file : directory.toFile().listFiles()) {
+        file.delete();
+      }
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  public void InvalidFileIsRejected() throws Exception {
+    Path path = Files.createTempFile("ypp", ".idx");
+    try {
+      Files.write(path, "not an index file".getBytes(StandardCharsets.UTF_8));
+      try {
+        StatementIndex.read(path);
+        fail();
+      } catch (IOException e) {
+        assertEquals("not a statement index file", e.getMessage());
+      }
+
+      StatementIndex.build(ByteBuffer.wrap("module m { leaf x; }".getBytes("UTF-8")), 2)
+          .write(path);
+      byte[] bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+      try {
+        StatementIndex.read(path);
+        fail();
+      } catch (IOException e) {
+        assertEquals("truncated statement index file", e.getMessage());
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void OtherInputIsRejected() throws Exception {
+    StatementIndex index = StatementIndex
+        .build(ByteBuffer.wrap("module m { leaf x; }".getBytes(StandardCharsets.UTF_8)), 2);
+    index.open(ByteBuffer.wrap("module m { leaf xy; }".getBytes(StandardCharsets.UTF_8)), 1);
+  }
+
+  @Test
+  public void EditedFileIsRejected() throws Exception {
+    Path path = Files.createTempFile("ypp", ".yang");
+    Path indexPath = Files.createTempFile("ypp", ".idx");
+    try {
+      Files.write(path, "module m { leaf x; }".getBytes(StandardCharsets.UTF_8));
+      StatementIndex.build(path).write(indexPath);
+      StatementIndex index = StatementIndex.read(indexPath);
+      YangPullParser ypp = index.open(path, 1);
+      assertEquals(EventType.STATEMENT_START, ypp.next());
+      assertEquals("x", ypp.getIdentifier());
+
+      // the length of the file is kept
+      Files.write(path, "module m { leaf y; }".getBytes(StandardCharsets.UTF_8));
+      try {
+        index.open(path, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("the index is not built from the input", e.getMessage());
+      }
+    } finally {
+      Files.delete(path);
+      Files.delete(indexPath);
+    }
+  }
+
+  @Test
+  public void LargeModuleIsIndexed() throws Exception {
+    StringBuilder sb = new StringBuilder("module generated {\n");
+    for (int i = 0; i < 5000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l { type string; }\n")
+          .append("    description \"a container\n      in a generated module\";\n  }\n");
+    }
+    ByteBuffer bytes =
+        ByteBuffer.wrap(sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+    StatementIndex index = StatementIndex.build(bytes, StatementIndex.TOP_LEVEL);
+    assertEquals(5001, index.size());
+
+    int i = index.find(StatementType.CONTAINER, "c4321");
+    assertEquals(4322, i);
+    assertEquals(2 + 4321 * 5, index.getLine(i));
+    YangPullParser ypp = index.open(bytes, i);
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals("c4321", ypp.getIdentifier());
+    assertEquals(2 + 4321 * 5, ypp.getLine());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(3 + 4321 * 5, ypp.getLine());
+    assertEquals(5, ypp.getColumn());
+  }
+}
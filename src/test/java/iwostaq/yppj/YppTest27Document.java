@@ -0,0 +1,223 @@
+package iwostaq.yppj;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import iwostaq.yppj.YangPullParser.EventType;
+import iwostaq.yppj.YangPullParser.StatementType;
+import iwostaq.yppj.exception.YangPullParserException;
+
+public class YppTest27Document {
+
+  private static final String MODULE = "module m {\n"
+      + "  namespace \"urn:m\";\n"
+      + "  prefix m;\n"
+      + "  leaf a { type string; }\n"
+      + "  container c {\n"
+      + "    leaf b;\n"
+      + "  }\n"
+      + "  leaf d; leaf e;\n"
+      + "}\n";
+
+  private static final String[] INSERTIONS = {"", "x", " ", "\n", "\r", "\r\n", ";", "{", "}",
+      "\"", "'", "/*", "*/", "/**/", "*", "/", "//", "leaf y;", " leaf z { type int8; }\n",
+      "container q {\n  leaf r;\n}\n", "description \"a\n  b\";"};
+
+  private static List<String> readEvents(YangPullParser ypp) throws Exception {
+    List<String> events = new ArrayList<>();
+    EventType eventType;
+    do {
+      eventType = ypp.next();
+      events.add(eventType + " " + ypp.getDepth() + " " + ypp.getStatementType() + " "
+          + ypp.getNamespace() + " " + ypp.getIdentifier() + " " + ypp.getArgument() + " "
+          + ypp.getStartOffset() + "-" + ypp.getEndOffset() + " " + ypp.getLine() + ":"
+          + ypp.getColumn());
+    } while (eventType != EventType.END_MODULE);
+    return events;
+  }
+
+  private static List<String> parseText(String text) throws Exception {
+    return YppTest27Document.readEvents(new YangPullParserImpl(new StringReader(text)));
+  }
+
+  /**
+   * Applies random edits, checking that the document has the same events as the edited text parsed
+   * from the top, or fails as it does.
+   */
+  private static void editRandomly(String text, Random random, int count) throws Exception {
+    YangDocument doc = YangDocument.parse(text);
+    assertEquals(YppTest27Document.parseText(text), YppTest27Document.readEvents(doc.newParser()));
+    for (int i = 0; i < count; i++) {
+      int offset = random.nextInt(text.length() + 1);
+      int removedLength = Math.min(text.length() - offset, random.nextInt(4));
+      String inserted =
+          YppTest27Document.INSERTIONS[random.nextInt(YppTest27Document.INSERTIONS.length)];
+      String edited =
+          text.substring(0, offset) + inserted + text.substring(offset + removedLength);
+
+      List<String> expected = null;
+      Class<?> expectedError = null;
+      try {
+        expected = YppTest27Document.parseText(edited);
+      } catch (YangPullParserException | RuntimeException e) {
+        expectedError = e.getClass();
+      }
+      try {
+        YangDocument next = doc.edit(offset, removedLength, inserted);
+        assertNull(edited, expectedError);
+        assertEquals(edited, next.getText());
+        assertEquals(edited, expected, YppTest27Document.readEvents(next.newParser()));
+        doc = next;
+        text = edited;
+      } catch (YangPullParserException | RuntimeException e) {
+        assertEquals(edited, expectedError, e.getClass());
+      }
+    }
+  }
+
+  @Test
+  public void DocumentHasSameEventsAsParser() throws Exception {
+    YangDocument doc = YangDocument.parse(YppTest27Document.MODULE);
+    assertEquals(YppTest27Document.parseText(YppTest27Document.MODULE),
+        YppTest27Document.readEvents(doc.newParser()));
+    assertEquals(YppTest27Document.MODULE, doc.getText());
+    assertEquals(0, doc.getReparsedStart());
+    assertEquals(YppTest27Document.MODULE.length(), doc.getReparsedEnd());
+
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      assertEquals(file.getName(), YppTest27Document.parseText(text),
+          YppTest27Document.readEvents(YangDocument.parse(text).newParser()));
+    }
+  }
+
+  @Test
+  public void OnlyEditedStatementIsParsed() throws Exception {
+    String text = YppTest27Document.MODULE;
+    YangDocument doc = YangDocument.parse(text);
+    int offset = text.indexOf("leaf b") + 5;
+    YangDocument edited = doc.edit(offset, 1, "bb");
+    assertEquals(text.indexOf("string; }") + 9, edited.getReparsedStart());
+    assertEquals(text.indexOf("leaf d") + 1, edited.getReparsedEnd());
+
+    YangPullParser ypp = edited.newParser();
+    while (!"bb".equals(ypp.getIdentifier())) {
+      ypp.next();
+    }
+    assertEquals(StatementType.LEAF, ypp.getStatementType());
+    assertEquals(3, ypp.getDepth());
+    assertEquals(6, ypp.getLine());
+    assertEquals(5, ypp.getColumn());
+
+    // the document before the edit is not changed.
+    assertEquals(YppTest27Document.parseText(text), YppTest27Document.readEvents(doc.newParser()));
+  }
+
+  @Test
+  public void EditOnLineOfNextStatementParsesIt() throws Exception {
+    String text = YppTest27Document.MODULE;
+    YangDocument doc = YangDocument.parse(text);
+    YangDocument edited = doc.edit(text.indexOf("leaf d") + 5, 1, "dd");
+    assertEquals(text.indexOf("  }\n  leaf d") + 3, edited.getReparsedStart());
+    assertEquals(text.lastIndexOf('}') + 1, edited.getReparsedEnd());
+    assertEquals(
+        YppTest27Document.parseText(edited.getText()),
+        YppTest27Document.readEvents(edited.newParser()));
+  }
+
+  @Test
+  public void UnbalancedEditParsesWholeText() throws Exception {
+    String text = YppTest27Document.MODULE;
+    YangDocument doc = YangDocument.parse(text);
+    YangDocument edited = doc.edit(text.indexOf("leaf a"), 0, "container x {\n");
+    assertEquals(0, edited.getReparsedStart());
+    assertEquals(
+        YppTest27Document.parseText(edited.getText()),
+        YppTest27Document.readEvents(edited.newParser()));
+
+    edited = doc.edit(text.indexOf("module m"), 8, "submodule s");
+    assertEquals(0, edited.getReparsedStart());
+    assertEquals(
+        YppTest27Document.parseText(edited.getText()),
+        YppTest27Document.readEvents(edited.newParser()));
+  }
+
+  @Test(expected = YangPullParserException.class)
+  public void ErrorIsThrown() throws Exception {
+    YangDocument.parse(YppTest27Document.MODULE).edit(YppTest27Document.MODULE.indexOf(";"), 1,
+        " x");
+  }
+
+  @Test
+  public void RandomEditsHaveSameEventsAsParser() throws Exception {
+    Random random = new Random(27);
+    YppTest27Document.editRandomly(YppTest27Document.MODULE, random, 2000);
+    YppTest27Document.editRandomly("module m { leaf a; leaf b; }", random, 500);
+    YppTest27Document.editRandomly("module m {}", random, 200);
+
+    File[] files = new File("./test/testdata").listFiles((dir, name) -> name.endsWith(".yang"));
+    assertNotNull(files);
+    for (File file : files) {
+      String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      YppTest27Document.editRandomly(text, random, 100);
+    }
+  }
+
+  @Test
+  public void SkipStatementJumpsToEnd() throws Exception {
+    YangPullParser ypp = YangDocument.parse(YppTest27Document.MODULE).newParser();
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.STATEMENT_START, ypp.next());
+    assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+    assertEquals(StatementType.NAMESPACE, ypp.getStatementType());
+    while (ypp.getStatementType() != StatementType.CONTAINER) {
+      ypp.next();
+    }
+    assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+    assertEquals(StatementType.CONTAINER, ypp.getStatementType());
+    assertEquals(7, ypp.getLine());
+
+    ypp = YangDocument.parse(YppTest27Document.MODULE).newParser();
+    ypp.next();
+    assertEquals(EventType.STATEMENT_END, ypp.skipStatement());
+    assertEquals(StatementType.MODULE, ypp.getStatementType());
+    assertEquals(EventType.END_MODULE, ypp.next());
+  }
+
+  @Test
+  public void LargeModuleIsEdited() throws Exception {
+    StringBuilder sb = new StringBuilder("module generated {\n");
+    for (int i = 0; i < 5000; i++) {
+      sb.append("  container c").append(i).append(" {\n    leaf l { type string; }\n  }\n");
+    }
+    String text = sb.append("}\n").toString();
+    YangDocument doc = YangDocument.parse(text);
+
+    int offset = text.indexOf("type string", text.indexOf("c2500 "));
+    YangDocument edited = doc.edit(offset + 5, 6, "int32");
+    assertTrue(edited.getReparsedEnd() - edited.getReparsedStart() < 100);
+    String editedText = text.substring(0, offset + 5) + "int32" + text.substring(offset + 11);
+    assertEquals(YppTest27Document.parseText(editedText),
+        YppTest27Document.readEvents(edited.newParser()));
+
+    edited = edited.edit(offset, 0, "}\n  leaf x;\n  container y {\n    ");
+    assertTrue(edited.getReparsedEnd() - edited.getReparsedStart() < 200);
+    editedText = editedText.substring(0, offset) + "}\n  leaf x;\n  container y {\n    "
+        + editedText.substring(offset);
+    assertEquals(YppTest27Document.parseText(editedText),
+        YppTest27Document.readEvents(edited.newParser()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void EditOutOfTextIsRejected() throws Exception {
+    YangDocument.parse(YppTest27Document.MODULE).edit(YppTest27Document.MODULE.length(), 1, "");
+  }
+}
@@ -32,4 +32,18 @@ public class YppTest99Error {
       assertEquals("unexpected token: {", e.getMessage());
     }
   }
+
+  @Test
+  public void unknownToken() {
+    try {
+      YangPullParser ypp = new YangPullParserImpl(new StringReader("module m { 'x{y}'; }"));
+
+      ypp.next();
+      ypp.next();
+      fail();
+    } catch (Exception e) {
+      assertEquals(YangPullParserException.class, e.getClass());
+      assertEquals("unknown token: x{y}", e.getMessage());
+    }
+  }
 }
@@ -13,8 +13,8 @@ public final class AppMain {
           "COMMAND:", //
           "", //
           "help", //
-          "\tDisplays this messages", "crawl <file path>", //
-          "\tcrawls a YANG file given as the argument."};
+          "\tDisplays this messages", "crawl <file path>...", //
+          "\tcrawls the YANG files, or the *.yang files in the directories, given as the arguments."};
 
   public static void main(String[] args) {
     if (args.length < 1) {
@@ -1,11 +1,18 @@
 package iwostaq.yppj.tool;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
+import iwostaq.yppj.ModuleSetParser;
 import iwostaq.yppj.YangPullParser;
 import iwostaq.yppj.YangPullParser.EventType;
 import iwostaq.yppj.YangPullParser.StatementType;
@@ -37,6 +44,12 @@ public final class YangCrawler extends AppMain.AppFunction {
   @Override
   protected void start() throws IOException, YangPullParserException {
 
+    if (1 < super.args.length
+        || (super.args.length == 1 && Files.isDirectory(Paths.get(super.args[0])))) {
+      this.crawlThroughFiles();
+      return;
+    }
+
     Reader fromFileReader = null;
     try {
       if (super.args.length == 0) {
@@ -45,7 +58,7 @@ public final class YangCrawler extends AppMain.AppFunction {
         fromFileReader = new FileReader(super.args[0]);
       }
 
-      this.crawlThroughFile(new YangPullParserImpl(fromFileReader));
+      this.crawlThroughFile(new YangPullParserImpl(fromFileReader), System.out);
     } finally {
       if (fromFileReader != null) {
         fromFileReader.close();
@@ -53,10 +66,38 @@ public final class YangCrawler extends AppMain.AppFunction {
     }
   }
 
-  private void crawlThroughFile(YangPullParser ypp) throws YangPullParserException {
+  /**
+   * Crawls the files and the *.yang files in the directories given as the arguments. The files are
+   * parsed in parallel, and the statements are printed in the order of the files.
+   */
+  private void crawlThroughFiles() throws IOException, YangPullParserException {
+    List<Path> paths = new ArrayList<>();
+    for (String arg : super.args) {
+      Path path = Paths.get(arg);
+      if (Files.isDirectory(path)) {
+        paths.addAll(ModuleSetParser.find(path, ModuleSetParser.DEFAULT_GLOB));
+      } else {
+        paths.add(path);
+      }
+    }
+
+    new ModuleSetParser().parse(paths, (path, ypp) -> {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      PrintStream toStream = new PrintStream(bytes, false, "UTF-8");
+      new YangCrawler().crawlThroughFile(ypp, toStream);
+      toStream.flush();
+      return bytes;
+    }, (path, bytes) -> {
+      System.out.println("# " + path);
+      System.out.write(bytes.toByteArray(), 0, bytes.size());
+    });
+    System.out.flush();
+  }
+
+  private void crawlThroughFile(YangPullParser ypp, PrintStream toStream)
+      throws YangPullParserException {
     assert (ypp != null);
 
-    PrintStream toStream = System.out;
     try {
       while (true) {
         EventType eventType = ypp.next();